@@ -0,0 +1,129 @@
+package org.springframework.samples.petclinic.featureflag.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.samples.petclinic.featureflag.config.FeatureFlagCacheProperties;
+import org.springframework.samples.petclinic.featureflag.config.FlagExposureProperties;
+import org.springframework.samples.petclinic.featureflag.config.FlagMetricsProperties;
+import org.springframework.samples.petclinic.featureflag.config.FlagSnapshotFileProperties;
+import org.springframework.samples.petclinic.featureflag.config.UnknownFlagProperties;
+import org.springframework.samples.petclinic.featureflag.engine.FlagSnapshotFileStore;
+import org.springframework.samples.petclinic.featureflag.engine.FlagSnapshotRegistry;
+import org.springframework.samples.petclinic.featureflag.exposure.FlagExposureRecorder;
+import org.springframework.samples.petclinic.featureflag.exposure.InMemoryExposureSink;
+import org.springframework.samples.petclinic.featureflag.metrics.FlagEvaluationMetrics;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.samples.petclinic.featureflag.repository.FeatureFlagRepository;
+import org.springframework.samples.petclinic.featureflag.service.FeatureFlagEvaluator;
+import org.springframework.samples.petclinic.featureflag.service.UnknownFlagReporter;
+import org.springframework.util.ReflectionUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds flags and a fully wired {@link FeatureFlagEvaluator} without a Spring context or
+ * database, so benchmarks measure evaluation only.
+ */
+final class BenchmarkFlags {
+
+	static final String ENVIRONMENT = "development";
+
+	static final int USERS = 1024;
+
+	// Metrics are published to a registry, as in the application, so their cost is measured
+	static final FlagEvaluationMetrics METRICS = metrics();
+
+	private BenchmarkFlags() {
+	}
+
+	static FeatureFlag flag(String flagKey, StrategyType type, int targetCount) {
+		Map<String, Object> config = new HashMap<>();
+		switch (type) {
+			case PERCENTAGE -> config.put("percentage", 50);
+			case WHITELIST -> config.put("whitelist", userIds(targetCount));
+			case BLACKLIST -> config.put("blacklist", userIds(targetCount));
+			case USER_ATTRIBUTE -> config.put("attributes", Map.of("plan", "premium", "region", "eu"));
+			default -> {
+			}
+		}
+		FeatureFlag flag = new FeatureFlag();
+		flag.setFlagKey(flagKey);
+		flag.setEnabled(true);
+		flag.setStrategyType(type);
+		flag.setStrategyConfig(config);
+		flag.setEnvironment(ENVIRONMENT);
+		return flag;
+	}
+
+	static List<String> userIds(int count) {
+		List<String> ids = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			ids.add("user-" + i);
+		}
+		return ids;
+	}
+
+	/**
+	 * Contexts for {@link #USERS} distinct users, half of them with matching attributes,
+	 * so that every strategy sees both outcomes.
+	 */
+	static FlagContext[] contexts() {
+		FlagContext[] contexts = new FlagContext[USERS];
+		for (int i = 0; i < USERS; i++) {
+			contexts[i] = FlagContext.builder()
+				.userId("user-" + (i * 7))
+				.sessionId("session-" + i)
+				.ipAddress("10.0." + (i >> 8) + "." + (i & 0xFF))
+				.attributes(Map.of("plan", i % 2 == 0 ? "premium" : "free", "region", "eu"))
+				.environment(ENVIRONMENT)
+				.build();
+		}
+		return contexts;
+	}
+
+	static FeatureFlagEvaluator evaluator(List<FeatureFlag> flags) {
+		FeatureFlagRepository repository = (FeatureFlagRepository) Proxy.newProxyInstance(
+			FeatureFlagRepository.class.getClassLoader(), new Class<?>[] { FeatureFlagRepository.class },
+			(proxy, method, args) -> switch (method.getName()) {
+				case "findByEnvironment" -> flags;
+				case "hashCode" -> System.identityHashCode(proxy);
+				case "equals" -> proxy == args[0];
+				case "toString" -> "BenchmarkFlagRepository";
+				default -> throw new UnsupportedOperationException(method.getName());
+			});
+		FlagSnapshotFileProperties fileProperties = new FlagSnapshotFileProperties();
+		fileProperties.setEnabled(false);
+		FlagSnapshotRegistry registry = new FlagSnapshotRegistry(repository,
+			new FlagSnapshotFileStore(fileProperties, JsonMapper.shared()), new FeatureFlagCacheProperties(),
+			new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+
+		FeatureFlagEvaluator evaluator = new FeatureFlagEvaluator();
+		inject(evaluator, "snapshots", registry);
+		inject(evaluator, "metrics", METRICS);
+		inject(evaluator, "unknownFlags", new UnknownFlagReporter(new UnknownFlagProperties()));
+		inject(evaluator, "exposures", new FlagExposureRecorder(new FlagExposureProperties(),
+			new InMemoryExposureSink(), new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class)));
+		return evaluator;
+	}
+
+	private static FlagEvaluationMetrics metrics() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("meterRegistry", new SimpleMeterRegistry());
+		return new FlagEvaluationMetrics(beanFactory.getBeanProvider(MeterRegistry.class), new FlagMetricsProperties());
+	}
+
+	static void inject(Object target, String fieldName, Object value) {
+		Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+		ReflectionUtils.makeAccessible(field);
+		ReflectionUtils.setField(field, target, value);
+	}
+}
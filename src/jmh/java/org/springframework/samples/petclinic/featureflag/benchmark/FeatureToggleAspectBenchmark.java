@@ -0,0 +1,113 @@
+package org.springframework.samples.petclinic.featureflag.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.samples.petclinic.featureflag.annotation.FeatureToggle;
+import org.springframework.samples.petclinic.featureflag.aspect.FeatureToggleAspect;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of guarding a handler with {@link FeatureToggle}: the same handler called
+ * directly and through the aspect proxy, with a bound request as in a servlet thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeatureToggleAspectBenchmark {
+
+	static final String FLAG_KEY = "guarded_flag";
+
+	private GuardedHandler direct;
+
+	private GuardedHandler guarded;
+
+	@Setup
+	public void setUp() {
+		FeatureToggleAspect aspect = new FeatureToggleAspect();
+		BenchmarkFlags.inject(aspect, "evaluator",
+			BenchmarkFlags.evaluator(List.of(BenchmarkFlags.flag(FLAG_KEY, StrategyType.BOOLEAN, 0))));
+		BenchmarkFlags.inject(aspect, "metrics", BenchmarkFlags.METRICS);
+
+		direct = new GuardedHandler();
+		AspectJProxyFactory factory = new AspectJProxyFactory(direct);
+		factory.addAspect(aspect);
+		guarded = factory.getProxy();
+	}
+
+	@State(Scope.Thread)
+	public static class RequestScope {
+
+		private int next;
+
+		private MockHttpServletRequest[] requests;
+
+		@Setup
+		public void bind() {
+			requests = new MockHttpServletRequest[BenchmarkFlags.USERS];
+			for (int i = 0; i < requests.length; i++) {
+				requests[i] = new MockHttpServletRequest("GET", "/owners");
+				requests[i].addHeader("X-User-Id", "user-" + i);
+				requests[i].setRemoteAddr("10.0.0." + (i & 0xFF));
+			}
+		}
+
+		void nextRequest() {
+			RequestContextHolder.setRequestAttributes(
+				new ServletRequestAttributes(requests[next++ & (BenchmarkFlags.USERS - 1)]));
+		}
+
+		@TearDown
+		public void unbind() {
+			RequestContextHolder.resetRequestAttributes();
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Object baseline(RequestScope scope) {
+		scope.nextRequest();
+		return direct.handle();
+	}
+
+	@Benchmark
+	@Threads(1)
+	public Object guarded(RequestScope scope) {
+		scope.nextRequest();
+		return guarded.handle();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public Object guardedMultiThreaded(RequestScope scope) {
+		scope.nextRequest();
+		return guarded.handle();
+	}
+
+	public static class GuardedHandler {
+
+		@FeatureToggle(flagKey = FLAG_KEY)
+		public String handle() {
+			return "owners/findOwners";
+		}
+	}
+}
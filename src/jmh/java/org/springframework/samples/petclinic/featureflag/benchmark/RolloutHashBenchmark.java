@@ -0,0 +1,45 @@
+package org.springframework.samples.petclinic.featureflag.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.featureflag.engine.RolloutBuckets;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Percentage bucketing alone: the original string concatenation and hashCode expression
+ * against {@link RolloutBuckets}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RolloutHashBenchmark {
+
+	private static final String FLAG_KEY = "owner_search";
+
+	private final String[] identifiers = BenchmarkFlags.userIds(BenchmarkFlags.USERS).toArray(String[]::new);
+
+	private final long seed = RolloutBuckets.seed(FLAG_KEY);
+
+	private int next;
+
+	@Benchmark
+	public int concatenatedHashCode() {
+		return Math.abs((FLAG_KEY + identifiers[next++ & (BenchmarkFlags.USERS - 1)]).hashCode()) % 100;
+	}
+
+	@Benchmark
+	public int rolloutBucket() {
+		return RolloutBuckets.bucket(seed, identifiers[next++ & (BenchmarkFlags.USERS - 1)]);
+	}
+}
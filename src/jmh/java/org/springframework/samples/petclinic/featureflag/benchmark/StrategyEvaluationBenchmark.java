@@ -0,0 +1,69 @@
+package org.springframework.samples.petclinic.featureflag.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.samples.petclinic.featureflag.service.FeatureFlagEvaluator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link FeatureFlagEvaluator#isEnabled} per strategy, from snapshot lookup to the
+ * strategy decision, on one thread and on all cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StrategyEvaluationBenchmark {
+
+	private static final String FLAG_KEY = "benchmark_flag";
+
+	@Param({ "BOOLEAN", "PERCENTAGE", "WHITELIST", "BLACKLIST", "USER_ATTRIBUTE" })
+	public StrategyType strategy;
+
+	private FeatureFlagEvaluator evaluator;
+
+	@Setup
+	public void setUp() {
+		evaluator = BenchmarkFlags.evaluator(List.of(BenchmarkFlags.flag(FLAG_KEY, strategy, 100)));
+	}
+
+	@State(Scope.Thread)
+	public static class Caller {
+
+		private final FlagContext[] contexts = BenchmarkFlags.contexts();
+
+		private int next;
+
+		FlagContext nextContext() {
+			return contexts[next++ & (BenchmarkFlags.USERS - 1)];
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean singleThreaded(Caller caller) {
+		return evaluator.isEnabled(FLAG_KEY, caller.nextContext());
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public boolean multiThreaded(Caller caller) {
+		return evaluator.isEnabled(FLAG_KEY, caller.nextContext());
+	}
+}
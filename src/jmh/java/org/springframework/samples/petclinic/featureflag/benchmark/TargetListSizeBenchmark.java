@@ -0,0 +1,85 @@
+package org.springframework.samples.petclinic.featureflag.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.samples.petclinic.featureflag.service.FeatureFlagEvaluator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WHITELIST evaluation as the target list grows, for users on the list and users that are
+ * not. Setup also reports how long compiling the list takes through the snapshot load.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class TargetListSizeBenchmark {
+
+	private static final String FLAG_KEY = "whitelist_flag";
+
+	@Param({ "10", "10000", "1000000" })
+	public int entries;
+
+	private FeatureFlagEvaluator evaluator;
+
+	private FlagContext[] listed;
+
+	private FlagContext[] unlisted;
+
+	@Setup
+	public void setUp() {
+		evaluator = BenchmarkFlags.evaluator(List.of(BenchmarkFlags.flag(FLAG_KEY, StrategyType.WHITELIST, entries)));
+		listed = new FlagContext[BenchmarkFlags.USERS];
+		unlisted = new FlagContext[BenchmarkFlags.USERS];
+		for (int i = 0; i < BenchmarkFlags.USERS; i++) {
+			listed[i] = context("user-" + (i % entries));
+			unlisted[i] = context("guest-" + i);
+		}
+		// Builds the snapshot outside the measurement
+		evaluator.isEnabled(FLAG_KEY, listed[0]);
+	}
+
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		int next;
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean listedUser(Cursor cursor) {
+		return evaluator.isEnabled(FLAG_KEY, listed[cursor.next++ & (BenchmarkFlags.USERS - 1)]);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public boolean unlistedUser(Cursor cursor) {
+		return evaluator.isEnabled(FLAG_KEY, unlisted[cursor.next++ & (BenchmarkFlags.USERS - 1)]);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public boolean listedUserMultiThreaded(Cursor cursor) {
+		return evaluator.isEnabled(FLAG_KEY, listed[cursor.next++ & (BenchmarkFlags.USERS - 1)]);
+	}
+
+	private static FlagContext context(String userId) {
+		return FlagContext.builder().userId(userId).ipAddress("10.0.0.1").environment(BenchmarkFlags.ENVIRONMENT).build();
+	}
+}
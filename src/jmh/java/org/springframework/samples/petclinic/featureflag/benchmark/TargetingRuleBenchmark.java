@@ -0,0 +1,57 @@
+package org.springframework.samples.petclinic.featureflag.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.samples.petclinic.featureflag.engine.rule.TargetingRule;
+import org.springframework.samples.petclinic.featureflag.engine.rule.TargetingRuleParser;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compiled USER_ATTRIBUTE rules, one operator family per parameter. Run with {@code -prof gc}
+ * to check that evaluation stays allocation free.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TargetingRuleBenchmark {
+
+	@Param({ "plan == 'premium' and region in ['eu', 'us']", "seats between 5 and 50 or age >= 18",
+			"appVersion >= semver('2.3.0')", "email matches '[a-z0-9.]+@example\\\\.com'" })
+	public String rule;
+
+	private TargetingRule compiled;
+
+	@SuppressWarnings("unchecked")
+	private final Map<String, String>[] attributes = new Map[BenchmarkFlags.USERS];
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		compiled = TargetingRuleParser.parse(rule);
+		for (int i = 0; i < attributes.length; i++) {
+			attributes[i] = Map.of("plan", i % 2 == 0 ? "premium" : "free", "region", "eu", "seats",
+					Integer.toString(i % 100), "age", Integer.toString(10 + i % 60), "appVersion",
+					"2." + (i % 6) + "." + (i % 3), "email", "user" + i + (i % 2 == 0 ? "@example.com" : "@acme.org"));
+		}
+	}
+
+	@Benchmark
+	public boolean evaluate() {
+		return compiled.test(attributes[next++ & (BenchmarkFlags.USERS - 1)]);
+	}
+}
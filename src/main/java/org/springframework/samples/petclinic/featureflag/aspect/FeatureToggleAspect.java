@@ -7,85 +7,75 @@ import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.samples.petclinic.featureflag.annotation.FeatureToggle;
+import org.springframework.samples.petclinic.featureflag.engine.FlagSnapshotRegistry;
 import org.springframework.samples.petclinic.featureflag.exception.FeatureDisabledException;
-import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.metrics.FlagEvaluationMetrics;
 import org.springframework.samples.petclinic.featureflag.service.FeatureFlagEvaluator;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.servlet.ModelAndView;
 
+import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Aspect
 @Component
 @Slf4j
 public class FeatureToggleAspect {
 
-	@Autowired
-	private FeatureFlagEvaluator evaluator;
-
-	@Around("@annotation(featureToggle)")
-	public Object checkFeatureFlag(ProceedingJoinPoint joinPoint, FeatureToggle featureToggle) throws Throwable {
-
-		String flagKey = featureToggle.flagKey();
+	static final String ENVIRONMENT = FlagSnapshotRegistry.DEFAULT_ENVIRONMENT;
 
-		HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+	private final Map<Method, FeatureToggleMetadata> metadata = new ConcurrentHashMap<>();
 
-		FlagContext context = FlagContext.builder()
-			.userId(request.getHeader("X-User-Id"))
-			.sessionId(request.getSession().getId())
-			.ipAddress(request.getRemoteAddr())
-			.environment("development")
-			.build();
-
-		// Evaluate flag
-		boolean isEnabled = evaluator.isEnabled(flagKey, context);
+	@Autowired
+	private FeatureFlagEvaluator evaluator;
 
-		if (!isEnabled) {
-			log.warn("Feature {} is disabled, blocking execution", flagKey);
+	@Autowired
+	private FlagEvaluationMetrics metrics;
+
+	// Unbound on purpose: binding the annotation makes AspectJ look it up again on every call
+	@Around("@annotation(org.springframework.samples.petclinic.featureflag.annotation.FeatureToggle)")
+	public Object checkFeatureFlag(ProceedingJoinPoint joinPoint) throws Throwable {
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		FeatureToggleMetadata toggle = metadata.get(method);
+		if (toggle == null) {
+			toggle = metadata.computeIfAbsent(method,
+				m -> FeatureToggleMetadata.of(m, AnnotationUtils.findAnnotation(m, FeatureToggle.class)));
+		}
 
-			MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-			Class<?> returnType = signature.getReturnType();
+		HttpServletRequest request = currentRequest();
+		// Targeting values are read from the request only if the flag's strategy needs them
+		if (evaluator.isEnabled(toggle.getFlagKey(), new RequestFlagContext(request, ENVIRONMENT))) {
+			return joinPoint.proceed();
+		}
 
-			if (ResponseEntity.class.isAssignableFrom(returnType)) {
-				return ResponseEntity.status(HttpStatus.FORBIDDEN)
-					.body(Map.of("error", featureToggle.fallbackMessage()));
-			} else if (String.class.isAssignableFrom(returnType)) {
-				request.setAttribute("errorMessage", featureToggle.fallbackMessage());
+		// Counted rather than logged, a disabled or unknown flag would otherwise log every request
+		metrics.recordBlocked(ENVIRONMENT, toggle.getFlagKey());
+		log.debug("Feature {} is disabled, blocking execution", toggle.getFlagKey());
+		switch (toggle.getFallbackKind()) {
+			case RESPONSE_ENTITY:
+				return ResponseEntity.status(HttpStatus.FORBIDDEN).body(toggle.getErrorBody());
+			case VIEW_NAME:
+				request.setAttribute("errorMessage", toggle.getFallbackMessage());
 				return "error";
-			} else if (ModelAndView.class.isAssignableFrom(returnType)) {
+			case MODEL_AND_VIEW:
 				ModelAndView mav = new ModelAndView("error");
-				mav.addObject("errorMessage", featureToggle.fallbackMessage());
+				mav.addObject("errorMessage", toggle.getFallbackMessage());
 				return mav;
-			} else if (featureToggle.throwException()) {
-				throw new FeatureDisabledException(featureToggle.fallbackMessage());
-			} else {
-				throw new FeatureDisabledException(featureToggle.fallbackMessage());
-			}
+			default:
+				throw new FeatureDisabledException(toggle.getFallbackMessage());
 		}
-
-		return joinPoint.proceed();
 	}
 
-
-	private FlagContext buildContextFromRequest() {
-		ServletRequestAttributes attrs = (ServletRequestAttributes)
-			RequestContextHolder.getRequestAttributes();
-
-		if (attrs != null) {
-			HttpServletRequest request = attrs.getRequest();
-			return FlagContext.builder()
-				.userId(request.getHeader("X-User-Id"))
-				.sessionId(request.getSession().getId())
-				.ipAddress(request.getRemoteAddr())
-				.environment(System.getProperty("spring.profiles.active", "development"))
-				.build();
-		}
-		return FlagContext.builder().build();
+	private static HttpServletRequest currentRequest() {
+		RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+		return ((ServletRequestAttributes) attributes).getRequest();
 	}
 }
-
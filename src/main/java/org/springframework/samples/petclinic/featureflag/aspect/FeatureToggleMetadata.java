@@ -0,0 +1,57 @@
+package org.springframework.samples.petclinic.featureflag.aspect;
+
+import lombok.Getter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.featureflag.annotation.FeatureToggle;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * What the aspect needs to know about a guarded method, resolved once per method instead
+ * of on every call.
+ */
+@Getter
+final class FeatureToggleMetadata {
+
+	enum FallbackKind {
+
+		RESPONSE_ENTITY, VIEW_NAME, MODEL_AND_VIEW, EXCEPTION
+
+	}
+
+	private final String flagKey;
+
+	private final String fallbackMessage;
+
+	private final FallbackKind fallbackKind;
+
+	private final Map<String, String> errorBody;
+
+	private FeatureToggleMetadata(String flagKey, String fallbackMessage, FallbackKind fallbackKind) {
+		this.flagKey = flagKey;
+		this.fallbackMessage = fallbackMessage;
+		this.fallbackKind = fallbackKind;
+		this.errorBody = Map.of("error", fallbackMessage);
+	}
+
+	static FeatureToggleMetadata of(Method method, FeatureToggle featureToggle) {
+		return new FeatureToggleMetadata(featureToggle.flagKey(), featureToggle.fallbackMessage(),
+				fallbackKind(method.getReturnType()));
+	}
+
+	private static FallbackKind fallbackKind(Class<?> returnType) {
+		if (ResponseEntity.class.isAssignableFrom(returnType)) {
+			return FallbackKind.RESPONSE_ENTITY;
+		}
+		if (String.class.isAssignableFrom(returnType)) {
+			return FallbackKind.VIEW_NAME;
+		}
+		if (ModelAndView.class.isAssignableFrom(returnType)) {
+			return FallbackKind.MODEL_AND_VIEW;
+		}
+		return FallbackKind.EXCEPTION;
+	}
+
+}
@@ -0,0 +1,130 @@
+package org.springframework.samples.petclinic.featureflag.aspect;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.samples.petclinic.featureflag.annotation.FeatureToggle;
+import org.springframework.samples.petclinic.featureflag.config.UnknownFlagProperties;
+import org.springframework.samples.petclinic.featureflag.dto.FeatureFlagDTO;
+import org.springframework.samples.petclinic.featureflag.exception.DuplicateFlagException;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.samples.petclinic.featureflag.repository.FeatureFlagRepository;
+import org.springframework.samples.petclinic.featureflag.service.FeatureFlagService;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Checks once the application is ready that every {@code @FeatureToggle} key exists in
+ * the environment the aspect evaluates in, and creates a disabled placeholder for each
+ * one that does not. A mistyped key therefore shows up in the flag list at startup
+ * instead of silently blocking the method.
+ */
+@Component
+@Slf4j
+public class FeatureToggleScanner {
+
+	private final ApplicationContext context;
+
+	private final FeatureFlagRepository repository;
+
+	private final FeatureFlagService flagService;
+
+	private final UnknownFlagProperties properties;
+
+	public FeatureToggleScanner(ApplicationContext context, FeatureFlagRepository repository,
+			FeatureFlagService flagService, UnknownFlagProperties properties) {
+		this.context = context;
+		this.repository = repository;
+		this.flagService = flagService;
+		this.properties = properties;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (properties.isScanToggles()) {
+			scan();
+		}
+	}
+
+	/**
+	 * @return the keys that were missing, with the methods guarded by them
+	 */
+	public Map<String, List<String>> scan() {
+		Map<String, List<String>> toggles = findToggles();
+		Map<String, List<String>> missing = new TreeMap<>();
+		try {
+			for (Map.Entry<String, List<String>> toggle : toggles.entrySet()) {
+				Optional<FeatureFlag> flag = repository.findByFlagKey(toggle.getKey());
+				if (flag.isPresent()) {
+					if (!FeatureToggleAspect.ENVIRONMENT.equals(flag.get().getEnvironment())) {
+						log.warn("Flag {} used by {} belongs to environment {}, @FeatureToggle evaluates it in {}",
+								toggle.getKey(), toggle.getValue(), flag.get().getEnvironment(),
+								FeatureToggleAspect.ENVIRONMENT);
+					}
+					continue;
+				}
+				missing.put(toggle.getKey(), toggle.getValue());
+				if (properties.isCreatePlaceholders()) {
+					createPlaceholder(toggle.getKey(), toggle.getValue());
+				}
+				else {
+					log.warn("Flag {} used by {} does not exist, the methods are blocked", toggle.getKey(),
+							toggle.getValue());
+				}
+			}
+		}
+		catch (DataAccessException ex) {
+			log.warn("Unable to check the {} @FeatureToggle flag keys: {}", toggles.size(), ex.getMessage());
+		}
+		return missing;
+	}
+
+	Map<String, List<String>> findToggles() {
+		Map<String, List<String>> toggles = new TreeMap<>();
+		for (String beanName : context.getBeanDefinitionNames()) {
+			Class<?> type = context.getType(beanName, false);
+			if (type == null) {
+				continue;
+			}
+
+			Map<Method, FeatureToggle> methods = MethodIntrospector.selectMethods(ClassUtils.getUserClass(type),
+					(MethodIntrospector.MetadataLookup<FeatureToggle>) method -> AnnotatedElementUtils
+						.findMergedAnnotation(method, FeatureToggle.class));
+			methods.forEach((method, toggle) -> toggles.computeIfAbsent(toggle.flagKey(), key -> new ArrayList<>())
+				.add(ClassUtils.getUserClass(type).getSimpleName() + "." + method.getName()));
+		}
+		return toggles;
+	}
+
+	private void createPlaceholder(String flagKey, List<String> methods) {
+		FeatureFlagDTO dto = new FeatureFlagDTO();
+		dto.setFlagKey(flagKey);
+		dto.setDescription("Placeholder for @FeatureToggle on " + String.join(", ", methods));
+		dto.setEnabled(false);
+		dto.setStrategyType(StrategyType.BOOLEAN);
+		dto.setEnvironment(FeatureToggleAspect.ENVIRONMENT);
+		dto.setCreatedBy("system");
+		dto.setReason("Created at startup for a @FeatureToggle key that did not exist");
+		try {
+			flagService.createFlag(dto);
+			log.warn("Flag {} used by {} did not exist, created it disabled", flagKey, methods);
+		}
+		catch (DuplicateFlagException | DataIntegrityViolationException ex) {
+			log.debug("Placeholder for flag {} was created concurrently by another node", flagKey);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+package org.springframework.samples.petclinic.featureflag.aspect;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+
+/**
+ * {@link FlagContext} that reads each targeting value from the request the first time a
+ * strategy asks for it, so BOOLEAN and disabled flags never touch the request. The
+ * session id is only reported when a session already exists; evaluating a flag never
+ * creates one.
+ */
+final class RequestFlagContext extends FlagContext {
+
+	static final String USER_ID_HEADER = "X-User-Id";
+
+	private final HttpServletRequest request;
+
+	private boolean userIdResolved;
+
+	private boolean sessionIdResolved;
+
+	private boolean ipAddressResolved;
+
+	RequestFlagContext(HttpServletRequest request, String environment) {
+		this.request = request;
+		setEnvironment(environment);
+	}
+
+	@Override
+	public String getUserId() {
+		if (!userIdResolved) {
+			setUserId(request.getHeader(USER_ID_HEADER));
+			userIdResolved = true;
+		}
+		return super.getUserId();
+	}
+
+	@Override
+	public String getSessionId() {
+		if (!sessionIdResolved) {
+			HttpSession session = request.getSession(false);
+			setSessionId(session != null ? session.getId() : null);
+			sessionIdResolved = true;
+		}
+		return super.getSessionId();
+	}
+
+	@Override
+	public String getIpAddress() {
+		if (!ipAddressResolved) {
+			setIpAddress(request.getRemoteAddr());
+			ipAddressResolved = true;
+		}
+		return super.getIpAddress();
+	}
+
+}
@@ -0,0 +1,47 @@
+package org.springframework.samples.petclinic.featureflag.audit;
+
+import lombok.Value;
+import org.springframework.samples.petclinic.featureflag.exception.InvalidAuditCursorException;
+import org.springframework.samples.petclinic.featureflag.model.FlagAudit;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last audit entry of a page in the (timestamp desc, id desc) order,
+ * encoded as an opaque URL-safe token.
+ */
+@Value
+public class AuditCursor {
+
+	LocalDateTime timestamp;
+
+	long id;
+
+	public static AuditCursor of(FlagAudit audit) {
+		return new AuditCursor(audit.getTimestamp(), audit.getId());
+	}
+
+	public static AuditCursor decode(String token) {
+		if (token == null || token.isBlank()) {
+			return null;
+		}
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separator = value.lastIndexOf('|');
+			return new AuditCursor(LocalDateTime.parse(value.substring(0, separator)),
+					Long.parseLong(value.substring(separator + 1)));
+		}
+		catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException ex) {
+			throw new InvalidAuditCursorException("Invalid audit cursor: " + token);
+		}
+	}
+
+	public String encode() {
+		String value = timestamp + "|" + id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
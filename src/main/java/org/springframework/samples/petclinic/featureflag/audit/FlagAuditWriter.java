@@ -0,0 +1,169 @@
+package org.springframework.samples.petclinic.featureflag.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.samples.petclinic.featureflag.config.FlagAuditProperties;
+import org.springframework.samples.petclinic.featureflag.model.FlagAudit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes flag audit entries off the request path. Entries are queued once the flag
+ * transaction commits and a background thread inserts them in JDBC batches of up to
+ * {@code batchSize}, waiting at most {@code flushInterval} for an entry. When the queue
+ * is full the submitting thread writes its own entry, which slows writers down instead of
+ * dropping audit history.
+ * <p>
+ * With the outbox enabled, entries are inserted into {@code flag_audit_outbox} as part of
+ * the flag transaction and the background thread moves them into {@code flag_audit_log}.
+ */
+@Component
+@Slf4j
+public class FlagAuditWriter implements SmartLifecycle {
+
+	private final FlagAuditProperties properties;
+
+	private final JdbcFlagAuditStore store;
+
+	private final BlockingQueue<FlagAudit> queue;
+
+	private volatile boolean running;
+
+	private volatile boolean stopped;
+
+	private Thread writerThread;
+
+	public FlagAuditWriter(FlagAuditProperties properties, JdbcFlagAuditStore store) {
+		this.properties = properties;
+		this.store = store;
+		this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+	}
+
+	public void submit(FlagAudit audit) {
+		if (properties.isOutbox()) {
+			store.insertOutbox(audit);
+		}
+		else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					enqueue(audit);
+				}
+			});
+		}
+		else {
+			enqueue(audit);
+		}
+	}
+
+	public int getPendingCount() {
+		return queue.size();
+	}
+
+	@Override
+	public void start() {
+		running = true;
+		writerThread = new Thread(this::run, "flag-audit-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		stopped = true;
+		if (writerThread != null) {
+			writerThread.interrupt();
+			try {
+				writerThread.join(properties.getFlushInterval().toMillis() * 4);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		flushRemaining();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	private void enqueue(FlagAudit audit) {
+		try {
+			if (!stopped && queue.offer(audit, properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+				return;
+			}
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		log.warn("Audit queue unavailable, writing audit of {} synchronously", audit.getFlagKey());
+		write(List.of(audit));
+	}
+
+	private void run() {
+		int batchSize = properties.getBatchSize();
+		List<FlagAudit> batch = new ArrayList<>(batchSize);
+		while (running) {
+			try {
+				FlagAudit head = queue.poll(properties.getFlushInterval().toMillis(), TimeUnit.MILLISECONDS);
+				if (head != null) {
+					batch.add(head);
+					queue.drainTo(batch, batchSize - 1);
+					write(batch);
+					batch.clear();
+				}
+				if (properties.isOutbox()) {
+					drainOutbox(batchSize);
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void flushRemaining() {
+		List<FlagAudit> remaining = new ArrayList<>();
+		queue.drainTo(remaining);
+		for (int from = 0; from < remaining.size(); from += properties.getBatchSize()) {
+			write(remaining.subList(from, Math.min(remaining.size(), from + properties.getBatchSize())));
+		}
+	}
+
+	private void write(List<FlagAudit> batch) {
+		try {
+			store.insert(batch);
+			log.debug("Wrote {} flag audit entries", batch.size());
+		}
+		catch (DataAccessException ex) {
+			// Keep the content in the log so that it can still be recovered
+			log.error("Failed to write {} flag audit entries: {}", batch.size(), batch, ex);
+		}
+	}
+
+	private void drainOutbox(int batchSize) {
+		try {
+			int moved;
+			do {
+				moved = store.drainOutbox(batchSize);
+			}
+			while (moved == batchSize && running);
+		}
+		catch (DataAccessException ex) {
+			log.warn("Failed to drain flag audit outbox, retrying in {}: {}", properties.getFlushInterval(),
+					ex.getMessage());
+		}
+	}
+
+}
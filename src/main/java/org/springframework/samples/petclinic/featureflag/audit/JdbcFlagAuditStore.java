@@ -0,0 +1,75 @@
+package org.springframework.samples.petclinic.featureflag.audit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.featureflag.model.FlagAudit;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class JdbcFlagAuditStore {
+
+	private static final String COLUMNS = "flag_id, flag_key, action, old_value, new_value, changed_by, reason, timestamp";
+
+	private static final String VALUES = "VALUES (?, ?, ?, CAST(? AS jsonb), CAST(? AS jsonb), ?, ?, ?)";
+
+	private static final String INSERT_AUDIT = "INSERT INTO flag_audit_log (" + COLUMNS + ") " + VALUES;
+
+	private static final String INSERT_OUTBOX = "INSERT INTO flag_audit_outbox (" + COLUMNS + ") " + VALUES;
+
+	// Claims, moves and deletes a batch in one statement; SKIP LOCKED lets
+	// several nodes drain concurrently
+	private static final String DRAIN_OUTBOX = "WITH moved AS (DELETE FROM flag_audit_outbox WHERE id IN "
+			+ "(SELECT id FROM flag_audit_outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) RETURNING " + COLUMNS
+			+ ") " + "INSERT INTO flag_audit_log (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final JsonMapper jsonMapper;
+
+	public JdbcFlagAuditStore(JdbcTemplate jdbcTemplate, JsonMapper jsonMapper) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.jsonMapper = jsonMapper;
+	}
+
+	public void insert(List<FlagAudit> audits) {
+		jdbcTemplate.batchUpdate(INSERT_AUDIT, audits, audits.size(), this::bind);
+	}
+
+	public void insertOutbox(FlagAudit audit) {
+		jdbcTemplate.update(INSERT_OUTBOX, ps -> bind(ps, audit));
+	}
+
+	public int drainOutbox(int batchSize) {
+		return jdbcTemplate.update(DRAIN_OUTBOX, batchSize);
+	}
+
+	private void bind(PreparedStatement ps, FlagAudit audit) throws SQLException {
+		if (audit.getFlagId() != null) {
+			ps.setLong(1, audit.getFlagId());
+		}
+		else {
+			ps.setNull(1, Types.BIGINT);
+		}
+		ps.setString(2, audit.getFlagKey());
+		ps.setString(3, audit.getAction());
+		ps.setString(4, toJson(audit.getOldValue()));
+		ps.setString(5, toJson(audit.getNewValue()));
+		ps.setString(6, audit.getChangedBy());
+		ps.setString(7, audit.getReason());
+		LocalDateTime timestamp = audit.getTimestamp() != null ? audit.getTimestamp() : LocalDateTime.now();
+		ps.setTimestamp(8, Timestamp.valueOf(timestamp));
+	}
+
+	private String toJson(Map<String, Object> value) {
+		return value != null ? jsonMapper.writeValueAsString(value) : null;
+	}
+
+}
@@ -0,0 +1,24 @@
+package org.springframework.samples.petclinic.featureflag.cluster;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlagInvalidation {
+
+	private String origin;
+
+	private String flagKey;
+
+	private String action;
+
+	private Set<String> environments;
+
+	private long version;
+
+}
@@ -0,0 +1,80 @@
+package org.springframework.samples.petclinic.featureflag.cluster;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.samples.petclinic.featureflag.config.FeatureFlagCacheProperties;
+import org.springframework.samples.petclinic.featureflag.engine.FlagSnapshotRegistry;
+import org.springframework.samples.petclinic.featureflag.event.FlagChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+@Component
+@Slf4j
+public class FlagInvalidationCoordinator implements FlagInvalidationListener {
+
+	private final String nodeId = UUID.randomUUID().toString();
+
+	@Autowired
+	private FlagInvalidationTransport transport;
+
+	@Autowired
+	private FlagSnapshotRegistry snapshots;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@PostConstruct
+	public void register() {
+		transport.subscribe(this);
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+	public void onFlagChanged(FlagChangedEvent event) {
+		if (!event.isRemote()) {
+			transport.publish(new FlagInvalidation(nodeId, event.getFlagKey(), event.getAction(),
+					event.getEnvironments(), event.getVersion()));
+		}
+	}
+
+	@Override
+	public void onInvalidation(FlagInvalidation invalidation) {
+		if (nodeId.equals(invalidation.getOrigin())) {
+			return;
+		}
+		log.debug("Flag {} changed on node {}", invalidation.getFlagKey(), invalidation.getOrigin());
+
+		Cache definitions = cacheManager.getCache(FeatureFlagCacheProperties.FLAG_DEFINITIONS);
+		if (definitions != null) {
+			definitions.evict(invalidation.getFlagKey());
+		}
+		// Re-published locally so snapshots and stream subscribers of
+		// this node follow the change
+		eventPublisher.publishEvent(new FlagChangedEvent(invalidation.getFlagKey(), invalidation.getAction(),
+				invalidation.getEnvironments(), invalidation.getVersion(), true));
+	}
+
+	@Override
+	public void onResync() {
+		log.info("Reloading all feature flag snapshots after invalidation channel recovery");
+		Cache definitions = cacheManager.getCache(FeatureFlagCacheProperties.FLAG_DEFINITIONS);
+		if (definitions != null) {
+			definitions.clear();
+		}
+		snapshots.reloadAll();
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+
+}
@@ -0,0 +1,11 @@
+package org.springframework.samples.petclinic.featureflag.cluster;
+
+public interface FlagInvalidationListener {
+
+	void onInvalidation(FlagInvalidation invalidation);
+
+	// Called when the transport may have missed messages, e.g. after a reconnect
+	default void onResync() {
+	}
+
+}
@@ -0,0 +1,13 @@
+package org.springframework.samples.petclinic.featureflag.cluster;
+
+public interface FlagInvalidationTransport {
+
+	/**
+	 * Called from within the transaction that changed the flag. Implementations must only
+	 * deliver the message to other nodes once that transaction has committed.
+	 */
+	void publish(FlagInvalidation invalidation);
+
+	void subscribe(FlagInvalidationListener listener);
+
+}
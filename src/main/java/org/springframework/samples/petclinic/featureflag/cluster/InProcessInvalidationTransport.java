@@ -0,0 +1,43 @@
+package org.springframework.samples.petclinic.featureflag.cluster;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Delivers invalidations to listeners of the same JVM, for single-node deployments and
+ * for tests that simulate several nodes sharing one transport.
+ */
+public class InProcessInvalidationTransport implements FlagInvalidationTransport {
+
+	private final List<FlagInvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void publish(FlagInvalidation invalidation) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					deliver(invalidation);
+				}
+			});
+		}
+		else {
+			deliver(invalidation);
+		}
+	}
+
+	@Override
+	public void subscribe(FlagInvalidationListener listener) {
+		listeners.add(listener);
+	}
+
+	private void deliver(FlagInvalidation invalidation) {
+		for (FlagInvalidationListener listener : listeners) {
+			listener.onInvalidation(invalidation);
+		}
+	}
+
+}
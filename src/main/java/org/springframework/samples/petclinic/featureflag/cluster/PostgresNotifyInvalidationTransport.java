@@ -0,0 +1,146 @@
+package org.springframework.samples.petclinic.featureflag.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Uses PostgreSQL LISTEN/NOTIFY. NOTIFY is transactional, so a notification issued inside
+ * the flag write is only delivered to the other nodes when that write commits. Each node
+ * keeps one pooled connection in LISTEN mode and blocks on its socket, no polling queries
+ * are issued.
+ */
+@Slf4j
+public class PostgresNotifyInvalidationTransport implements FlagInvalidationTransport, SmartLifecycle {
+
+	static final String CHANNEL = "feature_flag_changes";
+
+	private static final int WAIT_MILLIS = 5_000;
+
+	private static final long RECONNECT_BACKOFF_MILLIS = 2_000;
+
+	private final DataSource dataSource;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final JsonMapper jsonMapper;
+
+	private final List<FlagInvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+	private volatile boolean running;
+
+	private Thread listenerThread;
+
+	public PostgresNotifyInvalidationTransport(DataSource dataSource, JsonMapper jsonMapper) {
+		this.dataSource = dataSource;
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jsonMapper = jsonMapper;
+	}
+
+	@Override
+	public void publish(FlagInvalidation invalidation) {
+		// Runs on the connection bound to the current transaction
+		jdbcTemplate.query("SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, CHANNEL,
+				jsonMapper.writeValueAsString(invalidation));
+	}
+
+	@Override
+	public void subscribe(FlagInvalidationListener listener) {
+		listeners.add(listener);
+	}
+
+	@Override
+	public void start() {
+		running = true;
+		listenerThread = new Thread(this::listen, "flag-invalidation-listener");
+		listenerThread.setDaemon(true);
+		listenerThread.start();
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		if (listenerThread != null) {
+			listenerThread.interrupt();
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	private void listen() {
+		boolean reconnecting = false;
+		while (running) {
+			try (Connection connection = dataSource.getConnection()) {
+				connection.setAutoCommit(true);
+				try (Statement statement = connection.createStatement()) {
+					statement.execute("LISTEN " + CHANNEL);
+				}
+				PGConnection pgConnection = connection.unwrap(PGConnection.class);
+				log.info("Listening for feature flag invalidations on channel {}", CHANNEL);
+
+				if (reconnecting) {
+					listeners.forEach(FlagInvalidationListener::onResync);
+				}
+				reconnecting = true;
+
+				while (running) {
+					PGNotification[] notifications = pgConnection.getNotifications(WAIT_MILLIS);
+					if (notifications != null) {
+						for (PGNotification notification : notifications) {
+							deliver(notification.getParameter());
+						}
+					}
+				}
+			}
+			catch (SQLException ex) {
+				if (!running) {
+					return;
+				}
+				log.warn("Lost feature flag invalidation channel, reconnecting: {}", ex.getMessage());
+				try {
+					Thread.sleep(RECONNECT_BACKOFF_MILLIS);
+				}
+				catch (InterruptedException interrupted) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	private void deliver(String payload) {
+		FlagInvalidation invalidation;
+		try {
+			invalidation = jsonMapper.readValue(payload, FlagInvalidation.class);
+		}
+		catch (JacksonException ex) {
+			log.warn("Ignoring malformed flag invalidation payload: {}", payload);
+			return;
+		}
+
+		for (FlagInvalidationListener listener : listeners) {
+			try {
+				listener.onInvalidation(invalidation);
+			}
+			catch (RuntimeException ex) {
+				log.error("Flag invalidation listener failed for {}", invalidation.getFlagKey(), ex);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,26 @@
+package org.springframework.samples.petclinic.featureflag.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.samples.petclinic.system.CacheSpec;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "petclinic.feature-flags.cache")
+public class FeatureFlagCacheProperties {
+
+	// Spring cache of flag entities served by the REST API, sized
+	// under petclinic.cache.specs
+	public static final String FLAG_DEFINITIONS = "flagDefinitions";
+
+	public static final String FLAG_SNAPSHOTS = "flagSnapshots";
+
+	/**
+	 * Compiled snapshots, keyed by environment. Refresh-after-write rebuilds a snapshot
+	 * in the background while the current one keeps serving, so it bounds staleness
+	 * without ever leaving evaluations without flags.
+	 */
+	private CacheSpec snapshots = new CacheSpec(16, null, Duration.ofMinutes(5));
+
+}
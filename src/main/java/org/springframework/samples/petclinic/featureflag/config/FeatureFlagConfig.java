@@ -1,19 +1,31 @@
 package org.springframework.samples.petclinic.featureflag.config;
 
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.featureflag.exposure.ExposureSink;
+import org.springframework.samples.petclinic.featureflag.exposure.FileExposureSink;
+import org.springframework.samples.petclinic.featureflag.exposure.InMemoryExposureSink;
+import org.springframework.samples.petclinic.featureflag.exposure.JdbcExposureSink;
+import tools.jackson.databind.json.JsonMapper;
 
 @Configuration
-@EnableCaching
 @EnableAspectJAutoProxy
+@EnableConfigurationProperties({ FeatureFlagCacheProperties.class, FlagAuditProperties.class,
+		FlagMetricsProperties.class, FlagExposureProperties.class, FlagScheduleProperties.class,
+		FlagSnapshotFileProperties.class, UnknownFlagProperties.class })
 public class FeatureFlagConfig {
 
 	@Bean
-	public CacheManager cacheManager() {
-		return new ConcurrentMapCacheManager("vets", "featureFlags");
+	public ExposureSink exposureSink(FlagExposureProperties properties, ObjectProvider<JdbcTemplate> jdbcTemplate,
+									 ObjectProvider<JsonMapper> jsonMapper) {
+		return switch (properties.getSink()) {
+			case JDBC -> new JdbcExposureSink(jdbcTemplate.getObject());
+			case MEMORY -> new InMemoryExposureSink();
+			case FILE -> new FileExposureSink(properties.getFile(), jsonMapper.getObject());
+		};
 	}
 }
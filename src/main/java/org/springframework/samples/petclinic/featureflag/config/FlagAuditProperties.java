@@ -0,0 +1,38 @@
+package org.springframework.samples.petclinic.featureflag.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "petclinic.feature-flags.audit")
+public class FlagAuditProperties {
+
+	/**
+	 * Maximum number of audit entries waiting to be written.
+	 */
+	private int queueCapacity = 10_000;
+
+	/**
+	 * Maximum number of audit entries written in one JDBC batch.
+	 */
+	private int batchSize = 100;
+
+	/**
+	 * Maximum time an audit entry waits before it is written.
+	 */
+	private Duration flushInterval = Duration.ofMillis(500);
+
+	/**
+	 * How long a writer waits for queue space before writing its entry itself.
+	 */
+	private Duration offerTimeout = Duration.ofMillis(100);
+
+	/**
+	 * Store each entry in the flag_audit_outbox table within the flag transaction, so
+	 * that no entry is lost if the node stops before the writer ran.
+	 */
+	private boolean outbox = false;
+
+}
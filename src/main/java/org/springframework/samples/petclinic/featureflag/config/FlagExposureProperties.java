@@ -0,0 +1,59 @@
+package org.springframework.samples.petclinic.featureflag.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "petclinic.feature-flags.exposure")
+public class FlagExposureProperties {
+
+	public enum Sink {
+
+		FILE, JDBC, MEMORY
+
+	}
+
+	/**
+	 * Record which identifiers were exposed to which variant of PERCENTAGE flags.
+	 */
+	private boolean enabled = false;
+
+	private Sink sink = Sink.FILE;
+
+	/**
+	 * Append-only NDJSON file used by the file sink.
+	 */
+	private Path file = Path.of("exposures.ndjson");
+
+	/**
+	 * Fraction of identifiers whose exposures are recorded. Sampling is by identifier, so
+	 * a sampled identifier has all of its exposures recorded.
+	 */
+	private double sampleRate = 1.0;
+
+	/**
+	 * An identifier's exposure to the same variant is recorded once per window, 0 records
+	 * every evaluation.
+	 */
+	private Duration dedupWindow = Duration.ofMinutes(10);
+
+	/**
+	 * Size of the deduplication table; more slots mean fewer repeated exposures when many
+	 * identifiers are active within a window.
+	 */
+	private int dedupSlots = 1 << 16;
+
+	/**
+	 * Exposures buffered between flushes, rounded up to a power of two. Exposures are
+	 * dropped, and counted, while the buffer is full.
+	 */
+	private int bufferCapacity = 8192;
+
+	private int batchSize = 500;
+
+	private Duration flushInterval = Duration.ofSeconds(1);
+
+}
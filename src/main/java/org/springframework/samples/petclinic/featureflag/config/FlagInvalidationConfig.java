@@ -0,0 +1,28 @@
+package org.springframework.samples.petclinic.featureflag.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.samples.petclinic.featureflag.cluster.FlagInvalidationTransport;
+import org.springframework.samples.petclinic.featureflag.cluster.InProcessInvalidationTransport;
+import org.springframework.samples.petclinic.featureflag.cluster.PostgresNotifyInvalidationTransport;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class FlagInvalidationConfig {
+
+	@Bean
+	@Profile("postgres")
+	public FlagInvalidationTransport postgresInvalidationTransport(DataSource dataSource, JsonMapper jsonMapper) {
+		return new PostgresNotifyInvalidationTransport(dataSource, jsonMapper);
+	}
+
+	@Bean
+	@Profile("!postgres")
+	public FlagInvalidationTransport inProcessInvalidationTransport() {
+		return new InProcessInvalidationTransport();
+	}
+
+}
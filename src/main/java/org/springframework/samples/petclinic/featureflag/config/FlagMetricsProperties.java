@@ -0,0 +1,21 @@
+package org.springframework.samples.petclinic.featureflag.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "petclinic.feature-flags.metrics")
+public class FlagMetricsProperties {
+
+	/**
+	 * Time one in this many evaluations, 1 times all of them and 0 disables the latency
+	 * histogram. Evaluation counters are always exact.
+	 */
+	private int latencySampleInterval = 16;
+
+	/**
+	 * Publish latency histogram buckets, for percentiles aggregated across instances.
+	 */
+	private boolean latencyHistogram = true;
+
+}
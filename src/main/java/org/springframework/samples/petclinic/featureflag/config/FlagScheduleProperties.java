@@ -0,0 +1,39 @@
+package org.springframework.samples.petclinic.featureflag.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "petclinic.feature-flags.schedule")
+public class FlagScheduleProperties {
+
+	/**
+	 * Run due flag schedules on this node.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Longest time between two looks at the schedule table, which picks up schedules
+	 * created on other nodes. Schedules created on this node wake the scheduler directly.
+	 */
+	private Duration pollInterval = Duration.ofSeconds(30);
+
+	/**
+	 * How long a node owns a schedule step it claimed. Another node may run the step once
+	 * the lease expired without the step being committed.
+	 */
+	private Duration leaseDuration = Duration.ofMinutes(1);
+
+	/**
+	 * Maximum number of due schedules claimed in one pass.
+	 */
+	private int batchSize = 50;
+
+	/**
+	 * Maximum number of steps of a RAMP schedule.
+	 */
+	private int maxRampSteps = 1000;
+
+}
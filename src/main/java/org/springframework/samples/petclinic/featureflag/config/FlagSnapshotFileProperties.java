@@ -0,0 +1,29 @@
+package org.springframework.samples.petclinic.featureflag.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "petclinic.feature-flags.snapshot-file")
+public class FlagSnapshotFileProperties {
+
+	/**
+	 * Keep a copy of every environment's flags on local disk, used at startup and while
+	 * the database is unavailable.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Directory holding one file per environment.
+	 */
+	private Path directory = Path.of("flag-snapshots");
+
+	/**
+	 * How often changed flags are written to disk.
+	 */
+	private Duration writeInterval = Duration.ofSeconds(30);
+
+}
@@ -0,0 +1,35 @@
+package org.springframework.samples.petclinic.featureflag.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "petclinic.feature-flags.unknown-flags")
+public class UnknownFlagProperties {
+
+	/**
+	 * Minimum time between two warnings about the same unknown flag key; evaluations in
+	 * between are counted and reported with the next warning.
+	 */
+	private Duration warnInterval = Duration.ofMinutes(1);
+
+	/**
+	 * Maximum number of unknown keys whose warnings are limited individually, keys beyond
+	 * it share one limit. Bounds memory when callers send arbitrary keys.
+	 */
+	private int maxTracked = 1000;
+
+	/**
+	 * Check at startup that every {@code @FeatureToggle} key exists.
+	 */
+	private boolean scanToggles = true;
+
+	/**
+	 * Create a disabled BOOLEAN flag for every {@code @FeatureToggle} key that does not
+	 * exist, so that it can be managed like any other flag.
+	 */
+	private boolean createPlaceholders = true;
+
+}
@@ -1,8 +1,8 @@
 package org.springframework.samples.petclinic.featureflag.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.samples.petclinic.featureflag.model.FlagAudit;
+import org.springframework.samples.petclinic.featureflag.dto.AuditPage;
+import org.springframework.samples.petclinic.featureflag.dto.AuditQuery;
 import org.springframework.samples.petclinic.featureflag.security.AdminSession;
 import org.springframework.samples.petclinic.featureflag.service.FeatureFlagService;
 import org.springframework.stereotype.Controller;
@@ -59,17 +59,27 @@ public class AdminController {
 
 	@GetMapping("/admin/flags")
 	public String flagDashboard(
-		@RequestParam(defaultValue = "0") int auditPage,
+		@RequestParam(required = false) String auditCursor,
 		@RequestParam(defaultValue = "10") int auditSize,
+		@RequestParam(required = false) String auditFlagKey,
+		@RequestParam(required = false) String auditAction,
+		@RequestParam(required = false) String auditChangedBy,
 		Model model
 	) {
+		AuditQuery auditQuery = new AuditQuery();
+		auditQuery.setCursor(auditCursor);
+		auditQuery.setLimit(auditSize);
+		auditQuery.setFlagKey(auditFlagKey);
+		auditQuery.setAction(auditAction);
+		auditQuery.setChangedBy(auditChangedBy);
+		model.addAttribute("auditQuery", auditQuery);
 		try {
 			model.addAttribute("username", adminSession.getUsername());
 			model.addAttribute("flags", flagService.getAllFlags("development"));
 
-			Page<FlagAudit> auditPageData = flagService.getRecentAudits(auditPage, auditSize);
+			AuditPage auditPageData = flagService.queryAudits(auditQuery);
 			model.addAttribute("auditPage", auditPageData);
-			model.addAttribute("recentAudits", auditPageData.getContent());
+			model.addAttribute("recentAudits", auditPageData.getEntries());
 
 			return "admin/flags";
 		} catch (Exception e) {
@@ -78,7 +88,7 @@ public class AdminController {
 			model.addAttribute("username", adminSession.getUsername());
 			model.addAttribute("flags", Collections.emptyList());
 
-			model.addAttribute("auditPage", Page.empty());
+			model.addAttribute("auditPage", new AuditPage(Collections.emptyList(), null));
 			model.addAttribute("recentAudits", Collections.emptyList());
 
 			return "admin/flags";
@@ -0,0 +1,64 @@
+package org.springframework.samples.petclinic.featureflag.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.featureflag.dto.AuditPage;
+import org.springframework.samples.petclinic.featureflag.dto.AuditQuery;
+import org.springframework.samples.petclinic.featureflag.service.FeatureFlagService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/api/v1/audit")
+@Slf4j
+public class AuditLogController {
+
+	@Autowired
+	private FeatureFlagService service;
+
+	@Autowired
+	private JsonMapper jsonMapper;
+
+	@GetMapping
+	public ResponseEntity<AuditPage> queryAudits(@ModelAttribute AuditQuery query) {
+		return ResponseEntity.ok(service.queryAudits(query));
+	}
+
+	// One JSON document per line, written page by page so memory use
+	// does not grow with the export
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportAudits(@ModelAttribute AuditQuery query) {
+		StreamingResponseBody body = out -> {
+			try {
+				service.exportAudits(query, audit -> {
+					try {
+						out.write(jsonMapper.writeValueAsBytes(audit));
+						out.write('\n');
+					}
+					catch (IOException ex) {
+						throw new UncheckedIOException(ex);
+					}
+				});
+			}
+			catch (UncheckedIOException ex) {
+				log.debug("Audit export aborted by client: {}", ex.getMessage());
+			}
+			out.flush();
+		};
+		return ResponseEntity.ok()
+			.contentType(MediaType.APPLICATION_NDJSON)
+			.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"flag-audit.ndjson\"")
+			.body(body);
+	}
+
+}
@@ -4,13 +4,23 @@ import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.samples.petclinic.featureflag.dto.AuditPage;
+import org.springframework.samples.petclinic.featureflag.dto.AuditQuery;
 import org.springframework.samples.petclinic.featureflag.dto.FeatureFlagDTO;
+import org.springframework.samples.petclinic.featureflag.dto.FlagEvaluationRequest;
+import org.springframework.samples.petclinic.featureflag.dto.FlagEvaluationResponse;
+import org.springframework.samples.petclinic.featureflag.dto.FlagScheduleDTO;
+import org.springframework.samples.petclinic.featureflag.dto.VariantEvaluationResponse;
+import org.springframework.samples.petclinic.featureflag.event.FlagChangeBroadcaster;
 import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
-import org.springframework.samples.petclinic.featureflag.model.FlagAudit;
 import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.FlagSchedule;
 import org.springframework.samples.petclinic.featureflag.service.FeatureFlagService;
+import org.springframework.samples.petclinic.featureflag.service.FlagScheduleService;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -23,6 +33,12 @@ public class FeatureFlagController {
 	@Autowired
 	private FeatureFlagService service;
 
+	@Autowired
+	private FlagScheduleService scheduleService;
+
+	@Autowired
+	private FlagChangeBroadcaster broadcaster;
+
 	@GetMapping
 	public ResponseEntity<List<FeatureFlag>> getAllFlags(
 		@RequestParam(defaultValue = "development") String environment
@@ -30,6 +46,15 @@ public class FeatureFlagController {
 		return ResponseEntity.ok(service.getAllFlags(environment));
 	}
 
+	// EventSource clients resume through the Last-Event-ID header, others may pass lastEventId
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamChanges(
+		@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventIdHeader,
+		@RequestParam(name = "lastEventId", required = false) Long lastEventId
+	) {
+		return broadcaster.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+	}
+
 	@GetMapping("/{flagKey}")
 	public ResponseEntity<FeatureFlag> getFlag(@PathVariable String flagKey) {
 		return service.getFlag(flagKey)
@@ -78,9 +103,47 @@ public class FeatureFlagController {
 		return ResponseEntity.ok(Map.of("enabled", enabled));
 	}
 
+	@GetMapping("/{flagKey}/variant")
+	public ResponseEntity<VariantEvaluationResponse> evaluateVariant(
+		@PathVariable String flagKey,
+		@RequestParam(required = false) String userId,
+		@RequestParam(required = false) String sessionId
+	) {
+		FlagContext context = FlagContext.builder()
+			.userId(userId)
+			.sessionId(sessionId)
+			.environment(System.getProperty("spring.profiles.active", "development"))
+			.build();
+
+		return ResponseEntity.ok(service.evaluateVariant(flagKey, context));
+	}
+
+	@PostMapping("/evaluate")
+	public ResponseEntity<FlagEvaluationResponse> evaluateFlags(@RequestBody @Valid FlagEvaluationRequest request) {
+		return ResponseEntity.ok(service.evaluateAll(request.getContext(), request.getFlagKeys()));
+	}
+
+	@GetMapping("/{flagKey}/schedules")
+	public ResponseEntity<List<FlagSchedule>> getSchedules(@PathVariable String flagKey) {
+		return ResponseEntity.ok(scheduleService.getSchedules(flagKey));
+	}
+
+	@PostMapping("/{flagKey}/schedules")
+	public ResponseEntity<FlagSchedule> createSchedule(
+		@PathVariable String flagKey,
+		@RequestBody @Valid FlagScheduleDTO dto
+	) {
+		return ResponseEntity.status(HttpStatus.CREATED).body(scheduleService.createSchedule(flagKey, dto));
+	}
+
+	@DeleteMapping("/{flagKey}/schedules/{id}")
+	public ResponseEntity<FlagSchedule> cancelSchedule(@PathVariable String flagKey, @PathVariable Long id) {
+		return ResponseEntity.ok(scheduleService.cancelSchedule(flagKey, id));
+	}
+
 	@GetMapping("/{flagKey}/audit")
-	public ResponseEntity<List<FlagAudit>> getAuditLog(@PathVariable String flagKey) {
-		return ResponseEntity.ok(service.getAuditLog(flagKey));
+	public ResponseEntity<AuditPage> getAuditLog(@PathVariable String flagKey, @ModelAttribute AuditQuery query) {
+		return ResponseEntity.ok(service.getAuditLog(flagKey, query));
 	}
 }
 
@@ -0,0 +1,22 @@
+package org.springframework.samples.petclinic.featureflag.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.samples.petclinic.featureflag.model.FlagAudit;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class AuditPage {
+
+	private List<FlagAudit> entries;
+
+	// Null on the last page
+	private String nextCursor;
+
+	public boolean isHasMore() {
+		return nextCursor != null;
+	}
+
+}
@@ -0,0 +1,28 @@
+package org.springframework.samples.petclinic.featureflag.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Data
+public class AuditQuery {
+
+	private String flagKey;
+
+	private String action;
+
+	private String changedBy;
+
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+	private LocalDateTime from;
+
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+	private LocalDateTime to;
+
+	// Opaque position returned as nextCursor by the previous page
+	private String cursor;
+
+	private int limit = 50;
+
+}
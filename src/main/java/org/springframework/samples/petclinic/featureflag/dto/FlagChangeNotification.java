@@ -0,0 +1,21 @@
+package org.springframework.samples.petclinic.featureflag.dto;
+
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.Set;
+
+@Value
+public class FlagChangeNotification {
+
+	long version;
+
+	String flagKey;
+
+	String action;
+
+	Set<String> environments;
+
+	Instant timestamp;
+
+}
@@ -0,0 +1,18 @@
+package org.springframework.samples.petclinic.featureflag.dto;
+
+import lombok.Data;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+@Data
+public class FlagEvaluationRequest {
+
+	@NotNull(message = "Evaluation context is required")
+	private FlagContext context;
+
+	// Evaluates every flag of the environment when empty
+	private List<String> flagKeys;
+
+}
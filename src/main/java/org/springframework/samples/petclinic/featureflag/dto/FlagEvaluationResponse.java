@@ -0,0 +1,18 @@
+package org.springframework.samples.petclinic.featureflag.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class FlagEvaluationResponse {
+
+	private String environment;
+
+	private long version;
+
+	private Map<String, Boolean> flags;
+
+}
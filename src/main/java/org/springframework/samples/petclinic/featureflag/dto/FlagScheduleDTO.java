@@ -0,0 +1,31 @@
+package org.springframework.samples.petclinic.featureflag.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import org.springframework.samples.petclinic.featureflag.model.ScheduleAction;
+
+import java.time.LocalDateTime;
+
+@Data
+public class FlagScheduleDTO {
+
+	@NotNull(message = "Schedule action is required")
+	private ScheduleAction action;
+
+	// Defaults to now
+	private LocalDateTime runAt;
+
+	// RAMP only
+	private LocalDateTime endAt;
+
+	private Double fromPercentage;
+
+	private Double toPercentage;
+
+	private Integer steps;
+
+	private String createdBy;
+
+	private String reason;
+
+}
@@ -0,0 +1,17 @@
+package org.springframework.samples.petclinic.featureflag.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class VariantEvaluationResponse {
+
+	private String flagKey;
+
+	// null when no variant is served, callers then use their own default
+	private String variant;
+
+	private Object value;
+
+}
@@ -0,0 +1,33 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+
+import java.util.Map;
+
+final class AttributeMatchStrategy implements FlagStrategy {
+
+	private final String[] names;
+
+	private final String[] values;
+
+	AttributeMatchStrategy(String[] names, String[] values) {
+		this.names = names;
+		this.values = values;
+	}
+
+	@Override
+	public boolean matches(FlagContext context) {
+		Map<String, String> attributes = context.getAttributes();
+		if (attributes == null) {
+			return false;
+		}
+
+		for (int i = 0; i < names.length; i++) {
+			if (!values[i].equals(attributes.get(names[i]))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,54 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+/**
+ * Fixed-size Bloom filter over strings. It sits in front of very large target sets: its
+ * bit array is a fraction of the set's size and stays in cache, so identifiers that are
+ * not on the list, the common case for a whitelist, are rejected without probing the set.
+ */
+final class BloomFilter {
+
+	private static final long SEED = 0x5bd1e995L;
+
+	private final long[] bits;
+
+	private final long bitCount;
+
+	private final int hashes;
+
+	BloomFilter(int expectedEntries, double falsePositiveRate) {
+		long optimalBits = (long) Math
+			.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		this.bits = new long[(int) Math.max(1, (optimalBits + 63) / 64)];
+		this.bitCount = bits.length * 64L;
+		this.hashes = Math.max(1, (int) Math.round((double) bitCount / Math.max(1, expectedEntries) * Math.log(2)));
+	}
+
+	void add(String value) {
+		long hash = RolloutBuckets.hash(SEED, value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 0; i < hashes; i++) {
+			long index = index(h1, h2, i);
+			bits[(int) (index >>> 6)] |= 1L << index;
+		}
+	}
+
+	boolean mightContain(String value) {
+		long hash = RolloutBuckets.hash(SEED, value);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 0; i < hashes; i++) {
+			long index = index(h1, h2, i);
+			if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Kirsch-Mitzenmacher: k indexes from the two halves of one 64-bit hash
+	private long index(int h1, int h2, int i) {
+		return ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+	}
+
+}
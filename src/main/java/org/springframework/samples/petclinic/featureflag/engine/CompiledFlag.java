@@ -0,0 +1,116 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+
+@Getter
+public final class CompiledFlag {
+
+	private static final Prerequisite[] NO_PREREQUISITES = {};
+
+	private final String flagKey;
+
+	private final String environment;
+
+	private final boolean enabled;
+
+	private final StrategyType strategyType;
+
+	private final FlagStrategy strategy;
+
+	@Getter(AccessLevel.NONE)
+	private final Prerequisite[] prerequisites;
+
+	// Set by FlagDependencies when the snapshot is linked, before it is published
+	@Getter(AccessLevel.NONE)
+	int index = -1;
+
+	@Getter(AccessLevel.NONE)
+	boolean dependedOn;
+
+	CompiledFlag(String flagKey, String environment, boolean enabled, StrategyType strategyType,
+			FlagStrategy strategy) {
+		this(flagKey, environment, enabled, strategyType, strategy, NO_PREREQUISITES);
+	}
+
+	CompiledFlag(String flagKey, String environment, boolean enabled, StrategyType strategyType, FlagStrategy strategy,
+			Prerequisite[] prerequisites) {
+		this.flagKey = flagKey;
+		this.environment = environment;
+		this.enabled = enabled;
+		this.strategyType = strategyType;
+		this.strategy = strategy;
+		this.prerequisites = prerequisites.length > 0 ? prerequisites : NO_PREREQUISITES;
+	}
+
+	public boolean evaluate(FlagContext context) {
+		return evaluate(context, prerequisites.length > 0 ? new EvaluationMemo() : null);
+	}
+
+	/**
+	 * Evaluates the flag, reusing and recording results of flags other flags depend on in
+	 * {@code memo}, which may be {@code null} for flags without prerequisites.
+	 */
+	public boolean evaluate(FlagContext context, EvaluationMemo memo) {
+		if (memo == null || !dependedOn) {
+			return matches(context, memo);
+		}
+
+		Boolean known = memo.result(index);
+		if (known != null) {
+			return known;
+		}
+
+		boolean result = matches(context, memo);
+		memo.putResult(index, result);
+		return result;
+	}
+
+	public FlagVariant variant(FlagContext context) {
+		return variant(context, prerequisites.length > 0 ? new EvaluationMemo() : null);
+	}
+
+	/**
+	 * Variant served to the caller, the default variant while the flag is disabled or its
+	 * prerequisites are not met, or {@code null} if the flag has no (valid) variants.
+	 */
+	public FlagVariant variant(FlagContext context, EvaluationMemo memo) {
+		if (!(strategy instanceof VariantAllocation variants)) {
+			return null;
+		}
+		if (memo != null && dependedOn && memo.hasVariant(index)) {
+			return memo.variant(index);
+		}
+
+		FlagVariant variant = enabled && prerequisitesMet(context, memo) ? variants.assign(context)
+				: variants.getDefaultVariant();
+		if (memo != null && dependedOn) {
+			memo.putVariant(index, variant);
+		}
+		return variant;
+	}
+
+	public boolean hasPrerequisites() {
+		return prerequisites.length > 0;
+	}
+
+	Prerequisite[] prerequisites() {
+		return prerequisites;
+	}
+
+	private boolean matches(FlagContext context, EvaluationMemo memo) {
+		return enabled && prerequisitesMet(context, memo) && strategy.matches(context);
+	}
+
+	private boolean prerequisitesMet(FlagContext context, EvaluationMemo memo) {
+		for (Prerequisite prerequisite : prerequisites) {
+			if (!prerequisite.isMet(context, memo)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,55 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import java.util.Arrays;
+
+/**
+ * Results of the flags of one snapshot already evaluated for a context, indexed by their
+ * position in the snapshot's evaluation order. Shared by all flags evaluated in one call
+ * so a prerequisite of many flags is evaluated once. Not thread-safe, and only valid for
+ * the snapshot and context it was used with.
+ */
+public final class EvaluationMemo {
+
+	private static final byte UNKNOWN = 0;
+
+	private static final byte OFF = 1;
+
+	private static final byte ON = 2;
+
+	private static final Object NO_VARIANT = new Object();
+
+	private byte[] results = new byte[0];
+
+	private Object[] variants = new Object[0];
+
+	Boolean result(int index) {
+		if (index >= results.length || results[index] == UNKNOWN) {
+			return null;
+		}
+		return results[index] == ON;
+	}
+
+	void putResult(int index, boolean result) {
+		if (index >= results.length) {
+			results = Arrays.copyOf(results, Math.max(index + 1, results.length * 2));
+		}
+		results[index] = result ? ON : OFF;
+	}
+
+	boolean hasVariant(int index) {
+		return index < variants.length && variants[index] != null;
+	}
+
+	FlagVariant variant(int index) {
+		Object variant = variants[index];
+		return variant == NO_VARIANT ? null : (FlagVariant) variant;
+	}
+
+	void putVariant(int index, FlagVariant variant) {
+		if (index >= variants.length) {
+			variants = Arrays.copyOf(variants, Math.max(index + 1, variants.length * 2));
+		}
+		variants[index] = variant != null ? variant : NO_VARIANT;
+	}
+
+}
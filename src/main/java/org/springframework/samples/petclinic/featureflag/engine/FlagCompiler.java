@@ -0,0 +1,238 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.engine.rule.TargetingRule;
+import org.springframework.samples.petclinic.featureflag.engine.rule.TargetingRuleParser;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+public final class FlagCompiler {
+
+	static final int BLOOM_FILTER_THRESHOLD = 100_000;
+
+	private FlagCompiler() {
+	}
+
+	public static CompiledFlag compile(FeatureFlag flag) {
+		StrategyType type = flag.getStrategyType() != null ? flag.getStrategyType() : StrategyType.BOOLEAN;
+		Map<String, Object> config = flag.getStrategyConfig() != null ? flag.getStrategyConfig() : Map.of();
+
+		FlagStrategy strategy;
+		Prerequisite[] prerequisites;
+		try {
+			strategy = compileStrategy(flag.getFlagKey(), type, config);
+			prerequisites = FlagDependencies.parse(config);
+		}
+		catch (RuntimeException ex) {
+			log.warn("Flag {} has an invalid {} configuration, it will evaluate to false: {}", flag.getFlagKey(), type,
+					ex.getMessage());
+			strategy = FlagStrategy.ALWAYS_OFF;
+			prerequisites = new Prerequisite[0];
+		}
+
+		return new CompiledFlag(flag.getFlagKey(), flag.getEnvironment(), Boolean.TRUE.equals(flag.getEnabled()), type,
+				strategy, prerequisites);
+	}
+
+	/**
+	 * Compiles a strategy configuration and rethrows whatever makes it invalid, so bad
+	 * configurations are rejected when saved instead of silently evaluating to false.
+	 */
+	public static void validate(String flagKey, StrategyType type, Map<String, Object> config) {
+		Map<String, Object> checked = config != null ? config : Map.of();
+		compileStrategy(flagKey, type != null ? type : StrategyType.BOOLEAN, checked);
+		FlagDependencies.parse(checked);
+	}
+
+	public static FlagSnapshot snapshot(String environment, long version, Collection<FeatureFlag> flags) {
+		return new FlagSnapshot(environment, version,
+				FlagDependencies.link(flags.stream().map(FlagCompiler::compile).toList()));
+	}
+
+	private static FlagStrategy compileStrategy(String flagKey, StrategyType type, Map<String, Object> config) {
+		switch (type) {
+			case BOOLEAN:
+				return FlagStrategy.ALWAYS_ON;
+
+			case PERCENTAGE:
+				return compilePercentage(flagKey, config);
+
+			case WHITELIST:
+				return compileTargetList(config.get("whitelist"));
+
+			case BLACKLIST:
+				FlagStrategy blacklist = compileTargetList(config.get("blacklist"));
+				return context -> !blacklist.matches(context);
+
+			case USER_ATTRIBUTE:
+				return compileUserAttribute(config);
+
+			case KILL_SWITCH:
+				return FlagStrategy.ALWAYS_OFF;
+
+			case VARIANT:
+				return compileVariants(flagKey, config);
+
+			default:
+				return FlagStrategy.ALWAYS_ON;
+		}
+	}
+
+	// Percentages may have up to two decimals, each 0.01% is one rollout bucket. The
+	// salt defaults to the flag key; flags given the same salt enable the same users
+	private static FlagStrategy compilePercentage(String flagKey, Map<String, Object> config) {
+		Object raw = config.get("percentage");
+		if (raw == null) {
+			return FlagStrategy.ALWAYS_OFF;
+		}
+
+		double percentage = raw instanceof Number number ? number.doubleValue()
+				: Double.parseDouble(raw.toString().trim());
+		if (Double.isNaN(percentage)) {
+			throw new IllegalArgumentException("percentage is not a number");
+		}
+		long enabledBuckets = Math.round(percentage * RolloutBuckets.BUCKETS / 100);
+		if (enabledBuckets <= 0) {
+			return FlagStrategy.ALWAYS_OFF;
+		}
+		if (enabledBuckets >= RolloutBuckets.BUCKETS) {
+			return FlagStrategy.ALWAYS_ON;
+		}
+
+		Object salt = config.get("salt");
+		return new PercentageStrategy(salt != null ? salt.toString() : flagKey, (int) enabledBuckets);
+	}
+
+	// Weights are relative and split the rollout buckets in list order, a
+	// weight of 0 keeps a variant defined without serving it. The salt defaults
+	// to the flag key, as for percentages
+	private static VariantAllocation compileVariants(String flagKey, Map<String, Object> config) {
+		if (!(config.get("variants") instanceof List<?> entries) || entries.isEmpty()) {
+			throw new IllegalArgumentException("variants must be a non-empty list");
+		}
+
+		FlagVariant[] variants = new FlagVariant[entries.size()];
+		double[] weights = new double[entries.size()];
+		double total = 0;
+		Set<String> names = new HashSet<>();
+		for (int i = 0; i < variants.length; i++) {
+			if (!(entries.get(i) instanceof Map<?, ?> entry) || entry.get("name") == null) {
+				throw new IllegalArgumentException("variant " + i + " needs a name");
+			}
+			String name = entry.get("name").toString();
+			if (!names.add(name)) {
+				throw new IllegalArgumentException("duplicate variant " + name);
+			}
+
+			Object weight = entry.get("weight");
+			weights[i] = weight == null ? 1 : weight instanceof Number number ? number.doubleValue()
+					: Double.parseDouble(weight.toString().trim());
+			if (!(weights[i] >= 0) || Double.isInfinite(weights[i])) {
+				throw new IllegalArgumentException("variant " + name + " has an invalid weight");
+			}
+			total += weights[i];
+			variants[i] = new FlagVariant(name, FlagVariant.payload(entry.get("value")));
+		}
+		if (total <= 0) {
+			throw new IllegalArgumentException("variant weights must not all be 0");
+		}
+
+		int[] upperBounds = new int[variants.length];
+		double cumulative = 0;
+		for (int i = 0; i < variants.length; i++) {
+			cumulative += weights[i];
+			upperBounds[i] = (int) Math.round(cumulative * RolloutBuckets.BUCKETS / total);
+		}
+
+		FlagVariant defaultVariant = null;
+		Object defaultName = config.get("defaultVariant");
+		if (defaultName != null) {
+			for (FlagVariant variant : variants) {
+				if (variant.getName().equals(defaultName.toString())) {
+					defaultVariant = variant;
+				}
+			}
+			if (defaultVariant == null) {
+				throw new IllegalArgumentException("unknown defaultVariant " + defaultName);
+			}
+		}
+
+		Object salt = config.get("salt");
+		return new VariantAllocation(salt != null ? salt.toString() : flagKey, upperBounds, variants, defaultVariant);
+	}
+
+	// Entries that parse as IP addresses or CIDR ranges go into the trie, everything else
+	// is a user id
+	private static FlagStrategy compileTargetList(Object raw) {
+		if (!(raw instanceof Collection<?> entries) || entries.isEmpty()) {
+			return FlagStrategy.ALWAYS_OFF;
+		}
+
+		Set<String> userIds = new HashSet<>(entries.size() * 2);
+		IpPrefixTrie ipRanges = new IpPrefixTrie();
+		for (Object entry : entries) {
+			if (entry != null) {
+				String target = entry.toString().trim();
+				if (!ipRanges.add(target)) {
+					userIds.add(target);
+				}
+			}
+		}
+
+		BloomFilter userIdFilter = null;
+		if (userIds.size() >= BLOOM_FILTER_THRESHOLD) {
+			userIdFilter = new BloomFilter(userIds.size(), 0.01);
+			userIds.forEach(userIdFilter::add);
+		}
+		return new TargetListStrategy(Set.copyOf(userIds), userIdFilter, ipRanges);
+	}
+
+	// "attributes" is the legacy all-equal match, "rule" an expression parsed by
+	// TargetingRuleParser. When both are set a context has to satisfy both
+	private static FlagStrategy compileUserAttribute(Map<String, Object> config) {
+		Object attributes = config.get("attributes");
+		Object rule = config.get("rule");
+		if (rule == null) {
+			return compileAttributeMatch(attributes);
+		}
+
+		TargetingRule targetingRule = TargetingRuleParser.parse(rule.toString());
+		FlagStrategy ruleStrategy = context -> {
+			Map<String, String> values = context.getAttributes();
+			return targetingRule.test(values != null ? values : Map.of());
+		};
+		if (attributes == null) {
+			return ruleStrategy;
+		}
+
+		FlagStrategy attributeMatch = compileAttributeMatch(attributes);
+		return context -> attributeMatch.matches(context) && ruleStrategy.matches(context);
+	}
+
+	private static FlagStrategy compileAttributeMatch(Object raw) {
+		if (!(raw instanceof Map<?, ?> required)) {
+			return FlagStrategy.ALWAYS_OFF;
+		}
+
+		String[] names = new String[required.size()];
+		String[] values = new String[required.size()];
+		int i = 0;
+		for (Map.Entry<?, ?> entry : required.entrySet()) {
+			if (entry.getValue() == null) {
+				return FlagStrategy.ALWAYS_OFF;
+			}
+			names[i] = String.valueOf(entry.getKey());
+			values[i] = entry.getValue().toString();
+			i++;
+		}
+		return new AttributeMatchStrategy(names, values);
+	}
+
+}
@@ -0,0 +1,182 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prerequisites are configured as {@code "prerequisites": ["flag_a", {"flag": "flag_b",
+ * "variant": "treatment"}]}: the flag is only evaluated for callers for whom every listed
+ * flag is on, or serves the listed variant.
+ */
+@Slf4j
+public final class FlagDependencies {
+
+	public static final String PREREQUISITES = "prerequisites";
+
+	private FlagDependencies() {
+	}
+
+	/**
+	 * Keys of the prerequisite flags in a strategy configuration.
+	 * @throws IllegalArgumentException if the prerequisites are malformed
+	 */
+	public static List<String> prerequisiteKeys(Map<String, Object> config) {
+		List<String> keys = new ArrayList<>();
+		for (Prerequisite prerequisite : parse(config)) {
+			keys.add(prerequisite.getFlagKey());
+		}
+		return keys;
+	}
+
+	/**
+	 * Finds a prerequisite cycle in a graph of flag keys to their prerequisites' keys.
+	 * @return the keys along the cycle, starting and ending with the same key, or an
+	 * empty list if there is none
+	 */
+	public static List<String> findCycle(Map<String, List<String>> prerequisites) {
+		Map<String, Boolean> finished = new HashMap<>();
+		for (String start : prerequisites.keySet()) {
+			if (finished.containsKey(start)) {
+				continue;
+			}
+
+			// Iterative depth-first search, the path holds the
+			// flags currently being visited
+			Deque<String> path = new ArrayDeque<>();
+			Deque<Integer> next = new ArrayDeque<>();
+			path.push(start);
+			next.push(0);
+			finished.put(start, false);
+			while (!path.isEmpty()) {
+				String flag = path.peek();
+				List<String> edges = prerequisites.getOrDefault(flag, List.of());
+				int edge = next.pop();
+				if (edge == edges.size()) {
+					finished.put(path.pop(), true);
+					continue;
+				}
+				next.push(edge + 1);
+				String prerequisite = edges.get(edge);
+				Boolean state = finished.get(prerequisite);
+				if (state == null) {
+					finished.put(prerequisite, false);
+					path.push(prerequisite);
+					next.push(0);
+				}
+				else if (!state) {
+					List<String> cycle = new ArrayList<>();
+					cycle.add(prerequisite);
+					for (String onPath : path) {
+						cycle.add(0, onPath);
+						if (onPath.equals(prerequisite)) {
+							break;
+						}
+					}
+					return cycle;
+				}
+			}
+		}
+		return List.of();
+	}
+
+	static Prerequisite[] parse(Map<String, Object> config) {
+		Object raw = config.get(PREREQUISITES);
+		if (raw == null) {
+			return new Prerequisite[0];
+		}
+		if (!(raw instanceof List<?> entries)) {
+			throw new IllegalArgumentException("prerequisites must be a list");
+		}
+
+		Prerequisite[] prerequisites = new Prerequisite[entries.size()];
+		for (int i = 0; i < prerequisites.length; i++) {
+			Object entry = entries.get(i);
+			if (entry instanceof String flagKey && !flagKey.isBlank()) {
+				prerequisites[i] = new Prerequisite(flagKey.trim(), null);
+			}
+			else if (entry instanceof Map<?, ?> map && map.get("flag") != null) {
+				Object variant = map.get("variant");
+				prerequisites[i] = new Prerequisite(map.get("flag").toString().trim(),
+						variant != null ? variant.toString() : null);
+			}
+			else {
+				throw new IllegalArgumentException("prerequisite " + i + " must be a flag key or {\"flag\": ...}");
+			}
+		}
+		return prerequisites;
+	}
+
+	/**
+	 * Resolves prerequisites within one snapshot and returns its flags in topological
+	 * order, prerequisites before their dependents. Flags on or behind a prerequisite
+	 * cycle, which can only exist if the table was changed directly, are left unresolved
+	 * and evaluate to false.
+	 */
+	static List<CompiledFlag> link(Collection<CompiledFlag> flags) {
+		Map<String, CompiledFlag> byKey = new LinkedHashMap<>(flags.size() * 2);
+		for (CompiledFlag flag : flags) {
+			byKey.put(flag.getFlagKey(), flag);
+		}
+
+		Map<CompiledFlag, Integer> pending = new HashMap<>();
+		Map<CompiledFlag, List<CompiledFlag>> dependents = new HashMap<>();
+		Deque<CompiledFlag> ready = new ArrayDeque<>();
+		for (CompiledFlag flag : byKey.values()) {
+			int count = 0;
+			for (Prerequisite prerequisite : flag.prerequisites()) {
+				CompiledFlag required = byKey.get(prerequisite.getFlagKey());
+				if (required != null) {
+					count++;
+					dependents.computeIfAbsent(required, key -> new ArrayList<>()).add(flag);
+				}
+			}
+			pending.put(flag, count);
+			if (count == 0) {
+				ready.add(flag);
+			}
+		}
+
+		List<CompiledFlag> ordered = new ArrayList<>(byKey.size());
+		while (!ready.isEmpty()) {
+			CompiledFlag flag = ready.poll();
+			flag.index = ordered.size();
+			ordered.add(flag);
+			for (Prerequisite prerequisite : flag.prerequisites()) {
+				CompiledFlag required = byKey.get(prerequisite.getFlagKey());
+				prerequisite.resolve(required);
+				if (required != null) {
+					required.dependedOn = true;
+				}
+			}
+			for (CompiledFlag dependent : dependents.getOrDefault(flag, List.of())) {
+				if (pending.merge(dependent, -1, Integer::sum) == 0) {
+					ready.add(dependent);
+				}
+			}
+		}
+
+		if (ordered.size() < byKey.size()) {
+			Set<String> blocked = new HashSet<>();
+			for (CompiledFlag flag : byKey.values()) {
+				if (flag.index < 0) {
+					flag.index = ordered.size();
+					ordered.add(flag);
+					blocked.add(flag.getFlagKey());
+				}
+			}
+			log.warn("Flags {} are on or behind a prerequisite cycle, they will evaluate to false", blocked);
+		}
+		return ordered;
+	}
+
+}
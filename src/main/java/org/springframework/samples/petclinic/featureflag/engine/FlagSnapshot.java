@@ -0,0 +1,44 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+public final class FlagSnapshot {
+
+	private final String environment;
+
+	private final long version;
+
+	private final Instant loadedAt;
+
+	private final Map<String, CompiledFlag> flags;
+
+	// Prerequisites before their dependents
+	private final List<CompiledFlag> evaluationOrder;
+
+	FlagSnapshot(String environment, long version, List<CompiledFlag> flags) {
+		Map<String, CompiledFlag> byKey = new HashMap<>(flags.size() * 2);
+		for (CompiledFlag flag : flags) {
+			byKey.put(flag.getFlagKey(), flag);
+		}
+		this.environment = environment;
+		this.version = version;
+		this.loadedAt = Instant.now();
+		this.flags = Map.copyOf(byKey);
+		this.evaluationOrder = List.copyOf(flags);
+	}
+
+	public CompiledFlag get(String flagKey) {
+		return flagKey != null ? flags.get(flagKey) : null;
+	}
+
+	public int size() {
+		return flags.size();
+	}
+
+}
@@ -0,0 +1,271 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.samples.petclinic.featureflag.config.FlagSnapshotFileProperties;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the flag definitions each snapshot was compiled from in one small JSON file per
+ * environment. Loads that reached the database are staged and written by a background
+ * thread every {@code writeInterval} if they changed; each write goes to a temporary file
+ * that is then moved over the previous one, so readers never see a partial file.
+ */
+@Component
+@Slf4j
+public class FlagSnapshotFileStore {
+
+	private static final String PREFIX = "flags-";
+
+	private static final String SUFFIX = ".json";
+
+	private final FlagSnapshotFileProperties properties;
+
+	private final JsonMapper jsonMapper;
+
+	private final Map<String, List<Entry>> staged = new ConcurrentHashMap<>();
+
+	private final Map<String, List<Entry>> written = new ConcurrentHashMap<>();
+
+	private final ScheduledExecutorService writer;
+
+	public FlagSnapshotFileStore(FlagSnapshotFileProperties properties, JsonMapper jsonMapper) {
+		this.properties = properties;
+		this.jsonMapper = jsonMapper;
+		if (properties.isEnabled()) {
+			long interval = properties.getWriteInterval().toMillis();
+			this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "flag-snapshot-writer");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.writer.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+		}
+		else {
+			this.writer = null;
+		}
+	}
+
+	public void stage(String environment, List<FeatureFlag> flags) {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		// An empty load of an environment never written is not worth a file
+		if (flags.isEmpty() && !written.containsKey(environment) && !Files.exists(file(environment))) {
+			return;
+		}
+		List<Entry> entries = new ArrayList<>(flags.size());
+		for (FeatureFlag flag : flags) {
+			entries.add(Entry.of(flag));
+		}
+		if (!entries.equals(written.get(environment))) {
+			staged.put(environment, entries);
+		}
+	}
+
+	/**
+	 * Flags of the last snapshot written for {@code environment}, or {@code null} if
+	 * there is none or it cannot be read.
+	 */
+	public List<FeatureFlag> load(String environment) {
+		if (!properties.isEnabled()) {
+			return null;
+		}
+		SnapshotFile snapshot = read(file(environment));
+		return snapshot != null ? snapshot.toFlags() : null;
+	}
+
+	/**
+	 * Flags of every environment a snapshot was written for.
+	 */
+	public Map<String, List<FeatureFlag>> loadAll() {
+		Map<String, List<FeatureFlag>> environments = new HashMap<>();
+		if (!properties.isEnabled() || !Files.isDirectory(properties.getDirectory())) {
+			return environments;
+		}
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(properties.getDirectory(), PREFIX + "*" + SUFFIX)) {
+			for (Path file : files) {
+				SnapshotFile snapshot = read(file);
+				if (snapshot != null) {
+					environments.put(snapshot.environment(), snapshot.toFlags());
+				}
+			}
+		}
+		catch (IOException ex) {
+			log.warn("Unable to list flag snapshot files in {}: {}", properties.getDirectory(), ex.getMessage());
+		}
+		return environments;
+	}
+
+	/**
+	 * Forgets every environment outside {@code environments}, the ones that have flags,
+	 * and deletes its snapshot file.
+	 */
+	public void retain(Set<String> environments) {
+		staged.keySet().retainAll(environments);
+		written.keySet().retainAll(environments);
+		if (!properties.isEnabled() || !Files.isDirectory(properties.getDirectory())) {
+			return;
+		}
+		Set<Path> keep = new HashSet<>();
+		for (String environment : environments) {
+			keep.add(file(environment));
+		}
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(properties.getDirectory(), PREFIX + "*" + SUFFIX)) {
+			for (Path file : files) {
+				if (!keep.contains(file)) {
+					Files.deleteIfExists(file);
+					log.info("Deleted flag snapshot file {} of an environment without flags", file);
+				}
+			}
+		}
+		catch (IOException ex) {
+			log.warn("Unable to clean up flag snapshot files in {}: {}", properties.getDirectory(), ex.getMessage());
+		}
+	}
+
+	public void flush() {
+		for (String environment : List.copyOf(staged.keySet())) {
+			List<Entry> entries = staged.remove(environment);
+			if (entries == null || entries.equals(written.get(environment))) {
+				continue;
+			}
+			try {
+				write(environment, entries);
+				written.put(environment, entries);
+			}
+			catch (IOException | JacksonException ex) {
+				// Retried with the next flush unless newer flags were staged meanwhile
+				staged.putIfAbsent(environment, entries);
+				log.warn("Unable to write flag snapshot of environment {}: {}", environment, ex.getMessage());
+			}
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		if (writer != null) {
+			writer.shutdownNow();
+			flush();
+		}
+	}
+
+	private void write(String environment, List<Entry> entries) throws IOException {
+		Path file = file(environment);
+		Files.createDirectories(properties.getDirectory());
+		Path temp = Files.createTempFile(properties.getDirectory(), file.getFileName().toString(), ".tmp");
+		try {
+			byte[] content = jsonMapper.writeValueAsBytes(new SnapshotFile(environment, Instant.now(), entries));
+			Files.write(temp, content);
+			try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				channel.force(true);
+			}
+			try {
+				Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException ex) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+			log.debug("Wrote {} flags of environment {} to {}", entries.size(), environment, file);
+		}
+		finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private SnapshotFile read(Path file) {
+		try {
+			// Read into the heap rather than mapped: an open mapping blocks
+			// replacing the file on Windows
+			byte[] content = Files.readAllBytes(file);
+			SnapshotFile snapshot = jsonMapper.readValue(content, SnapshotFile.class);
+			log.info("Read {} flags of environment {} from {}, written at {}", snapshot.flags().size(),
+					snapshot.environment(), file, snapshot.savedAt());
+			return snapshot;
+		}
+		catch (NoSuchFileException ex) {
+			return null;
+		}
+		catch (IOException | JacksonException ex) {
+			log.warn("Unable to read flag snapshot file {}: {}", file, ex.getMessage());
+			return null;
+		}
+	}
+
+	// Environment names are free text, so every byte outside [a-z0-9_-] is written
+	// as %XX: safe in a file name, and distinct names never share a file, even where
+	// file names are case-insensitive
+	static String fileName(String environment) {
+		StringBuilder name = new StringBuilder(PREFIX);
+		for (byte b : environment.getBytes(StandardCharsets.UTF_8)) {
+			char c = (char) (b & 0xff);
+			if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '-') {
+				name.append(c);
+			}
+			else {
+				name.append('%').append(String.format("%02X", b & 0xff));
+			}
+		}
+		return name.append(SUFFIX).toString();
+	}
+
+	private Path file(String environment) {
+		return properties.getDirectory().resolve(fileName(environment));
+	}
+
+	record SnapshotFile(String environment, Instant savedAt, List<Entry> flags) {
+
+		List<FeatureFlag> toFlags() {
+			List<FeatureFlag> converted = new ArrayList<>(flags.size());
+			for (Entry entry : flags) {
+				converted.add(entry.toFlag(environment));
+			}
+			return converted;
+		}
+	}
+
+	record Entry(String flagKey, boolean enabled, StrategyType strategyType, Map<String, Object> strategyConfig) {
+
+		static Entry of(FeatureFlag flag) {
+			return new Entry(flag.getFlagKey(), Boolean.TRUE.equals(flag.getEnabled()), flag.getStrategyType(),
+					flag.getStrategyConfig() != null ? new HashMap<>(flag.getStrategyConfig()) : Map.of());
+		}
+
+		FeatureFlag toFlag(String environment) {
+			FeatureFlag flag = new FeatureFlag();
+			flag.setFlagKey(flagKey);
+			flag.setEnabled(enabled);
+			flag.setStrategyType(strategyType);
+			flag.setStrategyConfig(strategyConfig != null ? strategyConfig : new HashMap<>());
+			flag.setEnvironment(environment);
+			return flag;
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessException;
+import org.springframework.samples.petclinic.featureflag.config.FeatureFlagCacheProperties;
+import org.springframework.samples.petclinic.featureflag.event.FlagChangedEvent;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.repository.FeatureFlagRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiled flag snapshots, one per environment that has flags. Environments are read from
+ * the database at most once per snapshot refresh interval; evaluations for any other
+ * environment get an empty snapshot that is neither cached nor written to disk, so
+ * arbitrary environment names from clients cannot evict the snapshots in use.
+ */
+@Component
+@Slf4j
+public class FlagSnapshotRegistry {
+
+	public static final String DEFAULT_ENVIRONMENT = "development";
+
+	private final AtomicLong versions = new AtomicLong();
+
+	private final FeatureFlagRepository repository;
+
+	private final FlagSnapshotFileStore fileStore;
+
+	private final LoadingCache<String, FlagSnapshot> snapshots;
+
+	private final long environmentsRefreshNanos;
+
+	private final AtomicLong environmentsCheckedAt;
+
+	private volatile Set<String> environments = Set.of(DEFAULT_ENVIRONMENT);
+
+	public FlagSnapshotRegistry(FeatureFlagRepository repository, FlagSnapshotFileStore fileStore,
+			FeatureFlagCacheProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+		this.repository = repository;
+		this.fileStore = fileStore;
+		this.snapshots = properties.getSnapshots().toCaffeine().build(new SnapshotLoader());
+		Duration refresh = properties.getSnapshots().getRefreshAfterWrite();
+		this.environmentsRefreshNanos = (refresh != null ? refresh : Duration.ofMinutes(5)).toNanos();
+		this.environmentsCheckedAt = new AtomicLong(System.nanoTime() - environmentsRefreshNanos);
+		meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, snapshots,
+				FeatureFlagCacheProperties.FLAG_SNAPSHOTS));
+	}
+
+	/**
+	 * Serves the flags written to the local snapshot files until the database answered,
+	 * so that a starting node evaluates without waiting for, or needing, the database.
+	 */
+	@PostConstruct
+	public void bootstrap() {
+		Set<String> stored = new HashSet<>(environments);
+		fileStore.loadAll().forEach((environment, flags) -> {
+			stored.add(environment);
+			snapshots.asMap()
+				.putIfAbsent(environment, FlagCompiler.snapshot(environment, versions.incrementAndGet(), flags));
+			snapshots.refresh(environment);
+		});
+		environments = Set.copyOf(stored);
+		refreshEnvironments();
+	}
+
+	public FlagSnapshot snapshot(String environment) {
+		String env = environment != null ? environment : DEFAULT_ENVIRONMENT;
+		if (!environments.contains(env) && !refreshEnvironments().contains(env)) {
+			return FlagCompiler.snapshot(env, 0, List.of());
+		}
+		return snapshots.get(env);
+	}
+
+	public FlagSnapshot reload(String environment) {
+		String env = environment != null ? environment : DEFAULT_ENVIRONMENT;
+		FlagSnapshot loaded = loadOrKeep(env, null);
+		// Concurrent reloads may finish out of order, the later read always wins
+		return snapshots.asMap()
+			.merge(env, loaded,
+					(current, candidate) -> candidate.getVersion() >= current.getVersion() ? candidate : current);
+	}
+
+	public void reloadAll() {
+		for (String environment : snapshots.asMap().keySet()) {
+			reload(environment);
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFlagChanged(FlagChangedEvent event) {
+		if (!environments.containsAll(event.getEnvironments())) {
+			Set<String> known = new HashSet<>(environments);
+			known.addAll(event.getEnvironments());
+			environments = Set.copyOf(known);
+		}
+		for (String environment : event.getEnvironments()) {
+			if (snapshots.getIfPresent(environment) != null) {
+				FlagSnapshot snapshot = reload(environment);
+				log.debug("Swapped {} snapshot to version {} after {} of {}", environment, snapshot.getVersion(),
+						event.getAction(), event.getFlagKey());
+			}
+		}
+	}
+
+	/**
+	 * Environments that have flags, read again once the refresh interval has passed since
+	 * the last read. The previous set is kept while the database is unavailable.
+	 */
+	private Set<String> refreshEnvironments() {
+		long now = System.nanoTime();
+		long checkedAt = environmentsCheckedAt.get();
+		if (now - checkedAt < environmentsRefreshNanos || !environmentsCheckedAt.compareAndSet(checkedAt, now)) {
+			return environments;
+		}
+		try {
+			Set<String> loaded = new HashSet<>(repository.findDistinctEnvironments());
+			loaded.add(DEFAULT_ENVIRONMENT);
+			environments = Set.copyOf(loaded);
+			snapshots.asMap().keySet().retainAll(loaded);
+			fileStore.retain(loaded);
+		}
+		catch (DataAccessException ex) {
+			log.warn("Unable to read flag environments, keeping {}: {}", environments, ex.getMessage());
+		}
+		return environments;
+	}
+
+	private FlagSnapshot loadOrKeep(String environment, FlagSnapshot previous) {
+		FlagSnapshot current = previous != null ? previous : snapshots.getIfPresent(environment);
+		try {
+			List<FeatureFlag> flags = repository.findByEnvironment(environment);
+			FlagSnapshot loaded = FlagCompiler.snapshot(environment, versions.incrementAndGet(), flags);
+			fileStore.stage(environment, flags);
+			return loaded;
+		}
+		catch (DataAccessException ex) {
+			if (current != null) {
+				log.error("Unable to load feature flags for environment {}, keeping previous snapshot", environment,
+						ex);
+				return current;
+			}
+			List<FeatureFlag> stored = fileStore.load(environment);
+			log.error("Unable to load feature flags for environment {}, {}", environment,
+					stored != null ? "serving the local snapshot file" : "no flags are available", ex);
+			return FlagCompiler.snapshot(environment, versions.incrementAndGet(), stored != null ? stored : List.of());
+		}
+	}
+
+	private class SnapshotLoader implements CacheLoader<String, FlagSnapshot> {
+
+		@Override
+		public FlagSnapshot load(String environment) {
+			return loadOrKeep(environment, null);
+		}
+
+		@Override
+		public FlagSnapshot reload(String environment, FlagSnapshot oldValue) {
+			return loadOrKeep(environment, oldValue);
+		}
+
+	}
+
+}
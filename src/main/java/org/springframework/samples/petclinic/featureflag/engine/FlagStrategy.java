@@ -0,0 +1,14 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+
+@FunctionalInterface
+public interface FlagStrategy {
+
+	FlagStrategy ALWAYS_ON = context -> true;
+
+	FlagStrategy ALWAYS_OFF = context -> false;
+
+	boolean matches(FlagContext context);
+
+}
@@ -0,0 +1,74 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A named variant of a VARIANT flag and its payload. Scalar payloads are kept as
+ * {@code String}, {@code Number} or {@code Boolean}, objects and arrays as a
+ * {@link JsonNode}, all built when the flag is compiled. Conversions to other types
+ * happen once per type and are shared between callers, who must not modify them.
+ */
+public final class FlagVariant {
+
+	private final String name;
+
+	private final Object value;
+
+	private final Map<Class<?>, Object> converted = new ConcurrentHashMap<>();
+
+	FlagVariant(String name, Object value) {
+		this.name = name;
+		this.value = value;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Object getValue() {
+		return value;
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the payload cannot be converted to {@code type}
+	 */
+	public <T> T getValue(Class<T> type) {
+		if (value == null || type.isInstance(value)) {
+			return type.cast(value);
+		}
+
+		Object result = converted.get(type);
+		if (result == null) {
+			result = converted.computeIfAbsent(type, this::convert);
+		}
+		return type.cast(result);
+	}
+
+	// Jackson 3 reports conversion failures as its own unchecked exceptions
+	private Object convert(Class<?> type) {
+		try {
+			return JsonMapper.shared().convertValue(value, type);
+		}
+		catch (JacksonException ex) {
+			throw new IllegalArgumentException(ex.getOriginalMessage(), ex);
+		}
+	}
+
+	static Object payload(Object raw) {
+		if (raw == null || raw instanceof String || raw instanceof Number || raw instanceof Boolean) {
+			return raw;
+		}
+		return JsonMapper.shared().valueToTree(raw);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
@@ -0,0 +1,241 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Binary trie over IPv4 and IPv6 address bits holding single addresses and CIDR ranges,
+ * so a lookup takes at most 32 or 128 steps whatever the number of rules. Addresses are
+ * parsed by hand: {@link java.net.InetAddress} would fall back to a DNS lookup for
+ * entries such as user ids that merely look like addresses. IPv4 lookups do not allocate.
+ */
+final class IpPrefixTrie {
+
+	private static final int V4_ROOT = 0;
+
+	private static final int V6_ROOT = 1;
+
+	// Two child slots per node, 0 means no child (the roots are never children)
+	private int[] children = new int[64];
+
+	private final BitSet terminal = new BitSet();
+
+	private int nodeCount = 2;
+
+	private int size;
+
+	/**
+	 * Adds an address or CIDR range.
+	 * @return false if the entry is not an IP address and so was not added
+	 * @throws IllegalArgumentException for an address with an invalid prefix length
+	 */
+	boolean add(String entry) {
+		int slash = entry.indexOf('/');
+		int end = slash < 0 ? entry.length() : slash;
+		long[] address = new long[2];
+		int width;
+		long v4 = parseIpv4(entry, 0, end);
+		if (v4 >= 0) {
+			address[0] = v4 << 32;
+			width = 32;
+		}
+		else if (parseIpv6(entry, end, address)) {
+			width = 128;
+		}
+		else {
+			return false;
+		}
+
+		int prefix = width;
+		if (slash >= 0) {
+			try {
+				prefix = Integer.parseInt(entry.substring(slash + 1));
+			}
+			catch (NumberFormatException ex) {
+				prefix = -1;
+			}
+			if (prefix < 0 || prefix > width) {
+				throw new IllegalArgumentException("Invalid prefix length in " + entry);
+			}
+		}
+
+		insert(width == 32 ? V4_ROOT : V6_ROOT, address[0], address[1], prefix);
+		size++;
+		return true;
+	}
+
+	boolean contains(String ipAddress) {
+		if (ipAddress == null || size == 0) {
+			return false;
+		}
+
+		long v4 = parseIpv4(ipAddress, 0, ipAddress.length());
+		if (v4 >= 0) {
+			return matches(V4_ROOT, v4 << 32, 0, 32);
+		}
+		long[] address = new long[2];
+		return parseIpv6(ipAddress, ipAddress.length(), address) && matches(V6_ROOT, address[0], address[1], 128);
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void insert(int root, long hi, long lo, int prefix) {
+		int node = root;
+		for (int i = 0; i < prefix; i++) {
+			int slot = 2 * node + bit(hi, lo, i);
+			if (slot >= children.length) {
+				children = Arrays.copyOf(children, Math.max(children.length * 2, slot + 2));
+			}
+			if (children[slot] == 0) {
+				if (2 * nodeCount + 2 > children.length) {
+					children = Arrays.copyOf(children, children.length * 2);
+				}
+				children[slot] = nodeCount++;
+			}
+			node = children[slot];
+		}
+		terminal.set(node);
+	}
+
+	private boolean matches(int root, long hi, long lo, int width) {
+		int node = root;
+		for (int i = 0; i < width; i++) {
+			if (terminal.get(node)) {
+				return true;
+			}
+			int slot = 2 * node + bit(hi, lo, i);
+			if (slot >= children.length || children[slot] == 0) {
+				return false;
+			}
+			node = children[slot];
+		}
+		return terminal.get(node);
+	}
+
+	private static int bit(long hi, long lo, int index) {
+		return (int) (index < 64 ? hi >>> (63 - index) : lo >>> (127 - index)) & 1;
+	}
+
+	// Dotted quad to an unsigned 32-bit value, or -1 if the range is not one
+	static long parseIpv4(String value, int from, int to) {
+		long address = 0;
+		int octet = -1;
+		int dots = 0;
+		for (int i = from; i < to; i++) {
+			char c = value.charAt(i);
+			if (c == '.') {
+				if (octet < 0 || dots == 3) {
+					return -1;
+				}
+				address = address << 8 | octet;
+				octet = -1;
+				dots++;
+			}
+			else if (c >= '0' && c <= '9') {
+				octet = octet < 0 ? c - '0' : octet * 10 + (c - '0');
+				if (octet > 255) {
+					return -1;
+				}
+			}
+			else {
+				return -1;
+			}
+		}
+		if (octet < 0 || dots != 3) {
+			return -1;
+		}
+		return address << 8 | octet;
+	}
+
+	// RFC 4291 text form, with :: compression, an embedded IPv4
+	// tail and an ignored zone id
+	static boolean parseIpv6(String value, int end, long[] address) {
+		int zone = value.indexOf('%');
+		if (zone >= 0 && zone < end) {
+			end = zone;
+		}
+		if (end < 2 || value.indexOf(':') < 0) {
+			return false;
+		}
+
+		int[] groups = new int[8];
+		int count = 0;
+		int compressAt = -1;
+		int i = 0;
+		if (value.startsWith("::")) {
+			compressAt = 0;
+			i = 2;
+		}
+		while (i < end) {
+			int next = value.indexOf(':', i);
+			if (next < 0 || next > end) {
+				next = end;
+			}
+
+			if (next == end && value.indexOf('.', i) >= 0) {
+				long v4 = parseIpv4(value, i, end);
+				if (v4 < 0 || count > 6) {
+					return false;
+				}
+				groups[count++] = (int) (v4 >>> 16);
+				groups[count++] = (int) (v4 & 0xFFFF);
+				break;
+			}
+			int length = next - i;
+			if (length == 0 || length > 4 || count == 8) {
+				return false;
+			}
+			int group = 0;
+			for (int j = i; j < next; j++) {
+				int digit = Character.digit(value.charAt(j), 16);
+				if (digit < 0) {
+					return false;
+				}
+				group = group << 4 | digit;
+			}
+			groups[count++] = group;
+
+			if (next == end) {
+				break;
+			}
+			if (next + 1 < end && value.charAt(next + 1) == ':') {
+				if (compressAt >= 0) {
+					return false;
+				}
+				compressAt = count;
+				i = next + 2;
+			}
+			else {
+				i = next + 1;
+				if (i == end) {
+					return false;
+				}
+			}
+		}
+		if (compressAt < 0 ? count != 8 : count > 7) {
+			return false;
+		}
+
+		int[] expanded = new int[8];
+		if (compressAt < 0) {
+			expanded = groups;
+		}
+		else {
+			System.arraycopy(groups, 0, expanded, 0, compressAt);
+			int tail = count - compressAt;
+			System.arraycopy(groups, compressAt, expanded, 8 - tail, tail);
+		}
+		long hi = 0;
+		long lo = 0;
+		for (int g = 0; g < 4; g++) {
+			hi = hi << 16 | expanded[g];
+			lo = lo << 16 | expanded[g + 4];
+		}
+		address[0] = hi;
+		address[1] = lo;
+		return true;
+	}
+
+}
@@ -0,0 +1,27 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+
+final class PercentageStrategy implements FlagStrategy {
+
+	private final long seed;
+
+	// Number of the RolloutBuckets.BUCKETS buckets that are enabled
+	private final int enabledBuckets;
+
+	PercentageStrategy(String salt, int enabledBuckets) {
+		this.seed = RolloutBuckets.seed(salt);
+		this.enabledBuckets = enabledBuckets;
+	}
+
+	@Override
+	public boolean matches(FlagContext context) {
+		String identifier = context.getUserId() != null ? context.getUserId() : context.getSessionId();
+		if (identifier == null) {
+			return false;
+		}
+
+		return RolloutBuckets.bucket(seed, identifier) < enabledBuckets;
+	}
+
+}
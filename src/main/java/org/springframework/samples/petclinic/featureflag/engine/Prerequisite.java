@@ -0,0 +1,43 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+
+/**
+ * A flag that has to be on, or serve a given variant, for a dependent flag to be
+ * evaluated. The flag is resolved when the snapshot is linked and stays {@code null} if
+ * it does not exist, in which case the prerequisite is never met.
+ */
+final class Prerequisite {
+
+	private final String flagKey;
+
+	private final String variant;
+
+	private CompiledFlag flag;
+
+	Prerequisite(String flagKey, String variant) {
+		this.flagKey = flagKey;
+		this.variant = variant;
+	}
+
+	String getFlagKey() {
+		return flagKey;
+	}
+
+	void resolve(CompiledFlag flag) {
+		this.flag = flag;
+	}
+
+	boolean isMet(FlagContext context, EvaluationMemo memo) {
+		if (flag == null) {
+			return false;
+		}
+		if (variant == null) {
+			return flag.evaluate(context, memo);
+		}
+
+		FlagVariant served = flag.variant(context, memo);
+		return served != null && served.getName().equals(variant);
+	}
+
+}
@@ -0,0 +1,65 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+/**
+ * Assigns identifiers to one of {@link #BUCKETS} rollout buckets (0.01% each) using the
+ * 64-bit MurmurHash3 block and finalization steps over the UTF-16 code units of the
+ * identifier, seeded with a hash of the flag's salt. No strings are built or copied, and
+ * a given salt and identifier always land in the same bucket, so a rollout that grows
+ * from p to q percent keeps everyone it already enabled.
+ */
+public final class RolloutBuckets {
+
+	public static final int BUCKETS = 10_000;
+
+	private static final long C1 = 0x87c37b91114253d5L;
+
+	private static final long C2 = 0x4cf5ad432745937fL;
+
+	private RolloutBuckets() {
+	}
+
+	public static long seed(String salt) {
+		return hash(0x9747b28cL, salt);
+	}
+
+	public static int bucket(long seed, String identifier) {
+		return (int) Long.remainderUnsigned(hash(seed, identifier), BUCKETS);
+	}
+
+	public static long hash(long seed, String value) {
+		int length = value.length();
+		long h = seed;
+		int i = 0;
+		// Four chars make one 64-bit block
+		for (; i + 4 <= length; i += 4) {
+			long k = value.charAt(i) | (long) value.charAt(i + 1) << 16 | (long) value.charAt(i + 2) << 32
+					| (long) value.charAt(i + 3) << 48;
+			h ^= mixK(k);
+			h = Long.rotateLeft(h, 27) * 5 + 0x52dce729;
+		}
+		if (i < length) {
+			long k = 0;
+			for (int shift = 0; i < length; i++, shift += 16) {
+				k |= (long) value.charAt(i) << shift;
+			}
+			h ^= mixK(k);
+		}
+		h ^= (long) length << 1;
+		return fmix(h);
+	}
+
+	private static long mixK(long k) {
+		k *= C1;
+		k = Long.rotateLeft(k, 31);
+		return k * C2;
+	}
+
+	private static long fmix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		return h ^ (h >>> 33);
+	}
+
+}
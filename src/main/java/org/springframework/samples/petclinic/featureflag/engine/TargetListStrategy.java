@@ -0,0 +1,36 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+
+import java.util.Set;
+
+/**
+ * Matches the user id against a hashed set of ids, fronted by a Bloom filter for very
+ * large lists, and the IP address against a prefix trie of addresses and CIDR ranges.
+ */
+final class TargetListStrategy implements FlagStrategy {
+
+	private final Set<String> userIds;
+
+	private final BloomFilter userIdFilter;
+
+	private final IpPrefixTrie ipRanges;
+
+	TargetListStrategy(Set<String> userIds, BloomFilter userIdFilter, IpPrefixTrie ipRanges) {
+		this.userIds = userIds;
+		this.userIdFilter = userIdFilter;
+		this.ipRanges = ipRanges;
+	}
+
+	@Override
+	public boolean matches(FlagContext context) {
+		String userId = context.getUserId();
+		if (userId != null && !userIds.isEmpty() && (userIdFilter == null || userIdFilter.mightContain(userId))
+				&& userIds.contains(userId)) {
+			return true;
+		}
+
+		return ipRanges.size() > 0 && ipRanges.contains(context.getIpAddress());
+	}
+
+}
@@ -0,0 +1,56 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+
+/**
+ * Splits the {@link RolloutBuckets#BUCKETS} rollout buckets between the variants of a
+ * flag by weight. An identifier keeps its variant as long as the salt and the weights
+ * before it do not change.
+ */
+final class VariantAllocation implements FlagStrategy {
+
+	private final long seed;
+
+	// Exclusive upper bucket of each variant, ascending
+	private final int[] upperBounds;
+
+	private final FlagVariant[] variants;
+
+	private final FlagVariant defaultVariant;
+
+	VariantAllocation(String salt, int[] upperBounds, FlagVariant[] variants, FlagVariant defaultVariant) {
+		this.seed = RolloutBuckets.seed(salt);
+		this.upperBounds = upperBounds;
+		this.variants = variants;
+		this.defaultVariant = defaultVariant;
+	}
+
+	/**
+	 * Variant of the caller, or the default variant, which may be {@code null}, for
+	 * callers without a user or session id.
+	 */
+	FlagVariant assign(FlagContext context) {
+		String identifier = context.getUserId() != null ? context.getUserId() : context.getSessionId();
+		if (identifier == null) {
+			return defaultVariant;
+		}
+
+		int bucket = RolloutBuckets.bucket(seed, identifier);
+		for (int i = 0; i < upperBounds.length; i++) {
+			if (bucket < upperBounds[i]) {
+				return variants[i];
+			}
+		}
+		return variants[variants.length - 1];
+	}
+
+	FlagVariant getDefaultVariant() {
+		return defaultVariant;
+	}
+
+	@Override
+	public boolean matches(FlagContext context) {
+		return assign(context) != null;
+	}
+
+}
@@ -0,0 +1,9 @@
+package org.springframework.samples.petclinic.featureflag.engine.rule;
+
+public class RuleSyntaxException extends IllegalArgumentException {
+
+	public RuleSyntaxException(String message, String rule, int position) {
+		super(message + " at position " + position + " in rule: " + rule);
+	}
+
+}
@@ -0,0 +1,340 @@
+package org.springframework.samples.petclinic.featureflag.engine.rule;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Predicate nodes produced by {@link TargetingRuleParser}. A comparison on an attribute
+ * that is missing, or that does not parse as the compared type, is false.
+ */
+final class Rules {
+
+	enum Comparison {
+
+		LT, LE, GT, GE, EQ, NE;
+
+		boolean accepts(int order) {
+			switch (this) {
+				case LT:
+					return order < 0;
+				case LE:
+					return order <= 0;
+				case GT:
+					return order > 0;
+				case GE:
+					return order >= 0;
+				case EQ:
+					return order == 0;
+				default:
+					return order != 0;
+			}
+		}
+
+	}
+
+	private Rules() {
+	}
+
+	static final class And implements TargetingRule {
+
+		private final TargetingRule[] operands;
+
+		And(TargetingRule[] operands) {
+			this.operands = operands;
+		}
+
+		@Override
+		public boolean test(Map<String, String> attributes) {
+			for (TargetingRule operand : operands) {
+				if (!operand.test(attributes)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+	}
+
+	static final class Or implements TargetingRule {
+
+		private final TargetingRule[] operands;
+
+		Or(TargetingRule[] operands) {
+			this.operands = operands;
+		}
+
+		@Override
+		public boolean test(Map<String, String> attributes) {
+			for (TargetingRule operand : operands) {
+				if (operand.test(attributes)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+	static final class Not implements TargetingRule {
+
+		private final TargetingRule operand;
+
+		Not(TargetingRule operand) {
+			this.operand = operand;
+		}
+
+		@Override
+		public boolean test(Map<String, String> attributes) {
+			return !operand.test(attributes);
+		}
+
+	}
+
+	static final class StringEquals implements TargetingRule {
+
+		private final String attribute;
+
+		private final String value;
+
+		private final boolean negated;
+
+		StringEquals(String attribute, String value, boolean negated) {
+			this.attribute = attribute;
+			this.value = value;
+			this.negated = negated;
+		}
+
+		@Override
+		public boolean test(Map<String, String> attributes) {
+			String actual = attributes.get(attribute);
+			return actual != null && value.equals(actual) != negated;
+		}
+
+	}
+
+	static final class In implements TargetingRule {
+
+		private final String attribute;
+
+		private final Set<String> values;
+
+		private final boolean negated;
+
+		In(String attribute, Set<String> values, boolean negated) {
+			this.attribute = attribute;
+			this.values = values;
+			this.negated = negated;
+		}
+
+		@Override
+		public boolean test(Map<String, String> attributes) {
+			String actual = attributes.get(attribute);
+			return actual != null && values.contains(actual) != negated;
+		}
+
+	}
+
+	static final class Matches implements TargetingRule {
+
+		private final String attribute;
+
+		private final Pattern pattern;
+
+		// Matcher.reset does not allocate, a fresh matcher per call would
+		private final ThreadLocal<Matcher> matchers;
+
+		Matches(String attribute, Pattern pattern) {
+			this.attribute = attribute;
+			this.pattern = pattern;
+			this.matchers = ThreadLocal.withInitial(() -> pattern.matcher(""));
+		}
+
+		@Override
+		public boolean test(Map<String, String> attributes) {
+			String actual = attributes.get(attribute);
+			return actual != null && matchers.get().reset(actual).matches();
+		}
+
+	}
+
+	static final class NumberCompare implements TargetingRule {
+
+		private final String attribute;
+
+		private final Comparison comparison;
+
+		private final double value;
+
+		NumberCompare(String attribute, Comparison comparison, double value) {
+			this.attribute = attribute;
+			this.comparison = comparison;
+			this.value = value;
+		}
+
+		@Override
+		public boolean test(Map<String, String> attributes) {
+			double actual = parseNumber(attributes.get(attribute));
+			return !Double.isNaN(actual) && comparison.accepts(Double.compare(actual, value));
+		}
+
+	}
+
+	static final class Between implements TargetingRule {
+
+		private final String attribute;
+
+		private final double low;
+
+		private final double high;
+
+		Between(String attribute, double low, double high) {
+			this.attribute = attribute;
+			this.low = low;
+			this.high = high;
+		}
+
+		@Override
+		public boolean test(Map<String, String> attributes) {
+			double actual = parseNumber(attributes.get(attribute));
+			return actual >= low && actual <= high;
+		}
+
+	}
+
+	static final class SemverCompare implements TargetingRule {
+
+		private final String attribute;
+
+		private final Comparison comparison;
+
+		private final long version;
+
+		SemverCompare(String attribute, Comparison comparison, long version) {
+			this.attribute = attribute;
+			this.comparison = comparison;
+			this.version = version;
+		}
+
+		@Override
+		public boolean test(Map<String, String> attributes) {
+			long actual = parseSemver(attributes.get(attribute));
+			return actual >= 0 && comparison.accepts(Long.compare(actual, version));
+		}
+
+	}
+
+	/**
+	 * Parses an optionally signed decimal such as {@code 42} or {@code -3.75} without
+	 * allocating, returns NaN for anything else.
+	 */
+	static double parseNumber(String value) {
+		if (value == null || value.isEmpty()) {
+			return Double.NaN;
+		}
+
+		int i = 0;
+		boolean negative = false;
+		char first = value.charAt(0);
+		if (first == '-' || first == '+') {
+			negative = first == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int scale = 0;
+		boolean fraction = false;
+		for (; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '.' && !fraction) {
+				fraction = true;
+			}
+			else if (c >= '0' && c <= '9') {
+				if (digits < 18) {
+					mantissa = mantissa * 10 + (c - '0');
+					if (mantissa != 0) {
+						digits++;
+					}
+					if (fraction) {
+						scale++;
+					}
+				}
+				else if (!fraction) {
+					scale--;
+				}
+			}
+			else {
+				return Double.NaN;
+			}
+		}
+		int end = value.length() - 1;
+		if (i == 0 || value.charAt(end) == '.' || value.charAt(end) == '-' || value.charAt(end) == '+') {
+			return Double.NaN;
+		}
+		double result = scale >= 0 ? mantissa / Math.pow(10, scale) : mantissa * Math.pow(10, -scale);
+		return negative ? -result : result;
+	}
+
+	/**
+	 * Encodes {@code [v]major[.minor[.patch]][-prerelease][+build]} into a long that
+	 * orders like the versions, with a prerelease just below its release. Prereleases of
+	 * the same version compare equal. Returns -1 when the value is not a version.
+	 */
+	static long parseSemver(String value) {
+		if (value == null || value.isEmpty()) {
+			return -1;
+		}
+
+		int i = value.charAt(0) == 'v' || value.charAt(0) == 'V' ? 1 : 0;
+		long major = 0;
+		long minor = 0;
+		long patch = 0;
+		int part = 0;
+		long current = -1;
+		boolean release = true;
+		for (; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				current = current < 0 ? c - '0' : current * 10 + (c - '0');
+				if (current >= 1 << 20) {
+					return -1;
+				}
+			}
+			else if (c == '.' && part < 2) {
+				if (current < 0) {
+					return -1;
+				}
+				if (part == 0) {
+					major = current;
+				}
+				else {
+					minor = current;
+				}
+				part++;
+				current = -1;
+			}
+			else if (c == '-' || c == '+') {
+				release = c == '+';
+				break;
+			}
+			else {
+				return -1;
+			}
+		}
+		if (current < 0) {
+			return -1;
+		}
+		if (part == 0) {
+			major = current;
+		}
+		else if (part == 1) {
+			minor = current;
+		}
+		else {
+			patch = current;
+		}
+		return major << 41 | minor << 21 | patch << 1 | (release ? 1 : 0);
+	}
+
+}
@@ -0,0 +1,14 @@
+package org.springframework.samples.petclinic.featureflag.engine.rule;
+
+import java.util.Map;
+
+/**
+ * Compiled USER_ATTRIBUTE targeting rule, see {@link TargetingRuleParser} for the syntax.
+ * Implementations are immutable, thread-safe and do not allocate while testing.
+ */
+@FunctionalInterface
+public interface TargetingRule {
+
+	boolean test(Map<String, String> attributes);
+
+}
@@ -0,0 +1,312 @@
+package org.springframework.samples.petclinic.featureflag.engine.rule;
+
+import org.springframework.samples.petclinic.featureflag.engine.rule.Rules.Comparison;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Parses USER_ATTRIBUTE targeting rules into a {@link TargetingRule} tree. Parsing
+ * happens when a flag is saved and when it is compiled into a snapshot, never per
+ * evaluation. <pre>
+ * rule       := or
+ * or         := and ("or" and)*
+ * and        := unary ("and" unary)*
+ * unary      := "not" unary | "(" or ")" | comparison
+ * comparison := attribute ("==" | "!=") (string | number | semver)
+ *             | attribute ["not"] "in" "[" literal ("," literal)* "]"
+ *             | attribute "matches" string
+ *             | attribute ("&lt;" | "&lt;=" | "&gt;" | "&gt;=") (number | semver)
+ *             | attribute "between" number "and" number
+ * semver     := "semver" "(" string ")"
+ * </pre> For example
+ * {@code plan in ["pro", "team"] and appVersion >= semver("2.3.0") and not country == "DE"}.
+ */
+public final class TargetingRuleParser {
+
+	private static final int MAX_DEPTH = 32;
+
+	private final String rule;
+
+	private final List<Token> tokens;
+
+	private int position;
+
+	private int depth;
+
+	private TargetingRuleParser(String rule) {
+		this.rule = rule;
+		this.tokens = tokenize(rule);
+	}
+
+	public static TargetingRule parse(String rule) {
+		if (rule == null || rule.isBlank()) {
+			throw new RuleSyntaxException("Empty rule", String.valueOf(rule), 0);
+		}
+		TargetingRuleParser parser = new TargetingRuleParser(rule);
+		TargetingRule parsed = parser.parseOr();
+		if (parser.peek().type != TokenType.END) {
+			throw parser.error("Unexpected '" + parser.peek().text + "'");
+		}
+		return parsed;
+	}
+
+	private TargetingRule parseOr() {
+		List<TargetingRule> operands = new ArrayList<>();
+		operands.add(parseAnd());
+		while (acceptKeyword("or")) {
+			operands.add(parseAnd());
+		}
+		return operands.size() == 1 ? operands.get(0) : new Rules.Or(operands.toArray(TargetingRule[]::new));
+	}
+
+	private TargetingRule parseAnd() {
+		List<TargetingRule> operands = new ArrayList<>();
+		operands.add(parseUnary());
+		while (acceptKeyword("and")) {
+			operands.add(parseUnary());
+		}
+		return operands.size() == 1 ? operands.get(0) : new Rules.And(operands.toArray(TargetingRule[]::new));
+	}
+
+	private TargetingRule parseUnary() {
+		if (++depth > MAX_DEPTH) {
+			throw error("Rule nested deeper than " + MAX_DEPTH + " levels");
+		}
+		try {
+			if (acceptKeyword("not")) {
+				return new Rules.Not(parseUnary());
+			}
+			if (accept(TokenType.SYMBOL, "(")) {
+				TargetingRule inner = parseOr();
+				expect(TokenType.SYMBOL, ")");
+				return inner;
+			}
+			return parseComparison();
+		}
+		finally {
+			depth--;
+		}
+	}
+
+	private TargetingRule parseComparison() {
+		Token attributeToken = peek();
+		if (attributeToken.type != TokenType.IDENTIFIER) {
+			throw error("Expected an attribute name but found '" + attributeToken.text + "'");
+		}
+		position++;
+		String attribute = attributeToken.text.intern();
+
+		if (acceptKeyword("in")) {
+			return new Rules.In(attribute, parseList(), false);
+		}
+		if (acceptKeyword("not")) {
+			expectKeyword("in");
+			return new Rules.In(attribute, parseList(), true);
+		}
+		if (acceptKeyword("matches")) {
+			Token pattern = expect(TokenType.STRING, null);
+			try {
+				return new Rules.Matches(attribute, Pattern.compile(pattern.text));
+			}
+			catch (PatternSyntaxException ex) {
+				throw new RuleSyntaxException("Invalid regular expression '" + pattern.text + "'", rule, pattern.start);
+			}
+		}
+		if (acceptKeyword("between")) {
+			double low = parseNumberLiteral();
+			expectKeyword("and");
+			double high = parseNumberLiteral();
+			if (low > high) {
+				throw error("Empty range " + low + " to " + high);
+			}
+			return new Rules.Between(attribute, low, high);
+		}
+
+		Token operator = expect(TokenType.SYMBOL, null);
+		Comparison comparison = switch (operator.text) {
+			case "==" -> Comparison.EQ;
+			case "!=" -> Comparison.NE;
+			case "<" -> Comparison.LT;
+			case "<=" -> Comparison.LE;
+			case ">" -> Comparison.GT;
+			case ">=" -> Comparison.GE;
+			default -> throw new RuleSyntaxException("Unknown operator '" + operator.text + "'", rule, operator.start);
+		};
+
+		if (acceptKeyword("semver")) {
+			return new Rules.SemverCompare(attribute, comparison, parseSemverLiteral());
+		}
+		if (peek().type == TokenType.NUMBER) {
+			return new Rules.NumberCompare(attribute, comparison, parseNumberLiteral());
+		}
+		if (comparison == Comparison.EQ || comparison == Comparison.NE) {
+			String value = expect(TokenType.STRING, null).text.intern();
+			return new Rules.StringEquals(attribute, value, comparison == Comparison.NE);
+		}
+		throw error("Operator '" + operator.text + "' needs a number or a semver(...) version");
+	}
+
+	private Set<String> parseList() {
+		expect(TokenType.SYMBOL, "[");
+		Set<String> values = new LinkedHashSet<>();
+		do {
+			Token value = peek();
+			if (value.type != TokenType.STRING && value.type != TokenType.NUMBER) {
+				throw error("Expected a string or number but found '" + value.text + "'");
+			}
+			position++;
+			values.add(value.text.intern());
+		}
+		while (accept(TokenType.SYMBOL, ","));
+		expect(TokenType.SYMBOL, "]");
+		return Set.copyOf(values);
+	}
+
+	private double parseNumberLiteral() {
+		Token number = expect(TokenType.NUMBER, null);
+		return Double.parseDouble(number.text);
+	}
+
+	private long parseSemverLiteral() {
+		expect(TokenType.SYMBOL, "(");
+		Token version = expect(TokenType.STRING, null);
+		expect(TokenType.SYMBOL, ")");
+		long encoded = Rules.parseSemver(version.text);
+		if (encoded < 0) {
+			throw new RuleSyntaxException("Invalid version '" + version.text + "'", rule, version.start);
+		}
+		return encoded;
+	}
+
+	private Token peek() {
+		return tokens.get(position);
+	}
+
+	private boolean accept(TokenType type, String text) {
+		Token token = peek();
+		if (token.type == type && (text == null || text.equals(token.text))) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	private boolean acceptKeyword(String keyword) {
+		Token token = peek();
+		if (token.type == TokenType.IDENTIFIER && token.text.equalsIgnoreCase(keyword)) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	private Token expect(TokenType type, String text) {
+		Token token = peek();
+		if (!accept(type, text)) {
+			String expected = text != null ? "'" + text + "'" : "a " + type.name().toLowerCase();
+			throw error("Expected " + expected + " but found '" + token.text + "'");
+		}
+		return token;
+	}
+
+	private void expectKeyword(String keyword) {
+		if (!acceptKeyword(keyword)) {
+			throw error("Expected '" + keyword + "' but found '" + peek().text + "'");
+		}
+	}
+
+	private RuleSyntaxException error(String message) {
+		return new RuleSyntaxException(message, rule, peek().start);
+	}
+
+	private static List<Token> tokenize(String rule) {
+		List<Token> tokens = new ArrayList<>();
+		int i = 0;
+		while (i < rule.length()) {
+			char c = rule.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			}
+			else if (c == '"' || c == '\'') {
+				StringBuilder value = new StringBuilder();
+				int start = i++;
+				while (i < rule.length() && rule.charAt(i) != c) {
+					if (rule.charAt(i) == '\\' && i + 1 < rule.length()) {
+						i++;
+					}
+					value.append(rule.charAt(i++));
+				}
+				if (i >= rule.length()) {
+					throw new RuleSyntaxException("Unterminated string", rule, start);
+				}
+				i++;
+				tokens.add(new Token(TokenType.STRING, value.toString(), start));
+			}
+			else if (Character.isDigit(c)
+					|| (c == '-' && i + 1 < rule.length() && Character.isDigit(rule.charAt(i + 1)))) {
+				int start = i++;
+				while (i < rule.length() && (Character.isDigit(rule.charAt(i)) || rule.charAt(i) == '.')) {
+					i++;
+				}
+				String number = rule.substring(start, i);
+				if (Double.isNaN(Rules.parseNumber(number))) {
+					throw new RuleSyntaxException("Invalid number '" + number + "'", rule, start);
+				}
+				tokens.add(new Token(TokenType.NUMBER, number, start));
+			}
+			else if (Character.isLetter(c) || c == '_') {
+				int start = i++;
+				while (i < rule.length() && (Character.isLetterOrDigit(rule.charAt(i)) || rule.charAt(i) == '_'
+						|| rule.charAt(i) == '.' || rule.charAt(i) == '-')) {
+					i++;
+				}
+				tokens.add(new Token(TokenType.IDENTIFIER, rule.substring(start, i), start));
+			}
+			else {
+				int start = i;
+				String two = i + 1 < rule.length() ? rule.substring(i, i + 2) : "";
+				if (two.equals("==") || two.equals("!=") || two.equals("<=") || two.equals(">=")) {
+					i += 2;
+					tokens.add(new Token(TokenType.SYMBOL, two, start));
+				}
+				else if ("()[],<>".indexOf(c) >= 0) {
+					i++;
+					tokens.add(new Token(TokenType.SYMBOL, String.valueOf(c), start));
+				}
+				else {
+					throw new RuleSyntaxException("Unexpected character '" + c + "'", rule, start);
+				}
+			}
+		}
+		tokens.add(new Token(TokenType.END, "end of rule", rule.length()));
+		return tokens;
+	}
+
+	private enum TokenType {
+
+		IDENTIFIER, STRING, NUMBER, SYMBOL, END
+
+	}
+
+	private static final class Token {
+
+		private final TokenType type;
+
+		private final String text;
+
+		private final int start;
+
+		Token(TokenType type, String text, int start) {
+			this.type = type;
+			this.text = text;
+			this.start = start;
+		}
+
+	}
+
+}
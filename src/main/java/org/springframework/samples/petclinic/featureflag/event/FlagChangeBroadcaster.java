@@ -0,0 +1,301 @@
+package org.springframework.samples.petclinic.featureflag.event;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.featureflag.dto.FlagChangeNotification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes committed flag changes to SSE subscribers. Every mutation of the subscriber set,
+ * the replay buffer and the latest version happens on a single dispatcher thread, so a
+ * resuming subscriber can never miss or reorder an event published while it was catching
+ * up.
+ * <p>
+ * Versions come from {@link FlagChangeVersions} and are the same on every node, so a
+ * client can resume with its Last-Event-ID on another node or after a restart. The
+ * dispatcher only queues events; each subscriber is written to by its own sender task,
+ * and subscribers that fall {@code MAX_PENDING} events behind or block a write for
+ * {@code SEND_TIMEOUT} are closed so that they reconnect and catch up from the replay
+ * buffer.
+ */
+@Component
+@Slf4j
+public class FlagChangeBroadcaster {
+
+	static final String CHANGE_EVENT = "flag-change";
+
+	static final String RESYNC_EVENT = "resync";
+
+	private static final int REPLAY_BUFFER_SIZE = 1024;
+
+	// Room for a full replay plus the live events sent while it is written
+	private static final int MAX_PENDING = REPLAY_BUFFER_SIZE + 256;
+
+	private static final long EMITTER_TIMEOUT_MILLIS = Duration.ofMinutes(30).toMillis();
+
+	private static final Duration SEND_TIMEOUT = Duration.ofSeconds(10);
+
+	private static final long HEARTBEAT_SECONDS = 15;
+
+	private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+
+	private final Deque<FlagChangeNotification> replayBuffer = new ArrayDeque<>(REPLAY_BUFFER_SIZE);
+
+	private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "flag-change-dispatcher");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final ExecutorService senders = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "flag-change-sender");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private long version;
+
+	public FlagChangeBroadcaster(FlagChangeVersions versions) {
+		dispatcher.execute(() -> {
+			try {
+				version = versions.current();
+			}
+			catch (DataAccessException ex) {
+				log.warn("Unable to read the flag change version, resuming clients will resync: {}", ex.getMessage());
+			}
+		});
+		dispatcher.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	public SseEmitter subscribe(Long lastEventId) {
+		SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MILLIS);
+		subscribe(emitter, lastEventId);
+		return emitter;
+	}
+
+	void subscribe(SseEmitter emitter, Long lastEventId) {
+		Subscriber subscriber = new Subscriber(emitter);
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(() -> subscribers.remove(subscriber));
+		emitter.onError(ex -> subscribers.remove(subscriber));
+
+		dispatcher.execute(() -> {
+			replay(subscriber, lastEventId);
+			subscribers.add(subscriber);
+		});
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onFlagChanged(FlagChangedEvent event) {
+		FlagChangeNotification notification = new FlagChangeNotification(event.getVersion(), event.getFlagKey(),
+				event.getAction(), event.getEnvironments(), Instant.now());
+		dispatcher.execute(() -> {
+			if (!buffer(notification)) {
+				return;
+			}
+			version = Math.max(version, notification.getVersion());
+			for (Subscriber subscriber : subscribers) {
+				if (!subscriber.offer(change(notification))) {
+					drop(subscriber, "fell " + MAX_PENDING + " events behind");
+				}
+			}
+		});
+	}
+
+	public int getSubscriberCount() {
+		return subscribers.size();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		dispatcher.shutdownNow();
+		senders.shutdownNow();
+		subscribers.forEach(subscriber -> subscriber.emitter.complete());
+		subscribers.clear();
+	}
+
+	/**
+	 * Inserts in version order: changes relayed from other nodes can arrive out of order.
+	 * Returns false for a version already buffered.
+	 */
+	private boolean buffer(FlagChangeNotification notification) {
+		Deque<FlagChangeNotification> later = new ArrayDeque<>();
+		while (!replayBuffer.isEmpty() && replayBuffer.peekLast().getVersion() > notification.getVersion()) {
+			later.addFirst(replayBuffer.removeLast());
+		}
+		FlagChangeNotification previous = replayBuffer.peekLast();
+		boolean duplicate = previous != null && previous.getVersion() == notification.getVersion();
+		boolean full = replayBuffer.size() + later.size() == REPLAY_BUFFER_SIZE;
+		// Still delivered live when older than everything a full
+		// buffer holds, but not kept
+		if (!duplicate && !(full && replayBuffer.isEmpty())) {
+			if (full) {
+				replayBuffer.removeFirst();
+			}
+			replayBuffer.addLast(notification);
+		}
+		replayBuffer.addAll(later);
+		return !duplicate;
+	}
+
+	private void replay(Subscriber subscriber, Long lastEventId) {
+		if (lastEventId == null) {
+			return;
+		}
+
+		List<FlagChangeNotification> missed = new ArrayList<>();
+		long expected = lastEventId + 1;
+		boolean gap = lastEventId > version;
+		for (Iterator<FlagChangeNotification> it = replayBuffer.iterator(); it.hasNext() && !gap;) {
+			FlagChangeNotification notification = it.next();
+			if (notification.getVersion() < expected) {
+				continue;
+			}
+			gap = notification.getVersion() != expected++;
+			missed.add(notification);
+		}
+		if (gap || expected <= version) {
+			// The buffer no longer covers the client's position, or the client is ahead
+			// of this node: it has to reload its cache before following the stream
+			subscriber.offer(SseEmitter.event()
+				.id(String.valueOf(version))
+				.name(RESYNC_EVENT)
+				.data(Map.of("version", version), MediaType.APPLICATION_JSON));
+			return;
+		}
+		for (FlagChangeNotification notification : missed) {
+			subscriber.offer(change(notification));
+		}
+	}
+
+	private void heartbeat() {
+		long now = System.nanoTime();
+		for (Subscriber subscriber : subscribers) {
+			if (subscriber.isStalled(now)) {
+				drop(subscriber, "blocked a write for more than " + SEND_TIMEOUT);
+			}
+			else if (!subscriber.offer(SseEmitter.event().comment("heartbeat"))) {
+				drop(subscriber, "fell " + MAX_PENDING + " events behind");
+			}
+		}
+	}
+
+	private SseEmitter.SseEventBuilder change(FlagChangeNotification notification) {
+		return SseEmitter.event()
+			.id(String.valueOf(notification.getVersion()))
+			.name(CHANGE_EVENT)
+			.data(notification, MediaType.APPLICATION_JSON);
+	}
+
+	// Completing makes the client reconnect with its Last-Event-ID
+	// and catch up from the buffer
+	private void drop(Subscriber subscriber, String reason) {
+		log.debug("Dropping flag change subscriber that {}", reason);
+		subscribers.remove(subscriber);
+		subscriber.close();
+		subscriber.emitter.complete();
+	}
+
+	/**
+	 * Events queued for one client, written in order by at most one sender task at a
+	 * time.
+	 */
+	private final class Subscriber {
+
+		private final SseEmitter emitter;
+
+		private final Deque<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+
+		private boolean sending;
+
+		private boolean closed;
+
+		// System.nanoTime() when the current write started, 0 while idle
+		private volatile long sendingSince;
+
+		private Subscriber(SseEmitter emitter) {
+			this.emitter = emitter;
+		}
+
+		boolean offer(SseEmitter.SseEventBuilder event) {
+			synchronized (this) {
+				if (closed || pending.size() >= MAX_PENDING) {
+					return false;
+				}
+				pending.addLast(event);
+				if (sending) {
+					return true;
+				}
+				sending = true;
+			}
+			try {
+				senders.execute(this::send);
+			}
+			catch (RejectedExecutionException ex) {
+				close();
+				return false;
+			}
+			return true;
+		}
+
+		boolean isStalled(long now) {
+			long since = sendingSince;
+			return since != 0 && now - since > SEND_TIMEOUT.toNanos();
+		}
+
+		synchronized void close() {
+			closed = true;
+			pending.clear();
+		}
+
+		private void send() {
+			while (true) {
+				SseEmitter.SseEventBuilder event;
+				synchronized (this) {
+					event = pending.pollFirst();
+					if (event == null) {
+						sending = false;
+						return;
+					}
+				}
+				sendingSince = System.nanoTime();
+				try {
+					emitter.send(event);
+				}
+				catch (IOException | IllegalStateException ex) {
+					log.debug("Dropping flag change subscriber: {}", ex.getMessage());
+					subscribers.remove(this);
+					close();
+					emitter.completeWithError(ex);
+					return;
+				}
+				finally {
+					sendingSince = 0;
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,38 @@
+package org.springframework.samples.petclinic.featureflag.event;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Persisted version of the flag change stream, shared by every node. {@link #next()} runs
+ * in the flag transaction and holds the row lock until it commits, so versions have no
+ * holes and follow commit order; SSE clients can resume on any node, also after a
+ * restart.
+ */
+@Component
+public class FlagChangeVersions {
+
+	private static final String INCREMENT = "UPDATE flag_change_version SET version = version + 1 WHERE id = 1";
+
+	private static final String SELECT = "SELECT version FROM flag_change_version WHERE id = 1";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public FlagChangeVersions(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Transactional(propagation = Propagation.MANDATORY)
+	public long next() {
+		jdbcTemplate.update(INCREMENT);
+		return current();
+	}
+
+	public long current() {
+		Long version = jdbcTemplate.queryForObject(SELECT, Long.class);
+		return version != null ? version : 0;
+	}
+
+}
@@ -0,0 +1,23 @@
+package org.springframework.samples.petclinic.featureflag.event;
+
+import lombok.Value;
+
+import java.util.Set;
+
+@Value
+public class FlagChangedEvent {
+
+	String flagKey;
+
+	String action;
+
+	Set<String> environments;
+
+	// Position in the change stream, from FlagChangeVersions
+	long version;
+
+	// True when the change was made on another node and arrived
+	// through the invalidation channel
+	boolean remote;
+
+}
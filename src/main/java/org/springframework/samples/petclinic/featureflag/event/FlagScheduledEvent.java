@@ -0,0 +1,14 @@
+package org.springframework.samples.petclinic.featureflag.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class FlagScheduledEvent {
+
+	String flagKey;
+
+	LocalDateTime nextRunAt;
+
+}
@@ -27,6 +27,21 @@ public class GlobalExceptionHandler {
 		return buildErrorResponse(ex.getMessage(), HttpStatus.FORBIDDEN);
 	}
 
+	@ExceptionHandler(InvalidAuditCursorException.class)
+	public ResponseEntity<Map<String, Object>> handleInvalidCursor(InvalidAuditCursorException ex) {
+		return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+	}
+
+	@ExceptionHandler(InvalidFlagConfigException.class)
+	public ResponseEntity<Map<String, Object>> handleInvalidConfig(InvalidFlagConfigException ex) {
+		return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+	}
+
+	@ExceptionHandler(InvalidScheduleException.class)
+	public ResponseEntity<Map<String, Object>> handleInvalidSchedule(InvalidScheduleException ex) {
+		return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+	}
+
 	private ResponseEntity<Map<String, Object>> buildErrorResponse(String message, HttpStatus status) {
 		Map<String, Object> error = new HashMap<>();
 		error.put("timestamp", LocalDateTime.now());
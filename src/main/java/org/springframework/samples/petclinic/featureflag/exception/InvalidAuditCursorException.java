@@ -0,0 +1,9 @@
+package org.springframework.samples.petclinic.featureflag.exception;
+
+public class InvalidAuditCursorException extends RuntimeException {
+
+	public InvalidAuditCursorException(String message) {
+		super(message);
+	}
+
+}
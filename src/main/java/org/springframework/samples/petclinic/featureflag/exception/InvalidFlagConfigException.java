@@ -0,0 +1,13 @@
+package org.springframework.samples.petclinic.featureflag.exception;
+
+public class InvalidFlagConfigException extends RuntimeException {
+
+	public InvalidFlagConfigException(String message) {
+		super(message);
+	}
+
+	public InvalidFlagConfigException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
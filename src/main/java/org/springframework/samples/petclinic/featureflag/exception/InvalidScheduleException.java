@@ -0,0 +1,9 @@
+package org.springframework.samples.petclinic.featureflag.exception;
+
+public class InvalidScheduleException extends RuntimeException {
+
+	public InvalidScheduleException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,50 @@
+package org.springframework.samples.petclinic.featureflag.exposure;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Remembers which exposures were recorded in the current window in a fixed-size,
+ * direct-mapped table. A slot holds the upper bits of the exposure key and the window
+ * number, so a new window invalidates every slot at once. Two keys sharing a slot evict
+ * each other, and concurrent updates may both pass; either way an exposure is recorded
+ * more than once per window, never lost.
+ */
+final class ExposureDeduplicator {
+
+	private static final int WINDOW_BITS = 24;
+
+	private static final long WINDOW_MASK = (1L << WINDOW_BITS) - 1;
+
+	private final AtomicLongArray slots;
+
+	private final int mask;
+
+	private final long windowMillis;
+
+	ExposureDeduplicator(int slots, long windowMillis) {
+		int size = Integer.highestOneBit(Math.max(slots, 2) - 1) << 1;
+		this.slots = new AtomicLongArray(size);
+		this.mask = size - 1;
+		this.windowMillis = windowMillis;
+	}
+
+	/**
+	 * @param key well mixed 64-bit hash of the flag, variant and identifier
+	 * @return whether the key was not seen yet in the window of {@code nowMillis}
+	 */
+	boolean firstInWindow(long key, long nowMillis) {
+		if (windowMillis <= 0) {
+			return true;
+		}
+
+		long entry = (key & ~WINDOW_MASK) | ((nowMillis / windowMillis) & WINDOW_MASK);
+		int index = (int) key & mask;
+		if (slots.get(index) == entry) {
+			return false;
+		}
+
+		slots.lazySet(index, entry);
+		return true;
+	}
+
+}
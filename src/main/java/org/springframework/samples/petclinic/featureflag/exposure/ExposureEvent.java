@@ -0,0 +1,23 @@
+package org.springframework.samples.petclinic.featureflag.exposure;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * A caller that was shown a variant of a flag. The identifier is only kept as a hash.
+ */
+@Value
+public class ExposureEvent {
+
+	String flagKey;
+
+	String environment;
+
+	String variant;
+
+	long identifierHash;
+
+	Instant exposedAt;
+
+}
@@ -0,0 +1,100 @@
+package org.springframework.samples.petclinic.featureflag.exposure;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer, single-consumer ring of exposures. Slots are preallocated
+ * columns and every slot carries a sequence number that tells producers and the consumer
+ * whose turn it is, so {@link #offer} is one CAS and a few array stores and never waits:
+ * when the ring is full the exposure is rejected.
+ */
+final class ExposureRingBuffer {
+
+	private final int mask;
+
+	private final AtomicLongArray sequences;
+
+	private final AtomicLong tail = new AtomicLong();
+
+	// Only advanced by the consumer, volatile so that size() can be read by others
+	private volatile long head;
+
+	private final String[] flagKeys;
+
+	private final String[] environments;
+
+	private final String[] variants;
+
+	private final long[] identifierHashes;
+
+	private final long[] timestamps;
+
+	ExposureRingBuffer(int capacity) {
+		if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two, was " + capacity);
+		}
+		this.mask = capacity - 1;
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+		this.flagKeys = new String[capacity];
+		this.environments = new String[capacity];
+		this.variants = new String[capacity];
+		this.identifierHashes = new long[capacity];
+		this.timestamps = new long[capacity];
+	}
+
+	boolean offer(String flagKey, String environment, String variant, long identifierHash, long timestamp) {
+		long position;
+		int index;
+		while (true) {
+			position = tail.get();
+			index = (int) position & mask;
+			long available = sequences.get(index) - position;
+			if (available == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					break;
+				}
+			}
+			else if (available < 0) {
+				return false;
+			}
+		}
+		flagKeys[index] = flagKey;
+		environments[index] = environment;
+		variants[index] = variant;
+		identifierHashes[index] = identifierHash;
+		timestamps[index] = timestamp;
+		// Publishes the stores above to the consumer
+		sequences.lazySet(index, position + 1);
+		return true;
+	}
+
+	/**
+	 * Takes the oldest exposure, or returns {@code null} if the ring is empty. Must only
+	 * be called from one thread at a time.
+	 */
+	ExposureEvent poll() {
+		int index = (int) head & mask;
+		if (sequences.get(index) != head + 1) {
+			return null;
+		}
+
+		ExposureEvent event = new ExposureEvent(flagKeys[index], environments[index], variants[index],
+				identifierHashes[index], Instant.ofEpochMilli(timestamps[index]));
+		flagKeys[index] = null;
+		environments[index] = null;
+		variants[index] = null;
+		sequences.lazySet(index, head + mask + 1);
+		head++;
+		return event;
+	}
+
+	int size() {
+		return (int) Math.max(0, tail.get() - head);
+	}
+
+}
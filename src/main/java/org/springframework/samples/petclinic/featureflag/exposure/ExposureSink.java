@@ -0,0 +1,16 @@
+package org.springframework.samples.petclinic.featureflag.exposure;
+
+import java.util.List;
+
+/**
+ * Destination of recorded exposures. Called from the recorder's drain thread only, with
+ * batches in recording order.
+ */
+public interface ExposureSink {
+
+	void write(List<ExposureEvent> events) throws Exception;
+
+	default void close() throws Exception {
+	}
+
+}
@@ -0,0 +1,54 @@
+package org.springframework.samples.petclinic.featureflag.exposure;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends exposures to a local file as newline-delimited JSON, one batch per flush.
+ */
+public class FileExposureSink implements ExposureSink {
+
+	private final Path file;
+
+	private final JsonMapper jsonMapper;
+
+	private Writer writer;
+
+	public FileExposureSink(Path file, JsonMapper jsonMapper) {
+		this.file = file;
+		this.jsonMapper = jsonMapper;
+	}
+
+	@Override
+	public void write(List<ExposureEvent> events) throws IOException {
+		if (writer == null) {
+			Path parent = file.toAbsolutePath().getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+			writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND);
+		}
+		for (ExposureEvent event : events) {
+			writer.write(jsonMapper.writeValueAsString(event));
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (writer != null) {
+			writer.close();
+			writer = null;
+		}
+	}
+
+}
@@ -0,0 +1,219 @@
+package org.springframework.samples.petclinic.featureflag.exposure;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.samples.petclinic.featureflag.config.FlagExposureProperties;
+import org.springframework.samples.petclinic.featureflag.engine.CompiledFlag;
+import org.springframework.samples.petclinic.featureflag.engine.RolloutBuckets;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records which identifier saw which variant of a PERCENTAGE ({@code on} or {@code off})
+ * or VARIANT flag, for experiment analysis. Evaluating threads sample, deduplicate and
+ * put the exposure into a lock-free ring; a background thread drains it to the
+ * {@link ExposureSink} in batches. Recording never blocks: exposures that find the ring
+ * full are dropped and counted.
+ */
+@Component
+@Slf4j
+public class FlagExposureRecorder implements SmartLifecycle {
+
+	public static final String DROPPED = "feature.flag.exposures.dropped";
+
+	public static final String WRITTEN = "feature.flag.exposures.written";
+
+	private static final long IDENTIFIER_SEED = 0x5f3759dfL;
+
+	private final FlagExposureProperties properties;
+
+	private final ExposureSink sink;
+
+	private final ExposureRingBuffer ring;
+
+	private final ExposureDeduplicator deduplicator;
+
+	private final boolean enabled;
+
+	// Identifiers whose hash, as a 53-bit fraction, is below this limit are sampled
+	private final long sampleLimit;
+
+	private final LongAdder bufferFull = new LongAdder();
+
+	private final LongAdder sinkErrors = new LongAdder();
+
+	private final LongAdder written = new LongAdder();
+
+	private volatile boolean running;
+
+	private Thread drainThread;
+
+	public FlagExposureRecorder(FlagExposureProperties properties, ExposureSink sink,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		this.properties = properties;
+		this.sink = sink;
+		this.enabled = properties.isEnabled() && properties.getSampleRate() > 0;
+		this.sampleLimit = (long) (Math.min(properties.getSampleRate(), 1.0) * (1L << 53));
+		int capacity = Integer.highestOneBit(Math.max(properties.getBufferCapacity(), 2) - 1) << 1;
+		this.ring = new ExposureRingBuffer(capacity);
+		this.deduplicator = new ExposureDeduplicator(properties.getDedupSlots(),
+				properties.getDedupWindow().toMillis());
+		meterRegistry.ifAvailable(this::registerMeters);
+	}
+
+	public void record(CompiledFlag flag, FlagContext context, boolean result) {
+		if (flag.getStrategyType() == StrategyType.PERCENTAGE) {
+			record(flag, context, result ? "on" : "off");
+		}
+	}
+
+	public void record(CompiledFlag flag, FlagContext context, String variant) {
+		if (!enabled) {
+			return;
+		}
+
+		String identifier = context.getUserId() != null ? context.getUserId() : context.getSessionId();
+		if (identifier == null) {
+			return;
+		}
+
+		long identifierHash = RolloutBuckets.hash(IDENTIFIER_SEED, identifier);
+		if (identifierHash >>> 11 >= sampleLimit) {
+			return;
+		}
+
+		long now = System.currentTimeMillis();
+		if (!deduplicator.firstInWindow(exposureKey(flag, variant, identifierHash), now)) {
+			return;
+		}
+
+		if (!ring.offer(flag.getFlagKey(), flag.getEnvironment(), variant, identifierHash, now)) {
+			bufferFull.increment();
+		}
+	}
+
+	public int getPendingCount() {
+		return ring.size();
+	}
+
+	@Override
+	public void start() {
+		if (!enabled) {
+			return;
+		}
+		running = true;
+		drainThread = new Thread(this::run, "flag-exposure-drain");
+		drainThread.setDaemon(true);
+		drainThread.start();
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		Thread thread = drainThread;
+		drainThread = null;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+			long timeout = properties.getFlushInterval().toMillis() * 4;
+			try {
+				thread.join(timeout);
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			if (thread.isAlive()) {
+				// The ring has a single consumer: leave the rest to the
+				// drain thread rather than polling it from here, and do not
+				// close the sink it is writing to
+				log.warn("Exposure drain still writing after {} ms, abandoning {} buffered flag exposures", timeout,
+						ring.size());
+				return;
+			}
+		}
+		else {
+			drain();
+		}
+		try {
+			sink.close();
+		}
+		catch (Exception ex) {
+			log.warn("Failed to close exposure sink: {}", ex.getMessage());
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Writes everything buffered so far. Called by the drain thread, or when it was never
+	 * started.
+	 */
+	void drain() {
+		while (drainBatch() == properties.getBatchSize()) {
+			// keep going while full batches come out
+		}
+	}
+
+	private void run() {
+		long flushNanos = properties.getFlushInterval().toNanos();
+		while (running) {
+			if (drainBatch() < properties.getBatchSize()) {
+				LockSupport.parkNanos(this, flushNanos);
+			}
+		}
+		drain();
+	}
+
+	private int drainBatch() {
+		int batchSize = properties.getBatchSize();
+		List<ExposureEvent> batch = new ArrayList<>(Math.min(batchSize, ring.size()));
+		ExposureEvent event;
+		while (batch.size() < batchSize && (event = ring.poll()) != null) {
+			batch.add(event);
+		}
+		if (batch.isEmpty()) {
+			return 0;
+		}
+
+		try {
+			sink.write(batch);
+			written.add(batch.size());
+		}
+		catch (Exception ex) {
+			sinkErrors.add(batch.size());
+			log.error("Failed to write {} flag exposures, dropping them", batch.size(), ex);
+		}
+		return batch.size();
+	}
+
+	private void registerMeters(MeterRegistry registry) {
+		FunctionCounter.builder(DROPPED, bufferFull, LongAdder::sum).tag("reason", "buffer_full").register(registry);
+		FunctionCounter.builder(DROPPED, sinkErrors, LongAdder::sum).tag("reason", "sink_error").register(registry);
+		FunctionCounter.builder(WRITTEN, written, LongAdder::sum).register(registry);
+		Gauge.builder("feature.flag.exposures.pending", ring, ExposureRingBuffer::size).register(registry);
+	}
+
+	private static long exposureKey(CompiledFlag flag, String variant, long identifierHash) {
+		long key = identifierHash;
+		key = key * 31 + flag.getFlagKey().hashCode();
+		key = key * 31 + Objects.hashCode(flag.getEnvironment());
+		key = key * 31 + variant.hashCode();
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		return key ^ key >>> 33;
+	}
+
+}
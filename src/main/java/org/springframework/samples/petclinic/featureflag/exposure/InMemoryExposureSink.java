@@ -0,0 +1,26 @@
+package org.springframework.samples.petclinic.featureflag.exposure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps exposures in memory, for tests and local runs.
+ */
+public class InMemoryExposureSink implements ExposureSink {
+
+	private final List<ExposureEvent> events = new ArrayList<>();
+
+	@Override
+	public synchronized void write(List<ExposureEvent> batch) {
+		events.addAll(batch);
+	}
+
+	public synchronized List<ExposureEvent> getEvents() {
+		return List.copyOf(events);
+	}
+
+	public synchronized void clear() {
+		events.clear();
+	}
+
+}
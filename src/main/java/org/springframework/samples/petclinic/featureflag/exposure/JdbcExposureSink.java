@@ -0,0 +1,33 @@
+package org.springframework.samples.petclinic.featureflag.exposure;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Inserts exposures into the {@code flag_exposure} table in one JDBC batch per flush.
+ */
+public class JdbcExposureSink implements ExposureSink {
+
+	private static final String INSERT_EXPOSURE = "INSERT INTO flag_exposure "
+			+ "(flag_key, environment, variant, identifier_hash, exposed_at) VALUES (?, ?, ?, ?, ?)";
+
+	private final JdbcTemplate jdbcTemplate;
+
+	public JdbcExposureSink(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	@Override
+	public void write(List<ExposureEvent> events) {
+		jdbcTemplate.batchUpdate(INSERT_EXPOSURE, events, events.size(), (ps, event) -> {
+			ps.setString(1, event.getFlagKey());
+			ps.setString(2, event.getEnvironment());
+			ps.setString(3, event.getVariant());
+			ps.setLong(4, event.getIdentifierHash());
+			ps.setTimestamp(5, Timestamp.from(event.getExposedAt()));
+		});
+	}
+
+}
@@ -0,0 +1,153 @@
+package org.springframework.samples.petclinic.featureflag.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.samples.petclinic.featureflag.config.FlagMetricsProperties;
+import org.springframework.samples.petclinic.featureflag.engine.CompiledFlag;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Evaluation counters per flag and environment. Evaluating threads only increment striped
+ * {@link LongAdder}s, Micrometer sums them when it publishes, so counting never contends
+ * on a shared cache line. Latency is timed for a sample of evaluations only.
+ * <p>
+ * Snapshot cache hits and misses are published by the Caffeine binder of
+ * {@code FlagSnapshotRegistry}, whose statistics are LongAdder based as well.
+ */
+@Component
+public class FlagEvaluationMetrics {
+
+	public static final String EVALUATIONS = "feature.flag.evaluations";
+
+	public static final String EVALUATION_LATENCY = "feature.flag.evaluation.latency";
+
+	public static final String NOT_FOUND = "feature.flag.not.found";
+
+	public static final String BLOCKED = "feature.toggle.blocked";
+
+	private final MeterRegistry registry;
+
+	private final int latencySampleInterval;
+
+	private final boolean latencyHistogram;
+
+	// environment -> flag key -> meters, two lookups instead of
+	// allocating a composite key
+	private final Map<String, Map<String, FlagMeters>> meters = new ConcurrentHashMap<>();
+
+	private final LongAdder notFound = new LongAdder();
+
+	public FlagEvaluationMetrics(ObjectProvider<MeterRegistry> meterRegistry, FlagMetricsProperties properties) {
+		this.registry = meterRegistry.getIfAvailable();
+		this.latencySampleInterval = registry != null ? Math.max(properties.getLatencySampleInterval(), 0) : 0;
+		this.latencyHistogram = properties.isLatencyHistogram();
+		if (registry != null) {
+			// Unknown keys come from callers, so they are counted without a flag tag
+			FunctionCounter.builder(NOT_FOUND, notFound, LongAdder::sum)
+				.description("Evaluations of flags that do not exist")
+				.register(registry);
+		}
+	}
+
+	/**
+	 * Whether the caller should time this evaluation and pass the latency to
+	 * {@link #recordEvaluation}.
+	 */
+	public boolean sampleLatency() {
+		int interval = latencySampleInterval;
+		return interval == 1 || (interval > 1 && ThreadLocalRandom.current().nextInt(interval) == 0);
+	}
+
+	/**
+	 * @param latencyNanos evaluation time, or a negative value if it was not sampled
+	 */
+	public void recordEvaluation(CompiledFlag flag, boolean result, long latencyNanos) {
+		if (registry == null) {
+			return;
+		}
+
+		FlagMeters flagMeters = meters(flag.getEnvironment(), flag.getFlagKey());
+		(result ? flagMeters.enabled : flagMeters.disabled).increment();
+		if (latencyNanos >= 0) {
+			flagMeters.latency().record(latencyNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	public void recordNotFound() {
+		notFound.increment();
+	}
+
+	public void recordBlocked(String environment, String flagKey) {
+		if (registry == null) {
+			return;
+		}
+		meters(environment, flagKey).blocked.increment();
+	}
+
+	private FlagMeters meters(String environment, String flagKey) {
+		Map<String, FlagMeters> flags = meters.get(environment);
+		if (flags == null) {
+			flags = meters.computeIfAbsent(environment, env -> new ConcurrentHashMap<>());
+		}
+		FlagMeters flagMeters = flags.get(flagKey);
+		if (flagMeters == null) {
+			flagMeters = flags.computeIfAbsent(flagKey, key -> new FlagMeters(environment, key));
+		}
+		return flagMeters;
+	}
+
+	private final class FlagMeters {
+
+		private final LongAdder enabled = new LongAdder();
+
+		private final LongAdder disabled = new LongAdder();
+
+		private final LongAdder blocked = new LongAdder();
+
+		private final String environment;
+
+		private final String flagKey;
+
+		private volatile Timer latency;
+
+		FlagMeters(String environment, String flagKey) {
+			this.environment = environment;
+			this.flagKey = flagKey;
+			counter(EVALUATIONS, enabled, "result", "true");
+			counter(EVALUATIONS, disabled, "result", "false");
+			counter(BLOCKED, blocked);
+		}
+
+		private void counter(String name, LongAdder adder, String... tags) {
+			FunctionCounter.builder(name, adder, LongAdder::sum)
+				.tags("flag", flagKey, "environment", environment)
+				.tags(tags)
+				.register(registry);
+		}
+
+		// Registered on first use, flags that are never timed do
+		// not publish empty histograms
+		private Timer latency() {
+			Timer timer = latency;
+			if (timer == null) {
+				timer = Timer.builder(EVALUATION_LATENCY)
+					.description("Time spent evaluating a flag, sampled")
+					.tags("flag", flagKey, "environment", environment)
+					.publishPercentileHistogram(latencyHistogram)
+					.register(registry);
+				latency = timer;
+			}
+			return timer;
+		}
+
+	}
+
+}
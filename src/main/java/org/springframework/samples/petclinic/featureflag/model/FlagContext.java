@@ -1,12 +1,16 @@
 package org.springframework.samples.petclinic.featureflag.model;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.util.Map;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class FlagContext {
 	private String userId;
 	private String sessionId;
@@ -0,0 +1,76 @@
+package org.springframework.samples.petclinic.featureflag.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change applied to a flag at {@code runAt}. RAMP schedules move the rollout percentage
+ * from {@code fromPercentage} to {@code toPercentage} in {@code steps} equal steps
+ * between {@code runAt} and {@code endAt}; {@code nextRunAt} is the time of the next
+ * step.
+ */
+@Entity
+@Table(name = "flag_schedule")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlagSchedule {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	// Bumped by every lease claim, so a node whose lease was taken
+	// over cannot commit its step
+	@Version
+	@JsonIgnore
+	private long version;
+
+	@Column(nullable = false)
+	private String flagKey;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private ScheduleAction action;
+
+	@Column(nullable = false)
+	private LocalDateTime runAt;
+
+	private LocalDateTime endAt;
+
+	private Double fromPercentage;
+
+	private Double toPercentage;
+
+	private Integer steps;
+
+	private int completedSteps;
+
+	private LocalDateTime nextRunAt;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false)
+	private ScheduleStatus status = ScheduleStatus.PENDING;
+
+	@JsonIgnore
+	private String leaseOwner;
+
+	@JsonIgnore
+	private LocalDateTime leaseUntil;
+
+	private String lastError;
+
+	private String createdBy;
+
+	private String reason;
+
+	@CreationTimestamp
+	private LocalDateTime createdAt;
+
+}
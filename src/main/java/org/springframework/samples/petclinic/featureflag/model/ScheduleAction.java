@@ -0,0 +1,7 @@
+package org.springframework.samples.petclinic.featureflag.model;
+
+public enum ScheduleAction {
+
+	ENABLE, DISABLE, RAMP
+
+}
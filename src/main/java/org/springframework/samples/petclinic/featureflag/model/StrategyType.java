@@ -6,5 +6,6 @@ public enum StrategyType {
 	WHITELIST,
 	BLACKLIST,
 	USER_ATTRIBUTE,
-	KILL_SWITCH
+	KILL_SWITCH,
+	VARIANT
 }
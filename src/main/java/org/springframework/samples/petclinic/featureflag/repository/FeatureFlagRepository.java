@@ -1,6 +1,7 @@
 package org.springframework.samples.petclinic.featureflag.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
 import org.springframework.stereotype.Repository;
 
@@ -18,5 +19,8 @@ public interface FeatureFlagRepository extends JpaRepository<FeatureFlag, Long>
 
 	List<FeatureFlag> findByEnabled(Boolean enabled);
 
+	@Query("SELECT DISTINCT f.environment FROM FeatureFlag f")
+	List<String> findDistinctEnvironments();
+
 	boolean existsByFlagKey(String flagKey);
 }
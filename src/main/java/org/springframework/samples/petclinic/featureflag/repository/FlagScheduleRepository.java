@@ -0,0 +1,38 @@
+package org.springframework.samples.petclinic.featureflag.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.samples.petclinic.featureflag.model.FlagSchedule;
+import org.springframework.samples.petclinic.featureflag.model.ScheduleStatus;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface FlagScheduleRepository extends JpaRepository<FlagSchedule, Long> {
+
+	List<FlagSchedule> findByFlagKeyOrderByRunAtAsc(String flagKey);
+
+	List<FlagSchedule> findByFlagKeyAndStatus(String flagKey, ScheduleStatus status);
+
+	@Query("select s.id from FlagSchedule s where s.status = :status and s.nextRunAt <= :now "
+			+ "and (s.leaseUntil is null or s.leaseUntil < :now) order by s.nextRunAt")
+	List<Long> findDueIds(@Param("status") ScheduleStatus status, @Param("now") LocalDateTime now, Limit limit);
+
+	@Query("select min(s.nextRunAt) from FlagSchedule s where s.status = :status")
+	LocalDateTime findNextRunAt(@Param("status") ScheduleStatus status);
+
+	// Succeeds on at most one node per step: the lease is only
+	// taken while it is free or expired
+	@Modifying
+	@Query("update FlagSchedule s set s.leaseOwner = :owner, s.leaseUntil = :until, s.version = s.version + 1 "
+			+ "where s.id = :id and s.status = :status and s.nextRunAt <= :now "
+			+ "and (s.leaseUntil is null or s.leaseUntil < :now)")
+	int claim(@Param("id") Long id, @Param("status") ScheduleStatus status, @Param("owner") String owner,
+			@Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+}
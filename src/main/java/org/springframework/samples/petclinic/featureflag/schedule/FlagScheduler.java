@@ -0,0 +1,151 @@
+package org.springframework.samples.petclinic.featureflag.schedule;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.samples.petclinic.featureflag.config.FlagScheduleProperties;
+import org.springframework.samples.petclinic.featureflag.event.FlagScheduledEvent;
+import org.springframework.samples.petclinic.featureflag.service.FlagScheduleService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs due flag schedules from a single thread that sleeps until the earliest pending
+ * step, or at most {@code pollInterval} to notice schedules created on other nodes. Each
+ * step is claimed through a lease on its row first, so in a cluster only one node applies
+ * it. Flag changes go through
+ * {@link org.springframework.samples.petclinic.featureflag.service.FeatureFlagService}
+ * and reach the evaluators as a snapshot swap, like any other change.
+ */
+@Component
+@Slf4j
+public class FlagScheduler implements SmartLifecycle {
+
+	// Keeps a step whose lease is held by another node from
+	// turning the loop into a busy wait
+	private static final Duration MIN_SLEEP = Duration.ofSeconds(1);
+
+	private final String nodeId = UUID.randomUUID().toString();
+
+	private final FlagScheduleProperties properties;
+
+	private final FlagScheduleService schedules;
+
+	private volatile boolean running;
+
+	private volatile Thread schedulerThread;
+
+	private boolean failing;
+
+	public FlagScheduler(FlagScheduleProperties properties, FlagScheduleService schedules) {
+		this.properties = properties;
+		this.schedules = schedules;
+	}
+
+	@Override
+	public void start() {
+		if (!properties.isEnabled()) {
+			return;
+		}
+		running = true;
+		schedulerThread = new Thread(this::run, "flag-scheduler");
+		schedulerThread.setDaemon(true);
+		schedulerThread.start();
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		Thread thread = schedulerThread;
+		if (thread != null) {
+			thread.interrupt();
+			try {
+				thread.join(properties.getLeaseDuration().toMillis());
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onScheduled(FlagScheduledEvent event) {
+		Thread thread = schedulerThread;
+		if (thread != null) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	/**
+	 * Claims and runs the due steps of up to {@code batchSize} schedules.
+	 * @return the number of due schedules found
+	 */
+	int runDue() {
+		List<Long> due = schedules.findDue(LocalDateTime.now(), properties.getBatchSize());
+		for (Long id : due) {
+			if (!schedules.claim(id, nodeId, LocalDateTime.now(), properties.getLeaseDuration())) {
+				continue;
+			}
+			try {
+				schedules.runStep(id, nodeId);
+			}
+			catch (OptimisticLockingFailureException ex) {
+				log.info("Lease on schedule {} expired and was taken over by another node", id);
+			}
+			catch (DataAccessException ex) {
+				log.warn("Failed to run schedule {}, retrying once its lease expires: {}", id, ex.getMessage());
+			}
+			catch (RuntimeException ex) {
+				log.warn("Schedule {} failed: {}", id, ex.getMessage());
+				schedules.fail(id, nodeId, ex.getMessage());
+			}
+		}
+		return due.size();
+	}
+
+	private void run() {
+		while (running) {
+			Duration sleep = properties.getPollInterval();
+			try {
+				if (runDue() == properties.getBatchSize()) {
+					continue;
+				}
+				LocalDateTime next = schedules.findNextRunAt();
+				if (next != null) {
+					Duration untilNext = Duration.between(LocalDateTime.now(), next);
+					sleep = untilNext.compareTo(MIN_SLEEP) < 0 ? MIN_SLEEP
+							: untilNext.compareTo(sleep) < 0 ? untilNext : sleep;
+				}
+				if (failing) {
+					log.info("Flag schedules are reachable again");
+					failing = false;
+				}
+			}
+			catch (RuntimeException ex) {
+				// Logged once per outage, the table does not exist at all
+				// without the postgres profile
+				if (!failing) {
+					log.warn("Unable to read flag schedules, retrying every {}: {}", sleep, ex.getMessage());
+					failing = true;
+				}
+			}
+			LockSupport.parkNanos(this, sleep.toNanos());
+			if (Thread.interrupted() && !running) {
+				return;
+			}
+		}
+	}
+
+}
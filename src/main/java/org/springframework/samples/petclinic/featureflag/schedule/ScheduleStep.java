@@ -0,0 +1,51 @@
+package org.springframework.samples.petclinic.featureflag.schedule;
+
+import lombok.Value;
+import org.springframework.samples.petclinic.featureflag.model.FlagSchedule;
+import org.springframework.samples.petclinic.featureflag.model.ScheduleAction;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * The change a due schedule makes to its flag. A RAMP that fell behind, for example
+ * because no node was running, jumps to the step of the current time instead of replaying
+ * every missed percentage; its first step also enables the flag.
+ */
+@Value
+public class ScheduleStep {
+
+	int index;
+
+	// null leaves the flag's enabled state unchanged
+	Boolean enabled;
+
+	// null leaves the rollout percentage unchanged
+	Double percentage;
+
+	// null when this is the last step
+	LocalDateTime nextRunAt;
+
+	public static ScheduleStep due(FlagSchedule schedule, LocalDateTime now) {
+		if (schedule.getAction() != ScheduleAction.RAMP) {
+			return new ScheduleStep(0, schedule.getAction() == ScheduleAction.ENABLE, null, null);
+		}
+
+		int steps = schedule.getSteps();
+		Duration total = Duration.between(schedule.getRunAt(), schedule.getEndAt());
+		long elapsed = Math.max(0, Duration.between(schedule.getRunAt(), now).toMillis());
+		int reached = (int) Math.min(steps, elapsed * steps / Math.max(1, total.toMillis()));
+		int index = Math.max(schedule.getCompletedSteps(), reached);
+
+		double from = schedule.getFromPercentage();
+		double percentage = Math.round((from + (schedule.getToPercentage() - from) * index / steps) * 100) / 100.0;
+		return new ScheduleStep(index, schedule.getCompletedSteps() == 0 ? Boolean.TRUE : null, percentage,
+				index < steps ? stepTime(schedule, index + 1) : null);
+	}
+
+	public static LocalDateTime stepTime(FlagSchedule schedule, int index) {
+		Duration total = Duration.between(schedule.getRunAt(), schedule.getEndAt());
+		return schedule.getRunAt().plus(total.multipliedBy(index).dividedBy(schedule.getSteps()));
+	}
+
+}
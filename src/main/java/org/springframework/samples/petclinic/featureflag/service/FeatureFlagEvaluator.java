@@ -2,112 +2,134 @@ package org.springframework.samples.petclinic.featureflag.service;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.dto.FlagEvaluationResponse;
+import org.springframework.samples.petclinic.featureflag.engine.CompiledFlag;
+import org.springframework.samples.petclinic.featureflag.engine.EvaluationMemo;
+import org.springframework.samples.petclinic.featureflag.engine.FlagSnapshot;
+import org.springframework.samples.petclinic.featureflag.engine.FlagSnapshotRegistry;
+import org.springframework.samples.petclinic.featureflag.engine.FlagVariant;
+import org.springframework.samples.petclinic.featureflag.exposure.FlagExposureRecorder;
+import org.springframework.samples.petclinic.featureflag.metrics.FlagEvaluationMetrics;
 import org.springframework.samples.petclinic.featureflag.model.FlagContext;
-import org.springframework.samples.petclinic.featureflag.repository.FeatureFlagRepository;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.TreeMap;
 
 @Service
 @Slf4j
 public class FeatureFlagEvaluator {
 
 	@Autowired
-	private FeatureFlagRepository repository;
+	private FlagSnapshotRegistry snapshots;
 
-	@Cacheable(value = "featureFlags", key = "#flagKey")
-	public boolean isEnabled(String flagKey, FlagContext context) {
-		Optional<FeatureFlag> flagOpt = repository.findByFlagKeyAndEnvironment(
-			flagKey, context.getEnvironment()
-		);
+	@Autowired
+	private FlagEvaluationMetrics metrics;
 
-		if (flagOpt.isEmpty()) {
-			log.warn("Flag {} not found, defaulting to false", flagKey);
-			return false;
-		}
+	@Autowired
+	private FlagExposureRecorder exposures;
 
-		FeatureFlag flag = flagOpt.get();
+	@Autowired
+	private UnknownFlagReporter unknownFlags;
 
-		if (!flag.getEnabled()) {
+	// Results depend on the caller's targeting identity and must never be cached by flag key,
+	// only the compiled definitions are cached (per environment and flag key) by the registry
+	public boolean isEnabled(String flagKey, FlagContext context) {
+		boolean timed = metrics.sampleLatency();
+		long start = timed ? System.nanoTime() : 0L;
+		FlagSnapshot snapshot = snapshots.snapshot(context.getEnvironment());
+		CompiledFlag flag = snapshot.get(flagKey);
+
+		if (flag == null) {
+			metrics.recordNotFound();
+			unknownFlags.report(snapshot.getEnvironment(), flagKey, "false");
 			return false;
 		}
 
-		return evaluateStrategy(flag, context);
+		boolean enabled = flag.evaluate(context);
+		metrics.recordEvaluation(flag, enabled, timed ? System.nanoTime() - start : -1L);
+		exposures.record(flag, context, enabled);
+		return enabled;
 	}
 
-	private boolean evaluateStrategy(FeatureFlag flag, FlagContext context) {
-		switch (flag.getStrategyType()) {
-			case BOOLEAN:
-				return true;
-
-			case PERCENTAGE:
-				return evaluatePercentage(flag, context);
-
-			case WHITELIST:
-				return evaluateWhitelist(flag, context);
-
-			case BLACKLIST:
-				return !evaluateBlacklist(flag, context);
-
-			case USER_ATTRIBUTE:
-				return evaluateUserAttribute(flag, context);
-
-			case KILL_SWITCH:
-				return false;
-
-			default:
-				return flag.getEnabled();
+	/**
+	 * Variant of a VARIANT flag served to the caller, or {@code null} if the flag does not
+	 * exist, has no variants, or serves none to this caller.
+	 */
+	public FlagVariant evaluateVariant(String flagKey, FlagContext context) {
+		boolean timed = metrics.sampleLatency();
+		long start = timed ? System.nanoTime() : 0L;
+		FlagSnapshot snapshot = snapshots.snapshot(context.getEnvironment());
+		CompiledFlag flag = snapshot.get(flagKey);
+
+		if (flag == null) {
+			metrics.recordNotFound();
+			unknownFlags.report(snapshot.getEnvironment(), flagKey, "no variant");
+			return null;
 		}
-	}
 
-	private boolean evaluatePercentage(FeatureFlag flag, FlagContext context) {
-		Integer percentage = (Integer) flag.getStrategyConfig().get("percentage");
-		if (percentage == null || percentage <= 0) return false;
-		if (percentage >= 100) return true;
-
-		// Consistent hashing for same user
-		String identifier = context.getUserId() != null ?
-			context.getUserId() : context.getSessionId();
-
-		if (identifier == null) return false;
-
-		int hash = Math.abs((flag.getFlagKey() + identifier).hashCode());
-		return (hash % 100) < percentage;
-	}
-
-	@SuppressWarnings("unchecked")
-	private boolean evaluateWhitelist(FeatureFlag flag, FlagContext context) {
-		List<String> whitelist = (List<String>) flag.getStrategyConfig().get("whitelist");
-		if (whitelist == null || whitelist.isEmpty()) return false;
-
-		return whitelist.contains(context.getUserId()) ||
-			whitelist.contains(context.getIpAddress());
+		FlagVariant variant = flag.variant(context);
+		metrics.recordEvaluation(flag, variant != null, timed ? System.nanoTime() - start : -1L);
+		if (variant != null) {
+			exposures.record(flag, context, variant.getName());
+		}
+		return variant;
 	}
 
-	@SuppressWarnings("unchecked")
-	private boolean evaluateBlacklist(FeatureFlag flag, FlagContext context) {
-		List<String> blacklist = (List<String>) flag.getStrategyConfig().get("blacklist");
-		if (blacklist == null || blacklist.isEmpty()) return false;
+	// Payloads that cannot be read as the requested type fall back like a missing variant
+	public <T> T evaluateVariant(String flagKey, FlagContext context, Class<T> type, T defaultValue) {
+		FlagVariant variant = evaluateVariant(flagKey, context);
+		if (variant == null) {
+			return defaultValue;
+		}
 
-		return blacklist.contains(context.getUserId()) ||
-			blacklist.contains(context.getIpAddress());
+		try {
+			T value = variant.getValue(type);
+			return value != null ? value : defaultValue;
+		}
+		catch (IllegalArgumentException ex) {
+			log.warn("Variant {} of flag {} is not a {}, using the default: {}", variant.getName(), flagKey,
+				type.getSimpleName(), ex.getMessage());
+			return defaultValue;
+		}
 	}
 
-	@SuppressWarnings("unchecked")
-	private boolean evaluateUserAttribute(FeatureFlag flag, FlagContext context) {
-		Map<String, String> requiredAttrs = (Map<String, String>)
-			flag.getStrategyConfig().get("attributes");
-
-		if (requiredAttrs == null || context.getAttributes() == null) return false;
+	// All results come from one snapshot, so a concurrent write never yields a mix of versions
+	public FlagEvaluationResponse evaluateAll(FlagContext context, Collection<String> flagKeys) {
+		FlagSnapshot snapshot = snapshots.snapshot(context.getEnvironment());
+		Map<String, Boolean> results;
+
+		// Shared prerequisites are evaluated once for the whole batch
+		EvaluationMemo memo = new EvaluationMemo();
+
+		if (flagKeys == null || flagKeys.isEmpty()) {
+			results = new TreeMap<>();
+			for (CompiledFlag flag : snapshot.getEvaluationOrder()) {
+				boolean enabled = flag.evaluate(context, memo);
+				metrics.recordEvaluation(flag, enabled, -1L);
+				exposures.record(flag, context, enabled);
+				results.put(flag.getFlagKey(), enabled);
+			}
+		}
+		else {
+			results = new LinkedHashMap<>(flagKeys.size() * 2);
+			for (String flagKey : flagKeys) {
+				CompiledFlag flag = snapshot.get(flagKey);
+				if (flag == null) {
+					metrics.recordNotFound();
+					unknownFlags.report(snapshot.getEnvironment(), flagKey, "false");
+					results.put(flagKey, false);
+					continue;
+				}
+				boolean enabled = flag.evaluate(context, memo);
+				metrics.recordEvaluation(flag, enabled, -1L);
+				exposures.record(flag, context, enabled);
+				results.put(flagKey, enabled);
+			}
+		}
 
-		return requiredAttrs.entrySet().stream()
-			.allMatch(entry -> entry.getValue().equals(
-				context.getAttributes().get(entry.getKey())
-			));
+		return new FlagEvaluationResponse(snapshot.getEnvironment(), snapshot.getVersion(), results);
 	}
 }
-
@@ -4,52 +4,86 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.samples.petclinic.featureflag.audit.AuditCursor;
+import org.springframework.samples.petclinic.featureflag.audit.FlagAuditSpecifications;
+import org.springframework.samples.petclinic.featureflag.audit.FlagAuditWriter;
 import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
 import org.springframework.samples.petclinic.featureflag.model.FlagAudit;
 import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
 import org.springframework.samples.petclinic.featureflag.repository.FeatureFlagRepository;
 import org.springframework.samples.petclinic.featureflag.repository.FlagAuditRepository;
+import org.springframework.samples.petclinic.featureflag.config.FeatureFlagCacheProperties;
+import org.springframework.samples.petclinic.featureflag.dto.AuditPage;
+import org.springframework.samples.petclinic.featureflag.dto.AuditQuery;
 import org.springframework.samples.petclinic.featureflag.dto.FeatureFlagDTO;
+import org.springframework.samples.petclinic.featureflag.dto.FlagEvaluationResponse;
+import org.springframework.samples.petclinic.featureflag.dto.VariantEvaluationResponse;
+import org.springframework.samples.petclinic.featureflag.engine.FlagCompiler;
+import org.springframework.samples.petclinic.featureflag.engine.FlagDependencies;
+import org.springframework.samples.petclinic.featureflag.engine.FlagVariant;
+import org.springframework.samples.petclinic.featureflag.event.FlagChangeVersions;
+import org.springframework.samples.petclinic.featureflag.event.FlagChangedEvent;
 import org.springframework.samples.petclinic.featureflag.exception.FeatureFlagNotFoundException;
 import org.springframework.samples.petclinic.featureflag.exception.DuplicateFlagException;
+import org.springframework.samples.petclinic.featureflag.exception.InvalidFlagConfigException;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
 @Transactional
 public class FeatureFlagService {
 
+	public static final int MAX_AUDIT_PAGE_SIZE = 500;
+
 	@Autowired
 	private FeatureFlagRepository flagRepository;
 
 	@Autowired
 	private FlagAuditRepository auditRepository;
 
+	@Autowired
+	private FlagAuditWriter auditWriter;
+
 	@Autowired
 	private FeatureFlagEvaluator evaluator;
 
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private FlagChangeVersions changeVersions;
+
+	// Lets exportAudits run each page through the transactional proxy
+	@Autowired
+	@Lazy
+	private FeatureFlagService self;
+
 	public List<FeatureFlag> getAllFlags(String environment) {
 		log.info("Fetching all flags for environment: {}", environment);
 		return flagRepository.findByEnvironment(environment);
 	}
 
-	@Cacheable(value = "featureFlags", key = "#flagKey")
+	@Cacheable(value = FeatureFlagCacheProperties.FLAG_DEFINITIONS, key = "#flagKey")
 	public Optional<FeatureFlag> getFlag(String flagKey) {
 		return flagRepository.findByFlagKey(flagKey);
 	}
 
-	@CacheEvict(value = "featureFlags", key = "#dto.flagKey")
+	@CacheEvict(value = FeatureFlagCacheProperties.FLAG_DEFINITIONS, key = "#dto.flagKey")
 	public FeatureFlag createFlag(FeatureFlagDTO dto) {
 		log.info("Creating new flag: {}", dto.getFlagKey());
 
@@ -64,17 +98,19 @@ public class FeatureFlagService {
 		flag.setStrategyType(dto.getStrategyType());
 		flag.setStrategyConfig(dto.getStrategyConfig() != null ? dto.getStrategyConfig() : new HashMap<>());
 		flag.setEnvironment(dto.getEnvironment() != null ? dto.getEnvironment() : "development");
+		validateStrategy(flag);
 		flag.setCreatedBy(dto.getCreatedBy() != null ? dto.getCreatedBy() : "system");
 		flag.setUpdatedBy(dto.getCreatedBy() != null ? dto.getCreatedBy() : "system");
 
 		FeatureFlag saved = flagRepository.save(flag);
 
 		logAudit(saved, "CREATE", null, toAuditMap(saved), dto.getReason());
+		publishChange(saved, "CREATE", saved.getEnvironment());
 
 		return saved;
 	}
 
-	@CacheEvict(value = "featureFlags", key = "#flagKey")
+	@CacheEvict(value = FeatureFlagCacheProperties.FLAG_DEFINITIONS, key = "#flagKey")
 	public FeatureFlag updateFlag(String flagKey, FeatureFlagDTO dto) {
 		log.info("Updating flag: {}", flagKey);
 
@@ -82,6 +118,7 @@ public class FeatureFlagService {
 			.orElseThrow(() -> new FeatureFlagNotFoundException("Flag not found: " + flagKey));
 
 		Map<String, Object> oldValues = toAuditMap(existing);
+		String oldEnvironment = existing.getEnvironment();
 
 		if (dto.getDescription() != null) {
 			existing.setDescription(dto.getDescription());
@@ -99,16 +136,18 @@ public class FeatureFlagService {
 			existing.setEnvironment(dto.getEnvironment());
 		}
 
+		validateStrategy(existing);
 		existing.setUpdatedBy(dto.getUpdatedBy() != null ? dto.getUpdatedBy() : "system");
 
 		FeatureFlag updated = flagRepository.save(existing);
 
 		logAudit(updated, "UPDATE", oldValues, toAuditMap(updated), dto.getReason());
+		publishChange(updated, "UPDATE", oldEnvironment);
 
 		return updated;
 	}
 
-	@CacheEvict(value = "featureFlags", key = "#flagKey")
+	@CacheEvict(value = FeatureFlagCacheProperties.FLAG_DEFINITIONS, key = "#flagKey")
 	public void deleteFlag(String flagKey) {
 		log.info("Deleting flag: {}", flagKey);
 
@@ -120,9 +159,10 @@ public class FeatureFlagService {
 		flagRepository.delete(flag);
 
 		logAudit(flag, "DELETE", oldValues, null, "Flag deleted");
+		publishChange(flag, "DELETE", flag.getEnvironment());
 	}
 
-	@CacheEvict(value = "featureFlags", key = "#flagKey")
+	@CacheEvict(value = FeatureFlagCacheProperties.FLAG_DEFINITIONS, key = "#flagKey")
 	public FeatureFlag toggleFlag(String flagKey) {
 		log.info("Toggling flag: {}", flagKey);
 
@@ -137,29 +177,148 @@ public class FeatureFlagService {
 		FeatureFlag updated = flagRepository.save(flag);
 
 		logAudit(updated, "TOGGLE", oldValues, toAuditMap(updated), "Flag toggled");
+		publishChange(updated, "TOGGLE", updated.getEnvironment());
+
+		return updated;
+	}
+
+	// Called by FlagScheduleService within the transaction that advances the schedule
+	@CacheEvict(value = FeatureFlagCacheProperties.FLAG_DEFINITIONS, key = "#flagKey")
+	public FeatureFlag applyScheduledChange(String flagKey, Boolean enabled, Double percentage, String changedBy,
+											String reason) {
+		log.info("Applying scheduled change to flag: {}", flagKey);
+
+		FeatureFlag flag = flagRepository.findByFlagKey(flagKey)
+			.orElseThrow(() -> new FeatureFlagNotFoundException("Flag not found: " + flagKey));
+
+		Map<String, Object> oldValues = toAuditMap(flag);
+
+		if (enabled != null) {
+			flag.setEnabled(enabled);
+		}
+		if (percentage != null) {
+			if (flag.getStrategyType() != StrategyType.PERCENTAGE) {
+				throw new InvalidFlagConfigException("Flag '" + flagKey + "' is no longer a PERCENTAGE flag");
+			}
+			Map<String, Object> config = new HashMap<>(flag.getStrategyConfig());
+			config.put("percentage", percentage);
+			flag.setStrategyConfig(config);
+		}
+		flag.setUpdatedBy(changedBy != null ? changedBy : "scheduler");
+
+		FeatureFlag updated = flagRepository.save(flag);
+
+		logAudit(updated, "SCHEDULE", oldValues, toAuditMap(updated), reason != null ? reason : "Scheduled change");
+		publishChange(updated, "SCHEDULE", updated.getEnvironment());
 
 		return updated;
 	}
 
-	public Page<FlagAudit> getRecentAudits(int page, int size) {
-		log.info("Fetching audit logs - page: {}, size: {}", page, size);
-		Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp"));
-		return auditRepository.findAll(pageable);
+	@Transactional(readOnly = true)
+	public AuditPage queryAudits(AuditQuery query) {
+		int limit = Math.max(1, Math.min(query.getLimit(), MAX_AUDIT_PAGE_SIZE));
+		log.debug("Fetching audit logs - query: {}", query);
+		Specification<FlagAudit> spec = FlagAuditSpecifications.matching(query, AuditCursor.decode(query.getCursor()));
+		// One extra row tells whether another page exists without counting the table
+		List<FlagAudit> rows = auditRepository.findBy(spec,
+			q -> q.sortBy(FlagAuditSpecifications.NEWEST_FIRST).limit(limit + 1).all());
+		if (rows.size() <= limit) {
+			return new AuditPage(rows, null);
+		}
+		List<FlagAudit> entries = rows.subList(0, limit);
+		return new AuditPage(entries, AuditCursor.of(entries.get(limit - 1)).encode());
+	}
+
+	// Each page runs in its own short transaction so exports never pin a connection or persistence context
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	public void exportAudits(AuditQuery query, Consumer<FlagAudit> sink) {
+		AuditQuery page = new AuditQuery();
+		page.setFlagKey(query.getFlagKey());
+		page.setAction(query.getAction());
+		page.setChangedBy(query.getChangedBy());
+		page.setFrom(query.getFrom());
+		page.setTo(query.getTo());
+		page.setCursor(query.getCursor());
+		page.setLimit(MAX_AUDIT_PAGE_SIZE);
+		do {
+			AuditPage result = self.queryAudits(page);
+			result.getEntries().forEach(sink);
+			page.setCursor(result.getNextCursor());
+		}
+		while (page.getCursor() != null);
 	}
 
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public boolean evaluate(String flagKey, FlagContext context) {
 		return evaluator.isEnabled(flagKey, context);
 	}
 
-	public List<FlagAudit> getAuditLog(String flagKey) {
-		return auditRepository.findByFlagKeyOrderByTimestampDesc(flagKey);
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public VariantEvaluationResponse evaluateVariant(String flagKey, FlagContext context) {
+		FlagVariant variant = evaluator.evaluateVariant(flagKey, context);
+		return variant != null
+			? new VariantEvaluationResponse(flagKey, variant.getName(), variant.getValue())
+			: new VariantEvaluationResponse(flagKey, null, null);
+	}
+
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public FlagEvaluationResponse evaluateAll(FlagContext context, List<String> flagKeys) {
+		return evaluator.evaluateAll(context, flagKeys);
 	}
 
-	public List<FlagAudit> getRecentAuditLog() {
-		return auditRepository.findTop20ByOrderByTimestampDesc();
+	public AuditPage getAuditLog(String flagKey, AuditQuery query) {
+		query.setFlagKey(flagKey);
+		return queryAudits(query);
 	}
 
 	// Helper methods
+	private void validateStrategy(FeatureFlag flag) {
+		List<String> prerequisites;
+		try {
+			FlagCompiler.validate(flag.getFlagKey(), flag.getStrategyType(), flag.getStrategyConfig());
+			prerequisites = FlagDependencies.prerequisiteKeys(flag.getStrategyConfig());
+		}
+		catch (RuntimeException ex) {
+			throw new InvalidFlagConfigException("Invalid " + flag.getStrategyType() + " configuration for flag '"
+				+ flag.getFlagKey() + "': " + ex.getMessage(), ex);
+		}
+		if (!prerequisites.isEmpty()) {
+			validatePrerequisites(flag, prerequisites);
+		}
+	}
+
+	// Prerequisites resolve within the flag's environment; a flag without any cannot close a cycle
+	private void validatePrerequisites(FeatureFlag flag, List<String> prerequisites) {
+		Map<String, List<String>> graph = new HashMap<>();
+		for (FeatureFlag other : flagRepository.findByEnvironment(flag.getEnvironment())) {
+			if (!other.getFlagKey().equals(flag.getFlagKey())) {
+				graph.put(other.getFlagKey(), storedPrerequisites(other));
+			}
+		}
+		for (String prerequisite : prerequisites) {
+			if (!graph.containsKey(prerequisite) && !prerequisite.equals(flag.getFlagKey())) {
+				throw new InvalidFlagConfigException("Prerequisite '" + prerequisite + "' of flag '" + flag.getFlagKey()
+					+ "' does not exist in environment " + flag.getEnvironment());
+			}
+		}
+		graph.put(flag.getFlagKey(), prerequisites);
+
+		List<String> cycle = FlagDependencies.findCycle(graph);
+		if (!cycle.isEmpty()) {
+			throw new InvalidFlagConfigException("Prerequisites of flag '" + flag.getFlagKey() + "' form a cycle: "
+				+ String.join(" -> ", cycle));
+		}
+	}
+
+	private List<String> storedPrerequisites(FeatureFlag flag) {
+		try {
+			return flag.getStrategyConfig() != null ? FlagDependencies.prerequisiteKeys(flag.getStrategyConfig()) : List.of();
+		}
+		catch (IllegalArgumentException ex) {
+			return List.of();
+		}
+	}
+
 	private void logAudit(FeatureFlag flag, String action, Map<String, Object> oldValue,
 						  Map<String, Object> newValue, String reason) {
 		FlagAudit audit = new FlagAudit();
@@ -172,8 +331,19 @@ public class FeatureFlagService {
 		audit.setReason(reason != null ? reason : "No reason provided");
 		audit.setTimestamp(LocalDateTime.now());
 
-		auditRepository.save(audit);
-		log.info("Audit logged: {} on flag {}", action, flag.getFlagKey());
+		auditWriter.submit(audit);
+		log.info("Audit queued: {} on flag {}", action, flag.getFlagKey());
+	}
+
+	// Snapshots are swapped once the transaction commits, see FlagSnapshotRegistry
+	private void publishChange(FeatureFlag flag, String action, String previousEnvironment) {
+		Set<String> environments = new HashSet<>();
+		environments.add(flag.getEnvironment());
+		if (previousEnvironment != null) {
+			environments.add(previousEnvironment);
+		}
+		eventPublisher.publishEvent(new FlagChangedEvent(flag.getFlagKey(), action, environments,
+			changeVersions.next(), false));
 	}
 
 	private Map<String, Object> toAuditMap(FeatureFlag flag) {
@@ -0,0 +1,173 @@
+package org.springframework.samples.petclinic.featureflag.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.samples.petclinic.featureflag.config.FlagScheduleProperties;
+import org.springframework.samples.petclinic.featureflag.dto.FlagScheduleDTO;
+import org.springframework.samples.petclinic.featureflag.event.FlagScheduledEvent;
+import org.springframework.samples.petclinic.featureflag.exception.FeatureFlagNotFoundException;
+import org.springframework.samples.petclinic.featureflag.exception.InvalidScheduleException;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.FlagSchedule;
+import org.springframework.samples.petclinic.featureflag.model.ScheduleAction;
+import org.springframework.samples.petclinic.featureflag.model.ScheduleStatus;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.samples.petclinic.featureflag.repository.FeatureFlagRepository;
+import org.springframework.samples.petclinic.featureflag.repository.FlagScheduleRepository;
+import org.springframework.samples.petclinic.featureflag.schedule.ScheduleStep;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+@Transactional
+public class FlagScheduleService {
+
+	private static final int DEFAULT_RAMP_STEPS = 10;
+
+	private static final int MAX_ERROR_LENGTH = 500;
+
+	@Autowired
+	private FlagScheduleRepository scheduleRepository;
+
+	@Autowired
+	private FeatureFlagRepository flagRepository;
+
+	@Autowired
+	private FeatureFlagService flagService;
+
+	@Autowired
+	private FlagScheduleProperties properties;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	public FlagSchedule createSchedule(String flagKey, FlagScheduleDTO dto) {
+		log.info("Scheduling {} of flag: {}", dto.getAction(), flagKey);
+
+		FeatureFlag flag = flagRepository.findByFlagKey(flagKey)
+			.orElseThrow(() -> new FeatureFlagNotFoundException("Flag not found: " + flagKey));
+
+		FlagSchedule schedule = new FlagSchedule();
+		schedule.setFlagKey(flagKey);
+		schedule.setAction(dto.getAction());
+		schedule.setRunAt(dto.getRunAt() != null ? dto.getRunAt() : LocalDateTime.now());
+		if (dto.getAction() == ScheduleAction.RAMP) {
+			validateRamp(flag, dto);
+			schedule.setEndAt(dto.getEndAt());
+			schedule.setFromPercentage(dto.getFromPercentage());
+			schedule.setToPercentage(dto.getToPercentage());
+			schedule.setSteps(dto.getSteps() != null ? dto.getSteps() : DEFAULT_RAMP_STEPS);
+		}
+		schedule.setNextRunAt(schedule.getRunAt());
+		schedule.setCreatedBy(dto.getCreatedBy() != null ? dto.getCreatedBy() : "system");
+		schedule.setReason(dto.getReason());
+
+		FlagSchedule saved = scheduleRepository.save(schedule);
+		eventPublisher.publishEvent(new FlagScheduledEvent(flagKey, saved.getNextRunAt()));
+		return saved;
+	}
+
+	@Transactional(readOnly = true)
+	public List<FlagSchedule> getSchedules(String flagKey) {
+		return scheduleRepository.findByFlagKeyOrderByRunAtAsc(flagKey);
+	}
+
+	public FlagSchedule cancelSchedule(String flagKey, Long id) {
+		FlagSchedule schedule = scheduleRepository.findById(id)
+			.filter(found -> found.getFlagKey().equals(flagKey))
+			.orElseThrow(() -> new FeatureFlagNotFoundException("Schedule " + id + " not found for flag: " + flagKey));
+		if (schedule.getStatus() != ScheduleStatus.PENDING) {
+			throw new InvalidScheduleException("Schedule " + id + " is already " + schedule.getStatus());
+		}
+		log.info("Cancelling schedule {} of flag: {}", id, flagKey);
+		schedule.setStatus(ScheduleStatus.CANCELLED);
+		schedule.setNextRunAt(null);
+		return scheduleRepository.save(schedule);
+	}
+
+	// The methods below are driven by FlagScheduler
+
+	@Transactional(readOnly = true)
+	public List<Long> findDue(LocalDateTime now, int limit) {
+		return scheduleRepository.findDueIds(ScheduleStatus.PENDING, now, Limit.of(limit));
+	}
+
+	@Transactional(readOnly = true)
+	public LocalDateTime findNextRunAt() {
+		return scheduleRepository.findNextRunAt(ScheduleStatus.PENDING);
+	}
+
+	public boolean claim(Long id, String owner, LocalDateTime now, Duration lease) {
+		return scheduleRepository.claim(id, ScheduleStatus.PENDING, owner, now, now.plus(lease)) == 1;
+	}
+
+	/**
+	 * Applies the due step of a claimed schedule and advances it in one transaction. The
+	 * version bumped by the claim makes the commit fail if the lease was taken over in
+	 * the meantime, in which case the flag change is rolled back as well.
+	 */
+	public void runStep(Long id, String owner) {
+		FlagSchedule schedule = scheduleRepository.findById(id).orElse(null);
+		LocalDateTime now = LocalDateTime.now();
+		if (schedule == null || schedule.getStatus() != ScheduleStatus.PENDING
+				|| !owner.equals(schedule.getLeaseOwner()) || schedule.getLeaseUntil().isBefore(now)) {
+			return;
+		}
+
+		ScheduleStep step = ScheduleStep.due(schedule, now);
+		flagService.applyScheduledChange(schedule.getFlagKey(), step.getEnabled(), step.getPercentage(),
+				schedule.getCreatedBy(), schedule.getReason() != null ? schedule.getReason()
+						: "Scheduled " + schedule.getAction() + " (schedule " + id + ")");
+
+		schedule.setCompletedSteps(step.getIndex() + 1);
+		schedule.setNextRunAt(step.getNextRunAt());
+		schedule.setStatus(step.getNextRunAt() != null ? ScheduleStatus.PENDING : ScheduleStatus.DONE);
+		schedule.setLeaseOwner(null);
+		schedule.setLeaseUntil(null);
+		schedule.setLastError(null);
+		scheduleRepository.saveAndFlush(schedule);
+		log.info("Ran step {} of schedule {} on flag {}", step.getIndex(), id, schedule.getFlagKey());
+	}
+
+	public void fail(Long id, String owner, String error) {
+		scheduleRepository.findById(id)
+			.filter(schedule -> owner.equals(schedule.getLeaseOwner()))
+			.ifPresent(schedule -> {
+				schedule.setStatus(ScheduleStatus.FAILED);
+				schedule.setNextRunAt(null);
+				schedule.setLeaseOwner(null);
+				schedule.setLeaseUntil(null);
+				schedule.setLastError(error != null && error.length() > MAX_ERROR_LENGTH
+						? error.substring(0, MAX_ERROR_LENGTH) : error);
+			});
+	}
+
+	private void validateRamp(FeatureFlag flag, FlagScheduleDTO dto) {
+		if (flag.getStrategyType() != StrategyType.PERCENTAGE) {
+			throw new InvalidScheduleException(
+					"Only PERCENTAGE flags can be ramped, " + flag.getFlagKey() + " is " + flag.getStrategyType());
+		}
+		if (!isPercentage(dto.getFromPercentage()) || !isPercentage(dto.getToPercentage())) {
+			throw new InvalidScheduleException("fromPercentage and toPercentage must be between 0 and 100");
+		}
+		LocalDateTime runAt = dto.getRunAt() != null ? dto.getRunAt() : LocalDateTime.now();
+		if (dto.getEndAt() == null || !dto.getEndAt().isAfter(runAt)) {
+			throw new InvalidScheduleException("endAt must be after runAt");
+		}
+		if (dto.getSteps() != null && (dto.getSteps() < 1 || dto.getSteps() > properties.getMaxRampSteps())) {
+			throw new InvalidScheduleException("steps must be between 1 and " + properties.getMaxRampSteps());
+		}
+	}
+
+	private boolean isPercentage(Double value) {
+		return value != null && value >= 0 && value <= 100;
+	}
+
+}
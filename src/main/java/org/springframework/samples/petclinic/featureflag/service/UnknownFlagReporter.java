@@ -0,0 +1,93 @@
+package org.springframework.samples.petclinic.featureflag.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.samples.petclinic.featureflag.config.UnknownFlagProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs evaluations of unknown flags at most once per {@code warnInterval} and key, so a
+ * mistyped key in a hot path cannot flood the log. Unknown keys are answered from the
+ * snapshot in memory and never reach the database.
+ */
+@Component
+@Slf4j
+public class UnknownFlagReporter {
+
+	private final long warnIntervalNanos;
+
+	private final int maxTracked;
+
+	// environment -> flag key -> warning state, two lookups instead
+	// of allocating a composite key
+	private final Map<String, Map<String, Warning>> warnings = new ConcurrentHashMap<>();
+
+	private final AtomicInteger tracked = new AtomicInteger();
+
+	private final Warning untracked = new Warning();
+
+	public UnknownFlagReporter(UnknownFlagProperties properties) {
+		this.warnIntervalNanos = properties.getWarnInterval().toNanos();
+		this.maxTracked = properties.getMaxTracked();
+	}
+
+	/**
+	 * @return whether a warning was logged
+	 */
+	public boolean report(String environment, String flagKey, String fallback) {
+		Warning warning = warning(environment, flagKey);
+		long now = System.nanoTime();
+		long due = warning.nextWarnAt.get();
+		if (now - due < 0 || !warning.nextWarnAt.compareAndSet(due, now + warnIntervalNanos)) {
+			warning.suppressed.increment();
+			return false;
+		}
+
+		long suppressed = warning.suppressed.sumThenReset();
+		if (warning == untracked) {
+			log.warn("Flag {} not found in environment {}, defaulting to {} ({} more evaluations of unknown flags)",
+					flagKey, environment, fallback, suppressed);
+		}
+		else {
+			log.warn(
+					"Flag {} not found in environment {}, defaulting to {} ({} more evaluations since the last warning)",
+					flagKey, environment, fallback, suppressed);
+		}
+		return true;
+	}
+
+	private Warning warning(String environment, String flagKey) {
+		Map<String, Warning> flags = warnings.get(environment);
+		if (flags == null) {
+			if (tracked.get() >= maxTracked) {
+				return untracked;
+			}
+			flags = warnings.computeIfAbsent(environment, env -> new ConcurrentHashMap<>());
+		}
+		Warning warning = flags.get(flagKey);
+		if (warning == null) {
+			if (tracked.get() >= maxTracked) {
+				return untracked;
+			}
+			warning = flags.computeIfAbsent(flagKey, key -> {
+				tracked.incrementAndGet();
+				return new Warning();
+			});
+		}
+		return warning;
+	}
+
+	private static final class Warning {
+
+		private final AtomicLong nextWarnAt = new AtomicLong(System.nanoTime());
+
+		private final LongAdder suppressed = new LongAdder();
+
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a list of people sorted by last name and id, used for keyset pagination:
+ * the next page is read with <code>WHERE (last_name, id) &gt; (cursor)</code>, which
+ * costs the same for every page, instead of skipping an ever growing <code>OFFSET</code>.
+ * <p>
+ * Cursors travel in URLs as opaque tokens, see {@link #encode()} and
+ * {@link #decode(String)}.
+ * </p>
+ *
+ * @param lastName the last name of the person at this position
+ * @param id the id of the person at this position
+ */
+public record KeysetCursor(String lastName, int id) {
+
+	/**
+	 * Position before every person, for reading the first page.
+	 */
+	public static final KeysetCursor START = new KeysetCursor("", 0);
+
+	/**
+	 * Return the cursor of the given person.
+	 */
+	public static KeysetCursor of(Person person) {
+		return new KeysetCursor(person.getLastName(), person.getId());
+	}
+
+	public String encode() {
+		byte[] bytes = (this.id + ":" + this.lastName).getBytes(StandardCharsets.UTF_8);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	/**
+	 * Parse a token created by {@link #encode()}.
+	 * @param token the token, may be {@code null}
+	 * @return the cursor, or {@code null} if the token is missing or malformed
+	 */
+	public static KeysetCursor decode(String token) {
+		if (token == null || token.isEmpty()) {
+			return null;
+		}
+		try {
+			String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			int separator = value.indexOf(':');
+			return separator < 0 ? null
+					: new KeysetCursor(value.substring(separator + 1), Integer.parseInt(value.substring(0, separator)));
+		}
+		catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+}
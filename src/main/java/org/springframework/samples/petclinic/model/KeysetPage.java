@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * One page of a keyset paginated list. Queries read one row more than the page size, so
+ * whether there is a further page is known without counting.
+ *
+ * @param content the rows of the page, in list order
+ * @param hasPrevious whether there are rows before this page
+ * @param hasNext whether there are rows after this page
+ * @see KeysetCursor
+ */
+public record KeysetPage<T>(List<T> content, boolean hasPrevious, boolean hasNext) {
+
+	/**
+	 * Page read forwards from a cursor, in list order.
+	 * @param rows up to <code>pageSize + 1</code> rows after the cursor
+	 * @param pageSize the number of rows per page
+	 * @param afterCursor whether the rows were read after a cursor rather than from the
+	 * start of the list
+	 */
+	public static <T> KeysetPage<T> forward(List<T> rows, int pageSize, boolean afterCursor) {
+		return new KeysetPage<>(List.copyOf(rows.subList(0, Math.min(pageSize, rows.size()))), afterCursor,
+				rows.size() > pageSize);
+	}
+
+	/**
+	 * Page read backwards from a cursor, i.e. in reverse list order.
+	 * @param rows up to <code>pageSize + 1</code> rows before the cursor, closest first
+	 * @param pageSize the number of rows per page
+	 */
+	public static <T> KeysetPage<T> backward(List<T> rows, int pageSize) {
+		List<T> content = new ArrayList<>(rows.subList(0, Math.min(pageSize, rows.size())));
+		Collections.reverse(content);
+		return new KeysetPage<>(List.copyOf(content), rows.size() > pageSize, true);
+	}
+
+	public boolean isEmpty() {
+		return this.content.isEmpty();
+	}
+
+	public T first() {
+		return this.content.get(0);
+	}
+
+	public T last() {
+		return this.content.get(this.content.size() - 1);
+	}
+
+	/**
+	 * Link to the first page, or {@code null} if this is the first page.
+	 * @param url the URL of the list, including its filter parameters
+	 */
+	public String firstUrl(UriComponentsBuilder url) {
+		return this.hasPrevious ? url.toUriString() : null;
+	}
+
+	/**
+	 * Link to the previous page, or {@code null} if this is the first page.
+	 * @param url the URL of the list, including its filter parameters
+	 * @param page the number of this page, only used for display
+	 * @param cursor the cursor of a row
+	 */
+	public String previousUrl(UriComponentsBuilder url, int page, Function<T, KeysetCursor> cursor) {
+		return this.hasPrevious && !isEmpty() ? url.cloneBuilder()
+			.queryParam("before", cursor.apply(first()).encode())
+			.queryParam("page", page - 1)
+			.toUriString() : null;
+	}
+
+	/**
+	 * Link to the next page, or {@code null} if this is the last page.
+	 * @param url the URL of the list, including its filter parameters
+	 * @param page the number of this page, only used for display
+	 * @param cursor the cursor of a row
+	 */
+	public String nextUrl(UriComponentsBuilder url, int page, Function<T, KeysetCursor> cursor) {
+		return this.hasNext && !isEmpty() ? url.cloneBuilder()
+			.queryParam("after", cursor.apply(last()).encode())
+			.queryParam("page", page + 1)
+			.toUriString() : null;
+	}
+
+}
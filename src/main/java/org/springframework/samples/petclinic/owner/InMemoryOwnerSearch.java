@@ -0,0 +1,329 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * {@link OwnerSearch} backed by an inverted index held in memory. Every word of an
+ * owner's name, city, telephone and pet names is posted under its character trigrams and
+ * its Soundex code, so a query word finds owners by prefix, by similar spelling or by
+ * sound. The index is built from the database once the application is ready and kept up
+ * to date from {@link OwnerSavedEvent}s and {@link OwnersImportedEvent}s.
+ * <p>
+ * Each query word must match some word of an owner. The score of a match depends on how
+ * close it is (exact, prefix, similar spelling, same sound) and on the field it matched,
+ * and the scores of all query words are summed.
+ * </p>
+ */
+class InMemoryOwnerSearch implements OwnerSearch {
+
+	private static final Logger logger = LoggerFactory.getLogger(InMemoryOwnerSearch.class);
+
+	private static final int BUILD_PAGE_SIZE = 500;
+
+	private static final double MIN_SIMILARITY = 0.3;
+
+	private static final Comparator<Hit> BY_RELEVANCE = Comparator.comparingDouble(Hit::score)
+		.reversed()
+		.thenComparing(hit -> hit.owner().getLastName(), Comparator.nullsLast(Comparator.naturalOrder()))
+		.thenComparing(hit -> hit.owner().getId());
+
+	private final OwnerRepository owners;
+
+	private final Map<Integer, Document> documents = new HashMap<>();
+
+	private final Map<String, Set<Integer>> trigramPostings = new HashMap<>();
+
+	private final Map<String, Set<Integer>> soundexPostings = new HashMap<>();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	InMemoryOwnerSearch(OwnerRepository owners) {
+		this.owners = owners;
+	}
+
+	/**
+	 * Index every owner, one page of {@link OwnerSummary owner summaries} at a time.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void rebuild() {
+		Pageable pageable = PageRequest.of(0, BUILD_PAGE_SIZE);
+		Page<OwnerSummary> page;
+		do {
+			page = this.owners.findSummariesByLastNameStartingWith("", pageable);
+			page.forEach(this::index);
+			pageable = page.nextPageable();
+		}
+		while (page.hasNext());
+		logger.info("Indexed {} owners for search", size());
+	}
+
+	/**
+	 * Re-index an owner once the transaction that saved it has committed.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onOwnerSaved(OwnerSavedEvent event) {
+		this.owners.findSummaryById(event.ownerId()).ifPresentOrElse(this::index, () -> remove(event.ownerId()));
+	}
+
+	/**
+	 * Index a batch of imported owners once the transaction that inserted them has
+	 * committed.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onOwnersImported(OwnersImportedEvent event) {
+		this.owners.findSummariesByIdIn(event.ownerIds()).forEach(this::index);
+	}
+
+	/**
+	 * Add an owner to the index, replacing the entry indexed before for the same id.
+	 */
+	void index(OwnerSummary owner) {
+		Document document = Document.of(owner);
+		this.lock.writeLock().lock();
+		try {
+			unpost(this.documents.put(owner.getId(), document));
+			for (Term term : document.terms()) {
+				for (String gram : term.trigrams()) {
+					this.trigramPostings.computeIfAbsent(gram, key -> new HashSet<>()).add(owner.getId());
+				}
+				if (term.soundex() != null) {
+					this.soundexPostings.computeIfAbsent(term.soundex(), key -> new HashSet<>()).add(owner.getId());
+				}
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	void remove(Integer ownerId) {
+		this.lock.writeLock().lock();
+		try {
+			unpost(this.documents.remove(ownerId));
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.documents.size();
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	@Override
+	public Page<OwnerSummary> search(String query, Pageable pageable) {
+		List<String> words = OwnerSearchTerms.words(query);
+		if (words.isEmpty()) {
+			return Page.empty(pageable);
+		}
+		List<Query> queries = words.stream().map(Query::of).toList();
+		List<Hit> hits = new ArrayList<>();
+		this.lock.readLock().lock();
+		try {
+			for (Integer id : candidates(queries)) {
+				Document document = this.documents.get(id);
+				double score = document.score(queries);
+				if (score > 0) {
+					hits.add(new Hit(document.owner(), score));
+				}
+			}
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+		hits.sort(BY_RELEVANCE);
+		int from = (int) Math.min(pageable.getOffset(), hits.size());
+		int to = Math.min(from + pageable.getPageSize(), hits.size());
+		List<OwnerSummary> content = hits.subList(from, to).stream().map(Hit::owner).toList();
+		return new PageImpl<>(content, pageable, hits.size());
+	}
+
+	/**
+	 * Owners sharing a prefix trigram or the Soundex code of every query word. Words too
+	 * short to have a trigram match any owner, and are filtered by scoring.
+	 */
+	private Set<Integer> candidates(List<Query> queries) {
+		Set<Integer> candidates = null;
+		for (Query query : queries) {
+			if (query.prefixTrigrams().isEmpty()) {
+				continue;
+			}
+			Set<Integer> matches = new HashSet<>();
+			for (String gram : query.trigrams()) {
+				matches.addAll(this.trigramPostings.getOrDefault(gram, Set.of()));
+			}
+			if (query.soundex() != null) {
+				matches.addAll(this.soundexPostings.getOrDefault(query.soundex(), Set.of()));
+			}
+			if (candidates == null) {
+				candidates = matches;
+			}
+			else {
+				candidates.retainAll(matches);
+			}
+		}
+		return candidates != null ? candidates : this.documents.keySet();
+	}
+
+	private void unpost(Document document) {
+		if (document == null) {
+			return;
+		}
+		Integer id = document.owner().getId();
+		for (Term term : document.terms()) {
+			for (String gram : term.trigrams()) {
+				removePosting(this.trigramPostings, gram, id);
+			}
+			if (term.soundex() != null) {
+				removePosting(this.soundexPostings, term.soundex(), id);
+			}
+		}
+	}
+
+	private static void removePosting(Map<String, Set<Integer>> postings, String key, Integer id) {
+		Set<Integer> ids = postings.get(key);
+		if (ids != null && ids.remove(id) && ids.isEmpty()) {
+			postings.remove(key);
+		}
+	}
+
+	/**
+	 * Fields of an owner that are searched, with the weight of a match in each.
+	 */
+	enum Field {
+
+		LAST_NAME(3), FIRST_NAME(2), PET_NAME(1.5), CITY(1), TELEPHONE(1);
+
+		private final double weight;
+
+		Field(double weight) {
+			this.weight = weight;
+		}
+
+	}
+
+	private record Term(String word, Field field, Set<String> trigrams, String soundex) {
+
+		static Term of(String word, Field field) {
+			return new Term(word, field, OwnerSearchTerms.trigrams(word), OwnerSearchTerms.soundex(word));
+		}
+
+		/**
+		 * How well the query word matches this term: 1 for the same word, 0.9 for a
+		 * prefix (or any part of a telephone number), less for similar spelling or sound,
+		 * and 0 for no match.
+		 */
+		double match(Query query) {
+			String text = query.word();
+			if (this.word.equals(text)) {
+				return 1;
+			}
+			if (this.word.startsWith(text) || (this.field == Field.TELEPHONE && this.word.contains(text))) {
+				return 0.9;
+			}
+			double match = 0;
+			double similarity = OwnerSearchTerms.similarity(query.trigrams(), this.trigrams);
+			if (similarity >= MIN_SIMILARITY) {
+				match = 0.8 * similarity;
+			}
+			if (this.soundex != null && this.soundex.equals(query.soundex())) {
+				match = Math.max(match, 0.6);
+			}
+			return match;
+		}
+
+	}
+
+	private record Query(String word, Set<String> trigrams, Set<String> prefixTrigrams, String soundex) {
+
+		static Query of(String word) {
+			return new Query(word, OwnerSearchTerms.trigrams(word), OwnerSearchTerms.prefixTrigrams(word),
+					OwnerSearchTerms.soundex(word));
+		}
+
+	}
+
+	private record Document(OwnerSummary owner, List<Term> terms) {
+
+		static Document of(OwnerSummary owner) {
+			List<Term> terms = new ArrayList<>();
+			addTerms(terms, owner.getLastName(), Field.LAST_NAME);
+			addTerms(terms, owner.getFirstName(), Field.FIRST_NAME);
+			addTerms(terms, owner.getPetNames(), Field.PET_NAME);
+			addTerms(terms, owner.getCity(), Field.CITY);
+			addTerms(terms, owner.getTelephone(), Field.TELEPHONE);
+			return new Document(owner, terms);
+		}
+
+		private static void addTerms(List<Term> terms, String text, Field field) {
+			for (String word : OwnerSearchTerms.words(text)) {
+				terms.add(Term.of(word, field));
+			}
+		}
+
+		/**
+		 * The sum of the best weighted match of each query word, or 0 if any query word
+		 * does not match.
+		 */
+		double score(List<Query> queries) {
+			double score = 0;
+			for (Query query : queries) {
+				double best = 0;
+				for (Term term : this.terms) {
+					best = Math.max(best, term.match(query) * term.field().weight);
+				}
+				if (best == 0) {
+					return 0;
+				}
+				score += best;
+			}
+			return score;
+		}
+
+	}
+
+	private record Hit(OwnerSummary owner, double score) {
+
+	}
+
+}
@@ -15,11 +15,13 @@
  */
 package org.springframework.samples.petclinic.owner;
 
-import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import org.springframework.core.style.ToStringCreator;
+import org.springframework.data.domain.DomainEvents;
 import org.springframework.samples.petclinic.model.Person;
 import org.springframework.util.Assert;
 
@@ -28,6 +30,9 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OrderBy;
 import jakarta.persistence.Table;
@@ -36,6 +41,9 @@ import jakarta.validation.constraints.NotBlank;
 
 /**
  * Simple JavaBean domain object representing an owner.
+ * <p>
+ * Pets and visits are loaded lazily. Each use case picks one of the named entity graphs
+ * below through {@link OwnerRepository} so that it is served by a single join fetch.
  *
  * @author Ken Krebs
  * @author Juergen Hoeller
@@ -46,8 +54,17 @@ import jakarta.validation.constraints.NotBlank;
  */
 @Entity
 @Table(name = "owners")
+@NamedEntityGraph(name = Owner.WITH_PETS, attributeNodes = @NamedAttributeNode(value = "pets", subgraph = "pet"),
+		subgraphs = @NamedSubgraph(name = "pet", attributeNodes = @NamedAttributeNode("type")))
+@NamedEntityGraph(name = Owner.WITH_PETS_AND_VISITS,
+		attributeNodes = @NamedAttributeNode(value = "pets", subgraph = "pet"), subgraphs = @NamedSubgraph(name = "pet",
+				attributeNodes = { @NamedAttributeNode("type"), @NamedAttributeNode("visits") }))
 public class Owner extends Person {
 
+	static final String WITH_PETS = "Owner.pets";
+
+	static final String WITH_PETS_AND_VISITS = "Owner.petsAndVisits";
+
 	@Column
 	@NotBlank
 	private String address;
@@ -61,10 +78,10 @@ public class Owner extends Person {
 	@Pattern(regexp = "\\d{10}", message = "{telephone.invalid}")
 	private String telephone;
 
-	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	@JoinColumn(name = "owner_id")
 	@OrderBy("name")
-	private final List<Pet> pets = new ArrayList<>();
+	private final Set<Pet> pets = new LinkedHashSet<>();
 
 	public String getAddress() {
 		return this.address;
@@ -90,13 +107,17 @@ public class Owner extends Person {
 		this.telephone = telephone;
 	}
 
+	/**
+	 * Returns a read-only snapshot of the pets, in loading order (by name). Use
+	 * {@link #addPet(Pet)} to add a pet.
+	 */
 	public List<Pet> getPets() {
-		return this.pets;
+		return List.copyOf(this.pets);
 	}
 
 	public void addPet(Pet pet) {
 		if (pet.isNew()) {
-			getPets().add(pet);
+			this.pets.add(pet);
 		}
 	}
 
@@ -144,6 +165,11 @@ public class Owner extends Person {
 		return null;
 	}
 
+	@DomainEvents
+	List<OwnerSavedEvent> savedEvents() {
+		return List.of(new OwnerSavedEvent(getId()));
+	}
+
 	@Override
 	public String toString() {
 		return new ToStringCreator(this).append("id", this.getId())
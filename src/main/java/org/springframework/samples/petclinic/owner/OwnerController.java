@@ -19,12 +19,17 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpMethod;
 import org.springframework.samples.petclinic.featureflag.annotation.FeatureToggle;
+import org.springframework.samples.petclinic.model.KeysetCursor;
+import org.springframework.samples.petclinic.model.KeysetPage;
+import org.springframework.samples.petclinic.system.TotalCounts;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -34,6 +39,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import jakarta.validation.Valid;
 
@@ -51,10 +57,18 @@ class OwnerController {
 
 	private static final String VIEWS_OWNER_CREATE_OR_UPDATE_FORM = "owners/createOrUpdateOwnerForm";
 
+	private static final int PAGE_SIZE = 5;
+
 	private final OwnerRepository owners;
 
-	public OwnerController(OwnerRepository owners) {
+	private final OwnerSearch ownerSearch;
+
+	private final TotalCounts totalCounts;
+
+	public OwnerController(OwnerRepository owners, OwnerSearch ownerSearch, TotalCounts totalCounts) {
 		this.owners = owners;
+		this.ownerSearch = ownerSearch;
+		this.totalCounts = totalCounts;
 	}
 
 	@InitBinder
@@ -62,12 +76,21 @@ class OwnerController {
 		dataBinder.setDisallowedFields("id");
 	}
 
+	/**
+	 * Load the owner of the request. Pages render the owner with its pets and visits, so
+	 * GET requests load them in the same statement. Form submissions only bind the
+	 * owner's own fields and load it without pets, so that saving it does not cascade a
+	 * merge into every pet and visit.
+	 */
 	@ModelAttribute("owner")
-	public Owner findOwner(@PathVariable(name = "ownerId", required = false) Integer ownerId) {
-		return ownerId == null ? new Owner()
-				: this.owners.findById(ownerId)
-					.orElseThrow(() -> new IllegalArgumentException("Owner not found with id: " + ownerId
-							+ ". Please ensure the ID is correct " + "and the owner exists in the database."));
+	public Owner findOwner(@PathVariable(name = "ownerId", required = false) Integer ownerId, HttpMethod method) {
+		if (ownerId == null) {
+			return new Owner();
+		}
+		Optional<Owner> owner = HttpMethod.GET.equals(method) ? this.owners.findWithPetsAndVisitsById(ownerId)
+				: this.owners.findById(ownerId);
+		return owner.orElseThrow(() -> new IllegalArgumentException("Owner not found with id: " + ownerId
+				+ ". Please ensure the ID is correct " + "and the owner exists in the database."));
 	}
 
 	@GetMapping("/owners/new")
@@ -94,45 +117,85 @@ class OwnerController {
 
 	@GetMapping("/owners")
 	@FeatureToggle(flagKey = "owner_search", fallbackMessage = "Search functionality is temporarily disabled")
-	public String processFindForm(@RequestParam(defaultValue = "1") int page, Owner owner, BindingResult result,
-			Model model) {
-		// allow parameterless GET request for /owners to return all records
-		String lastName = owner.getLastName();
-		if (lastName == null) {
-			lastName = ""; // empty string signifies broadest possible search
+	public String processFindForm(@RequestParam(defaultValue = "1") int page,
+			@RequestParam(name = "q", required = false) String query, @RequestParam(required = false) String after,
+			@RequestParam(required = false) String before, Owner owner, BindingResult result, Model model) {
+		if (StringUtils.hasText(query)) {
+			return processSearch(page, query, result, model);
 		}
 
+		// allow parameterless GET request for /owners to return all records
+		String lastName = owner.getLastName() != null ? owner.getLastName() : "";
+
 		// find owners by last name
-		Page<Owner> ownersResults = findPaginatedForOwnersLastName(page, lastName);
+		KeysetPage<OwnerSummary> ownersResults = findPaginatedForOwnersLastName(lastName, after, before);
 		if (ownersResults.isEmpty()) {
 			// no owners found
 			result.rejectValue("lastName", "notFound", "not found");
 			return "owners/findOwners";
 		}
 
-		if (ownersResults.getTotalElements() == 1) {
+		if (!ownersResults.hasPrevious() && !ownersResults.hasNext() && ownersResults.content().size() == 1) {
 			// 1 owner found
-			owner = ownersResults.iterator().next();
-			return "redirect:/owners/" + owner.getId();
+			return "redirect:/owners/" + ownersResults.first().getId();
 		}
 
 		// multiple owners found
-		return addPaginationModel(page, model, ownersResults);
+		int currentPage = ownersResults.hasPrevious() ? Math.max(page, 2) : 1;
+		long totalItems = this.totalCounts.get("owners:" + lastName,
+				() -> this.owners.countByLastNameStartingWith(lastName));
+		UriComponentsBuilder ownersUrl = UriComponentsBuilder.fromPath("/owners").queryParam("lastName", lastName);
+		model.addAttribute("firstUrl", ownersResults.firstUrl(ownersUrl));
+		model.addAttribute("previousUrl", ownersResults.previousUrl(ownersUrl, currentPage, OwnerController::cursor));
+		model.addAttribute("nextUrl", ownersResults.nextUrl(ownersUrl, currentPage, OwnerController::cursor));
+		return addPaginationModel(currentPage, totalItems, ownersResults.content(), model);
+	}
+
+	// Search results are ranked by relevance rather than sorted by a
+	// key, so they are paged by offset
+	private String processSearch(int page, String query, BindingResult result, Model model) {
+		Page<OwnerSummary> ownersResults = this.ownerSearch.search(query, PageRequest.of(page - 1, PAGE_SIZE));
+		if (ownersResults.isEmpty()) {
+			result.reject("notFound", "not found");
+			return "owners/findOwners";
+		}
+
+		if (ownersResults.getTotalElements() == 1) {
+			return "redirect:/owners/" + ownersResults.iterator().next().getId();
+		}
+
+		UriComponentsBuilder searchUrl = UriComponentsBuilder.fromPath("/owners").queryParam("q", query);
+		model.addAttribute("firstUrl", ownersResults.hasPrevious() ? searchUrl.toUriString() : null);
+		model.addAttribute("previousUrl", ownersResults.hasPrevious()
+				? searchUrl.cloneBuilder().queryParam("page", page - 1).toUriString() : null);
+		model.addAttribute("nextUrl",
+				ownersResults.hasNext() ? searchUrl.cloneBuilder().queryParam("page", page + 1).toUriString() : null);
+		return addPaginationModel(page, ownersResults.getTotalElements(), ownersResults.getContent(), model);
 	}
 
-	private String addPaginationModel(int page, Model model, Page<Owner> paginated) {
-		List<Owner> listOwners = paginated.getContent();
+	private String addPaginationModel(int page, long totalItems, List<OwnerSummary> listOwners, Model model) {
 		model.addAttribute("currentPage", page);
-		model.addAttribute("totalPages", paginated.getTotalPages());
-		model.addAttribute("totalItems", paginated.getTotalElements());
+		model.addAttribute("totalPages", Math.max(page, (totalItems + PAGE_SIZE - 1) / PAGE_SIZE));
+		model.addAttribute("totalItems", totalItems);
 		model.addAttribute("listOwners", listOwners);
 		return "owners/ownersList";
 	}
 
-	private Page<Owner> findPaginatedForOwnersLastName(int page, String lastname) {
-		int pageSize = 5;
-		Pageable pageable = PageRequest.of(page - 1, pageSize);
-		return owners.findByLastNameStartingWith(lastname, pageable);
+	private KeysetPage<OwnerSummary> findPaginatedForOwnersLastName(String lastName, String after, String before) {
+		KeysetCursor beforeCursor = KeysetCursor.decode(before);
+		if (beforeCursor != null) {
+			return KeysetPage.backward(owners.findSummariesBefore(lastName, beforeCursor.lastName(), beforeCursor.id(),
+					Limit.of(PAGE_SIZE + 1)), PAGE_SIZE);
+		}
+		KeysetCursor afterCursor = KeysetCursor.decode(after);
+		KeysetCursor from = afterCursor != null ? afterCursor : KeysetCursor.START;
+		return KeysetPage.forward(
+				owners.findSummariesAfter(lastName, from.lastName(), from.id(), Limit.of(PAGE_SIZE + 1)), PAGE_SIZE,
+				afterCursor != null);
+	}
+
+	private static KeysetCursor cursor(OwnerSummary owner) {
+		return new KeysetCursor(owner.getLastName(), owner.getId());
 	}
 
 	@GetMapping("/owners/{ownerId}/edit")
@@ -161,16 +224,14 @@ class OwnerController {
 	}
 
 	/**
-	 * Custom handler for displaying an owner.
-	 * @param ownerId the ID of the owner to display
+	 * Custom handler for displaying an owner, loaded with its pets and visits by
+	 * {@link #findOwner(Integer, HttpMethod)}.
+	 * @param owner the owner to display
 	 * @return a ModelMap with the model attributes for the view
 	 */
 	@GetMapping("/owners/{ownerId}")
-	public ModelAndView showOwner(@PathVariable("ownerId") int ownerId) {
+	public ModelAndView showOwner(@ModelAttribute(name = "owner", binding = false) Owner owner) {
 		ModelAndView mav = new ModelAndView("owners/ownerDetails");
-		Optional<Owner> optionalOwner = this.owners.findById(ownerId);
-		Owner owner = optionalOwner.orElseThrow(() -> new IllegalArgumentException(
-				"Owner not found with id: " + ownerId + ". Please ensure the ID is correct "));
 		mav.addObject(owner);
 		return mav;
 	}
@@ -15,11 +15,17 @@
  */
 package org.springframework.samples.petclinic.owner;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Repository class for <code>Owner</code> domain objects. All method names are compliant
@@ -36,13 +42,102 @@ import org.springframework.data.jpa.repository.JpaRepository;
 public interface OwnerRepository extends JpaRepository<Owner, Integer> {
 
 	/**
-	 * Retrieve {@link Owner}s from the data store by last name, returning all owners
-	 * whose last name <i>starts</i> with the given name.
+	 * Retrieve {@link OwnerSummary owner summaries} for the owner list, returning all
+	 * owners whose last name <i>starts</i> with the given name. Each page costs one query
+	 * for the owners and their aggregated pet names plus one count query.
 	 * @param lastName Value to search for
-	 * @return a Collection of matching {@link Owner}s (or an empty Collection if none
-	 * found)
+	 * @return a page of matching owners, ordered by id
 	 */
-	Page<Owner> findByLastNameStartingWith(String lastName, Pageable pageable);
+	@Query(value = """
+			SELECT new org.springframework.samples.petclinic.owner.OwnerSummary(o.id, o.firstName, o.lastName,
+				o.address, o.city, o.telephone, listagg(p.name, ', ') WITHIN GROUP (ORDER BY p.name))
+			FROM Owner o LEFT JOIN o.pets p
+			WHERE o.lastName LIKE :lastName%
+			GROUP BY o.id, o.firstName, o.lastName, o.address, o.city, o.telephone
+			ORDER BY o.id
+			""", countQuery = "SELECT count(o) FROM Owner o WHERE o.lastName LIKE :lastName%")
+	Page<OwnerSummary> findSummariesByLastNameStartingWith(@Param("lastName") String lastName, Pageable pageable);
+
+	/**
+	 * Retrieve the page of {@link OwnerSummary owner summaries} that follows the given
+	 * position, for owners whose last name <i>starts</i> with the given name, ordered by
+	 * last name and id. Unlike an offset, the position is found through the index, so
+	 * every page costs the same.
+	 * @param lastName Value to search for
+	 * @param afterLastName last name of the owner before the page, or <code>""</code>
+	 * @param afterId id of the owner before the page, or <code>0</code>
+	 * @param limit the number of owners to return
+	 * @return the owners after the given position
+	 */
+	@Query("""
+			SELECT new org.springframework.samples.petclinic.owner.OwnerSummary(o.id, o.firstName, o.lastName,
+				o.address, o.city, o.telephone, listagg(p.name, ', ') WITHIN GROUP (ORDER BY p.name))
+			FROM Owner o LEFT JOIN o.pets p
+			WHERE o.lastName LIKE :lastName%
+				AND (o.lastName > :afterLastName OR (o.lastName = :afterLastName AND o.id > :afterId))
+			GROUP BY o.id, o.firstName, o.lastName, o.address, o.city, o.telephone
+			ORDER BY o.lastName, o.id
+			""")
+	List<OwnerSummary> findSummariesAfter(@Param("lastName") String lastName,
+			@Param("afterLastName") String afterLastName, @Param("afterId") int afterId, Limit limit);
+
+	/**
+	 * Retrieve the page of {@link OwnerSummary owner summaries} that precedes the given
+	 * position, closest first, i.e. ordered by last name and id descending.
+	 * @param lastName Value to search for
+	 * @param beforeLastName last name of the owner after the page
+	 * @param beforeId id of the owner after the page
+	 * @param limit the number of owners to return
+	 * @return the owners before the given position, in reverse order
+	 */
+	@Query("""
+			SELECT new org.springframework.samples.petclinic.owner.OwnerSummary(o.id, o.firstName, o.lastName,
+				o.address, o.city, o.telephone, listagg(p.name, ', ') WITHIN GROUP (ORDER BY p.name))
+			FROM Owner o LEFT JOIN o.pets p
+			WHERE o.lastName LIKE :lastName%
+				AND (o.lastName < :beforeLastName OR (o.lastName = :beforeLastName AND o.id < :beforeId))
+			GROUP BY o.id, o.firstName, o.lastName, o.address, o.city, o.telephone
+			ORDER BY o.lastName DESC, o.id DESC
+			""")
+	List<OwnerSummary> findSummariesBefore(@Param("lastName") String lastName,
+			@Param("beforeLastName") String beforeLastName, @Param("beforeId") int beforeId, Limit limit);
+
+	/**
+	 * Count the owners whose last name <i>starts</i> with the given name.
+	 * @param lastName Value to search for
+	 * @return the number of matching owners
+	 */
+	long countByLastNameStartingWith(String lastName);
+
+	/**
+	 * Retrieve the {@link OwnerSummary owner summary} of a single owner, e.g. to refresh
+	 * the search index after a save.
+	 * @param id the id to search for
+	 * @return the summary, or an empty {@link Optional} if not found
+	 */
+	@Query("""
+			SELECT new org.springframework.samples.petclinic.owner.OwnerSummary(o.id, o.firstName, o.lastName,
+				o.address, o.city, o.telephone, listagg(p.name, ', ') WITHIN GROUP (ORDER BY p.name))
+			FROM Owner o LEFT JOIN o.pets p
+			WHERE o.id = :id
+			GROUP BY o.id, o.firstName, o.lastName, o.address, o.city, o.telephone
+			""")
+	Optional<OwnerSummary> findSummaryById(@Param("id") Integer id);
+
+	/**
+	 * Retrieve the {@link OwnerSummary owner summaries} of the given owners, e.g. to
+	 * index a batch of imported owners.
+	 * @param ids the ids to search for
+	 * @return the summaries of the owners that exist, in no particular order
+	 */
+	@Query("""
+			SELECT new org.springframework.samples.petclinic.owner.OwnerSummary(o.id, o.firstName, o.lastName,
+				o.address, o.city, o.telephone, listagg(p.name, ', ') WITHIN GROUP (ORDER BY p.name))
+			FROM Owner o LEFT JOIN o.pets p
+			WHERE o.id IN :ids
+			GROUP BY o.id, o.firstName, o.lastName, o.address, o.city, o.telephone
+			""")
+	List<OwnerSummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
 
 	/**
 	 * Retrieve an {@link Owner} from the data store by id.
@@ -59,4 +154,22 @@ public interface OwnerRepository extends JpaRepository<Owner, Integer> {
 	 */
 	Optional<Owner> findById(Integer id);
 
+	/**
+	 * Retrieve an {@link Owner} together with its {@link Pet}s, for the pet forms.
+	 * @param id the id to search for
+	 * @return the owner with its pets initialized, or an empty {@link Optional}
+	 */
+	@EntityGraph(Owner.WITH_PETS)
+	Optional<Owner> findWithPetsById(Integer id);
+
+	/**
+	 * Retrieve an {@link Owner} together with its {@link Pet}s and their {@link Visit}s,
+	 * for the owner details page and the visit form.
+	 * @param id the id to search for
+	 * @return the owner with its pets and visits initialized, or an empty
+	 * {@link Optional}
+	 */
+	@EntityGraph(Owner.WITH_PETS_AND_VISITS)
+	Optional<Owner> findWithPetsAndVisitsById(Integer id);
+
 }
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Free-text owner search used by the front desk. Matches first name, last name, city,
+ * telephone and pet names, tolerates misspellings, and ranks the best matches first.
+ * <p>
+ * The in-memory implementation is used by default, the <code>postgres</code> profile
+ * delegates to <code>pg_trgm</code> and full-text search instead.
+ * </p>
+ *
+ * @see OwnerSearchConfiguration
+ */
+public interface OwnerSearch {
+
+	/**
+	 * Search owners matching every word of the given query.
+	 * @param query free text, e.g. <code>"davis windsor"</code> or <code>"lepo"</code>
+	 * @param pageable page to return; the sort of the pageable is ignored, results are
+	 * ordered by relevance
+	 * @return a page of matching owners, best match first
+	 */
+	Page<OwnerSummary> search(String query, Pageable pageable);
+
+}
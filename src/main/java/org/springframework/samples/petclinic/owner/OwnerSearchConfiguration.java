@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+/**
+ * Selects the {@link OwnerSearch} implementation: Postgres trigram and full-text search
+ * for the <code>postgres</code> profile, an in-memory index otherwise.
+ */
+@Configuration(proxyBeanMethods = false)
+class OwnerSearchConfiguration {
+
+	@Bean
+	@Profile("postgres")
+	OwnerSearch postgresOwnerSearch(JdbcClient jdbcClient) {
+		return new PostgresOwnerSearch(jdbcClient);
+	}
+
+	@Bean
+	@Profile("!postgres")
+	InMemoryOwnerSearch inMemoryOwnerSearch(OwnerRepository owners) {
+		return new InMemoryOwnerSearch(owners);
+	}
+
+}
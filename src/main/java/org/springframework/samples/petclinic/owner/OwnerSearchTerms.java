@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Text analysis shared by the owner search index: normalization, tokenization, character
+ * trigrams for fuzzy matching and Soundex codes for phonetic matching.
+ */
+final class OwnerSearchTerms {
+
+	private static final char PAD = '$';
+
+	// Soundex digit for each letter a-z, '0' for letters that are not coded
+	private static final String SOUNDEX_CODES = "01230120022455012623010202";
+
+	private OwnerSearchTerms() {
+	}
+
+	/**
+	 * Split the given text into lower case words without diacritics, e.g.
+	 * <code>"Estaban, Carlos"</code> into <code>[estaban, carlos]</code>.
+	 */
+	static List<String> words(String text) {
+		List<String> words = new ArrayList<>();
+		if (text == null) {
+			return words;
+		}
+		String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+			.replaceAll("\\p{M}", "")
+			.toLowerCase(Locale.ROOT);
+		for (String word : normalized.split("[^\\p{L}\\p{N}]+")) {
+			if (!word.isEmpty()) {
+				words.add(word);
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * The trigrams of a word padded on both sides, used to index it and to compare it
+	 * with a misspelled query word.
+	 */
+	static Set<String> trigrams(String word) {
+		return grams(PAD + word + PAD);
+	}
+
+	/**
+	 * The trigrams every word starting with the given prefix contains, used to find
+	 * candidates for a query word. Empty for prefixes shorter than two characters.
+	 */
+	static Set<String> prefixTrigrams(String prefix) {
+		return grams(PAD + prefix);
+	}
+
+	/**
+	 * Jaccard similarity of the trigrams of two words, between 0 and 1.
+	 */
+	static double similarity(Set<String> left, Set<String> right) {
+		int shared = 0;
+		for (String gram : left) {
+			if (right.contains(gram)) {
+				shared++;
+			}
+		}
+		return shared == 0 ? 0 : (double) shared / (left.size() + right.size() - shared);
+	}
+
+	/**
+	 * The American Soundex code of a word, e.g. <code>R163</code> for both "Robert" and
+	 * "Rupert", or {@code null} if the word does not start with a letter a-z.
+	 */
+	static String soundex(String word) {
+		if (word.isEmpty() || word.charAt(0) < 'a' || word.charAt(0) > 'z') {
+			return null;
+		}
+		StringBuilder code = new StringBuilder(4).append(Character.toUpperCase(word.charAt(0)));
+		char last = SOUNDEX_CODES.charAt(word.charAt(0) - 'a');
+		for (int i = 1; i < word.length() && code.length() < 4; i++) {
+			char c = word.charAt(i);
+			if (c < 'a' || c > 'z') {
+				continue;
+			}
+			char digit = SOUNDEX_CODES.charAt(c - 'a');
+			if (digit != '0' && digit != last) {
+				code.append(digit);
+			}
+			// 'h' and 'w' do not separate letters with the same code, vowels do
+			if (c != 'h' && c != 'w') {
+				last = digit;
+			}
+		}
+		while (code.length() < 4) {
+			code.append('0');
+		}
+		return code.toString();
+	}
+
+	private static Set<String> grams(String padded) {
+		Set<String> grams = new LinkedHashSet<>();
+		for (int i = 0; i + 3 <= padded.length(); i++) {
+			grams.add(padded.substring(i, i + 3));
+		}
+		return grams;
+	}
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.util.List;
+
+/**
+ * Published for every batch of owners written by the bulk import, which bypasses
+ * {@link OwnerRepository#save(Object)} and therefore {@link OwnerSavedEvent}.
+ *
+ * @param ownerIds the ids of the owners inserted by the batch
+ */
+public record OwnersImportedEvent(List<Integer> ownerIds) {
+
+}
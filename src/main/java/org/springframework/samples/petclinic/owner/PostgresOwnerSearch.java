@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.simple.JdbcClient;
+
+/**
+ * {@link OwnerSearch} for the <code>postgres</code> profile. Owners are matched with
+ * <code>pg_trgm</code> word similarity against their name, city and telephone, or against
+ * the names of their pets, and ranked by similarity plus full-text rank. The extension
+ * and the trigram indexes are created by the <code>V8__owner_search_trgm</code>
+ * migration.
+ */
+class PostgresOwnerSearch implements OwnerSearch {
+
+	// The owner text is the same expression as the owners_search_trgm index
+	private static final String MATCHES = """
+			FROM owners o
+			WHERE :query <% (o.first_name || ' ' || o.last_name || ' ' || o.city || ' ' || o.telephone)
+			   OR o.id IN (SELECT p.owner_id FROM pets p WHERE :query <% p.name)
+			""";
+
+	private static final String SEARCH = """
+			SELECT o.id, o.first_name, o.last_name, o.address, o.city, o.telephone,
+			       (SELECT string_agg(p.name, ', ' ORDER BY p.name) FROM pets p WHERE p.owner_id = o.id) AS pet_names,
+			       greatest(word_similarity(:query, o.first_name || ' ' || o.last_name || ' ' || o.city || ' ' || o.telephone),
+			                (SELECT max(word_similarity(:query, p.name)) FROM pets p WHERE p.owner_id = o.id))
+			       + ts_rank(to_tsvector('simple', o.first_name || ' ' || o.last_name || ' ' || o.city),
+			                 plainto_tsquery('simple', :query)) AS score
+			"""
+			+ MATCHES + """
+					ORDER BY score DESC, o.last_name, o.id
+					LIMIT :limit OFFSET :offset
+					""";
+
+	private static final String COUNT = "SELECT count(*) " + MATCHES;
+
+	private final JdbcClient jdbcClient;
+
+	PostgresOwnerSearch(JdbcClient jdbcClient) {
+		this.jdbcClient = jdbcClient;
+	}
+
+	@Override
+	public Page<OwnerSummary> search(String query, Pageable pageable) {
+		String text = String.join(" ", OwnerSearchTerms.words(query));
+		if (text.isEmpty()) {
+			return Page.empty(pageable);
+		}
+		List<OwnerSummary> content = this.jdbcClient.sql(SEARCH)
+			.param("query", text)
+			.param("limit", pageable.getPageSize())
+			.param("offset", pageable.getOffset())
+			.query((rs, rowNum) -> new OwnerSummary(rs.getInt("id"), rs.getString("first_name"),
+					rs.getString("last_name"), rs.getString("address"), rs.getString("city"), rs.getString("telephone"),
+					rs.getString("pet_names")))
+			.list();
+		long total = this.jdbcClient.sql(COUNT).param("query", text).query(Long.class).single();
+		return new PageImpl<>(content, pageable, total);
+	}
+
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.samples.petclinic.owner.importer.ImportLineReader.LineTooLongException;
+import org.springframework.util.StringUtils;
+
+/**
+ * Reads owners from CSV. The first line names the columns, in any order:
+ * <code>owner_ref, first_name, last_name, address, city, telephone, pet_name,
+ * birth_date, pet_type, visit_date, visit_description</code>. Each following line holds
+ * at most one pet and one visit, so an owner spans consecutive lines with the same
+ * <code>owner_ref</code> (or, without that column, the same name and telephone).
+ * <p>
+ * The owner columns are taken from the first line of an owner, lines naming the same pet
+ * add visits to it, and a visit without a date is dated today like a new visit in the
+ * form. Fields may be quoted with <code>"</code> but must not span lines.
+ * </p>
+ */
+class CsvOwnerReader extends OwnerRecordReader {
+
+	static final List<String> COLUMNS = List.of("owner_ref", "first_name", "last_name", "address", "city", "telephone",
+			"pet_name", "birth_date", "pet_type", "visit_date", "visit_description");
+
+	private final Map<String, Integer> columns = new HashMap<>();
+
+	private Row pending;
+
+	CsvOwnerReader(ImportLineReader lines) throws IOException {
+		super(lines);
+		String header = lines.readLine();
+		if (header == null) {
+			throw new IllegalArgumentException("The file is empty, expected a header line");
+		}
+		List<String> names = split(header);
+		for (int i = 0; i < names.size(); i++) {
+			String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+			if (!COLUMNS.contains(name)) {
+				throw new IllegalArgumentException("Unknown column '" + names.get(i) + "', expected " + COLUMNS);
+			}
+			this.columns.put(name, i);
+		}
+	}
+
+	@Override
+	ImportedOwner next() throws IOException {
+		Row row = (this.pending != null) ? this.pending : readRow();
+		this.pending = null;
+		if (row == null) {
+			return null;
+		}
+		Owner owner = new Owner();
+		owner.setFirstName(text(row.get("first_name")));
+		owner.setLastName(text(row.get("last_name")));
+		owner.setAddress(text(row.get("address")));
+		owner.setCity(text(row.get("city")));
+		owner.setTelephone(text(row.get("telephone")));
+		ImportedOwner imported = new ImportedOwner(owner, row.line());
+
+		String ownerKey = row.ownerKey();
+		Map<String, Pet> pets = new HashMap<>();
+		Row last;
+		do {
+			addPetAndVisit(imported, pets, row);
+			last = row;
+			row = readRow();
+		}
+		while (row != null && ownerKey != null && ownerKey.equals(row.ownerKey()));
+		this.pending = row;
+		imported.end(last.line(), last.endOffset());
+		return imported;
+	}
+
+	private void addPetAndVisit(ImportedOwner imported, Map<String, Pet> pets, Row row) {
+		if (row.error() != null) {
+			imported.reject(row.line(), row.error());
+			return;
+		}
+		String petName = text(row.get("pet_name"));
+		if (petName == null) {
+			if (hasVisit(row)) {
+				imported.reject(row.line(), "visit without a pet_name");
+			}
+			return;
+		}
+		Pet pet = pets.get(petName.toLowerCase(Locale.ROOT));
+		if (pet == null) {
+			pet = new Pet();
+			pet.setName(petName);
+			pet.setBirthDate(date(row.get("birth_date"), "birth_date", imported, row.line()));
+			pet.setType(petType(row.get("pet_type")));
+			imported.owner().addPet(pet);
+			imported.read(pet, row.line());
+			pets.put(petName.toLowerCase(Locale.ROOT), pet);
+		}
+		if (hasVisit(row)) {
+			Visit visit = new Visit();
+			if (StringUtils.hasText(row.get("visit_date"))) {
+				visit.setDate(date(row.get("visit_date"), "visit_date", imported, row.line()));
+			}
+			visit.setDescription(text(row.get("visit_description")));
+			pet.addVisit(visit);
+			imported.read(visit, row.line());
+		}
+	}
+
+	private static boolean hasVisit(Row row) {
+		return StringUtils.hasText(row.get("visit_date")) || StringUtils.hasText(row.get("visit_description"));
+	}
+
+	private Row readRow() throws IOException {
+		String line;
+		try {
+			line = nextLine();
+		}
+		catch (LineTooLongException ex) {
+			return Row.invalid(ex.lineNumber(), this.lines.offset(), ex.getMessage());
+		}
+		if (line == null) {
+			return null;
+		}
+		long lineNumber = this.lines.lineNumber();
+		long endOffset = this.lines.offset();
+		try {
+			List<String> values = split(line);
+			if (values.size() != this.columns.size()) {
+				return Row.invalid(lineNumber, endOffset,
+						"expected " + this.columns.size() + " fields but found " + values.size());
+			}
+			Map<String, String> fields = new HashMap<>();
+			this.columns.forEach((name, index) -> fields.put(name, values.get(index)));
+			return new Row(lineNumber, endOffset, fields, null);
+		}
+		catch (IllegalArgumentException ex) {
+			return Row.invalid(lineNumber, endOffset, ex.getMessage());
+		}
+	}
+
+	/**
+	 * Split a line into fields, unquoting quoted fields.
+	 */
+	static List<String> split(String line) {
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c != '"') {
+					field.append(c);
+				}
+				else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				}
+				else {
+					quoted = false;
+				}
+			}
+			else if (c == '"' && field.isEmpty()) {
+				quoted = true;
+			}
+			else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			}
+			else {
+				field.append(c);
+			}
+		}
+		if (quoted) {
+			throw new IllegalArgumentException("unterminated quoted field");
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+
+	/**
+	 * One line of the file, or the reason it could not be split into fields.
+	 */
+	private record Row(long line, long endOffset, Map<String, String> values, String error) {
+
+		static Row invalid(long line, long endOffset, String error) {
+			return new Row(line, endOffset, Map.of(), error);
+		}
+
+		String get(String column) {
+			return this.values.get(column);
+		}
+
+		/**
+		 * The key that lines of the same owner share, <code>null</code> for a line that
+		 * is an owner of its own.
+		 */
+		String ownerKey() {
+			if (this.error != null) {
+				return null;
+			}
+			if (this.values.containsKey("owner_ref")) {
+				return text(get("owner_ref"));
+			}
+			return get("first_name") + "|" + get("last_name") + "|" + get("telephone");
+		}
+
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.util.Locale;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * File formats accepted by the bulk owner import.
+ *
+ * @see CsvOwnerReader
+ * @see NdjsonOwnerReader
+ */
+public enum ImportFormat {
+
+	CSV(".csv"),
+
+	NDJSON(".ndjson", ".jsonl");
+
+	private final String[] extensions;
+
+	ImportFormat(String... extensions) {
+		this.extensions = extensions;
+	}
+
+	String extension() {
+		return this.extensions[0];
+	}
+
+	/**
+	 * Return the format with the given name or, if none is given, the format matching the
+	 * extension of the uploaded file.
+	 * @throws IllegalArgumentException if neither identifies a supported format
+	 */
+	static ImportFormat of(String name, String fileName) {
+		if (StringUtils.hasText(name)) {
+			try {
+				return valueOf(name.trim().toUpperCase(Locale.ROOT));
+			}
+			catch (IllegalArgumentException ex) {
+				throw new IllegalArgumentException("Unsupported import format '" + name + "'");
+			}
+		}
+		String lowerCaseName = (fileName != null) ? fileName.toLowerCase(Locale.ROOT) : "";
+		for (ImportFormat format : values()) {
+			for (String extension : format.extensions) {
+				if (lowerCaseName.endsWith(extension)) {
+					return format;
+				}
+			}
+		}
+		throw new IllegalArgumentException("Cannot tell the format of '" + fileName + "', expected one of "
+				+ ".csv, .ndjson or .jsonl, or a format parameter");
+	}
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Progress of a bulk owner import. <code>bytesRead</code> and <code>linesRead</code> are
+ * the checkpoint: everything before them has been imported or reported in the same
+ * transaction, so a resumed job continues there. <code>leaseOwner</code> is the node that
+ * queued or runs the job.
+ */
+public record ImportJob(long id, String fileName, @JsonIgnore String storedFile, ImportFormat format,
+		ImportJobStatus status, long fileSize, long bytesRead, long linesRead, int ownersImported, int petsImported,
+		int visitsImported, int errorCount, String message, String leaseOwner, LocalDateTime leaseUntil,
+		LocalDateTime createdAt, LocalDateTime updatedAt) {
+
+	@JsonProperty
+	public int percentComplete() {
+		return (this.fileSize > 0) ? (int) (this.bytesRead * 100 / this.fileSize) : 100;
+	}
+
+}
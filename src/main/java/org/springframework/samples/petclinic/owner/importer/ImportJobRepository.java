@@ -0,0 +1,226 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Stores import jobs and their rejected lines in <code>import_jobs</code> and
+ * <code>import_errors</code>.
+ * <p>
+ * A queued or running job is leased by the node that queued it: <code>lease_owner</code>
+ * names the node and <code>lease_until</code> is renewed while the node is alive. Every
+ * change a node makes to a running job checks that it still holds the lease, so once a
+ * lease has expired and the job was resumed elsewhere, the old node can no longer write
+ * to it.
+ * </p>
+ */
+@Repository
+class ImportJobRepository {
+
+	private static final String SELECT_JOB = "SELECT id, file_name, stored_file, format, status, file_size, "
+			+ "bytes_read, lines_read, owners_imported, pets_imported, visits_imported, error_count, message, "
+			+ "lease_owner, lease_until, created_at, updated_at FROM import_jobs WHERE id = ?";
+
+	private static final String INSERT_JOB = "INSERT INTO import_jobs (file_name, stored_file, format, status, "
+			+ "file_size, lease_owner, lease_until, created_at, updated_at) VALUES (?, ?, ?, 'QUEUED', ?, ?, ?, ?, ?)";
+
+	private static final String CLAIM = "UPDATE import_jobs SET status = 'RUNNING', message = NULL, "
+			+ "lease_until = ?, updated_at = ? WHERE id = ? AND status = 'QUEUED' AND lease_owner = ?";
+
+	private static final String REQUEUE = "UPDATE import_jobs SET status = 'QUEUED', message = NULL, "
+			+ "lease_owner = ?, lease_until = ?, updated_at = ? WHERE id = ? AND status IN ('FAILED', 'INTERRUPTED')";
+
+	private static final String FINISH = "UPDATE import_jobs SET status = ?, message = ?, lease_until = NULL, "
+			+ "updated_at = ? WHERE id = ? AND status = 'RUNNING' AND lease_owner = ?";
+
+	private static final String CHECKPOINT = "UPDATE import_jobs SET bytes_read = ?, lines_read = ?, "
+			+ "owners_imported = owners_imported + ?, pets_imported = pets_imported + ?, "
+			+ "visits_imported = visits_imported + ?, error_count = error_count + ?, lease_until = ?, updated_at = ? "
+			+ "WHERE id = ? AND status = 'RUNNING' AND lease_owner = ?";
+
+	private static final String RENEW_LEASES = "UPDATE import_jobs SET lease_until = ? "
+			+ "WHERE lease_owner = ? AND status IN ('QUEUED', 'RUNNING')";
+
+	private static final String INTERRUPT_ABANDONED = "UPDATE import_jobs SET status = 'INTERRUPTED', "
+			+ "message = 'The node running the job stopped', lease_until = NULL, updated_at = ? "
+			+ "WHERE status IN ('QUEUED', 'RUNNING') AND lease_until < ?";
+
+	private static final String INSERT_ERROR = "INSERT INTO import_errors (job_id, line_number, message) "
+			+ "VALUES (?, ?, ?)";
+
+	private static final String SELECT_ERRORS = "SELECT line_number, message FROM import_errors WHERE job_id = ? "
+			+ "ORDER BY line_number, id";
+
+	private static final int MAX_MESSAGE_LENGTH = 1000;
+
+	private static final int ERROR_FETCH_SIZE = 500;
+
+	private final JdbcTemplate jdbcTemplate;
+
+	ImportJobRepository(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Create a queued job leased by the given node.
+	 * @return the id of the job
+	 */
+	long create(String fileName, String storedFile, ImportFormat format, long fileSize, String nodeId,
+			Duration leaseDuration) {
+		LocalDateTime now = LocalDateTime.now();
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		this.jdbcTemplate.update(connection -> {
+			PreparedStatement ps = connection.prepareStatement(INSERT_JOB, new String[] { "id" });
+			ps.setString(1, fileName);
+			ps.setString(2, storedFile);
+			ps.setString(3, format.name());
+			ps.setLong(4, fileSize);
+			ps.setString(5, nodeId);
+			ps.setTimestamp(6, Timestamp.valueOf(now.plus(leaseDuration)));
+			ps.setTimestamp(7, Timestamp.valueOf(now));
+			ps.setTimestamp(8, Timestamp.valueOf(now));
+			return ps;
+		}, keyHolder);
+		return keyHolder.getKey().longValue();
+	}
+
+	Optional<ImportJob> findById(long id) {
+		return this.jdbcTemplate.query(SELECT_JOB, ImportJobRepository::mapJob, id).stream().findFirst();
+	}
+
+	/**
+	 * Start a queued job leased by the given node.
+	 * @return whether the job was started, <code>false</code> if it is not queued or its
+	 * lease went to another node
+	 */
+	boolean claim(long id, String nodeId, Duration leaseDuration) {
+		LocalDateTime now = LocalDateTime.now();
+		return this.jdbcTemplate.update(CLAIM, Timestamp.valueOf(now.plus(leaseDuration)), Timestamp.valueOf(now), id,
+				nodeId) == 1;
+	}
+
+	/**
+	 * Queue a failed or interrupted job again, leased by the given node.
+	 * @return whether the job was queued, <code>false</code> if it cannot be resumed or
+	 * another request resumed it first
+	 */
+	boolean requeue(long id, String nodeId, Duration leaseDuration) {
+		LocalDateTime now = LocalDateTime.now();
+		return this.jdbcTemplate.update(REQUEUE, nodeId, Timestamp.valueOf(now.plus(leaseDuration)),
+				Timestamp.valueOf(now), id) == 1;
+	}
+
+	/**
+	 * End a running job leased by the given node.
+	 * @return whether the job was ended, <code>false</code> if the node lost its lease
+	 */
+	boolean finish(long id, String nodeId, ImportJobStatus status, String message) {
+		return this.jdbcTemplate.update(FINISH, status.name(), truncate(message),
+				Timestamp.valueOf(LocalDateTime.now()), id, nodeId) == 1;
+	}
+
+	/**
+	 * Advance the checkpoint of a running job, add the rows of the batch that ends there
+	 * and renew the lease of the given node.
+	 * @return whether the checkpoint was recorded, <code>false</code> if the node lost
+	 * its lease
+	 */
+	boolean checkpoint(long id, String nodeId, Duration leaseDuration, long bytesRead, long linesRead,
+			ImportCounts imported, int errors) {
+		LocalDateTime now = LocalDateTime.now();
+		return this.jdbcTemplate.update(CHECKPOINT, bytesRead, linesRead, imported.owners(), imported.pets(),
+				imported.visits(), errors, Timestamp.valueOf(now.plus(leaseDuration)), Timestamp.valueOf(now), id,
+				nodeId) == 1;
+	}
+
+	/**
+	 * Renew the leases of all queued and running jobs of the given node.
+	 */
+	void renewLeases(String nodeId, Duration leaseDuration) {
+		this.jdbcTemplate.update(RENEW_LEASES, Timestamp.valueOf(LocalDateTime.now().plus(leaseDuration)), nodeId);
+	}
+
+	void addErrors(long id, List<ImportError> errors) {
+		if (errors.isEmpty()) {
+			return;
+		}
+		this.jdbcTemplate.batchUpdate(INSERT_ERROR, errors, errors.size(), (ps, error) -> {
+			ps.setLong(1, id);
+			ps.setLong(2, error.line());
+			ps.setString(3, truncate(error.message()));
+		});
+	}
+
+	/**
+	 * Pass the rejected lines of a job to the given consumer in line order, without
+	 * loading them all at once.
+	 */
+	void forEachError(long id, Consumer<ImportError> consumer) {
+		this.jdbcTemplate.query(connection -> {
+			PreparedStatement ps = connection.prepareStatement(SELECT_ERRORS);
+			ps.setFetchSize(ERROR_FETCH_SIZE);
+			ps.setLong(1, id);
+			return ps;
+		}, (RowCallbackHandler) rs -> consumer
+			.accept(new ImportError(rs.getLong("line_number"), rs.getString("message"))));
+	}
+
+	/**
+	 * Mark the queued and running jobs whose lease expired as interrupted, so that they
+	 * can be resumed. Jobs of nodes that are still alive keep their lease.
+	 * @return the number of jobs marked
+	 */
+	int interruptAbandoned() {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		return this.jdbcTemplate.update(INTERRUPT_ABANDONED, now, now);
+	}
+
+	private static ImportJob mapJob(ResultSet rs, int rowNum) throws SQLException {
+		return new ImportJob(rs.getLong("id"), rs.getString("file_name"), rs.getString("stored_file"),
+				ImportFormat.valueOf(rs.getString("format")), ImportJobStatus.valueOf(rs.getString("status")),
+				rs.getLong("file_size"), rs.getLong("bytes_read"), rs.getLong("lines_read"),
+				rs.getInt("owners_imported"), rs.getInt("pets_imported"), rs.getInt("visits_imported"),
+				rs.getInt("error_count"), rs.getString("message"), rs.getString("lease_owner"),
+				toLocalDateTime(rs.getTimestamp("lease_until")), toLocalDateTime(rs.getTimestamp("created_at")),
+				toLocalDateTime(rs.getTimestamp("updated_at")));
+	}
+
+	private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+		return (timestamp != null) ? timestamp.toLocalDateTime() : null;
+	}
+
+	private static String truncate(String message) {
+		return (message != null && message.length() > MAX_MESSAGE_LENGTH) ? message.substring(0, MAX_MESSAGE_LENGTH)
+				: message;
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+/**
+ * Lifecycle of an import job.
+ */
+public enum ImportJobStatus {
+
+	/** Waiting for the import thread. */
+	QUEUED,
+
+	/** Being imported. */
+	RUNNING,
+
+	/** Every line of the file was imported or reported. */
+	COMPLETED,
+
+	/** Stopped by an error or by too many rejected lines, can be resumed. */
+	FAILED,
+
+	/** Stopped by a shutdown, can be resumed from its last checkpoint. */
+	INTERRUPTED;
+
+	boolean isResumable() {
+		return this == FAILED || this == INTERRUPTED;
+	}
+
+}
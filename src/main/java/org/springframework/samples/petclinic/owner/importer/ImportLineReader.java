@@ -0,0 +1,138 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads UTF-8 lines from a buffered stream while keeping track of the line number and of
+ * the byte offset just after the last line read, which is what an import checkpoint
+ * records. Only the current line is held in memory, and only up to a maximum length: the
+ * rest of a longer line is skipped and reported as a {@link LineTooLongException}.
+ */
+final class ImportLineReader implements Closeable {
+
+	private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+	private final InputStream in;
+
+	private final int maxLineLength;
+
+	private final ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+
+	private long offset;
+
+	private long lineNumber;
+
+	ImportLineReader(InputStream in, int maxLineLength) {
+		this.in = in;
+		this.maxLineLength = maxLineLength;
+	}
+
+	/**
+	 * Read the next line without its line terminator.
+	 * @return the line, or <code>null</code> at the end of the stream
+	 * @throws LineTooLongException if the line is longer than the maximum, in which case
+	 * it has been skipped and the next call reads the following line
+	 */
+	String readLine() throws IOException {
+		this.line.reset();
+		long read = 0;
+		boolean tooLong = false;
+		int b;
+		while ((b = this.in.read()) != -1) {
+			read++;
+			if (b == '\n') {
+				break;
+			}
+			if (this.line.size() < this.maxLineLength) {
+				this.line.write(b);
+			}
+			else {
+				tooLong = true;
+			}
+		}
+		if (read == 0) {
+			return null;
+		}
+		this.offset += read;
+		this.lineNumber++;
+		if (tooLong) {
+			this.line.reset();
+			throw new LineTooLongException(this.lineNumber, this.maxLineLength);
+		}
+		String text = this.line.toString(StandardCharsets.UTF_8);
+		if (text.endsWith("\r")) {
+			text = text.substring(0, text.length() - 1);
+		}
+		if (this.lineNumber == 1 && !text.isEmpty() && text.charAt(0) == BYTE_ORDER_MARK) {
+			text = text.substring(1);
+		}
+		return text;
+	}
+
+	/**
+	 * Continue reading at a checkpoint recorded earlier, which must not be before the
+	 * current position.
+	 * @param offset the byte offset to continue at
+	 * @param lineNumber the number of the last line before that offset
+	 */
+	void skipTo(long offset, long lineNumber) throws IOException {
+		if (offset < this.offset) {
+			throw new IllegalStateException("Cannot move back from offset " + this.offset + " to " + offset);
+		}
+		this.in.skipNBytes(offset - this.offset);
+		this.offset = offset;
+		this.lineNumber = lineNumber;
+	}
+
+	long offset() {
+		return this.offset;
+	}
+
+	long lineNumber() {
+		return this.lineNumber;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.in.close();
+	}
+
+	/**
+	 * Thrown for a line longer than the maximum line length. The line has been skipped.
+	 */
+	static class LineTooLongException extends IOException {
+
+		private final long lineNumber;
+
+		LineTooLongException(long lineNumber, int maxLineLength) {
+			super("line is longer than " + maxLineLength + " bytes");
+			this.lineNumber = lineNumber;
+		}
+
+		long lineNumber() {
+			return this.lineNumber;
+		}
+
+	}
+
+}
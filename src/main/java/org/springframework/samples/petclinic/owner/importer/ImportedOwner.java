@@ -0,0 +1,103 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.samples.petclinic.owner.Owner;
+
+/**
+ * One owner read from an import file together with its pets and visits, the lines they
+ * came from and the problems found so far. An owner is imported or rejected as a whole.
+ */
+final class ImportedOwner {
+
+	private final Owner owner;
+
+	private final long firstLine;
+
+	private final Map<Object, Long> lines = new IdentityHashMap<>();
+
+	private final List<ImportError> errors = new ArrayList<>();
+
+	private long lastLine;
+
+	private long endOffset;
+
+	ImportedOwner(Owner owner, long firstLine) {
+		this.owner = owner;
+		this.firstLine = firstLine;
+		this.lastLine = firstLine;
+		this.lines.put(owner, firstLine);
+	}
+
+	Owner owner() {
+		return this.owner;
+	}
+
+	long firstLine() {
+		return this.firstLine;
+	}
+
+	long lastLine() {
+		return this.lastLine;
+	}
+
+	/**
+	 * The byte offset just after the last line of this owner.
+	 */
+	long endOffset() {
+		return this.endOffset;
+	}
+
+	void end(long lastLine, long endOffset) {
+		this.lastLine = lastLine;
+		this.endOffset = endOffset;
+	}
+
+	/**
+	 * Remember the line a pet or visit was read from, so that problems with it can be
+	 * reported against that line.
+	 */
+	void read(Object entity, long line) {
+		this.lines.putIfAbsent(entity, line);
+	}
+
+	long lineOf(Object entity) {
+		return this.lines.getOrDefault(entity, this.firstLine);
+	}
+
+	void reject(long line, String message) {
+		this.errors.add(new ImportError(line, message));
+	}
+
+	void reject(Object entity, String message) {
+		reject(lineOf(entity), message);
+	}
+
+	boolean isRejected() {
+		return !this.errors.isEmpty();
+	}
+
+	List<ImportError> errors() {
+		return this.errors;
+	}
+
+}
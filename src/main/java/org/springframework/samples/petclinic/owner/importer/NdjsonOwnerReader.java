@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.io.IOException;
+
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.samples.petclinic.owner.importer.ImportLineReader.LineTooLongException;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Reads owners from newline-delimited JSON, one owner per line:
+ *
+ * <pre>
+ * {"firstName": "George", "lastName": "Franklin", "address": "110 W. Liberty St.",
+ *  "city": "Madison", "telephone": "6085551023",
+ *  "pets": [{"name": "Leo", "birthDate": "2010-09-07", "type": "cat",
+ *            "visits": [{"date": "2013-01-01", "description": "rabies shot"}]}]}
+ * </pre>
+ *
+ * A visit without a date is dated today like a new visit in the form. Blank lines are
+ * skipped.
+ */
+class NdjsonOwnerReader extends OwnerRecordReader {
+
+	private final JsonMapper jsonMapper;
+
+	NdjsonOwnerReader(ImportLineReader lines, JsonMapper jsonMapper) {
+		super(lines);
+		this.jsonMapper = jsonMapper;
+	}
+
+	@Override
+	ImportedOwner next() throws IOException {
+		String line;
+		try {
+			line = nextLine();
+		}
+		catch (LineTooLongException ex) {
+			ImportedOwner imported = new ImportedOwner(new Owner(), ex.lineNumber());
+			imported.reject(ex.lineNumber(), ex.getMessage());
+			imported.end(ex.lineNumber(), this.lines.offset());
+			return imported;
+		}
+		if (line == null) {
+			return null;
+		}
+		long lineNumber = this.lines.lineNumber();
+		ImportedOwner imported = new ImportedOwner(new Owner(), lineNumber);
+		imported.end(lineNumber, this.lines.offset());
+		try {
+			JsonNode node = this.jsonMapper.readTree(line);
+			if (node.isObject()) {
+				read(node, imported, lineNumber);
+			}
+			else {
+				imported.reject(lineNumber, "expected a JSON object");
+			}
+		}
+		catch (JacksonException ex) {
+			imported.reject(lineNumber, "malformed JSON: " + ex.getOriginalMessage());
+		}
+		return imported;
+	}
+
+	private static void read(JsonNode node, ImportedOwner imported, long line) {
+		Owner owner = imported.owner();
+		owner.setFirstName(text(node, "firstName"));
+		owner.setLastName(text(node, "lastName"));
+		owner.setAddress(text(node, "address"));
+		owner.setCity(text(node, "city"));
+		owner.setTelephone(text(node, "telephone"));
+		for (JsonNode petNode : node.path("pets").values()) {
+			Pet pet = new Pet();
+			pet.setName(text(petNode, "name"));
+			pet.setBirthDate(date(text(petNode, "birthDate"), "birthDate", imported, line));
+			pet.setType(petType(text(petNode, "type")));
+			for (JsonNode visitNode : petNode.path("visits").values()) {
+				Visit visit = new Visit();
+				if (visitNode.hasNonNull("date")) {
+					visit.setDate(date(text(visitNode, "date"), "date", imported, line));
+				}
+				visit.setDescription(text(visitNode, "description"));
+				pet.addVisit(visit);
+			}
+			owner.addPet(pet);
+		}
+	}
+
+	private static String text(JsonNode node, String field) {
+		return node.hasNonNull(field) ? text(node.get(field).asString()) : null;
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Bulk import of owners with their pets and visits from CSV or NDJSON files. An upload is
+ * answered right away with the queued job, whose progress can then be polled.
+ */
+@RestController
+@RequestMapping("/owners/import")
+class OwnerImportController {
+
+	private final OwnerImportService importService;
+
+	OwnerImportController(OwnerImportService importService) {
+		this.importService = importService;
+	}
+
+	@PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+	public ResponseEntity<ImportJob> upload(@RequestParam("file") MultipartFile file,
+			@RequestParam(required = false) String format) throws IOException {
+		if (file.isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "The uploaded file is empty");
+		}
+		ImportJob job;
+		try {
+			job = this.importService.submit(file, format);
+		}
+		catch (IllegalArgumentException ex) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+		}
+		return ResponseEntity.accepted()
+			.location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{jobId}").build(job.id()))
+			.body(job);
+	}
+
+	@GetMapping("/{jobId}")
+	public ImportJob job(@PathVariable long jobId) {
+		return this.importService.findById(jobId).orElseThrow(() -> notFound(jobId));
+	}
+
+	@PostMapping("/{jobId}/resume")
+	public ResponseEntity<ImportJob> resume(@PathVariable long jobId) {
+		ImportJob job = job(jobId);
+		if (!job.status().isResumable()) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, "Import job " + jobId + " is " + job.status());
+		}
+		return this.importService.resume(jobId)
+			.map(resumed -> ResponseEntity.accepted().body(resumed))
+			.orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+					"Import job " + jobId + " was resumed by another request"));
+	}
+
+	/**
+	 * Stream the rejected lines of a job as CSV with the columns <code>line</code> and
+	 * <code>message</code>.
+	 */
+	@GetMapping("/{jobId}/errors")
+	public void errors(@PathVariable long jobId, HttpServletResponse response) throws IOException {
+		job(jobId);
+		response.setContentType("text/csv;charset=UTF-8");
+		response.setHeader("Content-Disposition", "attachment; filename=\"import-" + jobId + "-errors.csv\"");
+		PrintWriter writer = response.getWriter();
+		writer.println("line,message");
+		this.importService.forEachError(jobId, error -> {
+			writer.print(error.line());
+			writer.print(",\"");
+			writer.print(error.message().replace("\"", "\"\""));
+			writer.println('"');
+			if (writer.checkError()) {
+				throw new UncheckedIOException(new IOException("Client stopped reading the error report"));
+			}
+		});
+		writer.flush();
+	}
+
+	private static ResponseStatusException notFound(long jobId) {
+		return new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job " + jobId + " not found");
+	}
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the bulk owner import under <code>petclinic.import</code>.
+ */
+@ConfigurationProperties(prefix = "petclinic.import")
+public class OwnerImportProperties {
+
+	/**
+	 * Directory the uploaded files are kept in until their import completes.
+	 */
+	private Path directory = Path.of("imports");
+
+	/**
+	 * Number of owners written per transaction, which is also the checkpoint interval.
+	 */
+	private int batchSize = 500;
+
+	/**
+	 * Number of rejected lines after which a job stops.
+	 */
+	private int maxErrors = 10_000;
+
+	/**
+	 * Length of a line beyond which it is rejected instead of being read into memory.
+	 */
+	private DataSize maxLineLength = DataSize.ofMegabytes(1);
+
+	/**
+	 * How long a queued or running job stays claimed by the node that runs it without
+	 * that node renewing the claim. Jobs whose claim expired are marked interrupted.
+	 */
+	private Duration leaseDuration = Duration.ofMinutes(1);
+
+	public Path getDirectory() {
+		return this.directory;
+	}
+
+	public void setDirectory(Path directory) {
+		this.directory = directory;
+	}
+
+	public int getBatchSize() {
+		return this.batchSize;
+	}
+
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public int getMaxErrors() {
+		return this.maxErrors;
+	}
+
+	public void setMaxErrors(int maxErrors) {
+		this.maxErrors = maxErrors;
+	}
+
+	public DataSize getMaxLineLength() {
+		return this.maxLineLength;
+	}
+
+	public void setMaxLineLength(DataSize maxLineLength) {
+		this.maxLineLength = maxLineLength;
+	}
+
+	public Duration getLeaseDuration() {
+		return this.leaseDuration;
+	}
+
+	public void setLeaseDuration(Duration leaseDuration) {
+		this.leaseDuration = leaseDuration;
+	}
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Accepts bulk owner imports and runs them one at a time on a background thread. An
+ * upload is moved to {@link OwnerImportProperties#getDirectory()} as is, so the file is
+ * never held in memory, and read from there by {@link OwnerImporter}.
+ * <p>
+ * Each node leases the jobs it queued and renews the leases of its jobs every third of
+ * {@link OwnerImportProperties#getLeaseDuration()}. A job whose lease expired, because
+ * its node stopped, is marked {@link ImportJobStatus#INTERRUPTED} by whichever node
+ * notices first and continues from its last checkpoint once it is resumed. Jobs of other
+ * nodes that are still running are left alone.
+ * </p>
+ */
+@Service
+public class OwnerImportService {
+
+	private static final Logger logger = LoggerFactory.getLogger(OwnerImportService.class);
+
+	private final ImportJobRepository jobs;
+
+	private final OwnerImporter importer;
+
+	private final OwnerImportProperties properties;
+
+	private final String nodeId = UUID.randomUUID().toString();
+
+	private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "owner-import");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final ScheduledExecutorService leaseKeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "owner-import-lease");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private boolean failing;
+
+	OwnerImportService(ImportJobRepository jobs, OwnerImporter importer, OwnerImportProperties properties) {
+		this.jobs = jobs;
+		this.importer = importer;
+		this.properties = properties;
+	}
+
+	/**
+	 * Store an uploaded file and queue its import.
+	 * @param file the uploaded file
+	 * @param format the format of the file, or <code>null</code> to tell it by the file
+	 * extension
+	 * @return the queued job
+	 * @throws IllegalArgumentException if the format is not supported
+	 */
+	public ImportJob submit(MultipartFile file, String format) throws IOException {
+		String fileName = StringUtils.hasText(file.getOriginalFilename()) ? file.getOriginalFilename() : "upload";
+		ImportFormat importFormat = ImportFormat.of(format, fileName);
+		Path directory = Files.createDirectories(this.properties.getDirectory());
+		Path stored = directory.resolve(UUID.randomUUID() + importFormat.extension()).toAbsolutePath();
+		file.transferTo(stored);
+		long jobId = this.jobs.create(fileName, stored.toString(), importFormat, Files.size(stored), this.nodeId,
+				this.properties.getLeaseDuration());
+		this.worker.execute(() -> this.importer.run(jobId, this.nodeId));
+		return this.jobs.findById(jobId).orElseThrow();
+	}
+
+	public Optional<ImportJob> findById(long jobId) {
+		return this.jobs.findById(jobId);
+	}
+
+	/**
+	 * Queue a failed or interrupted job again.
+	 * @return the queued job, or an empty {@link Optional} if the job cannot be resumed
+	 */
+	public Optional<ImportJob> resume(long jobId) {
+		if (!this.jobs.requeue(jobId, this.nodeId, this.properties.getLeaseDuration())) {
+			return Optional.empty();
+		}
+		this.worker.execute(() -> this.importer.run(jobId, this.nodeId));
+		return this.jobs.findById(jobId);
+	}
+
+	/**
+	 * Pass the rejected lines of a job to the given consumer in line order.
+	 */
+	public void forEachError(long jobId, Consumer<ImportError> consumer) {
+		this.jobs.forEachError(jobId, consumer);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void startLeaseKeeper() {
+		long period = Math.max(this.properties.getLeaseDuration().toMillis() / 3, 1);
+		this.leaseKeeper.scheduleWithFixedDelay(this::maintainLeases, 0, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Renew the leases of the jobs of this node and interrupt the jobs whose lease
+	 * expired.
+	 */
+	void maintainLeases() {
+		try {
+			this.jobs.renewLeases(this.nodeId, this.properties.getLeaseDuration());
+			int interrupted = this.jobs.interruptAbandoned();
+			if (interrupted > 0) {
+				logger.warn("Marked {} import jobs whose node stopped as interrupted", interrupted);
+			}
+			if (this.failing) {
+				logger.info("Import job leases are reachable again");
+				this.failing = false;
+			}
+		}
+		catch (RuntimeException ex) {
+			// Logged once per outage
+			if (!this.failing) {
+				logger.warn("Unable to renew import job leases: {}", ex.getMessage());
+				this.failing = true;
+			}
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		this.leaseKeeper.shutdownNow();
+		this.worker.shutdownNow();
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.samples.petclinic.model.BaseEntity;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inserts imported owners with their pets and visits as three JDBC batches, one per
+ * table. Hibernate cannot batch inserts into <code>IDENTITY</code> columns because it
+ * needs every id right away, so the batches bypass JPA and read the generated ids back
+ * from the driver instead, which then become the parent ids of the next batch.
+ */
+@Component
+class OwnerImportWriter {
+
+	private static final String INSERT_OWNER = "INSERT INTO owners (first_name, last_name, address, city, telephone) "
+			+ "VALUES (?, ?, ?, ?, ?)";
+
+	private static final String INSERT_PET = "INSERT INTO pets (name, birth_date, type_id, owner_id) VALUES (?, ?, ?, ?)";
+
+	private static final String INSERT_VISIT = "INSERT INTO visits (pet_id, visit_date, description) VALUES (?, ?, ?)";
+
+	private static final String[] ID_COLUMN = { "id" };
+
+	private final JdbcTemplate jdbcTemplate;
+
+	OwnerImportWriter(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+	}
+
+	/**
+	 * Insert the given owners, pets and visits and set their generated ids. Must run in a
+	 * transaction so that a batch is written completely or not at all.
+	 * @return the number of rows inserted into each table
+	 */
+	ImportCounts write(List<Owner> owners) {
+		if (owners.isEmpty()) {
+			return ImportCounts.NONE;
+		}
+		List<Integer> ownerIds = insert(INSERT_OWNER, owners.size(), (ps, i) -> {
+			Owner owner = owners.get(i);
+			ps.setString(1, owner.getFirstName());
+			ps.setString(2, owner.getLastName());
+			ps.setString(3, owner.getAddress());
+			ps.setString(4, owner.getCity());
+			ps.setString(5, owner.getTelephone());
+		});
+		assignIds(owners, ownerIds);
+
+		List<Pet> pets = new ArrayList<>();
+		List<Integer> petOwnerIds = new ArrayList<>();
+		for (Owner owner : owners) {
+			for (Pet pet : owner.getPets()) {
+				pets.add(pet);
+				petOwnerIds.add(owner.getId());
+			}
+		}
+		List<Integer> petIds = insert(INSERT_PET, pets.size(), (ps, i) -> {
+			Pet pet = pets.get(i);
+			ps.setString(1, pet.getName());
+			ps.setObject(2, pet.getBirthDate());
+			ps.setInt(3, pet.getType().getId());
+			ps.setInt(4, petOwnerIds.get(i));
+		});
+		assignIds(pets, petIds);
+
+		List<Visit> visits = new ArrayList<>();
+		List<Integer> visitPetIds = new ArrayList<>();
+		for (Pet pet : pets) {
+			for (Visit visit : pet.getVisits()) {
+				visits.add(visit);
+				visitPetIds.add(pet.getId());
+			}
+		}
+		if (!visits.isEmpty()) {
+			// Nothing refers to visits, so their ids are not read back
+			this.jdbcTemplate.batchUpdate(INSERT_VISIT, setter(visits.size(), (ps, i) -> {
+				Visit visit = visits.get(i);
+				ps.setInt(1, visitPetIds.get(i));
+				ps.setObject(2, visit.getDate());
+				ps.setString(3, visit.getDescription());
+			}));
+		}
+		return new ImportCounts(owners.size(), pets.size(), visits.size());
+	}
+
+	private List<Integer> insert(String sql, int size, RowBinder binder) {
+		if (size == 0) {
+			return List.of();
+		}
+		KeyHolder keyHolder = new GeneratedKeyHolder();
+		this.jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, ID_COLUMN), setter(size, binder),
+				keyHolder);
+		List<Map<String, Object>> keys = keyHolder.getKeyList();
+		if (keys.size() != size) {
+			throw new IllegalStateException(
+					"Expected " + size + " generated ids but the driver returned " + keys.size());
+		}
+		List<Integer> ids = new ArrayList<>(size);
+		for (Map<String, Object> key : keys) {
+			ids.add(((Number) key.values().iterator().next()).intValue());
+		}
+		return ids;
+	}
+
+	private static void assignIds(List<? extends BaseEntity> entities, List<Integer> ids) {
+		for (int i = 0; i < entities.size(); i++) {
+			entities.get(i).setId(ids.get(i));
+		}
+	}
+
+	private static BatchPreparedStatementSetter setter(int size, RowBinder binder) {
+		return new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				binder.bind(ps, i);
+			}
+
+			@Override
+			public int getBatchSize() {
+				return size;
+			}
+
+		};
+	}
+
+	/**
+	 * Binds the parameters of the i-th row of a batch.
+	 */
+	@FunctionalInterface
+	private interface RowBinder {
+
+		void bind(PreparedStatement ps, int i) throws SQLException;
+
+	}
+
+}
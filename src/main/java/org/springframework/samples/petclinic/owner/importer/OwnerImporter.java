@@ -0,0 +1,246 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.samples.petclinic.model.BaseEntity;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnersImportedEvent;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetType;
+import org.springframework.samples.petclinic.owner.PetTypeRepository;
+import org.springframework.samples.petclinic.owner.PetValidator;
+import org.springframework.samples.petclinic.owner.Visit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Runs one import job on the calling thread. Owners are streamed from the file, checked
+ * with the same rules as the forms (Bean Validation for owners and visits,
+ * {@link PetValidator} for pets) and written in batches of
+ * {@link OwnerImportProperties#getBatchSize()} owners.
+ * <p>
+ * Each batch commits in a single transaction together with its rejected lines and the new
+ * checkpoint, so a job that stops for any reason can be resumed from its checkpoint
+ * without importing or reporting a line twice. An owner with any rejected line is not
+ * imported at all.
+ * </p>
+ */
+@Component
+class OwnerImporter {
+
+	private static final Logger logger = LoggerFactory.getLogger(OwnerImporter.class);
+
+	private final ImportJobRepository jobs;
+
+	private final OwnerImportWriter writer;
+
+	private final PetTypeRepository petTypes;
+
+	private final Validator validator;
+
+	private final PetValidator petValidator = new PetValidator();
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final ApplicationEventPublisher events;
+
+	private final JsonMapper jsonMapper;
+
+	private final OwnerImportProperties properties;
+
+	OwnerImporter(ImportJobRepository jobs, OwnerImportWriter writer, PetTypeRepository petTypes, Validator validator,
+			PlatformTransactionManager transactionManager, ApplicationEventPublisher events, JsonMapper jsonMapper,
+			OwnerImportProperties properties) {
+		this.jobs = jobs;
+		this.writer = writer;
+		this.petTypes = petTypes;
+		this.validator = validator;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.events = events;
+		this.jsonMapper = jsonMapper;
+		this.properties = properties;
+	}
+
+	/**
+	 * Import a queued job leased by the given node from its checkpoint to the end of its
+	 * file. Does nothing if the job is not queued or leased by another node.
+	 */
+	void run(long jobId, String nodeId) {
+		if (!this.jobs.claim(jobId, nodeId, this.properties.getLeaseDuration())) {
+			return;
+		}
+		ImportJob job = this.jobs.findById(jobId).orElseThrow();
+		Path file = Path.of(job.storedFile());
+		try (OwnerRecordReader reader = OwnerRecordReader.open(file, job.format(), job.bytesRead(), job.linesRead(),
+				(int) this.properties.getMaxLineLength().toBytes(), this.jsonMapper)) {
+			Map<String, PetType> types = petTypesByName();
+			int errors = job.errorCount();
+			Batch batch = new Batch();
+			ImportedOwner imported;
+			while ((imported = reader.next()) != null) {
+				validate(imported, types);
+				batch.add(imported);
+				if (errors + batch.errors.size() > this.properties.getMaxErrors()) {
+					errors += commit(jobId, nodeId, batch);
+					this.jobs.finish(jobId, nodeId, ImportJobStatus.FAILED,
+							"Stopped after " + errors + " rejected lines");
+					return;
+				}
+				if (batch.size == this.properties.getBatchSize()) {
+					errors += commit(jobId, nodeId, batch);
+					batch = new Batch();
+					if (Thread.currentThread().isInterrupted()) {
+						this.jobs.finish(jobId, nodeId, ImportJobStatus.INTERRUPTED, "Stopped by a shutdown");
+						return;
+					}
+				}
+			}
+			commit(jobId, nodeId, batch);
+			this.jobs.finish(jobId, nodeId, ImportJobStatus.COMPLETED, null);
+			logger.info("Import job {} of {} completed", jobId, job.fileName());
+		}
+		catch (IOException | RuntimeException ex) {
+			logger.warn("Import job {} of {} stopped", jobId, job.fileName(), ex);
+			ImportJobStatus status = Thread.currentThread().isInterrupted() ? ImportJobStatus.INTERRUPTED
+					: ImportJobStatus.FAILED;
+			this.jobs.finish(jobId, nodeId, status, ex.getMessage());
+			return;
+		}
+		try {
+			Files.deleteIfExists(file);
+		}
+		catch (IOException ex) {
+			logger.warn("Could not delete {} after importing it", file, ex);
+		}
+	}
+
+	/**
+	 * Write the owners of a batch, its rejected lines and the checkpoint after it. Rolls
+	 * back if the node lost its lease on the job in the meantime.
+	 * @return the number of rejected lines
+	 */
+	private int commit(long jobId, String nodeId, Batch batch) {
+		if (batch.size == 0) {
+			return 0;
+		}
+		this.transactionTemplate.executeWithoutResult(status -> {
+			ImportCounts counts = this.writer.write(batch.owners);
+			this.jobs.addErrors(jobId, batch.errors);
+			if (!this.jobs.checkpoint(jobId, nodeId, this.properties.getLeaseDuration(), batch.endOffset,
+					batch.lastLine, counts, batch.errors.size())) {
+				throw new IllegalStateException("Lost the lease on import job " + jobId);
+			}
+			if (!batch.owners.isEmpty()) {
+				this.events
+					.publishEvent(new OwnersImportedEvent(batch.owners.stream().map(BaseEntity::getId).toList()));
+			}
+		});
+		logger.debug("Import job {} committed {} owners up to line {}", jobId, batch.owners.size(), batch.lastLine);
+		return batch.errors.size();
+	}
+
+	private Map<String, PetType> petTypesByName() {
+		Map<String, PetType> types = new HashMap<>();
+		for (PetType type : this.petTypes.findPetTypes()) {
+			types.put(type.getName().toLowerCase(Locale.ROOT), type);
+		}
+		return types;
+	}
+
+	/**
+	 * Check an owner with its pets and visits. Owners that could not even be read are not
+	 * checked further.
+	 */
+	void validate(ImportedOwner imported, Map<String, PetType> types) {
+		if (imported.isRejected()) {
+			return;
+		}
+		Owner owner = imported.owner();
+		for (ConstraintViolation<Owner> violation : this.validator.validate(owner)) {
+			imported.reject(owner, "owner " + violation.getPropertyPath() + ": " + violation.getMessage());
+		}
+		for (Pet pet : owner.getPets()) {
+			if (pet.getType() != null) {
+				PetType type = types.get(pet.getType().getName().toLowerCase(Locale.ROOT));
+				if (type == null) {
+					imported.reject(pet, "pet type: unknown type '" + pet.getType().getName() + "'");
+				}
+				else {
+					pet.setType(type);
+				}
+			}
+			Errors errors = new BeanPropertyBindingResult(pet, "pet");
+			this.petValidator.validate(pet, errors);
+			errors.getFieldErrors()
+				.forEach(error -> imported.reject(pet, "pet " + error.getField() + ": " + error.getDefaultMessage()));
+			for (Visit visit : pet.getVisits()) {
+				for (ConstraintViolation<Visit> violation : this.validator.validate(visit)) {
+					imported.reject(visit, "visit " + violation.getPropertyPath() + ": " + violation.getMessage());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Owners read since the last checkpoint.
+	 */
+	private static final class Batch {
+
+		private final List<Owner> owners = new ArrayList<>();
+
+		private final List<ImportError> errors = new ArrayList<>();
+
+		private int size;
+
+		private long lastLine;
+
+		private long endOffset;
+
+		void add(ImportedOwner imported) {
+			if (imported.isRejected()) {
+				this.errors.addAll(imported.errors());
+			}
+			else {
+				this.owners.add(imported.owner());
+			}
+			this.size++;
+			this.lastLine = imported.lastLine();
+			this.endOffset = imported.endOffset();
+		}
+
+	}
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import org.springframework.samples.petclinic.owner.PetType;
+import org.springframework.samples.petclinic.owner.importer.ImportLineReader.LineTooLongException;
+import org.springframework.util.StringUtils;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Streams the owners of an import file one at a time. Pet types are read by name only and
+ * resolved against the known types when the owner is validated.
+ */
+abstract class OwnerRecordReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	protected final ImportLineReader lines;
+
+	protected OwnerRecordReader(ImportLineReader lines) {
+		this.lines = lines;
+	}
+
+	/**
+	 * Open an import file, continuing after a checkpoint if one was recorded.
+	 * @param file the uploaded file
+	 * @param format its format
+	 * @param offset the byte offset of the checkpoint, 0 to start at the beginning
+	 * @param lineNumber the number of the last line before the checkpoint
+	 * @param maxLineLength the length in bytes beyond which a line is rejected
+	 * @param jsonMapper the mapper for NDJSON lines
+	 */
+	static OwnerRecordReader open(Path file, ImportFormat format, long offset, long lineNumber, int maxLineLength,
+			JsonMapper jsonMapper) throws IOException {
+		ImportLineReader lines = new ImportLineReader(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE),
+				maxLineLength);
+		try {
+			OwnerRecordReader reader = switch (format) {
+				case CSV -> new CsvOwnerReader(lines);
+				case NDJSON -> new NdjsonOwnerReader(lines, jsonMapper);
+			};
+			if (offset > 0) {
+				lines.skipTo(offset, lineNumber);
+			}
+			return reader;
+		}
+		catch (IOException | RuntimeException ex) {
+			lines.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Read the next owner.
+	 * @return the owner, or <code>null</code> once the file is exhausted
+	 */
+	abstract ImportedOwner next() throws IOException;
+
+	/**
+	 * Read the next line that is not blank.
+	 * @return the line, or <code>null</code> at the end of the file
+	 * @throws LineTooLongException if the next line is too long, it has been skipped
+	 */
+	protected String nextLine() throws IOException {
+		String line;
+		do {
+			line = this.lines.readLine();
+		}
+		while (line != null && line.isBlank());
+		return line;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.lines.close();
+	}
+
+	static PetType petType(String name) {
+		if (!StringUtils.hasText(name)) {
+			return null;
+		}
+		PetType type = new PetType();
+		type.setName(name.trim());
+		return type;
+	}
+
+	static LocalDate date(String value, String field, ImportedOwner imported, long line) {
+		if (!StringUtils.hasText(value)) {
+			return null;
+		}
+		try {
+			return LocalDate.parse(value.trim());
+		}
+		catch (DateTimeParseException ex) {
+			imported.reject(line, field + ": '" + value + "' is not a date (yyyy-MM-dd)");
+			return null;
+		}
+	}
+
+	static String text(String value) {
+		return StringUtils.hasText(value) ? value.trim() : null;
+	}
+
+}
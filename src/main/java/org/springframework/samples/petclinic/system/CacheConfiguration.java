@@ -16,38 +16,41 @@
 
 package org.springframework.samples.petclinic.system;
 
-import org.springframework.boot.cache.autoconfigure.JCacheManagerCustomizer;
+import java.util.List;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import javax.cache.configuration.MutableConfiguration;
-
 /**
- * Cache configuration intended for caches providing the JCache API. This configuration
- * creates the used cache for the application and enables statistics that become
- * accessible via JMX.
+ * Cache configuration for every cache of the application, backed by Caffeine. Each cache
+ * is declared with a {@link CacheSpec} under <code>petclinic.cache.specs</code>, so it is
+ * always bounded, and records statistics that Spring Boot Actuator publishes through
+ * Micrometer as <code>cache.*</code> metrics.
+ * <p>
+ * Cache names that are not declared are rejected instead of silently creating an
+ * unbounded cache.
+ * </p>
  */
 @Configuration(proxyBeanMethods = false)
 @EnableCaching
+@EnableConfigurationProperties(PetClinicCacheProperties.class)
 class CacheConfiguration {
 
 	@Bean
-	public JCacheManagerCustomizer petclinicCacheConfigurationCustomizer() {
-		return cm -> cm.createCache("vets", cacheConfiguration());
-	}
-
-	/**
-	 * Create a simple configuration that enable statistics via the JCache programmatic
-	 * configuration API.
-	 * <p>
-	 * Within the configuration object that is provided by the JCache API standard, there
-	 * is only a very limited set of configuration options. The really relevant
-	 * configuration options (like the size limit) must be set via a configuration
-	 * mechanism that is provided by the selected JCache implementation.
-	 */
-	private javax.cache.configuration.Configuration<Object, Object> cacheConfiguration() {
-		return new MutableConfiguration<>().setStatisticsEnabled(true);
+	public CaffeineCacheManager cacheManager(PetClinicCacheProperties properties) {
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+		cacheManager.setCacheNames(List.of());
+		properties.getSpecs().forEach((name, spec) -> {
+			if (spec.getRefreshAfterWrite() != null) {
+				throw new IllegalStateException("Cache '" + name
+						+ "' is used through @Cacheable and has no loader, refresh-after-write is not supported");
+			}
+			cacheManager.registerCustomCache(name, spec.toCaffeine().build());
+		});
+		return cacheManager;
 	}
 
 }
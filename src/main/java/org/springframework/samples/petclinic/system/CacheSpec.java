@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Size and expiry limits of a single Caffeine cache. Every cache built from a spec
+ * records statistics so that hit rates and evictions are published as metrics.
+ * <p>
+ * {@code refreshAfterWrite} enables refresh-ahead: once an entry is older than the given
+ * duration, the next read still returns it while a fresh value is loaded in the
+ * background. It requires a cache loader and is therefore only available to caches that
+ * are built with one, not to caches used through {@code @Cacheable}.
+ * </p>
+ */
+public class CacheSpec {
+
+	private long maximumSize = 1_000;
+
+	private Duration expireAfterWrite;
+
+	private Duration expireAfterAccess;
+
+	private Duration refreshAfterWrite;
+
+	public CacheSpec() {
+	}
+
+	public CacheSpec(long maximumSize, Duration expireAfterWrite, Duration refreshAfterWrite) {
+		this.maximumSize = maximumSize;
+		this.expireAfterWrite = expireAfterWrite;
+		this.refreshAfterWrite = refreshAfterWrite;
+	}
+
+	public long getMaximumSize() {
+		return this.maximumSize;
+	}
+
+	public void setMaximumSize(long maximumSize) {
+		this.maximumSize = maximumSize;
+	}
+
+	public Duration getExpireAfterWrite() {
+		return this.expireAfterWrite;
+	}
+
+	public void setExpireAfterWrite(Duration expireAfterWrite) {
+		this.expireAfterWrite = expireAfterWrite;
+	}
+
+	public Duration getExpireAfterAccess() {
+		return this.expireAfterAccess;
+	}
+
+	public void setExpireAfterAccess(Duration expireAfterAccess) {
+		this.expireAfterAccess = expireAfterAccess;
+	}
+
+	public Duration getRefreshAfterWrite() {
+		return this.refreshAfterWrite;
+	}
+
+	public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+		this.refreshAfterWrite = refreshAfterWrite;
+	}
+
+	public Caffeine<Object, Object> toCaffeine() {
+		Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(this.maximumSize).recordStats();
+		if (this.expireAfterWrite != null) {
+			builder.expireAfterWrite(this.expireAfterWrite);
+		}
+		if (this.expireAfterAccess != null) {
+			builder.expireAfterAccess(this.expireAfterAccess);
+		}
+		if (this.refreshAfterWrite != null) {
+			builder.refreshAfterWrite(this.refreshAfterWrite);
+		}
+		return builder;
+	}
+
+}
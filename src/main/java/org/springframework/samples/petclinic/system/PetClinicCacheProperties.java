@@ -0,0 +1,49 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits of the caches managed by {@link CacheConfiguration}, keyed by cache name, e.g.
+ * <code>petclinic.cache.specs[vets].maximum-size=100</code>, and of the row counts cached
+ * by {@link TotalCounts} under <code>petclinic.cache.counts</code>.
+ */
+@ConfigurationProperties(prefix = "petclinic.cache")
+public class PetClinicCacheProperties {
+
+	private final Map<String, CacheSpec> specs = new LinkedHashMap<>();
+
+	private CacheSpec counts = new CacheSpec(1_000, Duration.ofHours(1), Duration.ofSeconds(30));
+
+	public Map<String, CacheSpec> getSpecs() {
+		return this.specs;
+	}
+
+	public CacheSpec getCounts() {
+		return this.counts;
+	}
+
+	public void setCounts(CacheSpec counts) {
+		this.counts = counts;
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Cached row counts for paginated lists, so that rendering the number of pages does not
+ * cost a <code>COUNT(*)</code> per request. Counts are refreshed in the background once
+ * they are older than <code>petclinic.cache.counts.refresh-after-write</code>, and the
+ * stale count keeps being served meanwhile; only the very first request for a count waits
+ * for it.
+ */
+@Component
+public class TotalCounts {
+
+	static final String CACHE_NAME = "totalCounts";
+
+	private final LoadingCache<Key, Long> counts;
+
+	public TotalCounts(PetClinicCacheProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+		this.counts = properties.getCounts().toCaffeine().build(key -> key.counter().getAsLong());
+		meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, this.counts, CACHE_NAME));
+	}
+
+	/**
+	 * Return the cached count with the given name, loading it with the given counter if
+	 * there is none yet.
+	 * @param name identifies the count, including its query arguments, e.g.
+	 * <code>"owners:Dav"</code>
+	 * @param counter runs the count query; the first counter given for a name is the one
+	 * used for refreshing it
+	 */
+	public long get(String name, LongSupplier counter) {
+		return this.counts.get(new Key(name, counter));
+	}
+
+	private record Key(String name, LongSupplier counter) {
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof Key key && this.name.equals(key.name);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hashCode(this.name);
+		}
+
+	}
+
+}
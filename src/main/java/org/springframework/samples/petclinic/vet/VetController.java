@@ -15,16 +15,16 @@
  */
 package org.springframework.samples.petclinic.vet;
 
-import java.util.List;
-
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.samples.petclinic.model.KeysetCursor;
+import org.springframework.samples.petclinic.model.KeysetPage;
+import org.springframework.samples.petclinic.system.TotalCounts;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * @author Juergen Hoeller
@@ -35,35 +35,52 @@ import org.springframework.web.bind.annotation.ResponseBody;
 @Controller
 class VetController {
 
+	private static final int PAGE_SIZE = 5;
+
 	private final VetRepository vetRepository;
 
-	public VetController(VetRepository vetRepository) {
+	private final TotalCounts totalCounts;
+
+	public VetController(VetRepository vetRepository, TotalCounts totalCounts) {
 		this.vetRepository = vetRepository;
+		this.totalCounts = totalCounts;
 	}
 
 	@GetMapping("/vets.html")
-	public String showVetList(@RequestParam(defaultValue = "1") int page, Model model) {
+	public String showVetList(@RequestParam(defaultValue = "1") int page, @RequestParam(required = false) String after,
+			@RequestParam(required = false) String before, Model model) {
 		// Here we are returning an object of type 'Vets' rather than a collection of Vet
 		// objects so it is simpler for Object-Xml mapping
 		Vets vets = new Vets();
-		Page<Vet> paginated = findPaginated(page);
-		vets.getVetList().addAll(paginated.toList());
-		return addPaginationModel(page, paginated, model);
+		KeysetPage<Vet> paginated = findPaginated(after, before);
+		vets.getVetList().addAll(paginated.content());
+		return addPaginationModel(paginated.hasPrevious() ? Math.max(page, 2) : 1, paginated, model);
 	}
 
-	private String addPaginationModel(int page, Page<Vet> paginated, Model model) {
-		List<Vet> listVets = paginated.getContent();
+	private String addPaginationModel(int page, KeysetPage<Vet> paginated, Model model) {
+		long totalItems = this.totalCounts.get("vets", this.vetRepository::count);
 		model.addAttribute("currentPage", page);
-		model.addAttribute("totalPages", paginated.getTotalPages());
-		model.addAttribute("totalItems", paginated.getTotalElements());
-		model.addAttribute("listVets", listVets);
+		model.addAttribute("totalPages", Math.max(page, (totalItems + PAGE_SIZE - 1) / PAGE_SIZE));
+		model.addAttribute("totalItems", totalItems);
+		model.addAttribute("listVets", paginated.content());
+		UriComponentsBuilder vetsUrl = UriComponentsBuilder.fromPath("/vets.html");
+		model.addAttribute("firstUrl", paginated.firstUrl(vetsUrl));
+		model.addAttribute("previousUrl", paginated.previousUrl(vetsUrl, page, KeysetCursor::of));
+		model.addAttribute("nextUrl", paginated.nextUrl(vetsUrl, page, KeysetCursor::of));
 		return "vets/vetList";
 	}
 
-	private Page<Vet> findPaginated(int page) {
-		int pageSize = 5;
-		Pageable pageable = PageRequest.of(page - 1, pageSize);
-		return vetRepository.findAll(pageable);
+	private KeysetPage<Vet> findPaginated(String after, String before) {
+		KeysetCursor beforeCursor = KeysetCursor.decode(before);
+		if (beforeCursor != null) {
+			return KeysetPage.backward(
+					vetRepository.findBefore(beforeCursor.lastName(), beforeCursor.id(), Limit.of(PAGE_SIZE + 1)),
+					PAGE_SIZE);
+		}
+		KeysetCursor afterCursor = KeysetCursor.decode(after);
+		KeysetCursor from = afterCursor != null ? afterCursor : KeysetCursor.START;
+		return KeysetPage.forward(vetRepository.findAfter(from.lastName(), from.id(), Limit.of(PAGE_SIZE + 1)),
+				PAGE_SIZE, afterCursor != null);
 	}
 
 	@GetMapping({ "/vets" })
@@ -17,12 +17,13 @@ package org.springframework.samples.petclinic.vet;
 
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.DataAccessException;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Repository class for <code>Vet</code> domain objects All method names are compliant
@@ -46,13 +47,43 @@ public interface VetRepository extends Repository<Vet, Integer> {
 	Collection<Vet> findAll() throws DataAccessException;
 
 	/**
-	 * Retrieve all <code>Vet</code>s from data store in Pages
-	 * @param pageable
-	 * @return
-	 * @throws DataAccessException
+	 * Retrieve the <code>Vet</code>s that follow the given position, ordered by last name
+	 * and id
+	 * @param lastName last name of the vet before the page, or <code>""</code>
+	 * @param id id of the vet before the page, or <code>0</code>
+	 * @param limit the number of vets to return
+	 * @return the vets after the given position
 	 */
 	@Transactional(readOnly = true)
-	@Cacheable("vets")
-	Page<Vet> findAll(Pageable pageable) throws DataAccessException;
+	@Cacheable(cacheNames = "vets", key = "{'after', #lastName, #id, #limit.max()}")
+	@Query("""
+			SELECT v FROM Vet v
+			WHERE v.lastName > :lastName OR (v.lastName = :lastName AND v.id > :id)
+			ORDER BY v.lastName, v.id
+			""")
+	List<Vet> findAfter(String lastName, int id, Limit limit) throws DataAccessException;
+
+	/**
+	 * Retrieve the <code>Vet</code>s that precede the given position, closest first
+	 * @param lastName last name of the vet after the page
+	 * @param id id of the vet after the page
+	 * @param limit the number of vets to return
+	 * @return the vets before the given position, in reverse order
+	 */
+	@Transactional(readOnly = true)
+	@Cacheable(cacheNames = "vets", key = "{'before', #lastName, #id, #limit.max()}")
+	@Query("""
+			SELECT v FROM Vet v
+			WHERE v.lastName < :lastName OR (v.lastName = :lastName AND v.id < :id)
+			ORDER BY v.lastName DESC, v.id DESC
+			""")
+	List<Vet> findBefore(String lastName, int id, Limit limit) throws DataAccessException;
+
+	/**
+	 * Count all <code>Vet</code>s
+	 * @return the number of vets
+	 */
+	@Transactional(readOnly = true)
+	long count() throws DataAccessException;
 
 }
@@ -1,3 +1,5 @@
+DROP TABLE import_errors IF EXISTS;
+DROP TABLE import_jobs IF EXISTS;
 DROP TABLE vet_specialties IF EXISTS;
 DROP TABLE vets IF EXISTS;
 DROP TABLE specialties IF EXISTS;
@@ -62,3 +64,35 @@ CREATE TABLE visits (
 );
 ALTER TABLE visits ADD CONSTRAINT fk_visits_pets FOREIGN KEY (pet_id) REFERENCES pets (id);
 CREATE INDEX visits_pet_id ON visits (pet_id);
+
+-- Bulk owner imports (OwnerImportService). bytes_read/lines_read are the checkpoint a resumed job continues at,
+-- lease_owner/lease_until the node running a queued or running job and until when it is known to be alive
+CREATE TABLE import_jobs (
+  id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  file_name       VARCHAR(255) NOT NULL,
+  stored_file     VARCHAR(1000) NOT NULL,
+  format          VARCHAR(10) NOT NULL,
+  status          VARCHAR(20) NOT NULL,
+  file_size       BIGINT NOT NULL,
+  bytes_read      BIGINT DEFAULT 0 NOT NULL,
+  lines_read      BIGINT DEFAULT 0 NOT NULL,
+  owners_imported INTEGER DEFAULT 0 NOT NULL,
+  pets_imported   INTEGER DEFAULT 0 NOT NULL,
+  visits_imported INTEGER DEFAULT 0 NOT NULL,
+  error_count     INTEGER DEFAULT 0 NOT NULL,
+  message         VARCHAR(1000),
+  lease_owner     VARCHAR(64),
+  lease_until     TIMESTAMP,
+  created_at      TIMESTAMP,
+  updated_at      TIMESTAMP
+);
+CREATE INDEX import_jobs_status ON import_jobs (status, lease_until);
+
+CREATE TABLE import_errors (
+  id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  job_id      BIGINT NOT NULL,
+  line_number BIGINT NOT NULL,
+  message     VARCHAR(1000) NOT NULL
+);
+ALTER TABLE import_errors ADD CONSTRAINT fk_import_errors_jobs FOREIGN KEY (job_id) REFERENCES import_jobs (id);
+CREATE INDEX import_errors_job_line ON import_errors (job_id, line_number);
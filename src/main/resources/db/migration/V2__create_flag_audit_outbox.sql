@@ -0,0 +1,13 @@
+-- Audit entries written within the flag transaction when petclinic.feature-flags.audit.outbox=true,
+-- moved into flag_audit_log in batches by FlagAuditWriter
+CREATE TABLE flag_audit_outbox (
+                                 id BIGSERIAL PRIMARY KEY,
+                                 flag_id BIGINT,
+                                 flag_key VARCHAR(255) NOT NULL,
+                                 action VARCHAR(50) NOT NULL,
+                                 old_value JSONB,
+                                 new_value JSONB,
+                                 changed_by VARCHAR(100),
+                                 reason TEXT,
+                                 timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,9 @@
+-- Composite indexes matching the (timestamp DESC, id DESC) keyset order of the audit API,
+-- one per filter column so every filtered page is an index range scan
+DROP INDEX IF EXISTS idx_flag_audit_timestamp;
+DROP INDEX IF EXISTS idx_flag_audit_key;
+
+CREATE INDEX idx_flag_audit_timestamp_id ON flag_audit_log(timestamp DESC, id DESC);
+CREATE INDEX idx_flag_audit_key_timestamp_id ON flag_audit_log(flag_key, timestamp DESC, id DESC);
+CREATE INDEX idx_flag_audit_action_timestamp_id ON flag_audit_log(action, timestamp DESC, id DESC);
+CREATE INDEX idx_flag_audit_changed_by_timestamp_id ON flag_audit_log(changed_by, timestamp DESC, id DESC);
@@ -0,0 +1,12 @@
+-- Sampled flag exposures written by FlagExposureRecorder when petclinic.feature-flags.exposure.sink=jdbc.
+-- Identifiers are stored as 64-bit hashes only
+CREATE TABLE flag_exposure (
+                             id BIGSERIAL PRIMARY KEY,
+                             flag_key VARCHAR(255) NOT NULL,
+                             environment VARCHAR(50) NOT NULL,
+                             variant VARCHAR(100) NOT NULL,
+                             identifier_hash BIGINT NOT NULL,
+                             exposed_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_flag_exposure_flag_time ON flag_exposure(flag_key, exposed_at);
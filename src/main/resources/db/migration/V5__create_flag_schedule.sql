@@ -0,0 +1,25 @@
+-- Scheduled flag changes run by FlagScheduler. lease_owner/lease_until let one node claim a step,
+-- version makes a node whose lease expired unable to commit it
+CREATE TABLE flag_schedule (
+                             id BIGSERIAL PRIMARY KEY,
+                             version BIGINT NOT NULL DEFAULT 0,
+                             flag_key VARCHAR(255) NOT NULL,
+                             action VARCHAR(20) NOT NULL,
+                             run_at TIMESTAMP NOT NULL,
+                             end_at TIMESTAMP,
+                             from_percentage DOUBLE PRECISION,
+                             to_percentage DOUBLE PRECISION,
+                             steps INTEGER,
+                             completed_steps INTEGER NOT NULL DEFAULT 0,
+                             next_run_at TIMESTAMP,
+                             status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+                             lease_owner VARCHAR(64),
+                             lease_until TIMESTAMP,
+                             last_error VARCHAR(500),
+                             created_by VARCHAR(100),
+                             reason TEXT,
+                             created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_flag_schedule_due ON flag_schedule(status, next_run_at);
+CREATE INDEX idx_flag_schedule_key ON flag_schedule(flag_key);
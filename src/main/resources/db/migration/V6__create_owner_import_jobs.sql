@@ -0,0 +1,34 @@
+-- Bulk owner imports run by OwnerImportService. bytes_read/lines_read are the checkpoint a resumed job
+-- continues at, lease_owner/lease_until the node running a queued or running job and until when it is
+-- known to be alive; a job whose lease expired is marked INTERRUPTED
+CREATE TABLE import_jobs (
+                           id BIGSERIAL PRIMARY KEY,
+                           file_name VARCHAR(255) NOT NULL,
+                           stored_file VARCHAR(1000) NOT NULL,
+                           format VARCHAR(10) NOT NULL,
+                           status VARCHAR(20) NOT NULL DEFAULT 'QUEUED',
+                           file_size BIGINT NOT NULL,
+                           bytes_read BIGINT NOT NULL DEFAULT 0,
+                           lines_read BIGINT NOT NULL DEFAULT 0,
+                           owners_imported INTEGER NOT NULL DEFAULT 0,
+                           pets_imported INTEGER NOT NULL DEFAULT 0,
+                           visits_imported INTEGER NOT NULL DEFAULT 0,
+                           error_count INTEGER NOT NULL DEFAULT 0,
+                           message VARCHAR(1000),
+                           lease_owner VARCHAR(64),
+                           lease_until TIMESTAMP,
+                           created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                           updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_import_jobs_lease ON import_jobs(status, lease_until);
+
+-- One row per rejected line, written in the same transaction as the checkpoint that skips it
+CREATE TABLE import_errors (
+                             id BIGSERIAL PRIMARY KEY,
+                             job_id BIGINT NOT NULL REFERENCES import_jobs(id),
+                             line_number BIGINT NOT NULL,
+                             message VARCHAR(1000) NOT NULL
+);
+
+CREATE INDEX idx_import_errors_job ON import_errors(job_id, line_number);
@@ -0,0 +1,8 @@
+-- Cluster-wide version of the flag change stream. Incremented inside every flag transaction, so
+-- versions are contiguous, follow commit order and survive restarts; see FlagChangeVersions
+CREATE TABLE flag_change_version (
+                                   id INTEGER PRIMARY KEY,
+                                   version BIGINT NOT NULL
+);
+
+INSERT INTO flag_change_version (id, version) VALUES (1, 0);
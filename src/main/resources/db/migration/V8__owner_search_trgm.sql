@@ -0,0 +1,8 @@
+-- Trigram indexes of the owner search (PostgresOwnerSearch), which matches these expressions with
+-- pg_trgm word similarity. The owners and pets tables themselves come from db/postgres/schema.sql
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS owners_search_trgm ON owners
+  USING gin ((first_name || ' ' || last_name || ' ' || city || ' ' || telephone) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS pets_name_trgm ON pets USING gin (name gin_trgm_ops);
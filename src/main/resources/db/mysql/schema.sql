@@ -53,3 +53,33 @@ CREATE TABLE IF NOT EXISTS visits (
   description VARCHAR(255),
   FOREIGN KEY (pet_id) REFERENCES pets(id)
 ) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS import_jobs (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  file_name VARCHAR(255) NOT NULL,
+  stored_file VARCHAR(1000) NOT NULL,
+  format VARCHAR(10) NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  file_size BIGINT NOT NULL,
+  bytes_read BIGINT NOT NULL DEFAULT 0,
+  lines_read BIGINT NOT NULL DEFAULT 0,
+  owners_imported INT NOT NULL DEFAULT 0,
+  pets_imported INT NOT NULL DEFAULT 0,
+  visits_imported INT NOT NULL DEFAULT 0,
+  error_count INT NOT NULL DEFAULT 0,
+  message VARCHAR(1000),
+  lease_owner VARCHAR(64),
+  lease_until DATETIME,
+  created_at DATETIME,
+  updated_at DATETIME,
+  INDEX(status, lease_until)
+) engine=InnoDB;
+
+CREATE TABLE IF NOT EXISTS import_errors (
+  id BIGINT UNSIGNED NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  job_id BIGINT UNSIGNED NOT NULL,
+  line_number BIGINT NOT NULL,
+  message VARCHAR(1000) NOT NULL,
+  INDEX(job_id, line_number),
+  FOREIGN KEY (job_id) REFERENCES import_jobs(id)
+) engine=InnoDB;
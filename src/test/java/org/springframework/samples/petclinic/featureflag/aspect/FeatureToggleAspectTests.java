@@ -0,0 +1,136 @@
+package org.springframework.samples.petclinic.featureflag.aspect;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.samples.petclinic.featureflag.annotation.FeatureToggle;
+import org.springframework.samples.petclinic.featureflag.config.FlagMetricsProperties;
+import org.springframework.samples.petclinic.featureflag.exception.FeatureDisabledException;
+import org.springframework.samples.petclinic.featureflag.metrics.FlagEvaluationMetrics;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.service.FeatureFlagEvaluator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeatureToggleAspectTests {
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+	private final List<FlagContext> contexts = new ArrayList<>();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private boolean enabled;
+
+	private Guarded guarded;
+
+	@BeforeEach
+	void setUp() {
+		FeatureFlagEvaluator evaluator = new FeatureFlagEvaluator() {
+			@Override
+			public boolean isEnabled(String flagKey, FlagContext context) {
+				contexts.add(context);
+				return enabled;
+			}
+		};
+		FeatureToggleAspect aspect = new FeatureToggleAspect();
+		ReflectionTestUtils.setField(aspect, "evaluator", evaluator);
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(aspect, "metrics", new FlagEvaluationMetrics(
+				beanFactory.getBeanProvider(MeterRegistry.class), new FlagMetricsProperties()));
+		AspectJProxyFactory factory = new AspectJProxyFactory(new Guarded());
+		factory.addAspect(aspect);
+		guarded = factory.getProxy();
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void shouldProceedWithoutCreatingSession() {
+		enabled = true;
+
+		assertThat(guarded.view()).isEqualTo("owners/findOwners");
+		assertThat(contexts.get(0).getSessionId()).isNull();
+		assertThat(request.getSession(false)).isNull();
+	}
+
+	@Test
+	void shouldReadTargetingValuesFromRequestOnDemand() {
+		enabled = true;
+		request.addHeader("X-User-Id", "alice");
+		request.setRemoteAddr("10.1.2.3");
+		String sessionId = request.getSession().getId();
+
+		guarded.view();
+
+		FlagContext context = contexts.get(0);
+		assertThat(context.getUserId()).isEqualTo("alice");
+		assertThat(context.getIpAddress()).isEqualTo("10.1.2.3");
+		assertThat(context.getSessionId()).isEqualTo(sessionId);
+		assertThat(context.getEnvironment()).isEqualTo("development");
+	}
+
+	@Test
+	void shouldReturnFallbackMatchingReturnType() {
+		enabled = false;
+
+		assertThat(guarded.view()).isEqualTo("error");
+		assertThat(request.getAttribute("errorMessage")).isEqualTo("off");
+
+		ResponseEntity<?> response = guarded.api();
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+		assertThat(response.getBody()).isEqualTo(Map.of("error", "off"));
+
+		assertThat(guarded.page().getViewName()).isEqualTo("error");
+		assertThatThrownBy(guarded::other).isInstanceOf(FeatureDisabledException.class).hasMessage("off");
+		assertThat(request.getSession(false)).isNull();
+		assertThat(meterRegistry.get(FlagEvaluationMetrics.BLOCKED).tag("flag", "guarded").functionCounter().count())
+			.isEqualTo(4);
+	}
+
+	static class Guarded {
+
+		@FeatureToggle(flagKey = "guarded", fallbackMessage = "off")
+		public String view() {
+			return "owners/findOwners";
+		}
+
+		@FeatureToggle(flagKey = "guarded", fallbackMessage = "off")
+		public ResponseEntity<?> api() {
+			return ResponseEntity.ok().build();
+		}
+
+		@FeatureToggle(flagKey = "guarded", fallbackMessage = "off")
+		public ModelAndView page() {
+			return new ModelAndView("owners/ownerDetails");
+		}
+
+		@FeatureToggle(flagKey = "guarded", fallbackMessage = "off")
+		public Object other() {
+			return new Object();
+		}
+
+	}
+
+}
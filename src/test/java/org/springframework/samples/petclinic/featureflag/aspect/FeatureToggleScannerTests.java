@@ -0,0 +1,87 @@
+package org.springframework.samples.petclinic.featureflag.aspect;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.samples.petclinic.featureflag.annotation.FeatureToggle;
+import org.springframework.samples.petclinic.featureflag.config.UnknownFlagProperties;
+import org.springframework.samples.petclinic.featureflag.dto.FeatureFlagDTO;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.repository.FeatureFlagRepository;
+import org.springframework.samples.petclinic.featureflag.service.FeatureFlagService;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeatureToggleScannerTests {
+
+	private final List<FeatureFlagDTO> created = new ArrayList<>();
+
+	private final FeatureFlagService flagService = new FeatureFlagService() {
+		@Override
+		public FeatureFlag createFlag(FeatureFlagDTO dto) {
+			created.add(dto);
+			return new FeatureFlag();
+		}
+	};
+
+	// Only add_new_pet exists
+	private final FeatureFlagRepository repository = (FeatureFlagRepository) Proxy.newProxyInstance(
+			FeatureFlagRepository.class.getClassLoader(), new Class<?>[] { FeatureFlagRepository.class },
+			(proxy, method, args) -> switch (method.getName()) {
+				case "findByFlagKey" ->
+					"add_new_pet".equals(args[0]) ? Optional.of(new FeatureFlag()) : Optional.empty();
+				case "hashCode" -> System.identityHashCode(proxy);
+				default -> throw new UnsupportedOperationException(method.getName());
+			});
+
+	private FeatureToggleScanner scanner(UnknownFlagProperties properties) {
+		GenericApplicationContext context = new GenericApplicationContext();
+		context.registerBean(Guarded.class);
+		context.refresh();
+		return new FeatureToggleScanner(context, repository, flagService, properties);
+	}
+
+	@Test
+	void shouldCreateDisabledPlaceholdersForMissingKeys() {
+		assertThat(scanner(new UnknownFlagProperties()).scan()).containsOnlyKeys("add_new_pte");
+
+		assertThat(created).singleElement().satisfies(dto -> {
+			assertThat(dto.getFlagKey()).isEqualTo("add_new_pte");
+			assertThat(dto.getEnabled()).isFalse();
+			assertThat(dto.getEnvironment()).isEqualTo(FeatureToggleAspect.ENVIRONMENT);
+			assertThat(dto.getDescription()).contains("Guarded.typo");
+		});
+	}
+
+	@Test
+	void shouldOnlyReportMissingKeysWithoutPlaceholders() {
+		UnknownFlagProperties properties = new UnknownFlagProperties();
+		properties.setCreatePlaceholders(false);
+
+		assertThat(scanner(properties).scan()).containsEntry("add_new_pte", List.of("Guarded.typo"));
+		assertThat(created).isEmpty();
+	}
+
+	static class Guarded {
+
+		@FeatureToggle(flagKey = "add_new_pet")
+		public String addPet() {
+			return "pets/createOrUpdatePetForm";
+		}
+
+		@FeatureToggle(flagKey = "add_new_pte")
+		public String typo() {
+			return "pets/createOrUpdatePetForm";
+		}
+
+		public String unguarded() {
+			return "owners/findOwners";
+		}
+
+	}
+
+}
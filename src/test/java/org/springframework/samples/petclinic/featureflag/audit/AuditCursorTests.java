@@ -0,0 +1,38 @@
+package org.springframework.samples.petclinic.featureflag.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.featureflag.exception.InvalidAuditCursorException;
+import org.springframework.samples.petclinic.featureflag.model.FlagAudit;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditCursorTests {
+
+	@Test
+	void shouldRoundTripLastEntryOfPage() {
+		FlagAudit audit = new FlagAudit();
+		audit.setId(42L);
+		audit.setTimestamp(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000));
+
+		String token = AuditCursor.of(audit).encode();
+
+		assertThat(token).doesNotContain("=", "+", "/");
+		assertThat(AuditCursor.decode(token)).isEqualTo(new AuditCursor(audit.getTimestamp(), 42L));
+	}
+
+	@Test
+	void shouldTreatMissingCursorAsFirstPage() {
+		assertThat(AuditCursor.decode(null)).isNull();
+		assertThat(AuditCursor.decode(" ")).isNull();
+	}
+
+	@Test
+	void shouldRejectMalformedCursor() {
+		assertThatThrownBy(() -> AuditCursor.decode("not-a-cursor")).isInstanceOf(InvalidAuditCursorException.class);
+		assertThatThrownBy(() -> AuditCursor.decode("%%%")).isInstanceOf(InvalidAuditCursorException.class);
+	}
+
+}
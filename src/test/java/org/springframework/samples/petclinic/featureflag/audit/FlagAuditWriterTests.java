@@ -0,0 +1,110 @@
+package org.springframework.samples.petclinic.featureflag.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.featureflag.config.FlagAuditProperties;
+import org.springframework.samples.petclinic.featureflag.model.FlagAudit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlagAuditWriterTests {
+
+	private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+	private final List<String> outbox = new ArrayList<>();
+
+	private final JdbcFlagAuditStore store = new JdbcFlagAuditStore(null, null) {
+		@Override
+		public void insert(List<FlagAudit> audits) {
+			batches.add(audits.stream().map(FlagAudit::getFlagKey).toList());
+		}
+
+		@Override
+		public void insertOutbox(FlagAudit audit) {
+			outbox.add(audit.getFlagKey());
+		}
+
+		@Override
+		public int drainOutbox(int batchSize) {
+			return 0;
+		}
+	};
+
+	private final FlagAuditProperties properties = new FlagAuditProperties();
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void shouldWriteQueuedEntriesInBatchesOnStop() {
+		properties.setBatchSize(2);
+		properties.setFlushInterval(Duration.ofMinutes(1));
+		FlagAuditWriter writer = new FlagAuditWriter(properties, store);
+
+		writer.submit(audit("a"));
+		writer.submit(audit("b"));
+		writer.submit(audit("c"));
+		assertThat(batches).isEmpty();
+		assertThat(writer.getPendingCount()).isEqualTo(3);
+
+		writer.stop();
+
+		assertThat(batches).containsExactly(List.of("a", "b"), List.of("c"));
+	}
+
+	@Test
+	void shouldWriteOnCallerThreadWhenQueueIsFull() {
+		properties.setQueueCapacity(1);
+		properties.setOfferTimeout(Duration.ZERO);
+		FlagAuditWriter writer = new FlagAuditWriter(properties, store);
+
+		writer.submit(audit("a"));
+		writer.submit(audit("b"));
+
+		assertThat(batches).containsExactly(List.of("b"));
+		assertThat(writer.getPendingCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldQueueOnlyAfterCommit() {
+		FlagAuditWriter writer = new FlagAuditWriter(properties, store);
+		TransactionSynchronizationManager.initSynchronization();
+
+		writer.submit(audit("a"));
+		assertThat(writer.getPendingCount()).isZero();
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		assertThat(writer.getPendingCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldWriteToOutboxWithinTransaction() {
+		properties.setOutbox(true);
+		FlagAuditWriter writer = new FlagAuditWriter(properties, store);
+		TransactionSynchronizationManager.initSynchronization();
+
+		writer.submit(audit("a"));
+
+		assertThat(outbox).containsExactly("a");
+		assertThat(writer.getPendingCount()).isZero();
+	}
+
+	private static FlagAudit audit(String flagKey) {
+		FlagAudit audit = new FlagAudit();
+		audit.setFlagKey(flagKey);
+		audit.setAction("UPDATE");
+		return audit;
+	}
+
+}
@@ -0,0 +1,64 @@
+package org.springframework.samples.petclinic.featureflag.cluster;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InProcessInvalidationTransportTests {
+
+	private final InProcessInvalidationTransport transport = new InProcessInvalidationTransport();
+
+	private final List<FlagInvalidation> received = new ArrayList<>();
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void shouldDeliverImmediatelyOutsideTransaction() {
+		transport.subscribe(received::add);
+
+		transport.publish(invalidation());
+
+		assertThat(received).hasSize(1);
+	}
+
+	@Test
+	void shouldDeliverOnlyAfterCommit() {
+		transport.subscribe(received::add);
+		TransactionSynchronizationManager.initSynchronization();
+
+		transport.publish(invalidation());
+		assertThat(received).isEmpty();
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		assertThat(received).hasSize(1);
+	}
+
+	@Test
+	void shouldNotDeliverRolledBackChanges() {
+		transport.subscribe(received::add);
+		TransactionSynchronizationManager.initSynchronization();
+
+		transport.publish(invalidation());
+		TransactionSynchronizationManager.getSynchronizations()
+			.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+		assertThat(received).isEmpty();
+	}
+
+	private FlagInvalidation invalidation() {
+		return new FlagInvalidation("node-a", "add_new_pet", "TOGGLE", Set.of("development"), 1);
+	}
+
+}
@@ -0,0 +1,161 @@
+package org.springframework.samples.petclinic.featureflag.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.samples.petclinic.featureflag.config.FlagMetricsProperties;
+import org.springframework.samples.petclinic.featureflag.config.UnknownFlagProperties;
+import org.springframework.samples.petclinic.featureflag.dto.VariantEvaluationResponse;
+import org.springframework.samples.petclinic.featureflag.engine.FlagCompiler;
+import org.springframework.samples.petclinic.featureflag.engine.FlagSnapshotRegistry;
+import org.springframework.samples.petclinic.featureflag.event.FlagChangeBroadcaster;
+import org.springframework.samples.petclinic.featureflag.exposure.FlagExposureRecorder;
+import org.springframework.samples.petclinic.featureflag.metrics.FlagEvaluationMetrics;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.samples.petclinic.featureflag.security.AdminSession;
+import org.springframework.samples.petclinic.featureflag.service.FeatureFlagEvaluator;
+import org.springframework.samples.petclinic.featureflag.service.FeatureFlagService;
+import org.springframework.samples.petclinic.featureflag.service.FlagScheduleService;
+import org.springframework.samples.petclinic.featureflag.service.UnknownFlagReporter;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for the {@link FeatureFlagController}. The service delegates evaluations to
+ * a real {@link FeatureFlagEvaluator} over a fixed snapshot.
+ */
+@WebMvcTest(FeatureFlagController.class)
+@DisabledInNativeImage
+@DisabledInAotMode
+class FeatureFlagControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockitoBean
+	private FeatureFlagService service;
+
+	@MockitoBean
+	private FlagScheduleService scheduleService;
+
+	@MockitoBean
+	private FlagChangeBroadcaster broadcaster;
+
+	// Required by the admin interceptor registered in WebConfig
+	@MockitoBean
+	private AdminSession adminSession;
+
+	private final FlagSnapshotRegistry snapshots = mock(FlagSnapshotRegistry.class);
+
+	@BeforeEach
+	void setUp() {
+		FeatureFlagEvaluator evaluator = new FeatureFlagEvaluator();
+		ReflectionTestUtils.setField(evaluator, "snapshots", snapshots);
+		ReflectionTestUtils.setField(evaluator, "metrics", new FlagEvaluationMetrics(
+				new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class), new FlagMetricsProperties()));
+		ReflectionTestUtils.setField(evaluator, "exposures", mock(FlagExposureRecorder.class));
+		ReflectionTestUtils.setField(evaluator, "unknownFlags", new UnknownFlagReporter(new UnknownFlagProperties()));
+		given(snapshots.snapshot(anyString())).willReturn(
+				FlagCompiler.snapshot("production", 7, List.of(flag("new_search", true), flag("add_new_pet", false))));
+		given(service.evaluateAll(any(), any()))
+			.willAnswer(invocation -> evaluator.evaluateAll(invocation.getArgument(0), invocation.getArgument(1)));
+	}
+
+	private static FeatureFlag flag(String flagKey, boolean enabled) {
+		FeatureFlag flag = new FeatureFlag();
+		flag.setFlagKey(flagKey);
+		flag.setEnvironment("production");
+		flag.setEnabled(enabled);
+		flag.setStrategyType(StrategyType.BOOLEAN);
+		flag.setStrategyConfig(Map.of());
+		return flag;
+	}
+
+	@Test
+	void testEvaluateListedFlags() throws Exception {
+		mockMvc.perform(post("/api/v1/flags/evaluate").contentType(MediaType.APPLICATION_JSON).content("""
+				{"context": {"userId": "george", "environment": "production"}, "flagKeys": ["new_search"]}
+				"""))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.environment").value("production"))
+			.andExpect(jsonPath("$.version").value(7))
+			.andExpect(jsonPath("$.flags.new_search").value(true))
+			.andExpect(jsonPath("$.flags.add_new_pet").doesNotExist());
+	}
+
+	@Test
+	void testEvaluateAllFlagsWithoutKeys() throws Exception {
+		mockMvc.perform(post("/api/v1/flags/evaluate").contentType(MediaType.APPLICATION_JSON).content("""
+				{"context": {"userId": "george", "environment": "production"}}
+				"""))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.version").value(7))
+			.andExpect(jsonPath("$.flags.new_search").value(true))
+			.andExpect(jsonPath("$.flags.add_new_pet").value(false));
+	}
+
+	@Test
+	void testEvaluateUnknownFlagsAsDisabled() throws Exception {
+		mockMvc.perform(post("/api/v1/flags/evaluate").contentType(MediaType.APPLICATION_JSON).content("""
+				{"context": {"userId": "george", "environment": "production"},
+				 "flagKeys": ["new_serch", "new_search"]}
+				"""))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.flags.new_serch").value(false))
+			.andExpect(jsonPath("$.flags.new_search").value(true));
+	}
+
+	@Test
+	void testEvaluateRequiresContext() throws Exception {
+		mockMvc.perform(post("/api/v1/flags/evaluate").contentType(MediaType.APPLICATION_JSON).content("""
+				{"flagKeys": ["new_search"]}
+				""")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void testEvaluateVariant() throws Exception {
+		given(service.evaluateVariant(eq("checkout_limits"), argThat(context -> "george".equals(context.getUserId()))))
+			.willReturn(new VariantEvaluationResponse("checkout_limits", "large", Map.of("limit", 250)));
+
+		mockMvc.perform(get("/api/v1/flags/checkout_limits/variant").param("userId", "george"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.flagKey").value("checkout_limits"))
+			.andExpect(jsonPath("$.variant").value("large"))
+			.andExpect(jsonPath("$.value.limit").value(250));
+	}
+
+	@Test
+	void testEvaluateVariantWithoutVariant() throws Exception {
+		given(service.evaluateVariant(eq("checkout_limits"), any()))
+			.willReturn(new VariantEvaluationResponse("checkout_limits", null, null));
+
+		mockMvc.perform(get("/api/v1/flags/checkout_limits/variant"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.flagKey").value("checkout_limits"))
+			.andExpect(jsonPath("$.variant").isEmpty())
+			.andExpect(jsonPath("$.value").isEmpty());
+	}
+
+}
@@ -0,0 +1,37 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTests {
+
+	@Test
+	void shouldNeverRejectAddedValues() {
+		BloomFilter filter = new BloomFilter(100_000, 0.01);
+		for (int i = 0; i < 100_000; i++) {
+			filter.add("user-" + i);
+		}
+
+		for (int i = 0; i < 100_000; i++) {
+			assertThat(filter.mightContain("user-" + i)).isTrue();
+		}
+	}
+
+	@Test
+	void shouldKeepFalsePositivesNearConfiguredRate() {
+		BloomFilter filter = new BloomFilter(100_000, 0.01);
+		for (int i = 0; i < 100_000; i++) {
+			filter.add("user-" + i);
+		}
+
+		int falsePositives = 0;
+		for (int i = 0; i < 100_000; i++) {
+			if (filter.mightContain("guest-" + i)) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives).isLessThan(1_500);
+	}
+
+}
@@ -0,0 +1,253 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import tools.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class FlagCompilerTests {
+
+	private FeatureFlag flag(StrategyType type, Map<String, Object> config) {
+		FeatureFlag flag = new FeatureFlag();
+		flag.setFlagKey("new_search");
+		flag.setEnabled(true);
+		flag.setStrategyType(type);
+		flag.setStrategyConfig(config);
+		return flag;
+	}
+
+	private FlagContext visitor(String userId, String ipAddress) {
+		return FlagContext.builder().userId(userId).ipAddress(ipAddress).environment("development").build();
+	}
+
+	private FlagContext user(String userId) {
+		return FlagContext.builder().userId(userId).environment("development").build();
+	}
+
+	@Test
+	void shouldNotEnableDisabledFlag() {
+		FeatureFlag flag = flag(StrategyType.BOOLEAN, Map.of());
+		flag.setEnabled(false);
+
+		assertThat(FlagCompiler.compile(flag).evaluate(user("george"))).isFalse();
+	}
+
+	@Test
+	void shouldEnableUsersInRolloutBucketsBelowPercentage() {
+		CompiledFlag compiled = FlagCompiler.compile(flag(StrategyType.PERCENTAGE, Map.of("percentage", 12.5)));
+		long seed = RolloutBuckets.seed("new_search");
+
+		for (int i = 0; i < 1000; i++) {
+			String userId = "user-" + i;
+			boolean expected = RolloutBuckets.bucket(seed, userId) < 1250;
+			assertThat(compiled.evaluate(user(userId))).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	void shouldUseConfiguredSaltForPercentage() {
+		CompiledFlag salted = FlagCompiler
+			.compile(flag(StrategyType.PERCENTAGE, Map.of("percentage", "30", "salt", "checkout-2024")));
+		long seed = RolloutBuckets.seed("checkout-2024");
+
+		for (int i = 0; i < 1000; i++) {
+			String userId = "user-" + i;
+			assertThat(salted.evaluate(user(userId))).isEqualTo(RolloutBuckets.bucket(seed, userId) < 3000);
+		}
+	}
+
+	@Test
+	void shouldNeverDisableEnabledUsersWhenPercentageGrows() {
+		CompiledFlag previous = FlagCompiler.compile(flag(StrategyType.PERCENTAGE, Map.of("percentage", 0.01)));
+		for (double percentage : new double[] { 1, 5, 20, 50, 99.99 }) {
+			CompiledFlag next = FlagCompiler.compile(flag(StrategyType.PERCENTAGE, Map.of("percentage", percentage)));
+			for (int i = 0; i < 10_000; i++) {
+				FlagContext context = user("user-" + i);
+				if (previous.evaluate(context)) {
+					assertThat(next.evaluate(context)).as("user-%d at %s%%", i, percentage).isTrue();
+				}
+			}
+			previous = next;
+		}
+	}
+
+	@Test
+	void shouldMatchWhitelistOnUserIdOrIpAddress() {
+		CompiledFlag compiled = FlagCompiler
+			.compile(flag(StrategyType.WHITELIST, Map.of("whitelist", List.of("george", "10.0.0.1"))));
+
+		assertThat(compiled.evaluate(user("george"))).isTrue();
+		assertThat(compiled.evaluate(FlagContext.builder().ipAddress("10.0.0.1").build())).isTrue();
+		assertThat(compiled.evaluate(user("betty"))).isFalse();
+		assertThat(compiled.evaluate(FlagContext.builder().build())).isFalse();
+	}
+
+	@Test
+	void shouldExcludeBlacklistedUsers() {
+		CompiledFlag compiled = FlagCompiler
+			.compile(flag(StrategyType.BLACKLIST, Map.of("blacklist", List.of("george"))));
+
+		assertThat(compiled.evaluate(user("george"))).isFalse();
+		assertThat(compiled.evaluate(user("betty"))).isTrue();
+	}
+
+	@Test
+	void shouldRequireAllUserAttributes() {
+		CompiledFlag compiled = FlagCompiler
+			.compile(flag(StrategyType.USER_ATTRIBUTE, Map.of("attributes", Map.of("plan", "pro", "country", "US"))));
+
+		assertThat(compiled.evaluate(FlagContext.builder().attributes(Map.of("plan", "pro", "country", "US")).build()))
+			.isTrue();
+		assertThat(compiled.evaluate(FlagContext.builder().attributes(Map.of("plan", "pro")).build())).isFalse();
+		assertThat(compiled.evaluate(user("george"))).isFalse();
+	}
+
+	@Test
+	void shouldCombineAttributesWithRule() {
+		CompiledFlag compiled = FlagCompiler.compile(flag(StrategyType.USER_ATTRIBUTE,
+				Map.of("attributes", Map.of("plan", "pro"), "rule", "appVersion >= semver(\"2.0.0\")")));
+
+		assertThat(compiled
+			.evaluate(FlagContext.builder().attributes(Map.of("plan", "pro", "appVersion", "2.1.0")).build())).isTrue();
+		assertThat(compiled
+			.evaluate(FlagContext.builder().attributes(Map.of("plan", "pro", "appVersion", "1.9.9")).build()))
+			.isFalse();
+		assertThat(compiled.evaluate(FlagContext.builder().attributes(Map.of("appVersion", "2.1.0")).build()))
+			.isFalse();
+		assertThat(compiled.evaluate(user("george"))).isFalse();
+	}
+
+	@Test
+	void shouldRejectInvalidRuleOnValidate() {
+		Map<String, Object> config = Map.of("rule", "plan == ");
+
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> FlagCompiler.validate("new_search", StrategyType.USER_ATTRIBUTE, config));
+		assertThat(FlagCompiler.compile(flag(StrategyType.USER_ATTRIBUTE, config)).evaluate(user("george"))).isFalse();
+	}
+
+	@Test
+	void shouldAllocateVariantsByWeight() {
+		CompiledFlag compiled = FlagCompiler.compile(flag(StrategyType.VARIANT,
+				Map.of("variants",
+						List.of(Map.of("name", "control", "weight", 50, "value", "blue"),
+								Map.of("name", "treatment", "weight", 30, "value", "green"),
+								Map.of("name", "holdout", "weight", 20)))));
+		Map<String, Integer> counts = new HashMap<>();
+
+		for (int i = 0; i < 10_000; i++) {
+			FlagVariant variant = compiled.variant(user("user-" + i));
+			counts.merge(variant.getName(), 1, Integer::sum);
+			assertThat(compiled.variant(user("user-" + i))).isSameAs(variant);
+		}
+
+		assertThat(counts.get("control")).isBetween(4_800, 5_200);
+		assertThat(counts.get("treatment")).isBetween(2_800, 3_200);
+		assertThat(counts.get("holdout")).isBetween(1_800, 2_200);
+		assertThat(compiled.evaluate(user("george"))).isTrue();
+		assertThat(compiled.variant(FlagContext.builder().build())).isNull();
+	}
+
+	@Test
+	void shouldPreParseVariantPayloads() {
+		FeatureFlag flag = flag(StrategyType.VARIANT,
+				Map.of("defaultVariant", "small", "variants",
+						List.of(Map.of("name", "small", "weight", 0, "value", Map.of("limit", 10, "label", "Small")),
+								Map.of("name", "large", "weight", 1, "value", 250))));
+		CompiledFlag compiled = FlagCompiler.compile(flag);
+
+		FlagVariant large = compiled.variant(user("george"));
+		assertThat(large.getName()).isEqualTo("large");
+		assertThat(large.getValue(Integer.class)).isEqualTo(250);
+		assertThat(large.getValue(Long.class)).isEqualTo(250L).isSameAs(large.getValue(Long.class));
+
+		FlagVariant small = compiled.variant(FlagContext.builder().build());
+		assertThat(small.getValue()).isInstanceOf(JsonNode.class);
+		assertThat(small.getValue(Map.class)).containsEntry("limit", 10).containsEntry("label", "Small");
+
+		flag.setEnabled(false);
+		assertThat(FlagCompiler.compile(flag).variant(user("george")).getName()).isEqualTo("small");
+		assertThat(FlagCompiler.compile(flag(StrategyType.BOOLEAN, Map.of())).variant(user("george"))).isNull();
+	}
+
+	@Test
+	void shouldRejectInvalidVariants() {
+		List<Map<String, Object>> invalid = List.of(Map.of(), Map.of("variants", List.of()),
+				Map.of("variants", List.of(Map.of("weight", 1))),
+				Map.of("variants", List.of(Map.of("name", "a"), Map.of("name", "a"))),
+				Map.of("variants", List.of(Map.of("name", "a", "weight", -1))),
+				Map.of("variants", List.of(Map.of("name", "a", "weight", 0))),
+				Map.of("variants", List.of(Map.of("name", "a")), "defaultVariant", "b"));
+
+		for (Map<String, Object> config : invalid) {
+			assertThatIllegalArgumentException()
+				.isThrownBy(() -> FlagCompiler.validate("new_search", StrategyType.VARIANT, config));
+			assertThat(FlagCompiler.compile(flag(StrategyType.VARIANT, config)).variant(user("george"))).isNull();
+		}
+	}
+
+	@Test
+	void shouldMatchCidrRangesInTargetLists() {
+		CompiledFlag whitelist = FlagCompiler.compile(
+				flag(StrategyType.WHITELIST, Map.of("whitelist", List.of("george", "10.0.0.0/8", "2001:db8::/32"))));
+		CompiledFlag blacklist = FlagCompiler
+			.compile(flag(StrategyType.BLACKLIST, Map.of("blacklist", List.of("192.168.0.0/16"))));
+
+		assertThat(whitelist.evaluate(visitor(null, "10.20.30.40"))).isTrue();
+		assertThat(whitelist.evaluate(visitor(null, "2001:db8::7"))).isTrue();
+		assertThat(whitelist.evaluate(visitor("george", "127.0.0.1"))).isTrue();
+		assertThat(whitelist.evaluate(visitor("betty", "11.0.0.1"))).isFalse();
+		assertThat(blacklist.evaluate(visitor("betty", "192.168.44.1"))).isFalse();
+		assertThat(blacklist.evaluate(visitor("betty", "10.0.0.1"))).isTrue();
+	}
+
+	@Test
+	void shouldMatchLargeWhitelistBehindBloomFilter() {
+		List<String> userIds = new ArrayList<>();
+		for (int i = 0; i < FlagCompiler.BLOOM_FILTER_THRESHOLD; i++) {
+			userIds.add("user-" + i);
+		}
+		CompiledFlag compiled = FlagCompiler.compile(flag(StrategyType.WHITELIST, Map.of("whitelist", userIds)));
+
+		for (int i = 0; i < FlagCompiler.BLOOM_FILTER_THRESHOLD; i += 997) {
+			assertThat(compiled.evaluate(user("user-" + i))).isTrue();
+		}
+		assertThat(compiled.evaluate(user("guest"))).isFalse();
+	}
+
+	@Test
+	void shouldCompileInvalidCidrToDisabled() {
+		CompiledFlag compiled = FlagCompiler
+			.compile(flag(StrategyType.WHITELIST, Map.of("whitelist", List.of("george", "10.0.0.0/40"))));
+
+		assertThat(compiled.evaluate(user("george"))).isFalse();
+	}
+
+	@Test
+	void shouldCompileMalformedConfigurationToDisabled() {
+		CompiledFlag compiled = FlagCompiler.compile(flag(StrategyType.PERCENTAGE, Map.of("percentage", "half")));
+
+		assertThat(compiled.evaluate(user("george"))).isFalse();
+	}
+
+	@Test
+	void shouldIndexSnapshotByFlagKey() {
+		FlagSnapshot snapshot = FlagCompiler.snapshot("development", 1,
+				List.of(flag(StrategyType.KILL_SWITCH, Map.of())));
+
+		assertThat(snapshot.get("new_search")).isNotNull();
+		assertThat(snapshot.get("new_search").evaluate(user("george"))).isFalse();
+		assertThat(snapshot.get("missing")).isNull();
+		assertThat(snapshot.get(null)).isNull();
+	}
+
+}
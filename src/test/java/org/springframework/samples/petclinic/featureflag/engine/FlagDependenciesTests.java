@@ -0,0 +1,121 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class FlagDependenciesTests {
+
+	private FeatureFlag flag(String flagKey, boolean enabled, StrategyType type, Map<String, Object> config) {
+		FeatureFlag flag = new FeatureFlag();
+		flag.setFlagKey(flagKey);
+		flag.setEnvironment("development");
+		flag.setEnabled(enabled);
+		flag.setStrategyType(type);
+		flag.setStrategyConfig(config);
+		return flag;
+	}
+
+	private FlagContext user(String userId) {
+		return FlagContext.builder().userId(userId).environment("development").build();
+	}
+
+	@Test
+	void shouldOnlyEnableFlagWhenPrerequisitesAreOn() {
+		FeatureFlag checkout = flag("new_checkout", true, StrategyType.BOOLEAN,
+				Map.of("prerequisites", List.of("payments")));
+
+		FlagSnapshot off = FlagCompiler.snapshot("development", 1,
+				List.of(checkout, flag("payments", false, StrategyType.BOOLEAN, Map.of())));
+		FlagSnapshot on = FlagCompiler.snapshot("development", 2,
+				List.of(checkout, flag("payments", true, StrategyType.BOOLEAN, Map.of())));
+		FlagSnapshot missing = FlagCompiler.snapshot("development", 3, List.of(checkout));
+
+		assertThat(off.get("new_checkout").evaluate(user("george"))).isFalse();
+		assertThat(on.get("new_checkout").evaluate(user("george"))).isTrue();
+		assertThat(missing.get("new_checkout").evaluate(user("george"))).isFalse();
+	}
+
+	@Test
+	void shouldRequireServedVariantOfVariantPrerequisite() {
+		FeatureFlag layout = flag("layout", true, StrategyType.VARIANT, Map.of("variants",
+				List.of(Map.of("name", "control", "weight", 1), Map.of("name", "grid", "weight", 1))));
+		FeatureFlag filters = flag("grid_filters", true, StrategyType.BOOLEAN,
+				Map.of("prerequisites", List.of(Map.of("flag", "layout", "variant", "grid"))));
+		FlagSnapshot snapshot = FlagCompiler.snapshot("development", 1, List.of(filters, layout));
+
+		int matched = 0;
+		for (int i = 0; i < 200; i++) {
+			FlagContext context = user("user-" + i);
+			boolean grid = snapshot.get("layout").variant(context).getName().equals("grid");
+			assertThat(snapshot.get("grid_filters").evaluate(context)).isEqualTo(grid);
+			if (grid) {
+				matched++;
+			}
+		}
+		assertThat(matched).isBetween(1, 199);
+	}
+
+	@Test
+	void shouldOrderPrerequisitesBeforeDependentsAndShareMemo() {
+		FlagSnapshot snapshot = FlagCompiler.snapshot("development", 1,
+				List.of(flag("c", true, StrategyType.BOOLEAN, Map.of("prerequisites", List.of("a", "b"))),
+						flag("b", true, StrategyType.BOOLEAN, Map.of("prerequisites", List.of("a"))),
+						flag("a", true, StrategyType.BOOLEAN, Map.of())));
+
+		assertThat(snapshot.getEvaluationOrder()).extracting(CompiledFlag::getFlagKey).containsExactly("a", "b", "c");
+
+		EvaluationMemo memo = new EvaluationMemo();
+		for (CompiledFlag flag : snapshot.getEvaluationOrder()) {
+			assertThat(flag.evaluate(user("george"), memo)).isTrue();
+		}
+		assertThat(memo.result(snapshot.get("a").index)).isTrue();
+		assertThat(memo.result(snapshot.get("b").index)).isTrue();
+		// Nothing depends on c, so its result is not kept
+		assertThat(memo.result(snapshot.get("c").index)).isNull();
+	}
+
+	@Test
+	void shouldEvaluateFlagsOnOrBehindCycleToFalse() {
+		FlagSnapshot snapshot = FlagCompiler.snapshot("development", 1,
+				List.of(flag("a", true, StrategyType.BOOLEAN, Map.of("prerequisites", List.of("b"))),
+						flag("b", true, StrategyType.BOOLEAN, Map.of("prerequisites", List.of("a"))),
+						flag("c", true, StrategyType.BOOLEAN, Map.of("prerequisites", List.of("a"))),
+						flag("d", true, StrategyType.BOOLEAN, Map.of())));
+
+		assertThat(snapshot.getEvaluationOrder()).hasSize(4);
+		assertThat(snapshot.get("a").evaluate(user("george"))).isFalse();
+		assertThat(snapshot.get("b").evaluate(user("george"))).isFalse();
+		assertThat(snapshot.get("c").evaluate(user("george"))).isFalse();
+		assertThat(snapshot.get("d").evaluate(user("george"))).isTrue();
+	}
+
+	@Test
+	void shouldFindPrerequisiteCycles() {
+		assertThat(FlagDependencies.findCycle(Map.of("a", List.of("b"), "b", List.of("c"), "c", List.of()))).isEmpty();
+		assertThat(FlagDependencies.findCycle(Map.of("a", List.of("a")))).containsExactly("a", "a");
+
+		List<String> cycle = FlagDependencies
+			.findCycle(Map.of("a", List.of("b"), "b", List.of("c"), "c", List.of("a"), "d", List.of("a")));
+		assertThat(cycle).hasSize(4).containsOnly("a", "b", "c");
+		assertThat(cycle.get(0)).isEqualTo(cycle.get(3));
+	}
+
+	@Test
+	void shouldRejectMalformedPrerequisites() {
+		assertThatIllegalArgumentException()
+			.isThrownBy(() -> FlagDependencies.prerequisiteKeys(Map.of("prerequisites", "payments")));
+		assertThatIllegalArgumentException().isThrownBy(
+				() -> FlagDependencies.prerequisiteKeys(Map.of("prerequisites", List.of(Map.of("variant", "x")))));
+		assertThat(FlagDependencies.prerequisiteKeys(Map.of("prerequisites", List.of("a", Map.of("flag", "b")))))
+			.containsExactly("a", "b");
+	}
+
+}
@@ -0,0 +1,172 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.samples.petclinic.featureflag.config.FeatureFlagCacheProperties;
+import org.springframework.samples.petclinic.featureflag.config.FlagSnapshotFileProperties;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.samples.petclinic.featureflag.repository.FeatureFlagRepository;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlagSnapshotFileStoreTests {
+
+	@TempDir
+	Path directory;
+
+	private FlagSnapshotFileStore store;
+
+	@AfterEach
+	void closeStore() {
+		if (store != null) {
+			store.close();
+		}
+	}
+
+	private FlagSnapshotFileStore store() {
+		FlagSnapshotFileProperties properties = new FlagSnapshotFileProperties();
+		properties.setDirectory(directory);
+		properties.setWriteInterval(Duration.ofHours(1));
+		store = new FlagSnapshotFileStore(properties, JsonMapper.shared());
+		return store;
+	}
+
+	private FeatureFlag flag(String flagKey, boolean enabled, StrategyType type, Map<String, Object> config) {
+		FeatureFlag flag = new FeatureFlag();
+		flag.setFlagKey(flagKey);
+		flag.setEnvironment("production");
+		flag.setEnabled(enabled);
+		flag.setStrategyType(type);
+		flag.setStrategyConfig(config);
+		return flag;
+	}
+
+	private FeatureFlagRepository repository(Supplier<List<FeatureFlag>> flags) {
+		return (FeatureFlagRepository) Proxy.newProxyInstance(FeatureFlagRepository.class.getClassLoader(),
+				new Class<?>[] { FeatureFlagRepository.class }, (proxy, method, args) -> switch (method.getName()) {
+					case "findByEnvironment" -> flags.get();
+					case "findDistinctEnvironments" ->
+						flags.get().stream().map(FeatureFlag::getEnvironment).distinct().toList();
+					case "hashCode" -> System.identityHashCode(proxy);
+					default -> throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	private FlagSnapshotRegistry registry(FeatureFlagRepository repository, FlagSnapshotFileStore fileStore) {
+		return new FlagSnapshotRegistry(repository, fileStore, new FeatureFlagCacheProperties(),
+				new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+	}
+
+	@Test
+	void shouldWriteStagedFlagsAtomicallyAndReadThemBack() throws Exception {
+		FlagSnapshotFileStore store = store();
+		store.stage("production", List.of(flag("new_search", true, StrategyType.PERCENTAGE, Map.of("percentage", 25)),
+				flag("add_new_pet", false, StrategyType.BOOLEAN, Map.of())));
+		store.flush();
+
+		Path file = directory.resolve("flags-production.json");
+		assertThat(file).exists();
+		try (var files = Files.list(directory)) {
+			assertThat(files).containsExactly(file);
+		}
+
+		List<FeatureFlag> flags = store.load("production");
+		assertThat(flags).extracting(FeatureFlag::getFlagKey).containsExactly("new_search", "add_new_pet");
+		assertThat(flags.get(0).getStrategyConfig()).containsEntry("percentage", 25);
+		assertThat(flags.get(1).getEnabled()).isFalse();
+		assertThat(store.loadAll()).containsOnlyKeys("production");
+		assertThat(store.load("staging")).isNull();
+	}
+
+	@Test
+	void shouldOnlyRewriteChangedFlags() throws Exception {
+		FlagSnapshotFileStore store = store();
+		List<FeatureFlag> flags = List.of(flag("new_search", true, StrategyType.BOOLEAN, Map.of()));
+		store.stage("production", flags);
+		store.flush();
+		Path file = directory.resolve("flags-production.json");
+		Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+
+		store.stage("production", flags);
+		store.flush();
+		assertThat(Files.getLastModifiedTime(file).toMillis()).isZero();
+
+		store.stage("production", List.of(flag("new_search", false, StrategyType.BOOLEAN, Map.of())));
+		store.flush();
+		assertThat(Files.getLastModifiedTime(file).toMillis()).isPositive();
+	}
+
+	@Test
+	void shouldServeSnapshotFileWhileDatabaseIsUnavailable() {
+		FlagSnapshotFileStore store = store();
+		List<FeatureFlag> stored = List.of(flag("new_search", true, StrategyType.BOOLEAN, Map.of()));
+		registry(repository(() -> stored), store).snapshot("production");
+		store.flush();
+
+		FlagSnapshotRegistry restarted = registry(repository(() -> {
+			throw new DataAccessResourceFailureException("database down");
+		}), store);
+		restarted.bootstrap();
+		FlagSnapshot snapshot = restarted.snapshot("production");
+
+		assertThat(snapshot.size()).isEqualTo(1);
+		assertThat(snapshot.get("new_search").evaluate(FlagContext.builder().environment("production").build()))
+			.isTrue();
+	}
+
+	@Test
+	void shouldKeepEnvironmentsWhoseNamesDifferOnlyInUnsafeCharactersApart() {
+		FlagSnapshotFileStore store = store();
+		store.stage("a/b", List.of(flag("new_search", true, StrategyType.BOOLEAN, Map.of())));
+		store.stage("a_b", List.of(flag("add_new_pet", true, StrategyType.BOOLEAN, Map.of())));
+		store.flush();
+
+		assertThat(FlagSnapshotFileStore.fileName("a/b")).isEqualTo("flags-a%2Fb.json");
+		assertThat(store.load("a/b")).extracting(FeatureFlag::getFlagKey).containsExactly("new_search");
+		assertThat(store.load("a_b")).extracting(FeatureFlag::getFlagKey).containsExactly("add_new_pet");
+		assertThat(store.loadAll()).containsOnlyKeys("a/b", "a_b");
+	}
+
+	@Test
+	void shouldNotWriteEmptySnapshotsOfUnknownEnvironments() throws Exception {
+		FlagSnapshotFileStore store = store();
+		store.stage("made-up", List.of());
+		store.flush();
+
+		try (var files = Files.list(directory)) {
+			assertThat(files).isEmpty();
+		}
+	}
+
+	@Test
+	void shouldForgetEnvironmentsWithoutFlags() {
+		FlagSnapshotFileStore store = store();
+		store.stage("production", List.of(flag("new_search", true, StrategyType.BOOLEAN, Map.of())));
+		store.stage("staging", List.of(flag("new_search", true, StrategyType.BOOLEAN, Map.of())));
+		store.flush();
+
+		store.retain(Set.of("production"));
+
+		assertThat(directory.resolve("flags-production.json")).exists();
+		assertThat(directory.resolve("flags-staging.json")).doesNotExist();
+		assertThat(store.loadAll()).containsOnlyKeys("production");
+	}
+
+}
@@ -0,0 +1,135 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.samples.petclinic.featureflag.config.FeatureFlagCacheProperties;
+import org.springframework.samples.petclinic.featureflag.config.FlagSnapshotFileProperties;
+import org.springframework.samples.petclinic.featureflag.event.FlagChangedEvent;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.samples.petclinic.featureflag.repository.FeatureFlagRepository;
+import org.springframework.samples.petclinic.system.CacheSpec;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class FlagSnapshotRegistryTests {
+
+	private final FeatureFlagRepository repository = mock(FeatureFlagRepository.class);
+
+	private final FlagSnapshotFileStore fileStore = fileStore();
+
+	@AfterEach
+	void closeFileStore() {
+		fileStore.close();
+	}
+
+	private static FlagSnapshotFileStore fileStore() {
+		FlagSnapshotFileProperties properties = new FlagSnapshotFileProperties();
+		properties.setEnabled(false);
+		return new FlagSnapshotFileStore(properties, JsonMapper.shared());
+	}
+
+	private FlagSnapshotRegistry registry(long maximumSize) {
+		FeatureFlagCacheProperties properties = new FeatureFlagCacheProperties();
+		properties.setSnapshots(new CacheSpec(maximumSize, null, Duration.ofMinutes(5)));
+		return new FlagSnapshotRegistry(repository, fileStore, properties,
+				new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+	}
+
+	private static FlagContext user() {
+		return FlagContext.builder().userId("george").environment("production").build();
+	}
+
+	private static FeatureFlag flag(String flagKey, String environment, boolean enabled) {
+		FeatureFlag flag = new FeatureFlag();
+		flag.setFlagKey(flagKey);
+		flag.setEnvironment(environment);
+		flag.setEnabled(enabled);
+		flag.setStrategyType(StrategyType.BOOLEAN);
+		flag.setStrategyConfig(Map.of());
+		return flag;
+	}
+
+	@Test
+	void shouldNotLetUnknownEnvironmentsEvictAKnownSnapshot() {
+		given(repository.findDistinctEnvironments()).willReturn(List.of("production"));
+		given(repository.findByEnvironment("production")).willReturn(List.of(flag("new_search", "production", true)));
+		FlagSnapshotRegistry registry = registry(2);
+		FlagSnapshot production = registry.snapshot("production");
+
+		for (int i = 0; i < 1000; i++) {
+			FlagSnapshot unknown = registry.snapshot("made-up-" + i);
+			assertThat(unknown.size()).isZero();
+			assertThat(unknown.getVersion()).isZero();
+		}
+
+		assertThat(registry.snapshot("production")).isSameAs(production);
+		verify(repository, times(1)).findByEnvironment(anyString());
+		verify(repository, times(1)).findDistinctEnvironments();
+	}
+
+	@Test
+	void shouldSwapSnapshotOnFlagChange() {
+		given(repository.findDistinctEnvironments()).willReturn(List.of("production"));
+		given(repository.findByEnvironment("production")).willReturn(List.of(flag("new_search", "production", false)),
+				List.of(flag("new_search", "production", true)));
+		FlagSnapshotRegistry registry = registry(16);
+		FlagSnapshot before = registry.snapshot("production");
+
+		registry.onFlagChanged(new FlagChangedEvent("new_search", "TOGGLE", Set.of("production"), 1, false));
+
+		FlagSnapshot after = registry.snapshot("production");
+		assertThat(after.getVersion()).isGreaterThan(before.getVersion());
+		assertThat(after.get("new_search").evaluate(user())).isTrue();
+		assertThat(before.get("new_search").evaluate(user())).isFalse();
+	}
+
+	@Test
+	void shouldKeepPreviousSnapshotWhileDatabaseIsUnavailable() {
+		given(repository.findDistinctEnvironments()).willReturn(List.of("production"));
+		given(repository.findByEnvironment("production")).willReturn(List.of(flag("new_search", "production", true)))
+			.willThrow(new DataAccessResourceFailureException("database down"));
+		FlagSnapshotRegistry registry = registry(16);
+		FlagSnapshot before = registry.snapshot("production");
+
+		registry.onFlagChanged(new FlagChangedEvent("new_search", "TOGGLE", Set.of("production"), 1, false));
+		registry.reloadAll();
+
+		assertThat(registry.snapshot("production")).isSameAs(before);
+		verify(repository, times(3)).findByEnvironment("production");
+	}
+
+	@Test
+	void shouldRefreshEveryCachedSnapshot() {
+		given(repository.findDistinctEnvironments()).willReturn(List.of("production", "development"));
+		given(repository.findByEnvironment("production")).willReturn(List.of(flag("new_search", "production", false)),
+				List.of(flag("new_search", "production", true)));
+		given(repository.findByEnvironment("development")).willReturn(List.of(flag("new_search", "development", true)));
+		FlagSnapshotRegistry registry = registry(16);
+		FlagSnapshot production = registry.snapshot("production");
+		FlagSnapshot development = registry.snapshot("development");
+
+		registry.reloadAll();
+
+		assertThat(registry.snapshot("production").getVersion()).isGreaterThan(production.getVersion());
+		assertThat(registry.snapshot("production").get("new_search").evaluate(user())).isTrue();
+		assertThat(registry.snapshot("development").getVersion()).isGreaterThan(development.getVersion());
+		verify(repository, times(2)).findByEnvironment("development");
+	}
+
+}
@@ -0,0 +1,91 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class IpPrefixTrieTests {
+
+	@Test
+	void shouldMatchIpv4AddressesAndRanges() {
+		IpPrefixTrie trie = new IpPrefixTrie();
+		assertThat(trie.add("192.168.1.10")).isTrue();
+		assertThat(trie.add("10.0.0.0/8")).isTrue();
+		assertThat(trie.add("172.16.5.77/20")).isTrue();
+
+		assertThat(trie.contains("192.168.1.10")).isTrue();
+		assertThat(trie.contains("192.168.1.11")).isFalse();
+		assertThat(trie.contains("10.255.3.4")).isTrue();
+		assertThat(trie.contains("11.0.0.1")).isFalse();
+		assertThat(trie.contains("172.16.0.1")).isTrue();
+		assertThat(trie.contains("172.16.15.255")).isTrue();
+		assertThat(trie.contains("172.16.16.0")).isFalse();
+	}
+
+	@Test
+	void shouldMatchEverythingForZeroPrefix() {
+		IpPrefixTrie trie = new IpPrefixTrie();
+		trie.add("0.0.0.0/0");
+
+		assertThat(trie.contains("8.8.8.8")).isTrue();
+		assertThat(trie.contains("::1")).isFalse();
+	}
+
+	@Test
+	void shouldMatchIpv6AddressesAndRanges() {
+		IpPrefixTrie trie = new IpPrefixTrie();
+		trie.add("2001:db8::/32");
+		trie.add("::1");
+		trie.add("fe80::1%eth0");
+
+		assertThat(trie.contains("2001:0db8:0000:0000:0000:0000:0000:0001")).isTrue();
+		assertThat(trie.contains("2001:db9::1")).isFalse();
+		assertThat(trie.contains("0:0:0:0:0:0:0:1")).isTrue();
+		assertThat(trie.contains("fe80::1")).isTrue();
+		assertThat(trie.contains("::ffff:10.0.0.1")).isFalse();
+	}
+
+	@Test
+	void shouldLeaveNonAddressEntriesToUserIds() {
+		IpPrefixTrie trie = new IpPrefixTrie();
+
+		assertThat(trie.add("george")).isFalse();
+		assertThat(trie.add("tenant:42")).isFalse();
+		assertThat(trie.add("dead:beef-user")).isFalse();
+		assertThat(trie.add("team/a")).isFalse();
+		assertThat(trie.add("1.2.3")).isFalse();
+		assertThat(trie.add("256.1.1.1")).isFalse();
+		assertThat(trie.size()).isZero();
+		assertThat(trie.contains("george")).isFalse();
+	}
+
+	@Test
+	void shouldRejectInvalidPrefixLength() {
+		IpPrefixTrie trie = new IpPrefixTrie();
+
+		assertThatIllegalArgumentException().isThrownBy(() -> trie.add("10.0.0.0/33"));
+		assertThatIllegalArgumentException().isThrownBy(() -> trie.add("2001:db8::/129"));
+		assertThatIllegalArgumentException().isThrownBy(() -> trie.add("10.0.0.0/x"));
+	}
+
+	@Test
+	void shouldParseIpv6TextForms() {
+		long[] address = new long[2];
+
+		assertThat(IpPrefixTrie.parseIpv6("::", 2, address)).isTrue();
+		assertThat(address).containsExactly(0, 0);
+		assertThat(IpPrefixTrie.parseIpv6("1::", 3, address)).isTrue();
+		assertThat(address).containsExactly(0x0001_0000_0000_0000L, 0);
+		assertThat(IpPrefixTrie.parseIpv6("::ffff:1.2.3.4", 14, address)).isTrue();
+		assertThat(address).containsExactly(0, 0x0000_ffff_0102_0304L);
+		assertThat(IpPrefixTrie.parseIpv6("1:2:3:4:5:6:7:8", 15, address)).isTrue();
+		assertThat(address).containsExactly(0x0001_0002_0003_0004L, 0x0005_0006_0007_0008L);
+
+		assertThat(IpPrefixTrie.parseIpv6("1::2::3", 7, address)).isFalse();
+		assertThat(IpPrefixTrie.parseIpv6("1:2:3:4:5:6:7:8:9", 17, address)).isFalse();
+		assertThat(IpPrefixTrie.parseIpv6("12345::", 7, address)).isFalse();
+		assertThat(IpPrefixTrie.parseIpv6("1:", 2, address)).isFalse();
+	}
+
+}
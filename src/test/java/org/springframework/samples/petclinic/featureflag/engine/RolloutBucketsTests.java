@@ -0,0 +1,80 @@
+package org.springframework.samples.petclinic.featureflag.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class RolloutBucketsTests {
+
+	private static final int SAMPLES = 1_000_000;
+
+	@Test
+	void shouldSpreadSequentialIdentifiersUniformly() {
+		// Sequential ids are the worst case for String.hashCode, which
+		// only differs in the last digits
+		long seed = RolloutBuckets.seed("owner_search");
+		int[] counts = new int[100];
+		for (int i = 0; i < SAMPLES; i++) {
+			counts[RolloutBuckets.bucket(seed, "user-" + i) / 100]++;
+		}
+
+		double expected = SAMPLES / 100.0;
+		double chiSquare = 0;
+		for (int count : counts) {
+			chiSquare += (count - expected) * (count - expected) / expected;
+		}
+		// Critical value for 99 degrees of freedom at p = 0.001
+		assertThat(chiSquare).isLessThan(148.2);
+	}
+
+	@Test
+	void shouldHitRequestedPercentageAtFineGranularity() {
+		long seed = RolloutBuckets.seed("add_new_visit");
+		int[] thresholds = { 1, 10, 100, 2500, 5000 };
+		int[] enabled = new int[thresholds.length];
+		for (int i = 0; i < SAMPLES; i++) {
+			int bucket = RolloutBuckets.bucket(seed, Integer.toHexString(i * 31 + 7));
+			for (int t = 0; t < thresholds.length; t++) {
+				if (bucket < thresholds[t]) {
+					enabled[t]++;
+				}
+			}
+		}
+
+		for (int t = 0; t < thresholds.length; t++) {
+			double p = thresholds[t] / (double) RolloutBuckets.BUCKETS;
+			double sigma = Math.sqrt(SAMPLES * p * (1 - p));
+			assertThat((double) enabled[t]).as("%.2f%%", p * 100).isCloseTo(SAMPLES * p, offset(5 * sigma));
+		}
+	}
+
+	@Test
+	void shouldBucketIndependentlyPerSalt() {
+		long first = RolloutBuckets.seed("flag_a");
+		long second = RolloutBuckets.seed("flag_b");
+		int both = 0;
+		int samples = 100_000;
+		for (int i = 0; i < samples; i++) {
+			String id = "user-" + i;
+			if (RolloutBuckets.bucket(first, id) < 5000 && RolloutBuckets.bucket(second, id) < 5000) {
+				both++;
+			}
+		}
+		// Independent 50% rollouts overlap on about a quarter of the users
+		assertThat(both / (double) samples).isBetween(0.24, 0.26);
+	}
+
+	@Test
+	void shouldBeStableAndInRange() {
+		long seed = RolloutBuckets.seed("new_search");
+		for (String id : new String[] { "", "a", "abc", "abcd", "abcde", "￿￿￿￿", "user-42" }) {
+			int bucket = RolloutBuckets.bucket(seed, id);
+			assertThat(bucket).isBetween(0, RolloutBuckets.BUCKETS - 1);
+			assertThat(RolloutBuckets.bucket(seed, new String(id.toCharArray()))).isEqualTo(bucket);
+		}
+		assertThat(RolloutBuckets.hash(seed, "ab")).isNotEqualTo(RolloutBuckets.hash(seed, "ba"));
+		assertThat(RolloutBuckets.hash(seed, "a\u0000")).isNotEqualTo(RolloutBuckets.hash(seed, "a"));
+	}
+
+}
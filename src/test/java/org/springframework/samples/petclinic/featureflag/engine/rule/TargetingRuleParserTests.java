@@ -0,0 +1,73 @@
+package org.springframework.samples.petclinic.featureflag.engine.rule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class TargetingRuleParserTests {
+
+	@Test
+	void shouldMatchStringEqualityAndLists() {
+		TargetingRule rule = TargetingRuleParser.parse("plan in ['pro', \"team\"] and country != 'DE'");
+
+		assertThat(rule.test(Map.of("plan", "team", "country", "US"))).isTrue();
+		assertThat(rule.test(Map.of("plan", "team", "country", "DE"))).isFalse();
+		assertThat(rule.test(Map.of("plan", "free", "country", "US"))).isFalse();
+		assertThat(rule.test(Map.of("country", "US"))).isFalse();
+	}
+
+	@Test
+	void shouldCompareNumbersAndRanges() {
+		TargetingRule rule = TargetingRuleParser.parse("age between 18 and 65 or score > 9.5");
+
+		assertThat(rule.test(Map.of("age", "18"))).isTrue();
+		assertThat(rule.test(Map.of("age", "65.0"))).isTrue();
+		assertThat(rule.test(Map.of("age", "66", "score", "9.75"))).isTrue();
+		assertThat(rule.test(Map.of("age", "66", "score", "9.5"))).isFalse();
+		assertThat(rule.test(Map.of("age", "adult"))).isFalse();
+		assertThat(TargetingRuleParser.parse("balance < -10").test(Map.of("balance", "-12"))).isTrue();
+	}
+
+	@Test
+	void shouldCompareSemanticVersions() {
+		TargetingRule rule = TargetingRuleParser.parse("appVersion >= semver('2.10.0')");
+
+		assertThat(rule.test(Map.of("appVersion", "2.10.0"))).isTrue();
+		assertThat(rule.test(Map.of("appVersion", "v2.10.1+build.7"))).isTrue();
+		assertThat(rule.test(Map.of("appVersion", "2.9.99"))).isFalse();
+		assertThat(rule.test(Map.of("appVersion", "2.10.0-rc.1"))).isFalse();
+		assertThat(rule.test(Map.of("appVersion", "latest"))).isFalse();
+	}
+
+	@Test
+	void shouldApplyPrecedenceAndNegation() {
+		TargetingRule rule = TargetingRuleParser
+			.parse("beta == 'true' or plan == 'pro' and not (email matches '.*@example\\\\.com')");
+
+		assertThat(rule.test(Map.of("beta", "true"))).isTrue();
+		assertThat(rule.test(Map.of("plan", "pro", "email", "jo@acme.org"))).isTrue();
+		assertThat(rule.test(Map.of("plan", "pro", "email", "jo@example.com"))).isFalse();
+		assertThat(rule.test(Map.of("plan", "pro", "email", "jo@exampleXcom"))).isTrue();
+	}
+
+	@Test
+	void shouldReportPositionOfSyntaxErrors() {
+		assertThatExceptionOfType(RuleSyntaxException.class)
+			.isThrownBy(() -> TargetingRuleParser.parse("plan == 'pro' and"))
+			.withMessageContaining("position 17");
+		assertThatExceptionOfType(RuleSyntaxException.class)
+			.isThrownBy(() -> TargetingRuleParser.parse("plan < 'pro'"));
+		assertThatExceptionOfType(RuleSyntaxException.class)
+			.isThrownBy(() -> TargetingRuleParser.parse("v >= semver('two')"));
+		assertThatExceptionOfType(RuleSyntaxException.class)
+			.isThrownBy(() -> TargetingRuleParser.parse("email matches '['"));
+		assertThatExceptionOfType(RuleSyntaxException.class)
+			.isThrownBy(() -> TargetingRuleParser.parse("plan == 'pro"));
+		assertThatExceptionOfType(RuleSyntaxException.class)
+			.isThrownBy(() -> TargetingRuleParser.parse("not ".repeat(100) + "plan == 'pro'"));
+	}
+
+}
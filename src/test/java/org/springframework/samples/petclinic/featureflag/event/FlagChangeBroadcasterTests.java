@@ -0,0 +1,124 @@
+package org.springframework.samples.petclinic.featureflag.event;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class FlagChangeBroadcasterTests {
+
+	private final FlagChangeVersions versions = mock(FlagChangeVersions.class);
+
+	private FlagChangeBroadcaster broadcaster;
+
+	@AfterEach
+	void shutdown() {
+		broadcaster.shutdown();
+	}
+
+	@Test
+	void shouldNotLetASlowSubscriberDelayTheOthers() throws Exception {
+		broadcaster = new FlagChangeBroadcaster(versions);
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingEmitter slow = new RecordingEmitter(release);
+		RecordingEmitter fast = new RecordingEmitter(null);
+		broadcaster.subscribe(slow, null);
+		broadcaster.subscribe(fast, null);
+
+		broadcaster.onFlagChanged(change(1));
+		broadcaster.onFlagChanged(change(2));
+
+		assertThat(fast.next()).isEqualTo("flag-change 1");
+		assertThat(fast.next()).isEqualTo("flag-change 2");
+		release.countDown();
+		assertThat(slow.next()).isEqualTo("flag-change 1");
+	}
+
+	@Test
+	void shouldResumeFromTheVersionOfAnotherNodeAfterARestart() throws Exception {
+		given(versions.current()).willReturn(41L);
+		broadcaster = new FlagChangeBroadcaster(versions);
+		RecordingEmitter upToDate = new RecordingEmitter(null);
+		RecordingEmitter behind = new RecordingEmitter(null);
+
+		broadcaster.subscribe(upToDate, 41L);
+		broadcaster.subscribe(behind, 40L);
+		broadcaster.onFlagChanged(change(42));
+
+		assertThat(upToDate.next()).isEqualTo("flag-change 42");
+		assertThat(behind.next()).isEqualTo("resync 41");
+	}
+
+	@Test
+	void shouldReplayOnlyWithoutGaps() throws Exception {
+		broadcaster = new FlagChangeBroadcaster(versions);
+		broadcaster.onFlagChanged(change(1));
+		broadcaster.onFlagChanged(change(2));
+		broadcaster.onFlagChanged(change(4));
+		RecordingEmitter beforeThree = new RecordingEmitter(null);
+		broadcaster.subscribe(beforeThree, 1L);
+
+		// Relayed late by another node
+		broadcaster.onFlagChanged(change(3));
+		RecordingEmitter afterThree = new RecordingEmitter(null);
+		broadcaster.subscribe(afterThree, 1L);
+
+		assertThat(beforeThree.next()).isEqualTo("resync 4");
+		assertThat(List.of(afterThree.next(), afterThree.next(), afterThree.next())).containsExactly("flag-change 2",
+				"flag-change 3", "flag-change 4");
+	}
+
+	private static FlagChangedEvent change(long version) {
+		return new FlagChangedEvent("add_new_pet", "TOGGLE", Set.of("development"), version, false);
+	}
+
+	/**
+	 * Records "name id" of every event sent, optionally blocking each write until
+	 * released.
+	 */
+	private static class RecordingEmitter extends SseEmitter {
+
+		private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+		private final CountDownLatch release;
+
+		RecordingEmitter(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			if (release != null) {
+				try {
+					release.await();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+					throw new IOException(ex);
+				}
+			}
+			String text = builder.build().stream().map(part -> part.getData().toString()).collect(Collectors.joining());
+			String id = text.replaceAll("(?s).*id:(\\d+)\n.*", "$1");
+			String name = text.replaceAll("(?s).*event:([\\w-]+)\n.*", "$1");
+			sent.add(name + " " + id);
+		}
+
+		String next() throws InterruptedException {
+			return sent.poll(5, TimeUnit.SECONDS);
+		}
+
+	}
+
+}
@@ -0,0 +1,68 @@
+package org.springframework.samples.petclinic.featureflag.exposure;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class ExposureRingBufferTests {
+
+	@Test
+	void shouldRejectWhenFullAndReuseSlotsAfterPolling() {
+		ExposureRingBuffer ring = new ExposureRingBuffer(4);
+
+		for (int i = 0; i < 4; i++) {
+			assertThat(ring.offer("flag", "development", "on", i, 1000L + i)).isTrue();
+		}
+		assertThat(ring.offer("flag", "development", "on", 4, 1004L)).isFalse();
+		assertThat(ring.size()).isEqualTo(4);
+
+		ExposureEvent first = ring.poll();
+		assertThat(first.getIdentifierHash()).isZero();
+		assertThat(first.getExposedAt().toEpochMilli()).isEqualTo(1000L);
+		assertThat(ring.offer("flag", "development", "off", 5, 1005L)).isTrue();
+
+		for (long expected : new long[] { 1, 2, 3, 5 }) {
+			assertThat(ring.poll().getIdentifierHash()).isEqualTo(expected);
+		}
+		assertThat(ring.poll()).isNull();
+		assertThatIllegalArgumentException().isThrownBy(() -> new ExposureRingBuffer(100));
+	}
+
+	@Test
+	void shouldDeliverEveryAcceptedOfferFromConcurrentProducers() throws InterruptedException {
+		ExposureRingBuffer ring = new ExposureRingBuffer(1024);
+		int producers = 4;
+		int perProducer = 50_000;
+		AtomicInteger accepted = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(producers);
+		for (int p = 0; p < producers; p++) {
+			long base = (long) p * perProducer;
+			Thread producer = new Thread(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					if (ring.offer("flag", "development", "on", base + i, 0L)) {
+						accepted.incrementAndGet();
+					}
+				}
+				done.countDown();
+			});
+			producer.start();
+		}
+
+		Set<Long> received = new HashSet<>();
+		while (done.getCount() > 0 || ring.size() > 0) {
+			ExposureEvent event = ring.poll();
+			if (event != null) {
+				assertThat(received.add(event.getIdentifierHash())).isTrue();
+			}
+		}
+
+		assertThat(received).hasSize(accepted.get());
+	}
+
+}
@@ -0,0 +1,168 @@
+package org.springframework.samples.petclinic.featureflag.exposure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.samples.petclinic.featureflag.config.FlagExposureProperties;
+import org.springframework.samples.petclinic.featureflag.engine.CompiledFlag;
+import org.springframework.samples.petclinic.featureflag.engine.FlagCompiler;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlagExposureRecorderTests {
+
+	private final InMemoryExposureSink sink = new InMemoryExposureSink();
+
+	private FlagExposureRecorder recorder(FlagExposureProperties properties) {
+		properties.setEnabled(true);
+		return new FlagExposureRecorder(properties, sink,
+				new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+	}
+
+	private CompiledFlag flag(StrategyType type) {
+		FeatureFlag flag = new FeatureFlag();
+		flag.setFlagKey("new_search");
+		flag.setEnabled(true);
+		flag.setStrategyType(type);
+		flag.setStrategyConfig(Map.of("percentage", 50));
+		return FlagCompiler.compile(flag);
+	}
+
+	private FlagContext user(String userId) {
+		return FlagContext.builder().userId(userId).environment("development").build();
+	}
+
+	@Test
+	void shouldRecordEachIdentifierOncePerWindow() {
+		FlagExposureRecorder recorder = recorder(new FlagExposureProperties());
+		CompiledFlag flag = flag(StrategyType.PERCENTAGE);
+
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < 100; i++) {
+				FlagContext context = user("user-" + i);
+				recorder.record(flag, context, flag.evaluate(context));
+			}
+		}
+		recorder.record(flag(StrategyType.BOOLEAN), user("user-1"), true);
+		recorder.record(flag, FlagContext.builder().build(), false);
+		recorder.drain();
+
+		assertThat(sink.getEvents()).hasSize(100);
+		assertThat(sink.getEvents()).extracting(ExposureEvent::getVariant).containsOnly("on", "off");
+		assertThat(sink.getEvents()).extracting(ExposureEvent::getFlagKey).containsOnly("new_search");
+	}
+
+	@Test
+	void shouldRecordEveryEvaluationWithoutWindow() {
+		FlagExposureProperties properties = new FlagExposureProperties();
+		properties.setDedupWindow(Duration.ZERO);
+		FlagExposureRecorder recorder = recorder(properties);
+		CompiledFlag flag = flag(StrategyType.PERCENTAGE);
+
+		for (int round = 0; round < 3; round++) {
+			recorder.record(flag, user("george"), true);
+		}
+		recorder.drain();
+
+		assertThat(sink.getEvents()).hasSize(3);
+	}
+
+	@Test
+	void shouldSampleByIdentifier() {
+		FlagExposureProperties properties = new FlagExposureProperties();
+		properties.setSampleRate(0.25);
+		properties.setBufferCapacity(16_384);
+		properties.setDedupWindow(Duration.ZERO);
+		FlagExposureRecorder recorder = recorder(properties);
+		CompiledFlag flag = flag(StrategyType.PERCENTAGE);
+
+		for (int i = 0; i < 10_000; i++) {
+			recorder.record(flag, user("user-" + i), true);
+		}
+		recorder.drain();
+		int sampled = sink.getEvents().size();
+		for (int i = 0; i < 10_000; i++) {
+			recorder.record(flag, user("user-" + i), true);
+		}
+		recorder.drain();
+
+		assertThat(sampled).isBetween(2_200, 2_800);
+		assertThat(sink.getEvents()).hasSize(sampled * 2);
+	}
+
+	@Test
+	void shouldDropInsteadOfBlockingWhenBufferIsFull() {
+		FlagExposureProperties properties = new FlagExposureProperties();
+		properties.setBufferCapacity(8);
+		FlagExposureRecorder recorder = recorder(properties);
+		CompiledFlag flag = flag(StrategyType.PERCENTAGE);
+
+		for (int i = 0; i < 20; i++) {
+			recorder.record(flag, user("user-" + i), true);
+		}
+
+		assertThat(recorder.getPendingCount()).isEqualTo(8);
+		recorder.drain();
+		assertThat(sink.getEvents()).hasSize(8);
+	}
+
+	@Test
+	void shouldFlushOnStop() {
+		FlagExposureRecorder recorder = recorder(new FlagExposureProperties());
+		recorder.start();
+		for (int i = 0; i < 10; i++) {
+			recorder.record(flag(StrategyType.PERCENTAGE), user("user-" + i), true);
+		}
+
+		recorder.stop();
+
+		assertThat(sink.getEvents()).hasSize(10);
+		assertThat(recorder.getPendingCount()).isZero();
+	}
+
+	@Test
+	void shouldLeaveTheRingToTheDrainThreadWhenStopTimesOut() throws Exception {
+		CountDownLatch writing = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicBoolean closed = new AtomicBoolean();
+		ExposureSink stuck = new ExposureSink() {
+			@Override
+			public void write(List<ExposureEvent> events) throws Exception {
+				writing.countDown();
+				release.await();
+			}
+
+			@Override
+			public void close() {
+				closed.set(true);
+			}
+		};
+		FlagExposureProperties properties = new FlagExposureProperties();
+		properties.setEnabled(true);
+		properties.setBatchSize(1);
+		properties.setFlushInterval(Duration.ofMillis(10));
+		FlagExposureRecorder recorder = new FlagExposureRecorder(properties, stuck,
+				new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+		recorder.start();
+		recorder.record(flag(StrategyType.PERCENTAGE), user("george"), true);
+		assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+		recorder.record(flag(StrategyType.PERCENTAGE), user("betty"), true);
+
+		recorder.stop();
+
+		assertThat(recorder.getPendingCount()).isEqualTo(1);
+		assertThat(closed).isFalse();
+		release.countDown();
+	}
+
+}
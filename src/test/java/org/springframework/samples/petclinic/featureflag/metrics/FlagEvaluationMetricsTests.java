@@ -0,0 +1,95 @@
+package org.springframework.samples.petclinic.featureflag.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.samples.petclinic.featureflag.config.FlagMetricsProperties;
+import org.springframework.samples.petclinic.featureflag.engine.CompiledFlag;
+import org.springframework.samples.petclinic.featureflag.engine.FlagCompiler;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlagEvaluationMetricsTests {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	private FlagEvaluationMetrics metrics(int latencySampleInterval, MeterRegistry meterRegistry) {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		if (meterRegistry != null) {
+			beanFactory.registerSingleton("meterRegistry", meterRegistry);
+		}
+		FlagMetricsProperties properties = new FlagMetricsProperties();
+		properties.setLatencySampleInterval(latencySampleInterval);
+		return new FlagEvaluationMetrics(beanFactory.getBeanProvider(MeterRegistry.class), properties);
+	}
+
+	private CompiledFlag flag(String flagKey) {
+		FeatureFlag flag = new FeatureFlag();
+		flag.setFlagKey(flagKey);
+		flag.setEnabled(true);
+		flag.setStrategyType(StrategyType.USER_ATTRIBUTE);
+		flag.setStrategyConfig(Map.of("attributes", Map.of("plan", "pro")));
+		return FlagCompiler.compile(flag);
+	}
+
+	private double evaluations(String flagKey, String result) {
+		return registry.get(FlagEvaluationMetrics.EVALUATIONS)
+			.tags("flag", flagKey, "environment", "development", "result", result)
+			.functionCounter()
+			.count();
+	}
+
+	@Test
+	void shouldCountEvaluationsPerFlagAndResult() {
+		FlagEvaluationMetrics metrics = metrics(0, registry);
+		CompiledFlag search = flag("new_search");
+		FlagContext pro = FlagContext.builder().attributes(Map.of("plan", "pro")).build();
+		FlagContext free = FlagContext.builder().attributes(Map.of("plan", "free")).build();
+
+		for (int i = 0; i < 3; i++) {
+			metrics.recordEvaluation(search, search.evaluate(pro), -1L);
+		}
+		metrics.recordEvaluation(search, search.evaluate(free), -1L);
+		metrics.recordEvaluation(flag("dark_mode"), false, -1L);
+		metrics.recordNotFound();
+
+		assertThat(evaluations("new_search", "true")).isEqualTo(3);
+		assertThat(evaluations("new_search", "false")).isEqualTo(1);
+		assertThat(evaluations("dark_mode", "false")).isEqualTo(1);
+		assertThat(registry.get(FlagEvaluationMetrics.NOT_FOUND).functionCounter().count()).isEqualTo(1);
+		assertThat(registry.find(FlagEvaluationMetrics.EVALUATION_LATENCY).timer()).isNull();
+		assertThat(metrics.sampleLatency()).isFalse();
+	}
+
+	@Test
+	void shouldRecordSampledLatency() {
+		FlagEvaluationMetrics metrics = metrics(1, registry);
+		CompiledFlag search = flag("new_search");
+
+		assertThat(metrics.sampleLatency()).isTrue();
+		metrics.recordEvaluation(search, true, TimeUnit.MICROSECONDS.toNanos(3));
+		metrics.recordEvaluation(search, true, -1L);
+
+		assertThat(registry.get(FlagEvaluationMetrics.EVALUATION_LATENCY).tag("flag", "new_search").timer().count())
+			.isEqualTo(1);
+		assertThat(evaluations("new_search", "true")).isEqualTo(2);
+	}
+
+	@Test
+	void shouldSkipRecordingWithoutMeterRegistry() {
+		FlagEvaluationMetrics metrics = metrics(1, null);
+
+		assertThat(metrics.sampleLatency()).isFalse();
+		metrics.recordEvaluation(flag("new_search"), true, 10);
+		metrics.recordBlocked("development", "new_search");
+		metrics.recordNotFound();
+	}
+
+}
@@ -0,0 +1,71 @@
+package org.springframework.samples.petclinic.featureflag.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.samples.petclinic.featureflag.config.FlagScheduleProperties;
+import org.springframework.samples.petclinic.featureflag.exception.FeatureFlagNotFoundException;
+import org.springframework.samples.petclinic.featureflag.service.FlagScheduleService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlagSchedulerTests {
+
+	private final List<String> calls = new ArrayList<>();
+
+	// Schedule 1 is leased by another node, 2 runs, 3 was taken
+	// over, 4 refers to a deleted flag
+	private final FlagScheduleService schedules = new FlagScheduleService() {
+		@Override
+		public List<Long> findDue(LocalDateTime now, int limit) {
+			return List.of(1L, 2L, 3L, 4L);
+		}
+
+		@Override
+		public boolean claim(Long id, String owner, LocalDateTime now, Duration lease) {
+			return !Set.of(1L).contains(id);
+		}
+
+		@Override
+		public void runStep(Long id, String owner) {
+			if (id == 3L) {
+				throw new OptimisticLockingFailureException("version changed");
+			}
+			if (id == 4L) {
+				throw new FeatureFlagNotFoundException("Flag not found: gone");
+			}
+			calls.add("run " + id);
+		}
+
+		@Override
+		public void fail(Long id, String owner, String error) {
+			calls.add("fail " + id + ": " + error);
+		}
+	};
+
+	@Test
+	void shouldOnlyRunClaimedSchedulesAndFailBrokenOnes() {
+		FlagScheduler scheduler = new FlagScheduler(new FlagScheduleProperties(), schedules);
+
+		assertThat(scheduler.runDue()).isEqualTo(4);
+		assertThat(calls).containsExactly("run 2", "fail 4: Flag not found: gone");
+	}
+
+	@Test
+	void shouldNotStartWhenDisabled() {
+		FlagScheduleProperties properties = new FlagScheduleProperties();
+		properties.setEnabled(false);
+		FlagScheduler scheduler = new FlagScheduler(properties, schedules);
+
+		scheduler.start();
+
+		assertThat(scheduler.isRunning()).isFalse();
+		assertThat(calls).isEmpty();
+	}
+
+}
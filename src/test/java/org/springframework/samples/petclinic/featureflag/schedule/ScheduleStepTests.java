@@ -0,0 +1,78 @@
+package org.springframework.samples.petclinic.featureflag.schedule;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.featureflag.model.FlagSchedule;
+import org.springframework.samples.petclinic.featureflag.model.ScheduleAction;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScheduleStepTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+	private FlagSchedule ramp(double from, double to, int steps) {
+		FlagSchedule schedule = new FlagSchedule();
+		schedule.setFlagKey("new_search");
+		schedule.setAction(ScheduleAction.RAMP);
+		schedule.setRunAt(START);
+		schedule.setEndAt(START.plusHours(10));
+		schedule.setFromPercentage(from);
+		schedule.setToPercentage(to);
+		schedule.setSteps(steps);
+		return schedule;
+	}
+
+	@Test
+	void shouldEnableOrDisableOnce() {
+		FlagSchedule schedule = new FlagSchedule();
+		schedule.setAction(ScheduleAction.DISABLE);
+		schedule.setRunAt(START);
+
+		ScheduleStep step = ScheduleStep.due(schedule, START.plusMinutes(1));
+
+		assertThat(step.getEnabled()).isFalse();
+		assertThat(step.getPercentage()).isNull();
+		assertThat(step.getNextRunAt()).isNull();
+	}
+
+	@Test
+	void shouldRampInEqualSteps() {
+		FlagSchedule schedule = ramp(10, 50, 4);
+
+		ScheduleStep first = ScheduleStep.due(schedule, START);
+		assertThat(first.getIndex()).isZero();
+		assertThat(first.getEnabled()).isTrue();
+		assertThat(first.getPercentage()).isEqualTo(10.0);
+		assertThat(first.getNextRunAt()).isEqualTo(START.plusMinutes(150));
+
+		schedule.setCompletedSteps(1);
+		ScheduleStep second = ScheduleStep.due(schedule, START.plusMinutes(150));
+		assertThat(second.getIndex()).isEqualTo(1);
+		assertThat(second.getEnabled()).isNull();
+		assertThat(second.getPercentage()).isEqualTo(20.0);
+
+		schedule.setCompletedSteps(4);
+		ScheduleStep last = ScheduleStep.due(schedule, START.plusHours(10));
+		assertThat(last.getPercentage()).isEqualTo(50.0);
+		assertThat(last.getNextRunAt()).isNull();
+	}
+
+	@Test
+	void shouldSkipMissedStepsOfRamp() {
+		FlagSchedule schedule = ramp(0, 100, 10);
+		schedule.setCompletedSteps(1);
+
+		ScheduleStep step = ScheduleStep.due(schedule, START.plusHours(7).plusMinutes(30));
+
+		assertThat(step.getIndex()).isEqualTo(7);
+		assertThat(step.getPercentage()).isEqualTo(70.0);
+		assertThat(step.getNextRunAt()).isEqualTo(START.plusHours(8));
+
+		ScheduleStep late = ScheduleStep.due(schedule, START.plusDays(2));
+		assertThat(late.getIndex()).isEqualTo(10);
+		assertThat(late.getNextRunAt()).isNull();
+	}
+
+}
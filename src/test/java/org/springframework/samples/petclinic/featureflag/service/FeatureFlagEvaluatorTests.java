@@ -0,0 +1,89 @@
+package org.springframework.samples.petclinic.featureflag.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.samples.petclinic.featureflag.config.FlagMetricsProperties;
+import org.springframework.samples.petclinic.featureflag.config.UnknownFlagProperties;
+import org.springframework.samples.petclinic.featureflag.dto.FlagEvaluationResponse;
+import org.springframework.samples.petclinic.featureflag.engine.FlagCompiler;
+import org.springframework.samples.petclinic.featureflag.engine.FlagSnapshotRegistry;
+import org.springframework.samples.petclinic.featureflag.exposure.FlagExposureRecorder;
+import org.springframework.samples.petclinic.featureflag.metrics.FlagEvaluationMetrics;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class FeatureFlagEvaluatorTests {
+
+	private final FlagSnapshotRegistry snapshots = mock(FlagSnapshotRegistry.class);
+
+	private final FeatureFlagEvaluator evaluator = new FeatureFlagEvaluator();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(evaluator, "snapshots", snapshots);
+		ReflectionTestUtils.setField(evaluator, "metrics", new FlagEvaluationMetrics(
+				new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class), new FlagMetricsProperties()));
+		ReflectionTestUtils.setField(evaluator, "exposures", mock(FlagExposureRecorder.class));
+		ReflectionTestUtils.setField(evaluator, "unknownFlags", new UnknownFlagReporter(new UnknownFlagProperties()));
+	}
+
+	private static FeatureFlag flag(String flagKey, boolean enabled) {
+		FeatureFlag flag = new FeatureFlag();
+		flag.setFlagKey(flagKey);
+		flag.setEnvironment("production");
+		flag.setEnabled(enabled);
+		flag.setStrategyType(StrategyType.BOOLEAN);
+		flag.setStrategyConfig(Map.of());
+		return flag;
+	}
+
+	private static FlagContext user(String userId) {
+		return FlagContext.builder().userId(userId).environment("production").build();
+	}
+
+	@Test
+	void shouldEvaluateAllFlagsFromOneSnapshot() {
+		// A write lands between two lookups: the batch must not see any of it
+		given(snapshots.snapshot("production")).willReturn(
+				FlagCompiler.snapshot("production", 1, List.of(flag("new_search", true), flag("add_new_pet", true))),
+				FlagCompiler.snapshot("production", 2, List.of(flag("new_search", false), flag("add_new_pet", false))));
+
+		FlagEvaluationResponse explicit = evaluator.evaluateAll(user("george"), List.of("new_search", "add_new_pet"));
+		FlagEvaluationResponse all = evaluator.evaluateAll(user("george"), null);
+
+		assertThat(explicit.getVersion()).isEqualTo(1);
+		assertThat(explicit.getFlags()).containsExactly(Map.entry("new_search", true), Map.entry("add_new_pet", true));
+		assertThat(all.getVersion()).isEqualTo(2);
+		assertThat(all.getFlags()).containsOnly(Map.entry("new_search", false), Map.entry("add_new_pet", false));
+		verify(snapshots, times(2)).snapshot(any());
+	}
+
+	@Test
+	void shouldFallBackToDefaultForPayloadOfAnotherType() {
+		FeatureFlag flag = flag("checkout_button", true);
+		flag.setStrategyType(StrategyType.VARIANT);
+		flag.setStrategyConfig(Map.of("variants", List.of(Map.of("name", "green", "weight", 1, "value", "#2e7d32"))));
+		given(snapshots.snapshot("production")).willReturn(FlagCompiler.snapshot("production", 1, List.of(flag)));
+
+		assertThat(evaluator.evaluateVariant("checkout_button", user("george"), String.class, "#000000"))
+			.isEqualTo("#2e7d32");
+		assertThat(evaluator.evaluateVariant("checkout_button", user("george"), Integer.class, 42)).isEqualTo(42);
+		assertThat(evaluator.evaluateVariant("checkout_buton", user("george"), String.class, "#000000"))
+			.isEqualTo("#000000");
+	}
+
+}
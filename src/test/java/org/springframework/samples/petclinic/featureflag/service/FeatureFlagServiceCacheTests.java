@@ -0,0 +1,148 @@
+package org.springframework.samples.petclinic.featureflag.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.samples.petclinic.featureflag.audit.FlagAuditWriter;
+import org.springframework.samples.petclinic.featureflag.config.FeatureFlagCacheProperties;
+import org.springframework.samples.petclinic.featureflag.engine.CompiledFlag;
+import org.springframework.samples.petclinic.featureflag.engine.FlagCompiler;
+import org.springframework.samples.petclinic.featureflag.engine.FlagSnapshotRegistry;
+import org.springframework.samples.petclinic.featureflag.event.FlagChangeVersions;
+import org.springframework.samples.petclinic.featureflag.exposure.FlagExposureRecorder;
+import org.springframework.samples.petclinic.featureflag.metrics.FlagEvaluationMetrics;
+import org.springframework.samples.petclinic.featureflag.model.FeatureFlag;
+import org.springframework.samples.petclinic.featureflag.model.FlagContext;
+import org.springframework.samples.petclinic.featureflag.model.StrategyType;
+import org.springframework.samples.petclinic.featureflag.repository.FeatureFlagRepository;
+import org.springframework.samples.petclinic.featureflag.repository.FlagAuditRepository;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Evaluations through the caching proxy of {@link FeatureFlagService}: results depend on
+ * the caller and must not be cached, only flag definitions are.
+ */
+@SpringJUnitConfig
+class FeatureFlagServiceCacheTests {
+
+	@Configuration
+	@EnableCaching
+	@Import({ FeatureFlagService.class, FeatureFlagEvaluator.class })
+	static class Config {
+
+		@Bean
+		CacheManager cacheManager() {
+			return new ConcurrentMapCacheManager();
+		}
+
+	}
+
+	@Autowired
+	private FeatureFlagService service;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@MockitoBean
+	private FeatureFlagRepository flagRepository;
+
+	@MockitoBean
+	private FlagAuditRepository auditRepository;
+
+	@MockitoBean
+	private FlagAuditWriter auditWriter;
+
+	@MockitoBean
+	private FlagChangeVersions changeVersions;
+
+	@MockitoBean
+	private FlagSnapshotRegistry snapshots;
+
+	@MockitoBean
+	private FlagEvaluationMetrics metrics;
+
+	@MockitoBean
+	private FlagExposureRecorder exposures;
+
+	@MockitoBean
+	private UnknownFlagReporter unknownFlags;
+
+	private static FeatureFlag flag(StrategyType type, Map<String, Object> config) {
+		FeatureFlag flag = new FeatureFlag();
+		flag.setFlagKey("new_search");
+		flag.setEnvironment("production");
+		flag.setEnabled(true);
+		flag.setStrategyType(type);
+		flag.setStrategyConfig(config);
+		return flag;
+	}
+
+	private static FlagContext user(String userId) {
+		return FlagContext.builder().userId(userId).environment("production").build();
+	}
+
+	@Test
+	void shouldEvaluatePercentageRolloutPerUser() {
+		FeatureFlag flag = flag(StrategyType.PERCENTAGE, Map.of("percentage", 50));
+		given(snapshots.snapshot("production")).willReturn(FlagCompiler.snapshot("production", 1, List.of(flag)));
+		CompiledFlag compiled = FlagCompiler.compile(flag);
+		String enabled = IntStream.range(0, 100)
+			.mapToObj(i -> "user-" + i)
+			.filter(userId -> compiled.evaluate(user(userId)))
+			.findFirst()
+			.orElseThrow();
+		String disabled = IntStream.range(0, 100)
+			.mapToObj(i -> "user-" + i)
+			.filter(userId -> !compiled.evaluate(user(userId)))
+			.findFirst()
+			.orElseThrow();
+
+		assertThat(service.evaluate("new_search", user(enabled))).isTrue();
+		assertThat(service.evaluate("new_search", user(disabled))).isFalse();
+		assertThat(service.evaluate("new_search", user(enabled))).isTrue();
+	}
+
+	@Test
+	void shouldEvaluateWhitelistPerUser() {
+		FeatureFlag flag = flag(StrategyType.WHITELIST, Map.of("whitelist", List.of("george")));
+		given(snapshots.snapshot("production")).willReturn(FlagCompiler.snapshot("production", 1, List.of(flag)));
+
+		assertThat(service.evaluate("new_search", user("george"))).isTrue();
+		assertThat(service.evaluate("new_search", user("betty"))).isFalse();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void shouldOnlyCacheFlagDefinitions() {
+		FeatureFlag flag = flag(StrategyType.WHITELIST, Map.of("whitelist", List.of("george")));
+		given(flagRepository.findByFlagKey("new_search")).willReturn(Optional.of(flag));
+		given(snapshots.snapshot("production")).willReturn(FlagCompiler.snapshot("production", 1, List.of(flag)));
+
+		service.getFlag("new_search");
+		service.evaluate("new_search", user("george"));
+		service.evaluateAll(user("george"), List.of("new_search"));
+
+		assertThat(cacheManager.getCacheNames()).containsExactly(FeatureFlagCacheProperties.FLAG_DEFINITIONS);
+		ConcurrentMap<Object, Object> definitions = (ConcurrentMap<Object, Object>) cacheManager
+			.getCache(FeatureFlagCacheProperties.FLAG_DEFINITIONS)
+			.getNativeCache();
+		assertThat(definitions).containsOnlyKeys("new_search");
+		assertThat(definitions.values()).allSatisfy(value -> assertThat(value).isInstanceOf(FeatureFlag.class));
+	}
+
+}
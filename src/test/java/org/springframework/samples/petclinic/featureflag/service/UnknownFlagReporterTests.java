@@ -0,0 +1,48 @@
+package org.springframework.samples.petclinic.featureflag.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.samples.petclinic.featureflag.config.UnknownFlagProperties;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UnknownFlagReporterTests {
+
+	@Test
+	void shouldWarnOncePerIntervalAndKey() {
+		UnknownFlagProperties properties = new UnknownFlagProperties();
+		properties.setWarnInterval(Duration.ofHours(1));
+		UnknownFlagReporter reporter = new UnknownFlagReporter(properties);
+
+		assertThat(reporter.report("development", "add_new_pte", "false")).isTrue();
+		assertThat(reporter.report("development", "add_new_pte", "false")).isFalse();
+		assertThat(reporter.report("production", "add_new_pte", "false")).isTrue();
+		assertThat(reporter.report("development", "new_serch", "false")).isTrue();
+	}
+
+	@Test
+	void shouldWarnAgainAfterInterval() {
+		UnknownFlagProperties properties = new UnknownFlagProperties();
+		properties.setWarnInterval(Duration.ZERO);
+		UnknownFlagReporter reporter = new UnknownFlagReporter(properties);
+
+		assertThat(reporter.report("development", "add_new_pte", "false")).isTrue();
+		assertThat(reporter.report("development", "add_new_pte", "false")).isTrue();
+	}
+
+	@Test
+	void shouldShareOneLimitBeyondTrackedKeys() {
+		UnknownFlagProperties properties = new UnknownFlagProperties();
+		properties.setWarnInterval(Duration.ofHours(1));
+		properties.setMaxTracked(2);
+		UnknownFlagReporter reporter = new UnknownFlagReporter(properties);
+
+		assertThat(reporter.report("development", "a", "false")).isTrue();
+		assertThat(reporter.report("development", "b", "false")).isTrue();
+		assertThat(reporter.report("development", "c", "false")).isTrue();
+		assertThat(reporter.report("development", "d", "false")).isFalse();
+		assertThat(reporter.report("development", "a", "false")).isFalse();
+	}
+
+}
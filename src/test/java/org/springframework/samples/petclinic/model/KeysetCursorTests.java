@@ -0,0 +1,71 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link KeysetCursor} and {@link KeysetPage}.
+ */
+class KeysetCursorTests {
+
+	@Test
+	void shouldRoundTripThroughToken() {
+		KeysetCursor cursor = new KeysetCursor("O'Brien: Müller", 42);
+
+		assertThat(cursor.encode()).matches("[A-Za-z0-9_-]+");
+		assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+	@Test
+	void shouldIgnoreMalformedToken() {
+		assertThat(KeysetCursor.decode(null)).isNull();
+		assertThat(KeysetCursor.decode("")).isNull();
+		assertThat(KeysetCursor.decode("not base64!")).isNull();
+		assertThat(KeysetCursor.decode("bm8tc2VwYXJhdG9y")).isNull();
+		assertThat(KeysetCursor.decode("eDpEYXZpcw")).isNull();
+	}
+
+	@Test
+	void shouldDetectNextPageFromExtraRow() {
+		KeysetPage<Integer> first = KeysetPage.forward(List.of(1, 2, 3), 2, false);
+		KeysetPage<Integer> last = KeysetPage.forward(List.of(3), 2, true);
+
+		assertThat(first.content()).containsExactly(1, 2);
+		assertThat(first.hasPrevious()).isFalse();
+		assertThat(first.hasNext()).isTrue();
+		assertThat(last.hasPrevious()).isTrue();
+		assertThat(last.hasNext()).isFalse();
+	}
+
+	@Test
+	void shouldRestoreListOrderWhenReadingBackwards() {
+		KeysetPage<Integer> middle = KeysetPage.backward(List.of(4, 3, 2), 2);
+		KeysetPage<Integer> first = KeysetPage.backward(List.of(2, 1), 2);
+
+		assertThat(middle.content()).containsExactly(3, 4);
+		assertThat(middle.hasPrevious()).isTrue();
+		assertThat(middle.hasNext()).isTrue();
+		assertThat(first.content()).containsExactly(1, 2);
+		assertThat(first.hasPrevious()).isFalse();
+	}
+
+}
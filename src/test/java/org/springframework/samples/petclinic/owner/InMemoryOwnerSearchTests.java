@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Tests for {@link InMemoryOwnerSearch}, indexing a few owners of the sample data.
+ */
+class InMemoryOwnerSearchTests {
+
+	private final OwnerRepository owners = mock(OwnerRepository.class);
+
+	private final InMemoryOwnerSearch search = new InMemoryOwnerSearch(this.owners);
+
+	@BeforeEach
+	void index() {
+		this.search.index(owner(1, "George", "Franklin", "Madison", "6085551023", "Leo"));
+		this.search.index(owner(2, "Betty", "Davis", "Sun Prairie", "6085551749", "Basil"));
+		this.search.index(owner(3, "Eduardo", "Rodriquez", "McFarland", "6085558763", "Jewel, Rosy"));
+		this.search.index(owner(4, "Harold", "Davis", "Windsor", "6085553198", "Iggy"));
+		this.search.index(owner(5, "Peter", "McTavish", "Madison", "6085552765", "George"));
+	}
+
+	@Test
+	void shouldFindByLastNamePrefix() {
+		assertThat(ids(this.search.search("dav", page(0)))).containsExactly(2, 4);
+	}
+
+	@Test
+	void shouldFindByFirstNameCityTelephoneAndPetName() {
+		assertThat(ids(this.search.search("Harold", page(0)))).containsExactly(4);
+		assertThat(ids(this.search.search("windsor", page(0)))).containsExactly(4);
+		assertThat(ids(this.search.search("555-8763", page(0)))).containsExactly(3);
+		assertThat(ids(this.search.search("rosy", page(0)))).containsExactly(3);
+	}
+
+	@Test
+	void shouldRequireEveryWordToMatch() {
+		assertThat(ids(this.search.search("davis windsor", page(0)))).containsExactly(4);
+		assertThat(ids(this.search.search("davis madison", page(0)))).isEmpty();
+	}
+
+	@Test
+	void shouldTolerateMisspellings() {
+		assertThat(ids(this.search.search("Frankiln", page(0)))).containsExactly(1);
+		assertThat(ids(this.search.search("Rodrigez", page(0)))).containsExactly(3);
+	}
+
+	@Test
+	void shouldRankLastNameAboveFirstNameAbovePetName() {
+		this.search.index(owner(6, "Jean", "George", "Monona", "6085552654", "Max"));
+
+		assertThat(ids(this.search.search("george", page(0)))).containsExactly(6, 1, 5);
+	}
+
+	@Test
+	void shouldPageResultsByRelevance() {
+		Page<OwnerSummary> first = this.search.search("madison", PageRequest.of(0, 1));
+		Page<OwnerSummary> second = this.search.search("madison", PageRequest.of(1, 1));
+
+		assertThat(first.getTotalElements()).isEqualTo(2);
+		assertThat(ids(first)).containsExactly(1);
+		assertThat(ids(second)).containsExactly(5);
+	}
+
+	@Test
+	void shouldReplaceReindexedOwner() {
+		this.search.index(owner(4, "Harold", "Davies", "Windsor", "6085553198", "Iggy, Otis"));
+
+		assertThat(ids(this.search.search("otis", page(0)))).containsExactly(4);
+		assertThat(ids(this.search.search("davis", page(0)))).containsExactly(2, 4);
+		assertThat(this.search.size()).isEqualTo(5);
+	}
+
+	@Test
+	void shouldReindexSavedOwner() {
+		given(this.owners.findSummaryById(7))
+			.willReturn(Optional.of(owner(7, "Jeff", "Black", "Monona", "6085555387", "Lucky")));
+
+		this.search.onOwnerSaved(new OwnerSavedEvent(7));
+
+		assertThat(ids(this.search.search("lucky", page(0)))).containsExactly(7);
+	}
+
+	@Test
+	void shouldRebuildFromRepository() {
+		given(this.owners.findSummariesByLastNameStartingWith(eq(""), any(Pageable.class)))
+			.willReturn(new PageImpl<>(List.of(owner(8, "Maria", "Escobito", "Madison", "6085557683", "Mulligan"))));
+
+		this.search.rebuild();
+
+		assertThat(ids(this.search.search("mulligan", page(0)))).containsExactly(8);
+	}
+
+	@Test
+	void shouldReturnNothingForBlankQuery() {
+		assertThat(this.search.search(" , ", page(0))).isEmpty();
+	}
+
+	private static OwnerSummary owner(int id, String firstName, String lastName, String city, String telephone,
+			String petNames) {
+		return new OwnerSummary(id, firstName, lastName, "", city, telephone, petNames);
+	}
+
+	private static Pageable page(int page) {
+		return PageRequest.of(page, 5);
+	}
+
+	private static List<Integer> ids(Page<OwnerSummary> page) {
+		return page.getContent().stream().map(OwnerSummary::getId).toList();
+	}
+
+}
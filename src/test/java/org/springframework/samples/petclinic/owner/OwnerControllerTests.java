@@ -21,9 +21,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledInNativeImage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.samples.petclinic.featureflag.security.AdminSession;
+import org.springframework.samples.petclinic.model.KeysetCursor;
+import org.springframework.samples.petclinic.system.TotalCounts;
 import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -40,7 +44,9 @@ import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
@@ -68,6 +74,16 @@ class OwnerControllerTests {
 	@MockitoBean
 	private OwnerRepository owners;
 
+	@MockitoBean
+	private OwnerSearch ownerSearch;
+
+	@MockitoBean
+	private TotalCounts totalCounts;
+
+	// Required by the admin interceptor registered in WebConfig
+	@MockitoBean
+	private AdminSession adminSession;
+
 	private Owner george() {
 		Owner george = new Owner();
 		george.setId(TEST_OWNER_ID);
@@ -87,14 +103,20 @@ class OwnerControllerTests {
 		return george;
 	}
 
+	private OwnerSummary summary(Owner owner) {
+		return new OwnerSummary(owner.getId(), owner.getFirstName(), owner.getLastName(), owner.getAddress(),
+				owner.getCity(), owner.getTelephone(), null);
+	}
+
 	@BeforeEach
 	void setup() {
 
 		Owner george = george();
-		given(this.owners.findByLastNameStartingWith(eq("Franklin"), any(Pageable.class)))
-			.willReturn(new PageImpl<>(List.of(george)));
+		given(this.owners.findSummariesAfter(eq("Franklin"), anyString(), anyInt(), any(Limit.class)))
+			.willReturn(List.of(summary(george)));
 
 		given(this.owners.findById(TEST_OWNER_ID)).willReturn(Optional.of(george));
+		given(this.owners.findWithPetsAndVisitsById(TEST_OWNER_ID)).willReturn(Optional.of(george));
 		Visit visit = new Visit();
 		visit.setDate(LocalDate.now());
 		george.getPet("Max").getVisits().add(visit);
@@ -141,15 +163,27 @@ class OwnerControllerTests {
 
 	@Test
 	void testProcessFindFormSuccess() throws Exception {
-		Page<Owner> tasks = new PageImpl<>(List.of(george(), new Owner()));
-		when(this.owners.findByLastNameStartingWith(anyString(), any(Pageable.class))).thenReturn(tasks);
+		List<OwnerSummary> tasks = List.of(summary(george()), summary(new Owner()));
+		when(this.owners.findSummariesAfter(anyString(), anyString(), anyInt(), any(Limit.class))).thenReturn(tasks);
 		mockMvc.perform(get("/owners?page=1")).andExpect(status().isOk()).andExpect(view().name("owners/ownersList"));
 	}
 
+	@Test
+	void testProcessFindFormNextPage() throws Exception {
+		List<OwnerSummary> tasks = List.of(summary(george()), summary(george()));
+		when(this.owners.findSummariesAfter(eq(""), eq("Davis"), eq(4), any(Limit.class))).thenReturn(tasks);
+		mockMvc.perform(get("/owners").param("after", new KeysetCursor("Davis", 4).encode()).param("page", "2"))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("currentPage", 2))
+			.andExpect(model().attributeExists("previousUrl"))
+			.andExpect(model().attribute("nextUrl", nullValue()))
+			.andExpect(view().name("owners/ownersList"));
+	}
+
 	@Test
 	void testProcessFindFormByLastName() throws Exception {
-		Page<Owner> tasks = new PageImpl<>(List.of(george()));
-		when(this.owners.findByLastNameStartingWith(eq("Franklin"), any(Pageable.class))).thenReturn(tasks);
+		List<OwnerSummary> tasks = List.of(summary(george()));
+		when(this.owners.findSummariesAfter(eq("Franklin"), anyString(), anyInt(), any(Limit.class))).thenReturn(tasks);
 		mockMvc.perform(get("/owners?page=1").param("lastName", "Franklin"))
 			.andExpect(status().is3xxRedirection())
 			.andExpect(view().name("redirect:/owners/" + TEST_OWNER_ID));
@@ -157,8 +191,8 @@ class OwnerControllerTests {
 
 	@Test
 	void testProcessFindFormNoOwnersFound() throws Exception {
-		Page<Owner> tasks = new PageImpl<>(List.of());
-		when(this.owners.findByLastNameStartingWith(eq("Unknown Surname"), any(Pageable.class))).thenReturn(tasks);
+		when(this.owners.findSummariesAfter(eq("Unknown Surname"), anyString(), anyInt(), any(Limit.class)))
+			.thenReturn(List.of());
 		mockMvc.perform(get("/owners?page=1").param("lastName", "Unknown Surname"))
 			.andExpect(status().isOk())
 			.andExpect(model().attributeHasFieldErrors("owner", "lastName"))
@@ -167,6 +201,25 @@ class OwnerControllerTests {
 
 	}
 
+	@Test
+	void testProcessFindFormByQuery() throws Exception {
+		Page<OwnerSummary> tasks = new PageImpl<>(List.of(summary(george()), summary(new Owner())));
+		when(this.ownerSearch.search(eq("madison"), any(Pageable.class))).thenReturn(tasks);
+		mockMvc.perform(get("/owners?page=1").param("q", "madison"))
+			.andExpect(status().isOk())
+			.andExpect(model().attribute("totalItems", 2L))
+			.andExpect(view().name("owners/ownersList"));
+	}
+
+	@Test
+	void testProcessFindFormByQueryNoOwnersFound() throws Exception {
+		when(this.ownerSearch.search(eq("nobody"), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+		mockMvc.perform(get("/owners?page=1").param("q", "nobody"))
+			.andExpect(status().isOk())
+			.andExpect(model().attributeHasErrors("owner"))
+			.andExpect(view().name("owners/findOwners"));
+	}
+
 	@Test
 	void testInitUpdateOwnerForm() throws Exception {
 		mockMvc.perform(get("/owners/{ownerId}/edit", TEST_OWNER_ID))
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace;
+import org.springframework.samples.petclinic.system.TotalCounts;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Pins the fetch plans used by the owner, pet and visit pages: each one must load what
+ * its view renders in a single statement.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+class OwnerFetchPlanTests {
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void clearStatistics() {
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.statistics.clear();
+	}
+
+	@Test
+	void shouldNotLoadPetsWithOwner() {
+		Owner owner = this.owners.findById(6).orElseThrow();
+
+		assertThat(isLoaded(owner, "pets")).isFalse();
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldLoadOwnerWithPetsInOneStatement() {
+		Owner owner = this.owners.findWithPetsById(6).orElseThrow();
+
+		assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("Max", "Samantha");
+		assertThat(owner.getPets()).allSatisfy(pet -> {
+			assertThat(Hibernate.isInitialized(pet.getType())).isTrue();
+			assertThat(isLoaded(pet, "visits")).isFalse();
+		});
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldLoadOwnerWithPetsAndVisitsInOneStatement() {
+		Owner owner = this.owners.findWithPetsAndVisitsById(6).orElseThrow();
+
+		assertThat(owner.getPets()).extracting(Pet::getName).containsExactly("Max", "Samantha");
+		assertThat(owner.getPets()).allSatisfy(pet -> assertThat(pet.getVisits()).hasSize(2));
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldShowOwnerDetailsWithOneStatement() throws Exception {
+		MockMvc mockMvc = MockMvcBuilders
+			.standaloneSetup(new OwnerController(this.owners, mock(OwnerSearch.class), mock(TotalCounts.class)))
+			.build();
+
+		Owner owner = (Owner) mockMvc.perform(get("/owners/{ownerId}", 6))
+			.andReturn()
+			.getModelAndView()
+			.getModel()
+			.get("owner");
+
+		assertThat(isLoaded(owner, "pets")).isTrue();
+		assertThat(owner.getPets()).allSatisfy(pet -> assertThat(isLoaded(pet, "visits")).isTrue());
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldReturnEmptyForUnknownOwner() {
+		assertThat(this.owners.findWithPetsAndVisitsById(-1)).isEmpty();
+	}
+
+	private boolean isLoaded(Object entity, String attribute) {
+		return this.entityManagerFactory.getPersistenceUnitUtil().isLoaded(entity, attribute);
+	}
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.samples.petclinic.owner.Owner;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.OwnersImportedEvent;
+import org.springframework.samples.petclinic.owner.Pet;
+import org.springframework.samples.petclinic.owner.PetTypeRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Integration tests for {@link OwnerImporter}: batches, checkpoints and the error report
+ * against the sample database. Each batch commits on its own, so the tests do not run in
+ * a test transaction and remove what they imported afterwards.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OwnerImporterTests {
+
+	private static final String NODE = "node-1";
+
+	private static final String HEADER = "owner_ref,first_name,last_name,address,city,telephone,pet_name,birth_date,"
+			+ "pet_type,visit_date,visit_description\n";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private PetTypeRepository petTypes;
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@TempDir
+	Path directory;
+
+	private final List<Object> events = new ArrayList<>();
+
+	private final OwnerImportProperties properties = new OwnerImportProperties();
+
+	private ImportJobRepository jobs;
+
+	private OwnerImporter importer;
+
+	private int lastSampleOwnerId;
+
+	@BeforeEach
+	void setUp() {
+		LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+		validator.afterPropertiesSet();
+		this.properties.setBatchSize(2);
+		this.jobs = new ImportJobRepository(this.jdbcTemplate);
+		this.importer = new OwnerImporter(this.jobs, new OwnerImportWriter(this.jdbcTemplate), this.petTypes, validator,
+				this.transactionManager, this.events::add, JsonMapper.shared(), this.properties);
+		this.lastSampleOwnerId = this.jdbcTemplate.queryForObject("SELECT MAX(id) FROM owners", Integer.class);
+	}
+
+	@AfterEach
+	void removeImportedOwners() {
+		this.jdbcTemplate.update("DELETE FROM visits WHERE pet_id IN " + "(SELECT id FROM pets WHERE owner_id > ?)",
+				this.lastSampleOwnerId);
+		this.jdbcTemplate.update("DELETE FROM pets WHERE owner_id > ?", this.lastSampleOwnerId);
+		this.jdbcTemplate.update("DELETE FROM owners WHERE id > ?", this.lastSampleOwnerId);
+	}
+
+	@Test
+	void shouldImportValidOwnersAndReportRejectedLines() throws IOException {
+		long jobId = submit(HEADER + """
+				1,Ada,Importer,1 Main St.,Madison,6085550001,Rex,2019-02-03,Dog,2020-01-01,checkup
+				1,Ada,Importer,1 Main St.,Madison,6085550001,Rex,2019-02-03,Dog,2021-01-01,vaccination
+				1,Ada,Importer,1 Main St.,Madison,6085550001,Tom,2018-05-06,cat,,
+				2,Bob,Importer,2 Main St.,Madison,12345,Nemo,2020-01-01,fish,,
+				3,Cid,Importer,3 Main St.,Madison,6085550003,Spot,2017-07-07,dog,2022-02-02,
+				4,Dee,Importer,4 Main St.,Madison,6085550004,,,,,
+				""");
+
+		this.importer.run(jobId, NODE);
+
+		ImportJob job = this.jobs.findById(jobId).orElseThrow();
+		assertThat(job.status()).isEqualTo(ImportJobStatus.COMPLETED);
+		assertThat(job.ownersImported()).isEqualTo(2);
+		assertThat(job.petsImported()).isEqualTo(2);
+		assertThat(job.visitsImported()).isEqualTo(2);
+		assertThat(job.bytesRead()).isEqualTo(job.fileSize());
+		assertThat(job.linesRead()).isEqualTo(7);
+		assertThat(errors(jobId)).extracting(ImportError::line).containsExactly(5L, 5L, 6L);
+		assertThat(errors(jobId)).extracting(ImportError::message)
+			.anyMatch(message -> message.equals("pet type: unknown type 'fish'"))
+			.anyMatch(message -> message.startsWith("owner telephone:"))
+			.anyMatch(message -> message.startsWith("visit description:"));
+
+		Owner ada = this.owners.findWithPetsAndVisitsById(ownerId("Ada")).orElseThrow();
+		assertThat(ada.getPets()).extracting(Pet::getName).containsExactly("Rex", "Tom");
+		assertThat(ada.getPet("Rex").getType().getName()).isEqualTo("dog");
+		assertThat(ada.getPet("Rex").getVisits()).hasSize(2);
+		assertThat(this.events).hasSize(2)
+			.allSatisfy(event -> assertThat(event).isInstanceOf(OwnersImportedEvent.class));
+	}
+
+	@Test
+	void shouldResumeFailedJobFromCheckpointWithoutImportingTwice() throws IOException {
+		String longName = "x".repeat(31);
+		String content = HEADER + """
+				1,Ada,Importer,1 Main St.,Madison,6085550001,Rex,2019-02-03,dog,,
+				2,Bob,Importer,2 Main St.,Madison,6085550002,Nemo,2020-01-01,cat,,
+				3,Cid,Importer,3 Main St.,Madison,6085550003,%s,2017-07-07,dog,,
+				""".formatted(longName);
+		long jobId = submit(content);
+
+		this.importer.run(jobId, NODE);
+
+		ImportJob failed = this.jobs.findById(jobId).orElseThrow();
+		assertThat(failed.status()).isEqualTo(ImportJobStatus.FAILED);
+		assertThat(failed.ownersImported()).isEqualTo(2);
+		assertThat(failed.linesRead()).isEqualTo(3);
+
+		// Fix the pet name in place, keeping the byte offsets of the checkpoint valid
+		Files.writeString(Path.of(failed.storedFile()), content.replace(longName, "x".repeat(30) + " "));
+		assertThat(this.jobs.requeue(jobId, NODE, Duration.ofMinutes(1))).isTrue();
+		this.importer.run(jobId, NODE);
+
+		ImportJob completed = this.jobs.findById(jobId).orElseThrow();
+		assertThat(completed.status()).isEqualTo(ImportJobStatus.COMPLETED);
+		assertThat(completed.ownersImported()).isEqualTo(3);
+		assertThat(this.owners.countByLastNameStartingWith("Importer")).isEqualTo(3);
+	}
+
+	@Test
+	void shouldStopOnceTooManyLinesAreRejectedEvenWithinTheLastBatch() throws IOException {
+		this.properties.setBatchSize(10);
+		this.properties.setMaxErrors(1);
+		long jobId = submit(HEADER + """
+				1,Ada,Importer,1 Main St.,Madison,1,,,,,
+				2,Bob,Importer,2 Main St.,Madison,2,,,,,
+				3,Cid,Importer,3 Main St.,Madison,6085550003,,,,,
+				""");
+
+		this.importer.run(jobId, NODE);
+
+		ImportJob job = this.jobs.findById(jobId).orElseThrow();
+		assertThat(job.status()).isEqualTo(ImportJobStatus.FAILED);
+		assertThat(job.message()).isEqualTo("Stopped after 2 rejected lines");
+		assertThat(job.errorCount()).isEqualTo(2);
+		assertThat(job.linesRead()).isEqualTo(3);
+		assertThat(this.owners.countByLastNameStartingWith("Importer")).isZero();
+	}
+
+	@Test
+	void shouldRejectLinesLongerThanTheMaximumAndCarryOn() throws IOException {
+		this.properties.setMaxLineLength(DataSize.ofBytes(150));
+		long jobId = submit(HEADER + """
+				1,Ada,Importer,1 Main St.,Madison,6085550001,,,,,
+				2,Bob,Importer,%s,Madison,6085550002,,,,,
+				3,Cid,Importer,3 Main St.,Madison,6085550003,,,,,
+				""".formatted("x".repeat(200)));
+
+		this.importer.run(jobId, NODE);
+
+		ImportJob job = this.jobs.findById(jobId).orElseThrow();
+		assertThat(job.status()).isEqualTo(ImportJobStatus.COMPLETED);
+		assertThat(job.ownersImported()).isEqualTo(2);
+		assertThat(errors(jobId)).containsExactly(new ImportError(3, "line is longer than 150 bytes"));
+	}
+
+	@Test
+	void shouldOnlyInterruptJobsWhoseLeaseExpired() throws IOException {
+		long alive = submit(HEADER);
+		long abandoned = this.jobs.create("owners.csv", "owners.csv", ImportFormat.CSV, 0, "node-2",
+				Duration.ofMinutes(-1));
+
+		this.jobs.interruptAbandoned();
+
+		assertThat(this.jobs.findById(alive).orElseThrow().status()).isEqualTo(ImportJobStatus.QUEUED);
+		assertThat(this.jobs.findById(abandoned).orElseThrow().status()).isEqualTo(ImportJobStatus.INTERRUPTED);
+	}
+
+	@Test
+	void shouldNotRunOrCheckpointJobsLeasedByAnotherNode() throws IOException {
+		long jobId = submit(HEADER + "1,Ada,Importer,1 Main St.,Madison,6085550001,,,,,\n");
+
+		this.importer.run(jobId, "node-2");
+		assertThat(this.jobs.findById(jobId).orElseThrow().status()).isEqualTo(ImportJobStatus.QUEUED);
+
+		assertThat(this.jobs.claim(jobId, NODE, Duration.ofMinutes(1))).isTrue();
+		assertThat(this.jobs.checkpoint(jobId, "node-2", Duration.ofMinutes(1), 10, 1, ImportCounts.NONE, 0)).isFalse();
+		assertThat(this.jobs.checkpoint(jobId, NODE, Duration.ofMinutes(1), 10, 1, ImportCounts.NONE, 0)).isTrue();
+	}
+
+	private long submit(String content) throws IOException {
+		Path file = Files.writeString(this.directory.resolve("owners.csv"), content, StandardCharsets.UTF_8);
+		return this.jobs.create("owners.csv", file.toString(), ImportFormat.CSV, Files.size(file), NODE,
+				Duration.ofMinutes(1));
+	}
+
+	private List<ImportError> errors(long jobId) {
+		List<ImportError> errors = new ArrayList<>();
+		this.jobs.forEachError(jobId, errors::add);
+		return errors;
+	}
+
+	private int ownerId(String firstName) {
+		return this.jdbcTemplate.queryForObject("SELECT id FROM owners WHERE first_name = ? AND last_name = ?",
+				Integer.class, firstName, "Importer");
+	}
+
+}
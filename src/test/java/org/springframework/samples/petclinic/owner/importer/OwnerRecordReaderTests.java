@@ -0,0 +1,176 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.owner.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.samples.petclinic.owner.Pet;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Tests for {@link CsvOwnerReader} and {@link NdjsonOwnerReader}.
+ */
+class OwnerRecordReaderTests {
+
+	private static final String CSV = """
+			owner_ref,first_name,last_name,address,city,telephone,pet_name,birth_date,pet_type,visit_date,visit_description
+			1,George,Franklin,"110 W. Liberty St., Apt ""B""\",Madison,6085551023,Leo,2010-09-07,cat,2013-01-01,rabies shot
+			1,George,Franklin,"110 W. Liberty St., Apt ""B""\",Madison,6085551023,Leo,2010-09-07,cat,2013-01-04,spayed
+			1,George,Franklin,"110 W. Liberty St., Apt ""B""\",Madison,6085551023,Max,2012-09-04,dog,,
+			2,Betty,Davis,638 Cardinal Ave.,Sun Prairie,6085551749,,,,,
+
+			3,Harold,Davis,"563 Friendly St.,Windsor,6085553198,Iggy,2010-11-30,lizard,,
+			4,Peter,McTavish,2387 S. Fair Way,Madison,6085552765,George,not-a-date,snake,,
+			""";
+
+	private static final int MAX_LINE_LENGTH = 300;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void shouldGroupConsecutiveCsvLinesIntoOneOwner() throws IOException {
+		List<ImportedOwner> owners = readAll(write("owners.csv", CSV), ImportFormat.CSV, 0, 0);
+
+		assertThat(owners).hasSize(4);
+		ImportedOwner franklin = owners.get(0);
+		assertThat(franklin.isRejected()).isFalse();
+		assertThat(franklin.firstLine()).isEqualTo(2);
+		assertThat(franklin.lastLine()).isEqualTo(4);
+		assertThat(franklin.owner().getAddress()).isEqualTo("110 W. Liberty St., Apt \"B\"");
+		assertThat(franklin.owner().getPets()).extracting(Pet::getName).containsExactly("Leo", "Max");
+		Pet leo = franklin.owner().getPet("Leo");
+		assertThat(leo.getType().getName()).isEqualTo("cat");
+		assertThat(leo.getVisits()).hasSize(2);
+		assertThat(franklin.lineOf(leo)).isEqualTo(2);
+		assertThat(franklin.lineOf(franklin.owner().getPet("Max"))).isEqualTo(4);
+
+		assertThat(owners.get(1).owner().getLastName()).isEqualTo("Davis");
+		assertThat(owners.get(1).owner().getPets()).isEmpty();
+	}
+
+	@Test
+	void shouldReportMalformedCsvLines() throws IOException {
+		List<ImportedOwner> owners = readAll(write("owners.csv", CSV), ImportFormat.CSV, 0, 0);
+
+		assertThat(owners.get(2).errors()).containsExactly(new ImportError(7, "unterminated quoted field"));
+		assertThat(owners.get(3).errors())
+			.containsExactly(new ImportError(8, "birth_date: 'not-a-date' is not a date (yyyy-MM-dd)"));
+	}
+
+	@Test
+	void shouldResumeCsvAfterCheckpoint() throws IOException {
+		Path file = write("owners.csv", CSV);
+		ImportedOwner franklin = readAll(file, ImportFormat.CSV, 0, 0).get(0);
+
+		List<ImportedOwner> rest = readAll(file, ImportFormat.CSV, franklin.endOffset(), franklin.lastLine());
+
+		assertThat(rest).hasSize(3);
+		assertThat(rest.get(0).owner().getFirstName()).isEqualTo("Betty");
+		assertThat(rest.get(0).firstLine()).isEqualTo(5);
+	}
+
+	@Test
+	void shouldReadOneOwnerPerNdjsonLine() throws IOException {
+		Path file = write("owners.ndjson", """
+				{"firstName": "George", "lastName": "Franklin", "address": "110 W. Liberty St.", "city": "Madison", \
+				"telephone": 6085551023, "pets": [{"name": "Leo", "birthDate": "2010-09-07", "type": "cat", \
+				"visits": [{"date": "2013-01-01", "description": "rabies shot"}]}]}
+
+				{"firstName": "Betty", "lastName": "Davis"
+				["not", "an", "owner"]
+				""");
+
+		List<ImportedOwner> owners = readAll(file, ImportFormat.NDJSON, 0, 0);
+
+		assertThat(owners).hasSize(3);
+		ImportedOwner franklin = owners.get(0);
+		assertThat(franklin.isRejected()).isFalse();
+		assertThat(franklin.owner().getTelephone()).isEqualTo("6085551023");
+		Pet leo = franklin.owner().getPet("Leo");
+		assertThat(leo.getBirthDate()).isEqualTo(LocalDate.of(2010, 9, 7));
+		assertThat(leo.getVisits()).singleElement().satisfies(visit -> {
+			assertThat(visit.getDate()).isEqualTo(LocalDate.of(2013, 1, 1));
+			assertThat(visit.getDescription()).isEqualTo("rabies shot");
+		});
+		assertThat(owners.get(1).errors()).singleElement().satisfies(error -> {
+			assertThat(error.line()).isEqualTo(3);
+			assertThat(error.message()).startsWith("malformed JSON");
+		});
+		assertThat(owners.get(2).errors()).containsExactly(new ImportError(4, "expected a JSON object"));
+
+		List<ImportedOwner> rest = readAll(file, ImportFormat.NDJSON, franklin.endOffset(), franklin.lastLine());
+		assertThat(rest).hasSize(2);
+		assertThat(rest.get(0).firstLine()).isEqualTo(3);
+	}
+
+	@Test
+	void shouldSkipLinesLongerThanTheMaximum() throws IOException {
+		String tooLong = "x".repeat(MAX_LINE_LENGTH);
+		Path csv = write("owners.csv", CSV.replace("563 Friendly St.", tooLong));
+		List<ImportedOwner> owners = readAll(csv, ImportFormat.CSV, 0, 0);
+
+		assertThat(owners).hasSize(4);
+		assertThat(owners.get(2).errors())
+			.containsExactly(new ImportError(7, "line is longer than " + MAX_LINE_LENGTH + " bytes"));
+		assertThat(owners.get(3).firstLine()).isEqualTo(8);
+
+		Path ndjson = write("owners.ndjson", "{\"lastName\": \"" + tooLong + "\"}\n{\"lastName\": \"Davis\"}\n");
+		owners = readAll(ndjson, ImportFormat.NDJSON, 0, 0);
+
+		assertThat(owners).hasSize(2);
+		assertThat(owners.get(0).errors())
+			.containsExactly(new ImportError(1, "line is longer than " + MAX_LINE_LENGTH + " bytes"));
+		assertThat(owners.get(1).owner().getLastName()).isEqualTo("Davis");
+	}
+
+	@Test
+	void shouldTellFormatByExtension() {
+		assertThat(ImportFormat.of(null, "owners.CSV")).isEqualTo(ImportFormat.CSV);
+		assertThat(ImportFormat.of(null, "owners.jsonl")).isEqualTo(ImportFormat.NDJSON);
+		assertThat(ImportFormat.of("ndjson", "owners.txt")).isEqualTo(ImportFormat.NDJSON);
+	}
+
+	private Path write(String name, String content) throws IOException {
+		return Files.writeString(this.directory.resolve(name), content, StandardCharsets.UTF_8);
+	}
+
+	private static List<ImportedOwner> readAll(Path file, ImportFormat format, long offset, long lineNumber)
+			throws IOException {
+		List<ImportedOwner> owners = new ArrayList<>();
+		try (OwnerRecordReader reader = OwnerRecordReader.open(file, format, offset, lineNumber, MAX_LINE_LENGTH,
+				JsonMapper.shared())) {
+			ImportedOwner owner;
+			while ((owner = reader.next()) != null) {
+				owners.add(owner);
+			}
+		}
+		return owners;
+	}
+
+}
@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
@@ -27,10 +28,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
 import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
 import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Limit;
 import org.springframework.samples.petclinic.owner.Owner;
 import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.OwnerSummary;
 import org.springframework.samples.petclinic.owner.Pet;
 import org.springframework.samples.petclinic.owner.PetType;
 import org.springframework.samples.petclinic.owner.PetTypeRepository;
@@ -82,14 +83,12 @@ class ClinicServiceTests {
 	@Autowired
 	protected VetRepository vets;
 
-	private final Pageable pageable = Pageable.unpaged();
-
 	@Test
 	void shouldFindOwnersByLastName() {
-		Page<Owner> owners = this.owners.findByLastNameStartingWith("Davis", pageable);
+		List<OwnerSummary> owners = this.owners.findSummariesAfter("Davis", "", 0, Limit.of(10));
 		assertThat(owners).hasSize(2);
 
-		owners = this.owners.findByLastNameStartingWith("Daviss", pageable);
+		owners = this.owners.findSummariesAfter("Daviss", "", 0, Limit.of(10));
 		assertThat(owners).isEmpty();
 	}
 
@@ -107,8 +106,7 @@ class ClinicServiceTests {
 	@Test
 	@Transactional
 	void shouldInsertOwner() {
-		Page<Owner> owners = this.owners.findByLastNameStartingWith("Schultz", pageable);
-		int found = (int) owners.getTotalElements();
+		long found = this.owners.countByLastNameStartingWith("Schultz");
 
 		Owner owner = new Owner();
 		owner.setFirstName("Sam");
@@ -119,8 +117,7 @@ class ClinicServiceTests {
 		this.owners.save(owner);
 		assertThat(owner.getId()).isNotZero();
 
-		owners = this.owners.findByLastNameStartingWith("Schultz", pageable);
-		assertThat(owners.getTotalElements()).isEqualTo(found + 1);
+		assertThat(this.owners.countByLastNameStartingWith("Schultz")).isEqualTo(found + 1);
 	}
 
 	@Test
@@ -212,6 +209,16 @@ class ClinicServiceTests {
 		assertThat(vet.getSpecialties().get(1).getName()).isEqualTo("surgery");
 	}
 
+	@Test
+	void shouldFindVetsAfterAndBeforeCursor() {
+		List<Vet> next = this.vets.findAfter("Douglas", 3, Limit.of(2));
+		List<Vet> previous = this.vets.findBefore("Douglas", 3, Limit.of(2));
+
+		assertThat(next).extracting(Vet::getLastName).containsExactly("Jenkins", "Leary");
+		assertThat(previous).extracting(Vet::getLastName).containsExactly("Carter");
+		assertThat(this.vets.count()).isEqualTo(6);
+	}
+
 	@Test
 	@Transactional
 	void shouldAddNewVisitForPet() {
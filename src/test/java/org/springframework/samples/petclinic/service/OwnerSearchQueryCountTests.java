@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase.Replace;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.samples.petclinic.owner.OwnerRepository;
+import org.springframework.samples.petclinic.owner.OwnerSummary;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Pins the number of SQL statements the owner list issues per page, so that pets or
+ * visits cannot silently start loading again.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+class OwnerSearchQueryCountTests {
+
+	@Autowired
+	private OwnerRepository owners;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void clearStatistics() {
+		this.statistics = this.entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.statistics.clear();
+	}
+
+	@Test
+	void shouldLoadOwnerListPageWithTwoStatements() {
+		Page<OwnerSummary> page = this.owners.findSummariesByLastNameStartingWith("", PageRequest.of(0, 5));
+
+		assertThat(page.getContent()).hasSize(5);
+		assertThat(page.getTotalElements()).isEqualTo(10);
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(this.statistics.getEntityLoadCount()).isZero();
+		assertThat(this.statistics.getCollectionLoadCount()).isZero();
+	}
+
+	@Test
+	void shouldReadAnyKeysetPageWithOneStatement() {
+		List<OwnerSummary> next = this.owners.findSummariesAfter("", "Davis", 4, Limit.of(6));
+		List<OwnerSummary> previous = this.owners.findSummariesBefore("", "Escobito", 8, Limit.of(3));
+
+		assertThat(next).extracting(OwnerSummary::getLastName)
+			.containsExactly("Escobito", "Estaban", "Franklin", "McTavish", "Rodriquez", "Schroeder");
+		assertThat(previous).extracting(OwnerSummary::getId).containsExactly(4, 2, 6);
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	@Test
+	void shouldAggregatePetNamesInAlphabeticalOrder() {
+		Page<OwnerSummary> page = this.owners.findSummariesByLastNameStartingWith("Coleman", PageRequest.of(0, 5));
+
+		assertThat(page.getContent()).singleElement().satisfies(owner -> {
+			assertThat(owner.getFirstName()).isEqualTo("Jean");
+			assertThat(owner.getCity()).isEqualTo("Monona");
+			assertThat(owner.getPetNames()).isEqualTo("Max, Samantha");
+		});
+		// A single page needs no count query
+		assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shouldMatchOnLastNamePrefix() {
+		Page<OwnerSummary> page = this.owners.findSummariesByLastNameStartingWith("Davis", PageRequest.of(0, 5));
+
+		assertThat(page.getContent()).extracting(OwnerSummary::getPetNames).containsExactly("Basil", "Iggy");
+		assertThat(this.owners.findSummariesByLastNameStartingWith("Daviss", PageRequest.of(0, 5))).isEmpty();
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for {@link CacheConfiguration}
+ */
+class CacheConfigurationTests {
+
+	private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+		.withUserConfiguration(CacheConfiguration.class);
+
+	@Test
+	void shouldCreateBoundedCachesWithStatistics() {
+		this.contextRunner
+			.withPropertyValues("petclinic.cache.specs[vets].maximum-size=100",
+					"petclinic.cache.specs[vets].expire-after-write=1h")
+			.run(context -> {
+				CaffeineCacheManager cacheManager = context.getBean(CaffeineCacheManager.class);
+				CaffeineCache vets = (CaffeineCache) cacheManager.getCache("vets");
+				assertThat(vets).isNotNull();
+				assertThat(vets.getNativeCache().policy().eviction())
+					.hasValueSatisfying(eviction -> assertThat(eviction.getMaximum()).isEqualTo(100));
+				assertThat(vets.getNativeCache().policy().isRecordingStats()).isTrue();
+			});
+	}
+
+	@Test
+	void shouldNotCreateUndeclaredCaches() {
+		this.contextRunner.withPropertyValues("petclinic.cache.specs[vets].maximum-size=100")
+			.run(context -> assertThat(context.getBean(CaffeineCacheManager.class).getCache("owners")).isNull());
+	}
+
+	@Test
+	void shouldRejectRefreshAheadWithoutLoader() {
+		this.contextRunner.withPropertyValues("petclinic.cache.specs[vets].refresh-after-write=1m")
+			.run(context -> assertThat(context).hasFailed());
+	}
+
+}
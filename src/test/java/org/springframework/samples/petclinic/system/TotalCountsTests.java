@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.samples.petclinic.system;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Tests for {@link TotalCounts}.
+ */
+class TotalCountsTests {
+
+	private final PetClinicCacheProperties properties = new PetClinicCacheProperties();
+
+	@Test
+	void shouldCountOncePerName() {
+		TotalCounts counts = totalCounts();
+		AtomicLong queries = new AtomicLong();
+
+		assertThat(counts.get("owners:", () -> queries.incrementAndGet() * 10)).isEqualTo(10);
+		assertThat(counts.get("owners:", () -> queries.incrementAndGet() * 10)).isEqualTo(10);
+		assertThat(counts.get("owners:Dav", () -> 2)).isEqualTo(2);
+		assertThat(queries).hasValue(1);
+	}
+
+	@Test
+	void shouldServeStaleCountWhileRefreshing() throws InterruptedException {
+		this.properties.setCounts(new CacheSpec(10, null, Duration.ofMillis(1)));
+		TotalCounts counts = totalCounts();
+		AtomicLong rows = new AtomicLong(5);
+		CountDownLatch slowQuery = new CountDownLatch(1);
+		LongSupplier counter = () -> {
+			if (rows.get() > 5) {
+				awaitUninterruptibly(slowQuery);
+			}
+			return rows.get();
+		};
+
+		assertThat(counts.get("vets", counter)).isEqualTo(5);
+		rows.set(6);
+		Thread.sleep(10);
+
+		// the read that starts the refresh and reads during it get the old count
+		assertThat(counts.get("vets", counter)).isEqualTo(5);
+		assertThat(counts.get("vets", counter)).isEqualTo(5);
+
+		slowQuery.countDown();
+		long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+		while (counts.get("vets", counter) != 6 && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(counts.get("vets", counter)).isEqualTo(6);
+	}
+
+	private static void awaitUninterruptibly(CountDownLatch latch) {
+		try {
+			latch.await();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private TotalCounts totalCounts() {
+		return new TotalCounts(this.properties, new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+	}
+
+}